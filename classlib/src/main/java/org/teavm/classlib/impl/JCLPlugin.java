@@ -29,6 +29,7 @@ import org.teavm.classlib.impl.currency.CurrencyHelper;
 import org.teavm.classlib.impl.lambda.LambdaMetafactorySubstitutor;
 import org.teavm.classlib.impl.record.ObjectMethodsSubstitutor;
 import org.teavm.classlib.impl.reflection.ReflectionTransformer;
+import org.teavm.classlib.impl.regex.ConstantPatternTransformer;
 import org.teavm.classlib.impl.string.DefaultStringTransformer;
 import org.teavm.classlib.impl.string.JSStringConstructorGenerator;
 import org.teavm.classlib.impl.string.JSStringInjector;
@@ -158,6 +159,7 @@ public class JCLPlugin implements TeaVMPlugin {
 
         host.add(new NumericClassTransformer());
         host.add(new SystemClassTransformer());
+        host.add(new ConstantPatternTransformer());
 
         if (!isBootstrap()) {
             List<ReflectionSupplier> reflectionSuppliers = new ArrayList<>();
@@ -0,0 +1,410 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.impl.regex;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.teavm.common.DisjointSet;
+import org.teavm.model.AccessLevel;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.CallLocation;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ClassHolderTransformer;
+import org.teavm.model.ClassHolderTransformerContext;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.FieldHolder;
+import org.teavm.model.Instruction;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.ValueType;
+import org.teavm.model.Variable;
+import org.teavm.model.emit.ProgramEmitter;
+import org.teavm.model.instructions.AssignInstruction;
+import org.teavm.model.instructions.IntegerConstantInstruction;
+import org.teavm.model.instructions.InvocationType;
+import org.teavm.model.instructions.InvokeInstruction;
+import org.teavm.model.instructions.StringConstantInstruction;
+import org.teavm.model.util.DefinitionExtractor;
+
+/**
+ * <p>Finds regular expressions that are known at compile time and makes them compiled only once.</p>
+ *
+ * <p>Calls to {@code Pattern.compile}, {@code Pattern.matches} and to regex methods of {@code String}
+ * ({@code matches}, {@code split}, {@code replaceAll}, {@code replaceFirst}) with a constant expression
+ * are replaced by calls to the corresponding methods of a pattern, which is taken from a static field
+ * of the enclosing class. The field is initialized on first use, so a pattern is never parsed more than once.
+ * Expressions are validated at build time, invalid ones are reported as warnings and left intact, so that they
+ * throw {@link PatternSyntaxException} at run time as usual. Single-character separators passed to
+ * {@code String.split} are left intact too, since {@code split} handles them without regular expressions.</p>
+ */
+public class ConstantPatternTransformer implements ClassHolderTransformer {
+    private static final ValueType PATTERN_TYPE = ValueType.parse(Pattern.class);
+    private static final MethodReference COMPILE = new MethodReference(Pattern.class, "compile",
+            String.class, Pattern.class);
+    private static final MethodReference COMPILE_WITH_FLAGS = new MethodReference(Pattern.class, "compile",
+            String.class, int.class, Pattern.class);
+    private static final MethodReference PATTERN_MATCHES = new MethodReference(Pattern.class, "matches",
+            String.class, CharSequence.class, boolean.class);
+    private static final MethodReference STRING_MATCHES = new MethodReference(String.class, "matches",
+            String.class, boolean.class);
+    private static final MethodReference STRING_SPLIT = new MethodReference(String.class, "split",
+            String.class, String[].class);
+    private static final MethodReference STRING_SPLIT_WITH_LIMIT = new MethodReference(String.class, "split",
+            String.class, int.class, String[].class);
+    private static final MethodReference STRING_REPLACE_ALL = new MethodReference(String.class, "replaceAll",
+            String.class, String.class, String.class);
+    private static final MethodReference STRING_REPLACE_FIRST = new MethodReference(String.class, "replaceFirst",
+            String.class, String.class, String.class);
+    private static final MethodReference SPLIT = new MethodReference(Pattern.class, "split",
+            CharSequence.class, String[].class);
+    private static final MethodReference SPLIT_WITH_LIMIT = new MethodReference(Pattern.class, "split",
+            CharSequence.class, int.class, String[].class);
+    private static final MethodReference MATCHER = new MethodReference(Pattern.class, "matcher",
+            CharSequence.class, Matcher.class);
+    private static final MethodReference MATCHES = new MethodReference(Matcher.class, "matches", boolean.class);
+    private static final MethodReference REPLACE_ALL = new MethodReference(Matcher.class, "replaceAll",
+            String.class, String.class);
+    private static final MethodReference REPLACE_FIRST = new MethodReference(Matcher.class, "replaceFirst",
+            String.class, String.class);
+
+    private ClassHolder cls;
+    private ClassHolderTransformerContext context;
+    private Map<PatternKey, MethodReference> patternGetters = new HashMap<>();
+    private DisjointSet varSet;
+    private Object[] constants;
+
+    @Override
+    public void transformClass(ClassHolder cls, ClassHolderTransformerContext context) {
+        if (cls.hasModifier(ElementModifier.INTERFACE) || cls.getName().equals(Pattern.class.getName())) {
+            return;
+        }
+        this.cls = cls;
+        this.context = context;
+        try {
+            for (var method : cls.getMethods().toArray(new MethodHolder[0])) {
+                if (method.getProgram() != null) {
+                    transformProgram(method, method.getProgram());
+                }
+            }
+        } finally {
+            this.cls = null;
+            this.context = null;
+            patternGetters.clear();
+        }
+    }
+
+    private void transformProgram(MethodHolder method, Program program) {
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Instruction instruction : block) {
+                if (!(instruction instanceof InvokeInstruction)) {
+                    continue;
+                }
+                var invoke = (InvokeInstruction) instruction;
+                var target = invoke.getMethod();
+                if (target.equals(COMPILE) || target.equals(COMPILE_WITH_FLAGS)) {
+                    transformCompile(method, invoke);
+                } else if (target.equals(PATTERN_MATCHES)) {
+                    transformStaticMatches(method, invoke);
+                } else if (target.getClassName().equals(String.class.getName())) {
+                    transformStringMethod(method, invoke);
+                }
+            }
+        }
+        varSet = null;
+        constants = null;
+    }
+
+    private void transformCompile(MethodHolder method, InvokeInstruction invoke) {
+        var args = invoke.getArguments();
+        var getter = getPattern(method, invoke, args.get(0), args.size() > 1 ? args.get(1) : null);
+        if (getter == null) {
+            return;
+        }
+        invoke.setMethod(getter);
+        invoke.setArguments();
+    }
+
+    private void transformStaticMatches(MethodHolder method, InvokeInstruction invoke) {
+        var getter = getPattern(method, invoke, invoke.getArguments().get(0), null);
+        if (getter == null) {
+            return;
+        }
+        var input = invoke.getArguments().get(1);
+        var matcher = createMatcher(invoke, getter, input);
+        replaceWithVirtualCall(invoke, MATCHES, matcher);
+    }
+
+    private void transformStringMethod(MethodHolder method, InvokeInstruction invoke) {
+        var target = invoke.getMethod();
+        MethodReference replacement;
+        boolean usesMatcher;
+        if (target.equals(STRING_MATCHES)) {
+            replacement = MATCHES;
+            usesMatcher = true;
+        } else if (target.equals(STRING_REPLACE_ALL)) {
+            replacement = REPLACE_ALL;
+            usesMatcher = true;
+        } else if (target.equals(STRING_REPLACE_FIRST)) {
+            replacement = REPLACE_FIRST;
+            usesMatcher = true;
+        } else if (target.equals(STRING_SPLIT)) {
+            replacement = SPLIT;
+            usesMatcher = false;
+        } else if (target.equals(STRING_SPLIT_WITH_LIMIT)) {
+            replacement = SPLIT_WITH_LIMIT;
+            usesMatcher = false;
+        } else {
+            return;
+        }
+
+        var args = invoke.getArguments();
+        if (!usesMatcher && isLiteralSeparator(method, invoke, args.get(0))) {
+            // String.split handles single-character separators without regular expressions
+            return;
+        }
+        var getter = getPattern(method, invoke, args.get(0), null);
+        if (getter == null) {
+            return;
+        }
+        var string = invoke.getInstance();
+        if (usesMatcher) {
+            var matcher = createMatcher(invoke, getter, string);
+            var newArgs = args.subList(1, args.size()).toArray(new Variable[0]);
+            replaceWithVirtualCall(invoke, replacement, matcher, newArgs);
+        } else {
+            var pattern = createGetterCall(invoke, getter);
+            var newArgs = new Variable[args.size()];
+            newArgs[0] = string;
+            for (var i = 1; i < args.size(); ++i) {
+                newArgs[i] = args.get(i);
+            }
+            replaceWithVirtualCall(invoke, replacement, pattern, newArgs);
+        }
+    }
+
+    private Variable createGetterCall(InvokeInstruction invoke, MethodReference getter) {
+        var getPattern = new InvokeInstruction();
+        getPattern.setType(InvocationType.SPECIAL);
+        getPattern.setMethod(getter);
+        getPattern.setReceiver(invoke.getProgram().createVariable());
+        getPattern.setLocation(invoke.getLocation());
+        invoke.insertPrevious(getPattern);
+        return getPattern.getReceiver();
+    }
+
+    private Variable createMatcher(InvokeInstruction invoke, MethodReference getter, Variable input) {
+        var pattern = createGetterCall(invoke, getter);
+        var createMatcher = new InvokeInstruction();
+        createMatcher.setType(InvocationType.VIRTUAL);
+        createMatcher.setMethod(MATCHER);
+        createMatcher.setInstance(pattern);
+        createMatcher.setArguments(input);
+        createMatcher.setReceiver(invoke.getProgram().createVariable());
+        createMatcher.setLocation(invoke.getLocation());
+        invoke.insertPrevious(createMatcher);
+        return createMatcher.getReceiver();
+    }
+
+    private void replaceWithVirtualCall(InvokeInstruction invoke, MethodReference method, Variable instance,
+            Variable... args) {
+        invoke.setType(InvocationType.VIRTUAL);
+        invoke.setMethod(method);
+        invoke.setInstance(instance);
+        invoke.setArguments(args);
+    }
+
+    private boolean isLiteralSeparator(MethodHolder method, InvokeInstruction invoke, Variable regexVar) {
+        prepare(method, invoke.getProgram());
+        var regex = constants[varSet.find(regexVar.getIndex())];
+        if (!(regex instanceof String)) {
+            return false;
+        }
+        var string = (String) regex;
+        char c;
+        if (string.length() == 1) {
+            c = string.charAt(0);
+            if (".$|()[{^?*+\\".indexOf(c) >= 0) {
+                return false;
+            }
+        } else if (string.length() == 2 && string.charAt(0) == '\\') {
+            c = string.charAt(1);
+            if (c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z') {
+                return false;
+            }
+        } else {
+            return false;
+        }
+        return !Character.isSurrogate(c);
+    }
+
+    private MethodReference getPattern(MethodHolder method, InvokeInstruction invoke, Variable regexVar,
+            Variable flagsVar) {
+        prepare(method, invoke.getProgram());
+        var regex = constants[varSet.find(regexVar.getIndex())];
+        if (!(regex instanceof String)) {
+            return null;
+        }
+        var flags = 0;
+        if (flagsVar != null) {
+            var flagsConstant = constants[varSet.find(flagsVar.getIndex())];
+            if (!(flagsConstant instanceof Integer)) {
+                return null;
+            }
+            flags = (Integer) flagsConstant;
+        }
+
+        var key = new PatternKey((String) regex, flags);
+        var getter = patternGetters.get(key);
+        if (getter == null) {
+            try {
+                Pattern.compile(key.regex, key.flags);
+            } catch (PatternSyntaxException e) {
+                context.getDiagnostics().warning(new CallLocation(method.getReference(), invoke.getLocation()),
+                        "Invalid regular expression '" + key.regex + "': " + e.getDescription());
+                return null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            getter = createGetter(key, patternGetters.size());
+            patternGetters.put(key, getter);
+        }
+        return getter;
+    }
+
+    private MethodReference createGetter(PatternKey key, int index) {
+        var field = new FieldHolder("$pattern" + index);
+        field.setType(PATTERN_TYPE);
+        field.setLevel(AccessLevel.PRIVATE);
+        field.getModifiers().add(ElementModifier.STATIC);
+        cls.addField(field);
+
+        var getter = new MethodHolder("$pattern" + index, PATTERN_TYPE);
+        getter.setLevel(AccessLevel.PRIVATE);
+        getter.getModifiers().add(ElementModifier.STATIC);
+        var pe = ProgramEmitter.create(getter, context.getHierarchy());
+        var cached = pe.getField(field.getReference(), PATTERN_TYPE);
+        pe.when(cached.isNotNull()).thenDo(cached::returnValue);
+        var pattern = pe.invoke(COMPILE_WITH_FLAGS, pe.constant(key.regex), pe.constant(key.flags));
+        pe.setField(field.getReference(), pattern);
+        pattern.returnValue();
+        cls.addMethod(getter);
+
+        return getter.getReference();
+    }
+
+    private void prepare(MethodHolder method, Program program) {
+        if (varSet != null) {
+            return;
+        }
+        varSet = new DisjointSet();
+        for (var i = 0; i < program.variableCount(); i++) {
+            varSet.create();
+        }
+        var values = new Object[program.variableCount()];
+        var ambiguous = new boolean[program.variableCount()];
+        for (var i = 0; i <= method.parameterCount() && i < ambiguous.length; ++i) {
+            ambiguous[i] = true;
+        }
+
+        var defExtractor = new DefinitionExtractor();
+        for (var block : program.getBasicBlocks()) {
+            if (block.getExceptionVariable() != null) {
+                ambiguous[block.getExceptionVariable().getIndex()] = true;
+            }
+            for (var phi : block.getPhis()) {
+                ambiguous[phi.getReceiver().getIndex()] = true;
+            }
+            for (var instruction : block) {
+                if (instruction instanceof StringConstantInstruction) {
+                    var constant = (StringConstantInstruction) instruction;
+                    setValue(values, ambiguous, constant.getReceiver(), constant.getConstant());
+                } else if (instruction instanceof IntegerConstantInstruction) {
+                    var constant = (IntegerConstantInstruction) instruction;
+                    setValue(values, ambiguous, constant.getReceiver(), constant.getConstant());
+                } else if (instruction instanceof AssignInstruction) {
+                    var assign = (AssignInstruction) instruction;
+                    varSet.union(assign.getAssignee().getIndex(), assign.getReceiver().getIndex());
+                } else {
+                    instruction.acceptVisitor(defExtractor);
+                    for (var definedVar : defExtractor.getDefinedVariables()) {
+                        ambiguous[definedVar.getIndex()] = true;
+                    }
+                }
+            }
+        }
+
+        // Variables connected by assignments share value, which is known only if all of them agree
+        var classValues = new Object[varSet.size()];
+        var classAmbiguous = new boolean[varSet.size()];
+        for (var i = 0; i < values.length; ++i) {
+            var varClass = varSet.find(i);
+            if (ambiguous[i]) {
+                classAmbiguous[varClass] = true;
+            } else if (values[i] != null) {
+                if (classValues[varClass] != null && !classValues[varClass].equals(values[i])) {
+                    classAmbiguous[varClass] = true;
+                }
+                classValues[varClass] = values[i];
+            }
+        }
+        constants = new Object[varSet.size()];
+        for (var i = 0; i < classValues.length; ++i) {
+            if (!classAmbiguous[i]) {
+                constants[i] = classValues[i];
+            }
+        }
+    }
+
+    private static void setValue(Object[] values, boolean[] ambiguous, Variable variable, Object value) {
+        var index = variable.getIndex();
+        if (values[index] != null && !values[index].equals(value)) {
+            ambiguous[index] = true;
+        }
+        values[index] = value;
+    }
+
+    private static final class PatternKey {
+        final String regex;
+        final int flags;
+
+        PatternKey(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PatternKey)) {
+                return false;
+            }
+            var that = (PatternKey) o;
+            return flags == that.flags && regex.equals(that.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(regex, flags);
+        }
+    }
+}
@@ -44,6 +44,15 @@ public class JSStringInjector implements Injector, Function<ProviderContext, Inj
             case "stripJS":
             case "stripLeadingJS":
             case "stripTrailingJS":
+            case "initWithNativeStringJS":
+            case "decodeUTF8JS":
+            case "encodeUTF8JS":
+            case "startsWithJS":
+            case "endsWithJS":
+            case "indexOfJS":
+            case "lastIndexOfJS":
+            case "codePointToStringJS":
+            case "replaceJS":
                 return this;
         }
         return null;
@@ -100,6 +109,33 @@ public class JSStringInjector implements Injector, Function<ProviderContext, Inj
             case "stripTrailingJS":
                 stripTrailingJS(context);
                 break;
+            case "initWithNativeStringJS":
+                initWithNativeStringJS(context);
+                break;
+            case "decodeUTF8JS":
+                decodeUTF8JS(context);
+                break;
+            case "encodeUTF8JS":
+                encodeUTF8JS(context);
+                break;
+            case "startsWithJS":
+                startsWithJS(context);
+                break;
+            case "endsWithJS":
+                endsWithJS(context);
+                break;
+            case "indexOfJS":
+                indexOfJS(context);
+                break;
+            case "lastIndexOfJS":
+                lastIndexOfJS(context);
+                break;
+            case "codePointToStringJS":
+                codePointToStringJS(context);
+                break;
+            case "replaceJS":
+                replaceJS(context);
+                break;
         }
     }
 
@@ -254,4 +290,84 @@ public class JSStringInjector implements Injector, Function<ProviderContext, Inj
         context.writeExpr(context.getArgument(0));
         writer.append(".trimEnd()");
     }
+
+    private void initWithNativeStringJS(InjectorContext context) {
+        var writer = context.getWriter();
+        context.writeExpr(context.getArgument(0));
+        writer.append(".").appendField(NATIVE_FIELD).ws().append("=").ws();
+        context.writeExpr(context.getArgument(1));
+    }
+
+    private void decodeUTF8JS(InjectorContext context) {
+        var writer = context.getWriter();
+        writer.appendFunction("$rt_utf8ToString").append("(");
+        context.writeExpr(context.getArgument(0));
+        writer.append(".data,").ws();
+        context.writeExpr(context.getArgument(1));
+        writer.append(",").ws();
+        context.writeExpr(context.getArgument(2));
+        writer.append(")");
+    }
+
+    private void encodeUTF8JS(InjectorContext context) {
+        var writer = context.getWriter();
+        writer.appendFunction("$rt_stringToUtf8").append("(");
+        context.writeExpr(context.getArgument(0));
+        writer.append(")");
+    }
+
+    private void startsWithJS(InjectorContext context) {
+        var writer = context.getWriter();
+        context.writeExpr(context.getArgument(0));
+        writer.append(".startsWith(");
+        context.writeExpr(context.getArgument(1));
+        writer.append(",").ws();
+        context.writeExpr(context.getArgument(2));
+        writer.append(")");
+    }
+
+    private void endsWithJS(InjectorContext context) {
+        var writer = context.getWriter();
+        context.writeExpr(context.getArgument(0));
+        writer.append(".endsWith(");
+        context.writeExpr(context.getArgument(1));
+        writer.append(")");
+    }
+
+    private void indexOfJS(InjectorContext context) {
+        var writer = context.getWriter();
+        context.writeExpr(context.getArgument(0));
+        writer.append(".indexOf(");
+        context.writeExpr(context.getArgument(1));
+        writer.append(",").ws();
+        context.writeExpr(context.getArgument(2));
+        writer.append(")");
+    }
+
+    private void lastIndexOfJS(InjectorContext context) {
+        var writer = context.getWriter();
+        context.writeExpr(context.getArgument(0));
+        writer.append(".lastIndexOf(");
+        context.writeExpr(context.getArgument(1));
+        writer.append(",").ws();
+        context.writeExpr(context.getArgument(2));
+        writer.append(")");
+    }
+
+    private void codePointToStringJS(InjectorContext context) {
+        var writer = context.getWriter();
+        writer.appendFunction("$rt_codePointToString").append("(");
+        context.writeExpr(context.getArgument(0));
+        writer.append(")");
+    }
+
+    private void replaceJS(InjectorContext context) {
+        var writer = context.getWriter();
+        context.writeExpr(context.getArgument(0));
+        writer.append(".split(");
+        context.writeExpr(context.getArgument(1));
+        writer.append(").join(");
+        context.writeExpr(context.getArgument(2));
+        writer.append(")");
+    }
 }
@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.impl.unicode;
+
+/**
+ * Three-stage table of character classes. Code point is split into group number, block number within group
+ * and offset within block. {@link #groupIndex} refers to a group of {@link #GROUP_SIZE} block numbers
+ * in {@link #groups}, which in turn refer to blocks of {@link #BLOCK_SIZE} classes in {@link #blocks}.
+ * Identical groups and identical blocks are shared. Code points past the end of the table are unassigned.
+ */
+public class CharClassTable {
+    public static final int BLOCK_SHIFT = 5;
+    public static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    public static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    public static final int GROUP_SHIFT = 7;
+    public static final int GROUP_SIZE = 1 << GROUP_SHIFT;
+    public static final int GROUP_MASK = GROUP_SIZE - 1;
+
+    public final char[] groupIndex;
+    public final char[] groups;
+    public final byte[] blocks;
+
+    public CharClassTable(char[] groupIndex, char[] groups, byte[] blocks) {
+        this.groupIndex = groupIndex;
+        this.groups = groups;
+        this.blocks = blocks;
+    }
+}
@@ -15,12 +15,24 @@
  */
 package org.teavm.classlib.impl.unicode;
 
+/**
+ * Case mapping table. Mappings of BMP characters are stored in a two-stage table: {@link #blockIndex}
+ * refers to a block of {@link #BLOCK_SIZE} differences between mapped and original code point
+ * in {@link #blocks}, identical blocks are shared. Other code points are looked up in
+ * {@link #binarySearchTable}.
+ */
 public class CharMapping {
+    public static final int BLOCK_SHIFT = 6;
+    public static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    public static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
     public final int[] binarySearchTable;
-    public final int[] fastTable;
+    public final char[] blockIndex;
+    public final int[] blocks;
 
-    public CharMapping(int[] binarySearchTable, int[] fastTable) {
+    public CharMapping(int[] binarySearchTable, char[] blockIndex, int[] blocks) {
         this.binarySearchTable = binarySearchTable;
-        this.fastTable = fastTable;
+        this.blockIndex = blockIndex;
+        this.blocks = blocks;
     }
 }
@@ -15,7 +15,11 @@
  */
 package org.teavm.classlib.impl.unicode;
 
+import java.nio.IntBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import org.teavm.classlib.impl.Base46;
 import org.teavm.classlib.impl.CharFlow;
 
@@ -31,18 +35,6 @@ public final class UnicodeHelper {
         return digit <= '9' ? digit - '0' : digit - 'A' + 10;
     }
 
-    public static class Range {
-        public final int start;
-        public final int end;
-        public final byte[] data;
-
-        public Range(int start, int end, byte[] data) {
-            this.start = start;
-            this.end = end;
-            this.data = data;
-        }
-    }
-
     public static String encodeIntPairsDiff(int[] data) {
         StringBuilder sb = new StringBuilder();
         Base46.encodeUnsigned(sb, data.length / 2);
@@ -127,23 +119,155 @@ public final class UnicodeHelper {
     }
 
     public static CharMapping createCharMapping(int[] data) {
-        var result = new int[65536];
-        var last = 0;
-        var lastValue = 0;
-        for (var i = 0; i < data.length; i += 2) {
-            var key = data[i];
-            var value = data[i + 1];
-            if (key >= result.length) {
-                if (key == last) {
-                    break;
+        var blockIndex = new char[65536 >> CharMapping.BLOCK_SHIFT];
+        var blocks = new int[CharMapping.BLOCK_SIZE * 16];
+        var blockCount = 0;
+        var block = new int[CharMapping.BLOCK_SIZE];
+        var index = 0;
+        var value = 0;
+        for (var i = 0; i < blockIndex.length; ++i) {
+            var codePoint = i << CharMapping.BLOCK_SHIFT;
+            for (var j = 0; j < block.length; ++j) {
+                while (index < data.length && data[index] <= codePoint) {
+                    value = data[index + 1];
+                    index += 2;
                 }
-                key = result.length;
+                block[j] = value;
+                codePoint++;
             }
-            Arrays.fill(result, last, key, lastValue);
-            last = key;
-            lastValue = value;
+            int id;
+            if (i > 0 && blockEquals(blocks, blockIndex[i - 1], block)) {
+                id = blockIndex[i - 1];
+            } else {
+                id = findBlock(blocks, blockCount, block);
+            }
+            if (id < 0) {
+                if ((blockCount + 1) * block.length > blocks.length) {
+                    blocks = Arrays.copyOf(blocks, blocks.length * 2);
+                }
+                System.arraycopy(block, 0, blocks, blockCount * block.length, block.length);
+                id = blockCount++;
+            }
+            blockIndex[i] = (char) id;
+        }
+        return new CharMapping(data, blockIndex, Arrays.copyOf(blocks, blockCount * block.length));
+    }
+
+    private static int findBlock(int[] blocks, int blockCount, int[] block) {
+        for (var i = 0; i < blockCount; ++i) {
+            if (blockEquals(blocks, i, block)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean blockEquals(int[] blocks, int id, int[] block) {
+        var offset = id * block.length;
+        return Arrays.equals(blocks, offset, offset + block.length, block, 0, block.length);
+    }
+
+    public static String encodeClassTable(byte[] classes) {
+        var values = new int[classes.length];
+        for (var i = 0; i < classes.length; ++i) {
+            values[i] = classes[i];
+        }
+        var uniqueBlocks = new ArrayList<int[]>();
+        var blockIds = splitIntoBlocks(values, CharClassTable.BLOCK_SHIFT, uniqueBlocks);
+        var uniqueGroups = new ArrayList<int[]>();
+        var groupIds = splitIntoBlocks(blockIds, CharClassTable.GROUP_SHIFT, uniqueGroups);
+
+        var sb = new StringBuilder();
+        Base46.encodeUnsigned(sb, groupIds.length);
+        Base46.encodeUnsigned(sb, uniqueGroups.size());
+        Base46.encodeUnsigned(sb, uniqueBlocks.size());
+        encodeIds(sb, groupIds);
+        encodeIds(sb, concat(uniqueGroups, CharClassTable.GROUP_SIZE));
+
+        var blocks = concat(uniqueBlocks, CharClassTable.BLOCK_SIZE);
+        var blockBytes = new byte[blocks.length];
+        for (var i = 0; i < blocks.length; ++i) {
+            blockBytes[i] = (byte) blocks[i];
+        }
+        sb.append(compressRle(blockBytes));
+        return sb.toString();
+    }
+
+    private static int[] splitIntoBlocks(int[] data, int shift, List<int[]> uniqueBlocks) {
+        var blockCount = (data.length + (1 << shift) - 1) >> shift;
+        var blockIds = new int[blockCount];
+        var idsByContent = new HashMap<IntBuffer, Integer>();
+        for (var i = 0; i < blockCount; ++i) {
+            var block = Arrays.copyOfRange(data, i << shift, (i + 1) << shift);
+            var id = idsByContent.get(IntBuffer.wrap(block));
+            if (id == null) {
+                id = uniqueBlocks.size();
+                idsByContent.put(IntBuffer.wrap(block), id);
+                uniqueBlocks.add(block);
+            }
+            blockIds[i] = id;
+        }
+        return blockIds;
+    }
+
+    private static int[] concat(List<int[]> blocks, int blockSize) {
+        var result = new int[blocks.size() * blockSize];
+        for (var i = 0; i < blocks.size(); ++i) {
+            System.arraycopy(blocks.get(i), 0, result, i * blockSize, blockSize);
         }
-        return new CharMapping(data, result);
+        return result;
+    }
+
+    private static void encodeIds(StringBuilder sb, int[] ids) {
+        var nextNewId = 0;
+        for (var i = 0; i < ids.length;) {
+            var id = ids[i];
+            var count = 1;
+            while (i + count < ids.length && ids[i + count] == id) {
+                ++count;
+            }
+            i += count;
+            int code;
+            if (id == nextNewId) {
+                code = 0;
+                ++nextNewId;
+            } else {
+                code = id + 1;
+            }
+            if (count == 1) {
+                Base46.encodeUnsigned(sb, code * 2);
+            } else {
+                Base46.encodeUnsigned(sb, code * 2 + 1);
+                Base46.encodeUnsigned(sb, count - 2);
+            }
+        }
+    }
+
+    public static CharClassTable decodeClassTable(String text) {
+        var flow = new CharFlow(text.toCharArray());
+        var groupCount = Base46.decodeUnsigned(flow);
+        var uniqueGroupCount = Base46.decodeUnsigned(flow);
+        var uniqueBlockCount = Base46.decodeUnsigned(flow);
+        var groupIndex = decodeIds(flow, groupCount);
+        var groups = decodeIds(flow, uniqueGroupCount << CharClassTable.GROUP_SHIFT);
+        var blocks = new byte[uniqueBlockCount << CharClassTable.BLOCK_SHIFT];
+        extractRle(flow, blocks);
+        return new CharClassTable(groupIndex, groups, blocks);
+    }
+
+    private static char[] decodeIds(CharFlow flow, int length) {
+        var ids = new char[length];
+        var nextNewId = 0;
+        for (var i = 0; i < length;) {
+            var code = Base46.decodeUnsigned(flow);
+            var count = (code & 1) != 0 ? Base46.decodeUnsigned(flow) + 2 : 1;
+            code >>= 1;
+            var id = code == 0 ? nextNewId++ : code - 1;
+            while (count-- > 0) {
+                ids[i++] = (char) id;
+            }
+        }
+        return ids;
     }
 
     public static char encodeByte(byte b) {
@@ -172,7 +296,7 @@ public final class UnicodeHelper {
             byte b = bytes[i];
             if (i < bytes.length - 1 && b == bytes[i + 1]) {
                 int count = 0;
-                while (count < 16384 && bytes[i + count] == b) {
+                while (count < 16384 && i + count < bytes.length && bytes[i + count] == b) {
                     ++count;
                 }
                 i += count;
@@ -194,47 +318,33 @@ public final class UnicodeHelper {
         return sb.toString();
     }
 
-    public static Range[] extractRle(String encoded) {
-        Range[] ranges = new Range[16384];
-        byte[] buffer = new byte[16384];
-        int index = 0;
-        int rangeIndex = 0;
-        int codePoint = 0;
-        for (int i = 0; i < encoded.length(); ++i) {
-            byte b = decodeByte(encoded.charAt(i));
+    private static void extractRle(CharFlow flow, byte[] target) {
+        var chars = flow.characters;
+        var index = 0;
+        while (flow.pointer < chars.length) {
+            byte b = decodeByte(chars[flow.pointer++]);
             int count;
             if (b == 64) {
-                b = decodeByte(encoded.charAt(++i));
+                b = decodeByte(chars[flow.pointer++]);
                 count = 0;
                 int pos = 1;
                 for (int j = 0; j < 3; ++j) {
-                    byte digit = decodeByte(encoded.charAt(++i));
+                    byte digit = decodeByte(chars[flow.pointer++]);
                     count |= pos * digit;
                     pos *= 0x40;
                 }
             } else if (b >= 32) {
                 b -= 32;
-                count = decodeByte(encoded.charAt(++i));
+                count = decodeByte(chars[flow.pointer++]);
             } else {
                 count = 1;
             }
-            if (b != 0 || count < 128) {
-                if (index + count >= buffer.length) {
-                    ranges[rangeIndex++] = new Range(codePoint, codePoint + index, Arrays.copyOf(buffer, index));
-                    codePoint += index + count;
-                    index = 0;
-                }
-                while (count-- > 0) {
-                    buffer[index++] = b;
-                }
+            if (count == 1) {
+                target[index++] = b;
             } else {
-                if (index > 0) {
-                    ranges[rangeIndex++] = new Range(codePoint, codePoint + index, Arrays.copyOf(buffer, index));
-                }
-                codePoint += index + count;
-                index = 0;
+                Arrays.fill(target, index, index + count, b);
+                index += count;
             }
         }
-        return Arrays.copyOf(ranges, rangeIndex);
     }
 }
\ No newline at end of file
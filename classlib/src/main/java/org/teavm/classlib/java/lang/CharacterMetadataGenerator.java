@@ -50,7 +50,7 @@ public class CharacterMetadataGenerator implements MetadataGenerator {
 
     private Resource generateObtainClasses(MetadataGeneratorContext context) {
         StringResource res = context.createResource(StringResource.class);
-        res.setValue(UnicodeHelper.compressRle(UnicodeSupport.getClasses()));
+        res.setValue(UnicodeHelper.encodeClassTable(UnicodeSupport.getClasses()));
         return res;
     }
 
@@ -16,6 +16,7 @@
 package org.teavm.classlib.java.lang;
 
 import java.util.Objects;
+import org.teavm.classlib.impl.unicode.CharClassTable;
 import org.teavm.classlib.impl.unicode.CharMapping;
 import org.teavm.classlib.impl.unicode.UnicodeHelper;
 import org.teavm.platform.metadata.StringResource;
@@ -92,7 +93,7 @@ public class TCharacter extends TObject implements TComparable<TCharacter> {
     private static CharMapping titleCaseMapping;
     private static CharMapping upperCaseMapping;
     private static CharMapping lowerCaseMapping;
-    private static UnicodeHelper.Range[] classMapping;
+    private static CharClassTable classMapping;
     private final char value;
     private static TCharacter[] characterCache = new TCharacter[128];
     private static final int SURROGATE_NEUTRAL_BIT_MASK = 0xF800;
@@ -301,8 +302,9 @@ public class TCharacter extends TObject implements TComparable<TCharacter> {
     private static native StringResource acquireTitleCaseMapping();
 
     private static int mapChar(CharMapping table, int codePoint) {
-        if (codePoint < table.fastTable.length) {
-            return codePoint + table.fastTable[codePoint];
+        if (codePoint < 65536) {
+            int block = table.blockIndex[codePoint >> CharMapping.BLOCK_SHIFT];
+            return codePoint + table.blocks[(block << CharMapping.BLOCK_SHIFT) | (codePoint & CharMapping.BLOCK_MASK)];
         }
 
         var binSearchTable = table.binarySearchTable;
@@ -393,9 +395,9 @@ public class TCharacter extends TObject implements TComparable<TCharacter> {
 
     private static native StringResource obtainDigitMapping();
 
-    private static UnicodeHelper.Range[] getClasses() {
+    private static CharClassTable getClasses() {
         if (classMapping == null) {
-            classMapping = UnicodeHelper.extractRle(obtainClasses().getValue());
+            classMapping = UnicodeHelper.decodeClassTable(obtainClasses().getValue());
         }
         return classMapping;
     }
@@ -535,21 +537,15 @@ public class TCharacter extends TObject implements TComparable<TCharacter> {
         if (isBmpCodePoint(codePoint) && isSurrogate((char) codePoint)) {
             return SURROGATE;
         }
-        UnicodeHelper.Range[] classes = getClasses();
-        int l = 0;
-        int u = classes.length - 1;
-        while (l <= u) {
-            int i = (l + u) / 2;
-            UnicodeHelper.Range range = classes[i];
-            if (codePoint >= range.end) {
-                l = i + 1;
-            } else if (codePoint < range.start) {
-                u = i - 1;
-            } else {
-                return range.data[codePoint - range.start];
-            }
+        CharClassTable classes = getClasses();
+        int groupIndex = codePoint >> (CharClassTable.BLOCK_SHIFT + CharClassTable.GROUP_SHIFT);
+        if (codePoint < 0 || groupIndex >= classes.groupIndex.length) {
+            return UNASSIGNED;
         }
-        return 0;
+        int group = classes.groupIndex[groupIndex];
+        int block = classes.groups[(group << CharClassTable.GROUP_SHIFT)
+                | ((codePoint >> CharClassTable.BLOCK_SHIFT) & CharClassTable.GROUP_MASK)];
+        return classes.blocks[(block << CharClassTable.BLOCK_SHIFT) | (codePoint & CharClassTable.BLOCK_MASK)];
     }
 
     public static boolean isLowerCase(char ch) {
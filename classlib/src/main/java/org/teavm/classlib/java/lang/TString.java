@@ -17,6 +17,7 @@ package org.teavm.classlib.java.lang;
 
 import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
 import java.util.Locale;
 import java.util.Objects;
 import org.teavm.classlib.PlatformDetector;
@@ -126,6 +127,13 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     private void initWithBytes(byte[] bytes, int offset, int length, TCharset charset) {
+        if (PlatformDetector.isJavaScript() && charset == TUTF8Charset.INSTANCE) {
+            var nativeString = decodeUTF8JS(bytes, offset, length);
+            if (nativeString != null) {
+                initWithNativeStringJS(nativeString);
+                return;
+            }
+        }
         TCharBuffer buffer = charset.decode(TByteBuffer.wrap(bytes, offset, length));
         char[] characters;
         if (buffer.hasArray() && buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
@@ -137,6 +145,12 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         takeCharArray(characters);
     }
 
+    @NoSideEffects
+    private static native Object decodeUTF8JS(byte[] bytes, int offset, int length);
+
+    @NoSideEffects
+    private native void initWithNativeStringJS(Object nativeString);
+
     public TString(TStringBuffer sb) {
         initWithCharArray(sb.buffer, 0, sb.length());
     }
@@ -272,6 +286,12 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public boolean startsWith(TString prefix, int toffset) {
+        if (PlatformDetector.isJavaScript()) {
+            if (toffset < 0 || toffset > length() - prefix.length()) {
+                return false;
+            }
+            return startsWithJS(nativeString(), prefix.nativeString(), toffset);
+        }
         if (toffset + prefix.length() > length()) {
             return false;
         }
@@ -290,6 +310,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         return startsWith(prefix, 0);
     }
 
+    @NoSideEffects
+    private static native boolean startsWithJS(Object nativeString, Object prefix, int offset);
+
     public boolean regionMatches(boolean ignoreCase, int toffset, String other, int ooffset, int len) {
         if (toffset < 0 || ooffset < 0 || toffset + len > length() || ooffset + len > other.length()) {
             return false;
@@ -324,6 +347,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (this == suffix) {
             return true;
         }
+        if (PlatformDetector.isJavaScript()) {
+            return endsWithJS(nativeString(), suffix.nativeString());
+        }
         if (suffix.length() > length()) {
             return false;
         }
@@ -336,7 +362,16 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         return true;
     }
 
+    @NoSideEffects
+    private static native boolean endsWithJS(Object nativeString, Object suffix);
+
     public int indexOf(int ch, int fromIndex) {
+        if (PlatformDetector.isJavaScript()) {
+            if (ch < 0 || ch > TCharacter.MAX_CODE_POINT) {
+                return -1;
+            }
+            return indexOfJS(nativeString(), codePointToStringJS(ch), fromIndex);
+        }
         fromIndex = Math.max(0, fromIndex);
         if (ch < TCharacter.MIN_SUPPLEMENTARY_CODE_POINT) {
             char bmpChar = (char) ch;
@@ -363,6 +398,12 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public int lastIndexOf(int ch, int fromIndex) {
+        if (PlatformDetector.isJavaScript()) {
+            if (ch < 0 || ch > TCharacter.MAX_CODE_POINT || fromIndex < 0) {
+                return -1;
+            }
+            return lastIndexOfJS(nativeString(), codePointToStringJS(ch), fromIndex);
+        }
         fromIndex = Math.min(fromIndex, length() - 1);
         if (ch < TCharacter.MIN_SUPPLEMENTARY_CODE_POINT) {
             char bmpChar = (char) ch;
@@ -389,6 +430,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public int indexOf(TString str, int fromIndex) {
+        if (PlatformDetector.isJavaScript()) {
+            return indexOfJS(nativeString(), str.nativeString(), fromIndex);
+        }
         fromIndex = Math.max(0, fromIndex);
         int toIndex = length() - str.length();
         outer:
@@ -408,6 +452,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public int lastIndexOf(TString str, int fromIndex) {
+        if (PlatformDetector.isJavaScript()) {
+            return fromIndex >= 0 ? lastIndexOfJS(nativeString(), str.nativeString(), fromIndex) : -1;
+        }
         fromIndex = Math.min(fromIndex, length() - str.length());
         outer:
         for (int i = fromIndex; i >= 0; --i) {
@@ -425,6 +472,15 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         return lastIndexOf(str, length());
     }
 
+    @NoSideEffects
+    private static native int indexOfJS(Object nativeString, Object str, int fromIndex);
+
+    @NoSideEffects
+    private static native int lastIndexOfJS(Object nativeString, Object str, int fromIndex);
+
+    @NoSideEffects
+    private static native Object codePointToStringJS(int codePoint);
+
     public TString substring(int beginIndex, int endIndex) {
         int length = charactersLength();
         if (beginIndex == endIndex) {
@@ -479,6 +535,10 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (oldChar == newChar) {
             return this;
         }
+        if (PlatformDetector.isJavaScript()) {
+            var result = replaceJS(nativeString(), codePointToStringJS(oldChar), codePointToStringJS(newChar));
+            return result != nativeString() ? new TString(result) : this;
+        }
         var buffer = new char[length()];
         for (int i = 0; i < length(); ++i) {
             buffer[i] = charAt(i) == oldChar ? newChar : charAt(i);
@@ -487,6 +547,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public boolean contains(TCharSequence s) {
+        if (PlatformDetector.isJavaScript() && s instanceof TString) {
+            return indexOfJS(nativeString(), ((TString) s).nativeString(), 0) >= 0;
+        }
         int sz = length() - s.length();
         outer:
         for (int i = 0; i <= sz; ++i) {
@@ -513,6 +576,10 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
             return sb.toString();
         } else if (target.length() == 1 && replacement.length() == 1) {
             return (String) (Object) replace(target.charAt(0), replacement.charAt(0));
+        } else if (PlatformDetector.isJavaScript()) {
+            var result = replaceJS(nativeString(), ((TString) (Object) target.toString()).nativeString(),
+                    ((TString) (Object) replacement.toString()).nativeString());
+            return (String) (Object) (result != nativeString() ? new TString(result) : this);
         } else {
             var sb = new StringBuilder();
             int sz = length() - target.length();
@@ -534,6 +601,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         }
     }
 
+    @NoSideEffects
+    private static native Object replaceJS(Object nativeString, Object target, Object replacement);
+
     public TString trim() {
         int lower = 0;
         int upper = length() - 1;
@@ -714,6 +784,12 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public byte[] getBytes(TCharset charset) {
+        if (PlatformDetector.isJavaScript() && charset == TUTF8Charset.INSTANCE) {
+            var bytes = encodeUTF8JS(nativeString());
+            if (bytes != null) {
+                return bytes;
+            }
+        }
         TByteBuffer buffer = charset.encode(TCharBuffer.wrap(fastCharArray()));
         if (buffer.hasArray() && buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
             return buffer.array();
@@ -724,17 +800,23 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         }
     }
 
+    @NoSideEffects
+    private static native byte[] encodeUTF8JS(Object nativeString);
+
     @NoSideEffects
     private native char[] fastCharArray();
 
     @Override
     public int hashCode() {
-        if (hashCode == 0) {
-            for (var i = 0; i < charactersLength(); ++i) {
-                hashCode = 31 * hashCode + charactersGet(i);
+        var hash = hashCode;
+        if (hash == 0) {
+            var length = charactersLength();
+            for (var i = 0; i < length; ++i) {
+                hash = 31 * hash + charactersGet(i);
             }
+            hashCode = hash;
         }
-        return hashCode;
+        return hash;
     }
 
     public TString toLowerCase() {
@@ -875,23 +957,69 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     public native TString intern();
 
     public boolean matches(String regex) {
-        return TPattern.matches(regex, this.toString());
+        return TPattern.compileCached(regex).matcher(toString()).matches();
     }
 
     public String[] split(String regex) {
-        return TPattern.compile(regex).split(this.toString());
+        return split(regex, 0);
     }
 
     public String[] split(String regex, int limit) {
-        return TPattern.compile(regex).split(this.toString(), limit);
+        int separator = literalSeparator(regex);
+        if (separator >= 0) {
+            return split((char) separator, limit);
+        }
+        return TPattern.compileCached(regex).split(this.toString(), limit);
+    }
+
+    private static int literalSeparator(String regex) {
+        char c;
+        if (regex.length() == 1) {
+            c = regex.charAt(0);
+            if (".$|()[{^?*+\\".indexOf(c) >= 0) {
+                return -1;
+            }
+        } else if (regex.length() == 2 && regex.charAt(0) == '\\') {
+            c = regex.charAt(1);
+            if (c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z') {
+                return -1;
+            }
+        } else {
+            return -1;
+        }
+        return TCharacter.isSurrogate(c) ? -1 : c;
+    }
+
+    private String[] split(char separator, int limit) {
+        var string = toString();
+        int next = indexOf(separator);
+        if (next < 0) {
+            return new String[] { string };
+        }
+        var parts = new ArrayList<String>();
+        int start = 0;
+        while (next >= 0 && (limit <= 0 || parts.size() < limit - 1)) {
+            parts.add(string.substring(start, next));
+            start = next + 1;
+            next = indexOf(separator, start);
+        }
+        parts.add(string.substring(start));
+
+        int size = parts.size();
+        if (limit == 0) {
+            while (size > 0 && parts.get(size - 1).isEmpty()) {
+                --size;
+            }
+        }
+        return parts.subList(0, size).toArray(new String[size]);
     }
 
     public String replaceAll(String regex, String replacement) {
-        return TPattern.compile(regex).matcher(toString()).replaceAll(replacement);
+        return TPattern.compileCached(regex).matcher(toString()).replaceAll(replacement);
     }
 
     public String replaceFirst(String regex, String replacement) {
-        return TPattern.compile(regex).matcher(toString()).replaceFirst(replacement);
+        return TPattern.compileCached(regex).matcher(toString()).replaceFirst(replacement);
     }
 
     public static String format(String format, Object... args) {
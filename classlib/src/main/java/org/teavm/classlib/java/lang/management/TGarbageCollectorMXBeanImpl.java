@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang.management;
+
+import org.teavm.interop.DelegateTo;
+import org.teavm.runtime.GCStatistics;
+
+class TGarbageCollectorMXBeanImpl implements TGarbageCollectorMXBean {
+    static final TGarbageCollectorMXBeanImpl INSTANCE = new TGarbageCollectorMXBeanImpl();
+
+    private TGarbageCollectorMXBeanImpl() {
+    }
+
+    @Override
+    public String getName() {
+        return "TeaVM GC";
+    }
+
+    @Override
+    public boolean isValid() {
+        return true;
+    }
+
+    @Override
+    public String[] getMemoryPoolNames() {
+        return new String[] { "heap" };
+    }
+
+    @Override
+    @DelegateTo("getCollectionCountLowLevel")
+    public long getCollectionCount() {
+        return -1;
+    }
+
+    private long getCollectionCountLowLevel() {
+        return GCStatistics.getCollectionCount();
+    }
+
+    @Override
+    @DelegateTo("getCollectionTimeLowLevel")
+    public long getCollectionTime() {
+        return -1;
+    }
+
+    private long getCollectionTimeLowLevel() {
+        return GCStatistics.getTotalPauseTime() / 1000000;
+    }
+}
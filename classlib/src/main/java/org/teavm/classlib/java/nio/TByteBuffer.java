@@ -16,6 +16,7 @@
 package org.teavm.classlib.java.nio;
 
 import java.util.Objects;
+import org.teavm.classlib.PlatformDetector;
 import org.teavm.classlib.java.lang.TComparable;
 
 public abstract class TByteBuffer extends TBuffer implements TComparable<TByteBuffer> {
@@ -35,6 +36,9 @@ public abstract class TByteBuffer extends TBuffer implements TComparable<TByteBu
         if (capacity < 0) {
             throw new IllegalArgumentException("Capacity is negative: " + capacity);
         }
+        if (PlatformDetector.isJavaScript() || PlatformDetector.isLowLevel()) {
+            return new TDirectByteBuffer(capacity);
+        }
         return new TByteBufferImpl(capacity, true);
     }
 
@@ -0,0 +1,190 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.nio;
+
+import org.teavm.classlib.PlatformDetector;
+import org.teavm.interop.Address;
+import org.teavm.jso.typedarrays.DataView;
+import org.teavm.jso.typedarrays.Int8Array;
+
+/**
+ * Storage of direct byte buffers. In JavaScript values are read and written via {@code DataView}
+ * over the array data, in low-level backends they are loaded from memory by a single instruction,
+ * when the address is aligned to the size of the value.
+ */
+final class TDirectBufferMemory {
+    private static final boolean NATIVE_LITTLE_ENDIAN = TByteOrder.nativeOrder() == TByteOrder.LITTLE_ENDIAN;
+    final byte[] array;
+    private DataView view;
+
+    TDirectBufferMemory(int capacity) {
+        array = new byte[capacity];
+        if (PlatformDetector.isJavaScript()) {
+            view = DataView.reinterpret(Int8Array.fromJavaArray(array));
+        }
+    }
+
+    char getChar(int offset, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            return (char) view.getUint16(offset, littleEndian);
+        }
+        if (!isAligned(offset, 2)) {
+            return (char) readBytes(offset, 2, littleEndian);
+        }
+        var value = Address.ofData(array).add(offset).getChar();
+        return littleEndian == NATIVE_LITTLE_ENDIAN ? value : Character.reverseBytes(value);
+    }
+
+    void putChar(int offset, char value, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            view.setUint16(offset, value, littleEndian);
+        } else if (!isAligned(offset, 2)) {
+            writeBytes(offset, 2, value, littleEndian);
+        } else {
+            Address.ofData(array).add(offset).putChar(littleEndian == NATIVE_LITTLE_ENDIAN
+                    ? value : Character.reverseBytes(value));
+        }
+    }
+
+    short getShort(int offset, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            return view.getInt16(offset, littleEndian);
+        }
+        if (!isAligned(offset, 2)) {
+            return (short) readBytes(offset, 2, littleEndian);
+        }
+        var value = Address.ofData(array).add(offset).getShort();
+        return littleEndian == NATIVE_LITTLE_ENDIAN ? value : Short.reverseBytes(value);
+    }
+
+    void putShort(int offset, short value, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            view.setInt16(offset, value, littleEndian);
+        } else if (!isAligned(offset, 2)) {
+            writeBytes(offset, 2, value, littleEndian);
+        } else {
+            Address.ofData(array).add(offset).putShort(littleEndian == NATIVE_LITTLE_ENDIAN
+                    ? value : Short.reverseBytes(value));
+        }
+    }
+
+    int getInt(int offset, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            return view.getInt32(offset, littleEndian);
+        }
+        if (!isAligned(offset, 4)) {
+            return (int) readBytes(offset, 4, littleEndian);
+        }
+        var value = Address.ofData(array).add(offset).getInt();
+        return littleEndian == NATIVE_LITTLE_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+
+    void putInt(int offset, int value, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            view.setInt32(offset, value, littleEndian);
+        } else if (!isAligned(offset, 4)) {
+            writeBytes(offset, 4, value, littleEndian);
+        } else {
+            Address.ofData(array).add(offset).putInt(littleEndian == NATIVE_LITTLE_ENDIAN
+                    ? value : Integer.reverseBytes(value));
+        }
+    }
+
+    long getLong(int offset, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            int high = view.getInt32(littleEndian ? offset + 4 : offset, littleEndian);
+            int low = view.getInt32(littleEndian ? offset : offset + 4, littleEndian);
+            return ((long) high << 32) | (low & 0xFFFFFFFFL);
+        }
+        if (!isAligned(offset, 8)) {
+            return readBytes(offset, 8, littleEndian);
+        }
+        var value = Address.ofData(array).add(offset).getLong();
+        return littleEndian == NATIVE_LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    void putLong(int offset, long value, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            view.setInt32(littleEndian ? offset + 4 : offset, (int) (value >>> 32), littleEndian);
+            view.setInt32(littleEndian ? offset : offset + 4, (int) value, littleEndian);
+        } else if (!isAligned(offset, 8)) {
+            writeBytes(offset, 8, value, littleEndian);
+        } else {
+            Address.ofData(array).add(offset).putLong(littleEndian == NATIVE_LITTLE_ENDIAN
+                    ? value : Long.reverseBytes(value));
+        }
+    }
+
+    float getFloat(int offset, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            return view.getFloat32(offset, littleEndian);
+        }
+        if (littleEndian == NATIVE_LITTLE_ENDIAN && isAligned(offset, 4)) {
+            return Address.ofData(array).add(offset).getFloat();
+        }
+        return Float.intBitsToFloat(getInt(offset, littleEndian));
+    }
+
+    void putFloat(int offset, float value, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            view.setFloat32(offset, value, littleEndian);
+        } else if (littleEndian == NATIVE_LITTLE_ENDIAN && isAligned(offset, 4)) {
+            Address.ofData(array).add(offset).putFloat(value);
+        } else {
+            putInt(offset, Float.floatToRawIntBits(value), littleEndian);
+        }
+    }
+
+    double getDouble(int offset, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            return view.getFloat64(offset, littleEndian);
+        }
+        if (littleEndian == NATIVE_LITTLE_ENDIAN && isAligned(offset, 8)) {
+            return Address.ofData(array).add(offset).getDouble();
+        }
+        return Double.longBitsToDouble(getLong(offset, littleEndian));
+    }
+
+    void putDouble(int offset, double value, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            view.setFloat64(offset, value, littleEndian);
+        } else if (littleEndian == NATIVE_LITTLE_ENDIAN && isAligned(offset, 8)) {
+            Address.ofData(array).add(offset).putDouble(value);
+        } else {
+            putLong(offset, Double.doubleToRawLongBits(value), littleEndian);
+        }
+    }
+
+    private boolean isAligned(int offset, int size) {
+        return (Address.ofData(array).add(offset).toInt() & (size - 1)) == 0;
+    }
+
+    private long readBytes(int offset, int size, boolean littleEndian) {
+        long value = 0;
+        for (int i = 0; i < size; ++i) {
+            int b = array[offset + (littleEndian ? size - 1 - i : i)] & 0xFF;
+            value = (value << 8) | b;
+        }
+        return value;
+    }
+
+    private void writeBytes(int offset, int size, long value, boolean littleEndian) {
+        for (int i = 0; i < size; ++i) {
+            array[offset + (littleEndian ? i : size - 1 - i)] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.nio;
+
+class TDirectByteBuffer extends TByteBufferImpl {
+    private TDirectBufferMemory memory;
+
+    TDirectByteBuffer(int capacity) {
+        this(new TDirectBufferMemory(capacity), 0, capacity, 0, capacity, false);
+    }
+
+    private TDirectByteBuffer(TDirectBufferMemory memory, int start, int capacity, int position, int limit,
+            boolean readOnly) {
+        super(start, capacity, memory.array, position, limit, true, readOnly);
+        this.memory = memory;
+    }
+
+    @Override
+    public TByteBuffer slice() {
+        return new TDirectByteBuffer(memory, start + position, limit - position, 0, limit - position,
+                isReadOnly());
+    }
+
+    @Override
+    public TByteBuffer duplicate() {
+        return new TDirectByteBuffer(memory, start, capacity, position, limit, isReadOnly());
+    }
+
+    @Override
+    public TByteBuffer asReadOnlyBuffer() {
+        return new TDirectByteBuffer(memory, start, capacity, position, limit, true);
+    }
+
+    private boolean littleEndian() {
+        return order == TByteOrder.LITTLE_ENDIAN;
+    }
+
+    private int nextGetOffset(int size) {
+        if (limit - position < size) {
+            throw new TBufferUnderflowException();
+        }
+        int offset = start + position;
+        position += size;
+        return offset;
+    }
+
+    private int nextPutOffset(int size) {
+        if (isReadOnly()) {
+            throw new TReadOnlyBufferException();
+        }
+        if (limit - position < size) {
+            throw new TBufferOverflowException();
+        }
+        int offset = start + position;
+        position += size;
+        return offset;
+    }
+
+    private int checkGetOffset(int index, int size) {
+        if (index < 0 || index > limit - size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;"
+                    + (limit - size + 1) + ")");
+        }
+        return start + index;
+    }
+
+    private int checkPutOffset(int index, int size) {
+        if (isReadOnly()) {
+            throw new TReadOnlyBufferException();
+        }
+        return checkGetOffset(index, size);
+    }
+
+    @Override
+    public char getChar() {
+        return memory.getChar(nextGetOffset(2), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putChar(char value) {
+        memory.putChar(nextPutOffset(2), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public char getChar(int index) {
+        return memory.getChar(checkGetOffset(index, 2), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putChar(int index, char value) {
+        memory.putChar(checkPutOffset(index, 2), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public TCharBuffer asCharBuffer() {
+        int sz = remaining() / 2;
+        return new TCharBufferOverDirectByteBuffer(memory, start + position, sz, 0, sz, littleEndian(),
+                isReadOnly());
+    }
+
+    @Override
+    public short getShort() {
+        return memory.getShort(nextGetOffset(2), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putShort(short value) {
+        memory.putShort(nextPutOffset(2), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public short getShort(int index) {
+        return memory.getShort(checkGetOffset(index, 2), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putShort(int index, short value) {
+        memory.putShort(checkPutOffset(index, 2), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public TShortBuffer asShortBuffer() {
+        int sz = remaining() / 2;
+        return new TShortBufferOverDirectByteBuffer(memory, start + position, sz, 0, sz, littleEndian(),
+                isReadOnly());
+    }
+
+    @Override
+    public int getInt() {
+        return memory.getInt(nextGetOffset(4), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putInt(int value) {
+        memory.putInt(nextPutOffset(4), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public int getInt(int index) {
+        return memory.getInt(checkGetOffset(index, 4), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putInt(int index, int value) {
+        memory.putInt(checkPutOffset(index, 4), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public TIntBuffer asIntBuffer() {
+        int sz = remaining() / 4;
+        return new TIntBufferOverDirectByteBuffer(memory, start + position, sz, 0, sz, littleEndian(),
+                isReadOnly());
+    }
+
+    @Override
+    public long getLong() {
+        return memory.getLong(nextGetOffset(8), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putLong(long value) {
+        memory.putLong(nextPutOffset(8), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public long getLong(int index) {
+        return memory.getLong(checkGetOffset(index, 8), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putLong(int index, long value) {
+        memory.putLong(checkPutOffset(index, 8), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public TLongBuffer asLongBuffer() {
+        int sz = remaining() / 8;
+        return new TLongBufferOverDirectByteBuffer(memory, start + position, sz, 0, sz, littleEndian(),
+                isReadOnly());
+    }
+
+    @Override
+    public float getFloat() {
+        return memory.getFloat(nextGetOffset(4), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putFloat(float value) {
+        memory.putFloat(nextPutOffset(4), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public float getFloat(int index) {
+        return memory.getFloat(checkGetOffset(index, 4), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putFloat(int index, float value) {
+        memory.putFloat(checkPutOffset(index, 4), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public TFloatBuffer asFloatBuffer() {
+        int sz = remaining() / 4;
+        return new TFloatBufferOverDirectByteBuffer(memory, start + position, sz, 0, sz, littleEndian(),
+                isReadOnly());
+    }
+
+    @Override
+    public double getDouble() {
+        return memory.getDouble(nextGetOffset(8), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putDouble(double value) {
+        memory.putDouble(nextPutOffset(8), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return memory.getDouble(checkGetOffset(index, 8), littleEndian());
+    }
+
+    @Override
+    public TByteBuffer putDouble(int index, double value) {
+        memory.putDouble(checkPutOffset(index, 8), value, littleEndian());
+        return this;
+    }
+
+    @Override
+    public TDoubleBuffer asDoubleBuffer() {
+        int sz = remaining() / 8;
+        return new TDoubleBufferOverDirectByteBuffer(memory, start + position, sz, 0, sz, littleEndian(),
+                isReadOnly());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.nio;
+
+class TDoubleBufferOverDirectByteBuffer extends TDoubleBufferImpl {
+    private TDirectBufferMemory memory;
+    private int start;
+    private boolean littleEndian;
+    private boolean readOnly;
+
+    TDoubleBufferOverDirectByteBuffer(TDirectBufferMemory memory, int start, int capacity, int position, int limit,
+            boolean littleEndian, boolean readOnly) {
+        super(capacity, position, limit);
+        this.memory = memory;
+        this.start = start;
+        this.littleEndian = littleEndian;
+        this.readOnly = readOnly;
+    }
+
+    @Override
+    TDoubleBuffer duplicate(int start, int capacity, int position, int limit, boolean readOnly) {
+        return new TDoubleBufferOverDirectByteBuffer(memory, this.start + start * 8, capacity, position, limit,
+                littleEndian, readOnly);
+    }
+
+    @Override
+    double getElement(int index) {
+        return memory.getDouble(start + index * 8, littleEndian);
+    }
+
+    @Override
+    void putElement(int index, double value) {
+        memory.putDouble(start + index * 8, value, littleEndian);
+    }
+
+    @Override
+    boolean isArrayPresent() {
+        return false;
+    }
+
+    @Override
+    double[] getArray() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    int getArrayOffset() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    boolean readOnly() {
+        return readOnly;
+    }
+
+    @Override
+    public boolean isDirect() {
+        return true;
+    }
+
+    @Override
+    public TByteOrder order() {
+        return littleEndian ? TByteOrder.LITTLE_ENDIAN : TByteOrder.BIG_ENDIAN;
+    }
+}
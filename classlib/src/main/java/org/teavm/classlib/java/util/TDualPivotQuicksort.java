@@ -0,0 +1,1014 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util;
+
+/**
+ * <p>In-place sorting of primitive arrays, used by {@link TArrays}.</p>
+ *
+ * <p>Ranges are sorted by dual-pivot quicksort, falling back to heapsort when recursion gets too deep
+ * and to insertion sort for small ranges. Large {@code byte}, {@code short} and {@code char} ranges
+ * are sorted by counting sort. All methods expect the range to be already checked.</p>
+ */
+final class TDualPivotQuicksort {
+    private static final int INSERTION_SORT_THRESHOLD = 47;
+    private static final int BYTE_COUNTING_SORT_THRESHOLD = 64;
+    private static final int SHORT_COUNTING_SORT_THRESHOLD = 3200;
+
+    private TDualPivotQuicksort() {
+    }
+
+    private static int maxDepth(int length) {
+        int depth = 0;
+        while (length > 1) {
+            length >>>= 1;
+            ++depth;
+        }
+        return depth * 2;
+    }
+
+    static void sort(int[] a, int fromIndex, int toIndex) {
+        sort(a, fromIndex, toIndex - 1, maxDepth(toIndex - fromIndex));
+    }
+
+    private static void sort(int[] a, int left, int right, int depth) {
+        while (right - left + 1 >= INSERTION_SORT_THRESHOLD) {
+            if (--depth < 0) {
+                heapSort(a, left, right);
+                return;
+            }
+
+            int length = right - left + 1;
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, e2, e3, e4, e5);
+
+            int less = left;
+            int great = right;
+            if (a[e1] != a[e2] && a[e2] != a[e3] && a[e3] != a[e4] && a[e4] != a[e5]) {
+                int pivot1 = a[e2];
+                int pivot2 = a[e4];
+                a[e2] = a[left];
+                a[e4] = a[right];
+                while (a[++less] < pivot1) {
+                    // skip elements that are already in place
+                }
+                while (a[--great] > pivot2) {
+                    // skip elements that are already in place
+                }
+                outer:
+                for (int k = less - 1; ++k <= great;) {
+                    int ak = a[k];
+                    if (ak < pivot1) {
+                        a[k] = a[less];
+                        a[less] = ak;
+                        ++less;
+                    } else if (ak > pivot2) {
+                        while (a[great] > pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] < pivot1) {
+                            a[k] = a[less];
+                            a[less] = a[great];
+                            ++less;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great] = ak;
+                        --great;
+                    }
+                }
+                a[left] = a[less - 1];
+                a[less - 1] = pivot1;
+                a[right] = a[great + 1];
+                a[great + 1] = pivot2;
+
+                sort(a, left, less - 2, depth);
+                sort(a, great + 2, right, depth);
+                left = less;
+                right = great;
+            } else {
+                int pivot = a[e3];
+                for (int k = less; k <= great;) {
+                    int ak = a[k];
+                    if (ak < pivot) {
+                        a[k++] = a[less];
+                        a[less++] = ak;
+                    } else if (ak > pivot) {
+                        a[k] = a[great];
+                        a[great--] = ak;
+                    } else {
+                        ++k;
+                    }
+                }
+                sort(a, left, less - 1, depth);
+                left = great + 1;
+            }
+        }
+        insertionSort(a, left, right);
+    }
+
+    private static void sortSamples(int[] a, int e1, int e2, int e3, int e4, int e5) {
+        int[] indexes = { e1, e2, e3, e4, e5 };
+        for (int i = 1; i < indexes.length; ++i) {
+            int value = a[indexes[i]];
+            int j = i - 1;
+            while (j >= 0 && a[indexes[j]] > value) {
+                a[indexes[j + 1]] = a[indexes[j]];
+                --j;
+            }
+            a[indexes[j + 1]] = value;
+        }
+    }
+
+    private static void insertionSort(int[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            int value = a[i];
+            int j = i - 1;
+            while (j >= left && a[j] > value) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(int[] a, int left, int right) {
+        int length = right - left + 1;
+        for (int i = length / 2 - 1; i >= 0; --i) {
+            siftDown(a, left, i, length);
+        }
+        for (int end = length - 1; end > 0; --end) {
+            int tmp = a[left];
+            a[left] = a[left + end];
+            a[left + end] = tmp;
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] a, int offset, int index, int length) {
+        int value = a[offset + index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= length) {
+                break;
+            }
+            if (child + 1 < length && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= value) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = value;
+    }
+
+    static void sort(long[] a, int fromIndex, int toIndex) {
+        sort(a, fromIndex, toIndex - 1, maxDepth(toIndex - fromIndex));
+    }
+
+    private static void sort(long[] a, int left, int right, int depth) {
+        while (right - left + 1 >= INSERTION_SORT_THRESHOLD) {
+            if (--depth < 0) {
+                heapSort(a, left, right);
+                return;
+            }
+
+            int length = right - left + 1;
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, e2, e3, e4, e5);
+
+            int less = left;
+            int great = right;
+            if (a[e1] != a[e2] && a[e2] != a[e3] && a[e3] != a[e4] && a[e4] != a[e5]) {
+                long pivot1 = a[e2];
+                long pivot2 = a[e4];
+                a[e2] = a[left];
+                a[e4] = a[right];
+                while (a[++less] < pivot1) {
+                    // skip elements that are already in place
+                }
+                while (a[--great] > pivot2) {
+                    // skip elements that are already in place
+                }
+                outer:
+                for (int k = less - 1; ++k <= great;) {
+                    long ak = a[k];
+                    if (ak < pivot1) {
+                        a[k] = a[less];
+                        a[less] = ak;
+                        ++less;
+                    } else if (ak > pivot2) {
+                        while (a[great] > pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] < pivot1) {
+                            a[k] = a[less];
+                            a[less] = a[great];
+                            ++less;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great] = ak;
+                        --great;
+                    }
+                }
+                a[left] = a[less - 1];
+                a[less - 1] = pivot1;
+                a[right] = a[great + 1];
+                a[great + 1] = pivot2;
+
+                sort(a, left, less - 2, depth);
+                sort(a, great + 2, right, depth);
+                left = less;
+                right = great;
+            } else {
+                long pivot = a[e3];
+                for (int k = less; k <= great;) {
+                    long ak = a[k];
+                    if (ak < pivot) {
+                        a[k++] = a[less];
+                        a[less++] = ak;
+                    } else if (ak > pivot) {
+                        a[k] = a[great];
+                        a[great--] = ak;
+                    } else {
+                        ++k;
+                    }
+                }
+                sort(a, left, less - 1, depth);
+                left = great + 1;
+            }
+        }
+        insertionSort(a, left, right);
+    }
+
+    private static void sortSamples(long[] a, int e1, int e2, int e3, int e4, int e5) {
+        int[] indexes = { e1, e2, e3, e4, e5 };
+        for (int i = 1; i < indexes.length; ++i) {
+            long value = a[indexes[i]];
+            int j = i - 1;
+            while (j >= 0 && a[indexes[j]] > value) {
+                a[indexes[j + 1]] = a[indexes[j]];
+                --j;
+            }
+            a[indexes[j + 1]] = value;
+        }
+    }
+
+    private static void insertionSort(long[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            long value = a[i];
+            int j = i - 1;
+            while (j >= left && a[j] > value) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(long[] a, int left, int right) {
+        int length = right - left + 1;
+        for (int i = length / 2 - 1; i >= 0; --i) {
+            siftDown(a, left, i, length);
+        }
+        for (int end = length - 1; end > 0; --end) {
+            long tmp = a[left];
+            a[left] = a[left + end];
+            a[left + end] = tmp;
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] a, int offset, int index, int length) {
+        long value = a[offset + index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= length) {
+                break;
+            }
+            if (child + 1 < length && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= value) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = value;
+    }
+
+    static void sort(short[] a, int fromIndex, int toIndex) {
+        if (toIndex - fromIndex > SHORT_COUNTING_SORT_THRESHOLD) {
+            int[] counts = new int[65536];
+            for (int i = fromIndex; i < toIndex; ++i) {
+                counts[a[i] + 32768]++;
+            }
+            int index = fromIndex;
+            for (int i = 0; i < counts.length; ++i) {
+                for (int count = counts[i]; count > 0; --count) {
+                    a[index++] = (short) (i - 32768);
+                }
+            }
+        } else {
+            sort(a, fromIndex, toIndex - 1, maxDepth(toIndex - fromIndex));
+        }
+    }
+
+    private static void sort(short[] a, int left, int right, int depth) {
+        while (right - left + 1 >= INSERTION_SORT_THRESHOLD) {
+            if (--depth < 0) {
+                heapSort(a, left, right);
+                return;
+            }
+
+            int length = right - left + 1;
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, e2, e3, e4, e5);
+
+            int less = left;
+            int great = right;
+            if (a[e1] != a[e2] && a[e2] != a[e3] && a[e3] != a[e4] && a[e4] != a[e5]) {
+                short pivot1 = a[e2];
+                short pivot2 = a[e4];
+                a[e2] = a[left];
+                a[e4] = a[right];
+                while (a[++less] < pivot1) {
+                    // skip elements that are already in place
+                }
+                while (a[--great] > pivot2) {
+                    // skip elements that are already in place
+                }
+                outer:
+                for (int k = less - 1; ++k <= great;) {
+                    short ak = a[k];
+                    if (ak < pivot1) {
+                        a[k] = a[less];
+                        a[less] = ak;
+                        ++less;
+                    } else if (ak > pivot2) {
+                        while (a[great] > pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] < pivot1) {
+                            a[k] = a[less];
+                            a[less] = a[great];
+                            ++less;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great] = ak;
+                        --great;
+                    }
+                }
+                a[left] = a[less - 1];
+                a[less - 1] = pivot1;
+                a[right] = a[great + 1];
+                a[great + 1] = pivot2;
+
+                sort(a, left, less - 2, depth);
+                sort(a, great + 2, right, depth);
+                left = less;
+                right = great;
+            } else {
+                short pivot = a[e3];
+                for (int k = less; k <= great;) {
+                    short ak = a[k];
+                    if (ak < pivot) {
+                        a[k++] = a[less];
+                        a[less++] = ak;
+                    } else if (ak > pivot) {
+                        a[k] = a[great];
+                        a[great--] = ak;
+                    } else {
+                        ++k;
+                    }
+                }
+                sort(a, left, less - 1, depth);
+                left = great + 1;
+            }
+        }
+        insertionSort(a, left, right);
+    }
+
+    private static void sortSamples(short[] a, int e1, int e2, int e3, int e4, int e5) {
+        int[] indexes = { e1, e2, e3, e4, e5 };
+        for (int i = 1; i < indexes.length; ++i) {
+            short value = a[indexes[i]];
+            int j = i - 1;
+            while (j >= 0 && a[indexes[j]] > value) {
+                a[indexes[j + 1]] = a[indexes[j]];
+                --j;
+            }
+            a[indexes[j + 1]] = value;
+        }
+    }
+
+    private static void insertionSort(short[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            short value = a[i];
+            int j = i - 1;
+            while (j >= left && a[j] > value) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(short[] a, int left, int right) {
+        int length = right - left + 1;
+        for (int i = length / 2 - 1; i >= 0; --i) {
+            siftDown(a, left, i, length);
+        }
+        for (int end = length - 1; end > 0; --end) {
+            short tmp = a[left];
+            a[left] = a[left + end];
+            a[left + end] = tmp;
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(short[] a, int offset, int index, int length) {
+        short value = a[offset + index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= length) {
+                break;
+            }
+            if (child + 1 < length && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= value) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = value;
+    }
+
+    static void sort(char[] a, int fromIndex, int toIndex) {
+        if (toIndex - fromIndex > SHORT_COUNTING_SORT_THRESHOLD) {
+            int[] counts = new int[65536];
+            for (int i = fromIndex; i < toIndex; ++i) {
+                counts[a[i]]++;
+            }
+            int index = fromIndex;
+            for (int i = 0; i < counts.length; ++i) {
+                for (int count = counts[i]; count > 0; --count) {
+                    a[index++] = (char) (i);
+                }
+            }
+        } else {
+            sort(a, fromIndex, toIndex - 1, maxDepth(toIndex - fromIndex));
+        }
+    }
+
+    private static void sort(char[] a, int left, int right, int depth) {
+        while (right - left + 1 >= INSERTION_SORT_THRESHOLD) {
+            if (--depth < 0) {
+                heapSort(a, left, right);
+                return;
+            }
+
+            int length = right - left + 1;
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, e2, e3, e4, e5);
+
+            int less = left;
+            int great = right;
+            if (a[e1] != a[e2] && a[e2] != a[e3] && a[e3] != a[e4] && a[e4] != a[e5]) {
+                char pivot1 = a[e2];
+                char pivot2 = a[e4];
+                a[e2] = a[left];
+                a[e4] = a[right];
+                while (a[++less] < pivot1) {
+                    // skip elements that are already in place
+                }
+                while (a[--great] > pivot2) {
+                    // skip elements that are already in place
+                }
+                outer:
+                for (int k = less - 1; ++k <= great;) {
+                    char ak = a[k];
+                    if (ak < pivot1) {
+                        a[k] = a[less];
+                        a[less] = ak;
+                        ++less;
+                    } else if (ak > pivot2) {
+                        while (a[great] > pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] < pivot1) {
+                            a[k] = a[less];
+                            a[less] = a[great];
+                            ++less;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great] = ak;
+                        --great;
+                    }
+                }
+                a[left] = a[less - 1];
+                a[less - 1] = pivot1;
+                a[right] = a[great + 1];
+                a[great + 1] = pivot2;
+
+                sort(a, left, less - 2, depth);
+                sort(a, great + 2, right, depth);
+                left = less;
+                right = great;
+            } else {
+                char pivot = a[e3];
+                for (int k = less; k <= great;) {
+                    char ak = a[k];
+                    if (ak < pivot) {
+                        a[k++] = a[less];
+                        a[less++] = ak;
+                    } else if (ak > pivot) {
+                        a[k] = a[great];
+                        a[great--] = ak;
+                    } else {
+                        ++k;
+                    }
+                }
+                sort(a, left, less - 1, depth);
+                left = great + 1;
+            }
+        }
+        insertionSort(a, left, right);
+    }
+
+    private static void sortSamples(char[] a, int e1, int e2, int e3, int e4, int e5) {
+        int[] indexes = { e1, e2, e3, e4, e5 };
+        for (int i = 1; i < indexes.length; ++i) {
+            char value = a[indexes[i]];
+            int j = i - 1;
+            while (j >= 0 && a[indexes[j]] > value) {
+                a[indexes[j + 1]] = a[indexes[j]];
+                --j;
+            }
+            a[indexes[j + 1]] = value;
+        }
+    }
+
+    private static void insertionSort(char[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            char value = a[i];
+            int j = i - 1;
+            while (j >= left && a[j] > value) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(char[] a, int left, int right) {
+        int length = right - left + 1;
+        for (int i = length / 2 - 1; i >= 0; --i) {
+            siftDown(a, left, i, length);
+        }
+        for (int end = length - 1; end > 0; --end) {
+            char tmp = a[left];
+            a[left] = a[left + end];
+            a[left + end] = tmp;
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(char[] a, int offset, int index, int length) {
+        char value = a[offset + index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= length) {
+                break;
+            }
+            if (child + 1 < length && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= value) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = value;
+    }
+
+    static void sort(byte[] a, int fromIndex, int toIndex) {
+        if (toIndex - fromIndex > BYTE_COUNTING_SORT_THRESHOLD) {
+            int[] counts = new int[256];
+            for (int i = fromIndex; i < toIndex; ++i) {
+                counts[a[i] + 128]++;
+            }
+            int index = fromIndex;
+            for (int i = 0; i < counts.length; ++i) {
+                for (int count = counts[i]; count > 0; --count) {
+                    a[index++] = (byte) (i - 128);
+                }
+            }
+        } else {
+            for (int i = fromIndex + 1; i < toIndex; ++i) {
+                byte value = a[i];
+                int j = i - 1;
+                while (j >= fromIndex && a[j] > value) {
+                    a[j + 1] = a[j];
+                    --j;
+                }
+                a[j + 1] = value;
+            }
+        }
+    }
+
+    static void sort(float[] a, int fromIndex, int toIndex) {
+        // NaNs go to the end of the range, negative zeros are sorted as positive ones and restored afterwards,
+        // so that the rest of the range can be compared with plain operators
+        int end = toIndex;
+        int negativeZeroCount = 0;
+        for (int i = toIndex - 1; i >= fromIndex; --i) {
+            float value = a[i];
+            if (value != value) {
+                a[i] = a[--end];
+                a[end] = value;
+            } else if (value == 0 && 1 / value < 0) {
+                a[i] = 0f;
+                ++negativeZeroCount;
+            }
+        }
+        sort(a, fromIndex, end - 1, maxDepth(end - fromIndex));
+        if (negativeZeroCount > 0) {
+            int low = fromIndex;
+            int high = end;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (a[middle] < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            while (negativeZeroCount-- > 0) {
+                a[low++] = -0f;
+            }
+        }
+    }
+
+    private static void sort(float[] a, int left, int right, int depth) {
+        while (right - left + 1 >= INSERTION_SORT_THRESHOLD) {
+            if (--depth < 0) {
+                heapSort(a, left, right);
+                return;
+            }
+
+            int length = right - left + 1;
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, e2, e3, e4, e5);
+
+            int less = left;
+            int great = right;
+            if (a[e1] != a[e2] && a[e2] != a[e3] && a[e3] != a[e4] && a[e4] != a[e5]) {
+                float pivot1 = a[e2];
+                float pivot2 = a[e4];
+                a[e2] = a[left];
+                a[e4] = a[right];
+                while (a[++less] < pivot1) {
+                    // skip elements that are already in place
+                }
+                while (a[--great] > pivot2) {
+                    // skip elements that are already in place
+                }
+                outer:
+                for (int k = less - 1; ++k <= great;) {
+                    float ak = a[k];
+                    if (ak < pivot1) {
+                        a[k] = a[less];
+                        a[less] = ak;
+                        ++less;
+                    } else if (ak > pivot2) {
+                        while (a[great] > pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] < pivot1) {
+                            a[k] = a[less];
+                            a[less] = a[great];
+                            ++less;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great] = ak;
+                        --great;
+                    }
+                }
+                a[left] = a[less - 1];
+                a[less - 1] = pivot1;
+                a[right] = a[great + 1];
+                a[great + 1] = pivot2;
+
+                sort(a, left, less - 2, depth);
+                sort(a, great + 2, right, depth);
+                left = less;
+                right = great;
+            } else {
+                float pivot = a[e3];
+                for (int k = less; k <= great;) {
+                    float ak = a[k];
+                    if (ak < pivot) {
+                        a[k++] = a[less];
+                        a[less++] = ak;
+                    } else if (ak > pivot) {
+                        a[k] = a[great];
+                        a[great--] = ak;
+                    } else {
+                        ++k;
+                    }
+                }
+                sort(a, left, less - 1, depth);
+                left = great + 1;
+            }
+        }
+        insertionSort(a, left, right);
+    }
+
+    private static void sortSamples(float[] a, int e1, int e2, int e3, int e4, int e5) {
+        int[] indexes = { e1, e2, e3, e4, e5 };
+        for (int i = 1; i < indexes.length; ++i) {
+            float value = a[indexes[i]];
+            int j = i - 1;
+            while (j >= 0 && a[indexes[j]] > value) {
+                a[indexes[j + 1]] = a[indexes[j]];
+                --j;
+            }
+            a[indexes[j + 1]] = value;
+        }
+    }
+
+    private static void insertionSort(float[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            float value = a[i];
+            int j = i - 1;
+            while (j >= left && a[j] > value) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(float[] a, int left, int right) {
+        int length = right - left + 1;
+        for (int i = length / 2 - 1; i >= 0; --i) {
+            siftDown(a, left, i, length);
+        }
+        for (int end = length - 1; end > 0; --end) {
+            float tmp = a[left];
+            a[left] = a[left + end];
+            a[left + end] = tmp;
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(float[] a, int offset, int index, int length) {
+        float value = a[offset + index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= length) {
+                break;
+            }
+            if (child + 1 < length && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= value) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = value;
+    }
+
+    static void sort(double[] a, int fromIndex, int toIndex) {
+        // NaNs go to the end of the range, negative zeros are sorted as positive ones and restored afterwards,
+        // so that the rest of the range can be compared with plain operators
+        int end = toIndex;
+        int negativeZeroCount = 0;
+        for (int i = toIndex - 1; i >= fromIndex; --i) {
+            double value = a[i];
+            if (value != value) {
+                a[i] = a[--end];
+                a[end] = value;
+            } else if (value == 0 && 1 / value < 0) {
+                a[i] = 0.0;
+                ++negativeZeroCount;
+            }
+        }
+        sort(a, fromIndex, end - 1, maxDepth(end - fromIndex));
+        if (negativeZeroCount > 0) {
+            int low = fromIndex;
+            int high = end;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (a[middle] < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            while (negativeZeroCount-- > 0) {
+                a[low++] = -0.0;
+            }
+        }
+    }
+
+    private static void sort(double[] a, int left, int right, int depth) {
+        while (right - left + 1 >= INSERTION_SORT_THRESHOLD) {
+            if (--depth < 0) {
+                heapSort(a, left, right);
+                return;
+            }
+
+            int length = right - left + 1;
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, e2, e3, e4, e5);
+
+            int less = left;
+            int great = right;
+            if (a[e1] != a[e2] && a[e2] != a[e3] && a[e3] != a[e4] && a[e4] != a[e5]) {
+                double pivot1 = a[e2];
+                double pivot2 = a[e4];
+                a[e2] = a[left];
+                a[e4] = a[right];
+                while (a[++less] < pivot1) {
+                    // skip elements that are already in place
+                }
+                while (a[--great] > pivot2) {
+                    // skip elements that are already in place
+                }
+                outer:
+                for (int k = less - 1; ++k <= great;) {
+                    double ak = a[k];
+                    if (ak < pivot1) {
+                        a[k] = a[less];
+                        a[less] = ak;
+                        ++less;
+                    } else if (ak > pivot2) {
+                        while (a[great] > pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] < pivot1) {
+                            a[k] = a[less];
+                            a[less] = a[great];
+                            ++less;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great] = ak;
+                        --great;
+                    }
+                }
+                a[left] = a[less - 1];
+                a[less - 1] = pivot1;
+                a[right] = a[great + 1];
+                a[great + 1] = pivot2;
+
+                sort(a, left, less - 2, depth);
+                sort(a, great + 2, right, depth);
+                left = less;
+                right = great;
+            } else {
+                double pivot = a[e3];
+                for (int k = less; k <= great;) {
+                    double ak = a[k];
+                    if (ak < pivot) {
+                        a[k++] = a[less];
+                        a[less++] = ak;
+                    } else if (ak > pivot) {
+                        a[k] = a[great];
+                        a[great--] = ak;
+                    } else {
+                        ++k;
+                    }
+                }
+                sort(a, left, less - 1, depth);
+                left = great + 1;
+            }
+        }
+        insertionSort(a, left, right);
+    }
+
+    private static void sortSamples(double[] a, int e1, int e2, int e3, int e4, int e5) {
+        int[] indexes = { e1, e2, e3, e4, e5 };
+        for (int i = 1; i < indexes.length; ++i) {
+            double value = a[indexes[i]];
+            int j = i - 1;
+            while (j >= 0 && a[indexes[j]] > value) {
+                a[indexes[j + 1]] = a[indexes[j]];
+                --j;
+            }
+            a[indexes[j + 1]] = value;
+        }
+    }
+
+    private static void insertionSort(double[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            double value = a[i];
+            int j = i - 1;
+            while (j >= left && a[j] > value) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(double[] a, int left, int right) {
+        int length = right - left + 1;
+        for (int i = length / 2 - 1; i >= 0; --i) {
+            siftDown(a, left, i, length);
+        }
+        for (int end = length - 1; end > 0; --end) {
+            double tmp = a[left];
+            a[left] = a[left + end];
+            a[left + end] = tmp;
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(double[] a, int offset, int index, int length) {
+        double value = a[offset + index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= length) {
+                break;
+            }
+            if (child + 1 < length && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= value) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = value;
+    }
+}
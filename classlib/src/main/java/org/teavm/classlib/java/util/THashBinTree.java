@@ -0,0 +1,393 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util;
+
+import org.teavm.classlib.java.util.THashMap.HashEntry;
+
+/**
+ * <p>Red-black tree over entries of a single crowded {@link THashMap} bin, which keeps lookups logarithmic
+ * when many keys collide.</p>
+ *
+ * <p>The bin still keeps its chain of entries, so that iteration does not depend on whether the bin is
+ * treeified. Tree nodes mirror this chain with {@code prev} and {@code next} links, which lets the map find
+ * predecessor of an entry it removes. Nodes are ordered by hash, then by class name, then by natural order
+ * for keys of the same {@link Comparable} class and finally by identity hash code. Lookup can't rely on the
+ * last two criteria, since different keys may be equal, so it searches both subtrees when they don't
+ * determine the direction.</p>
+ */
+final class THashBinTree<K, V> {
+    private Node<K, V> root;
+    private Node<K, V> first;
+    private int size;
+
+    THashBinTree(HashEntry<K, V> chain) {
+        Node<K, V> last = null;
+        for (var entry = chain; entry != null; entry = entry.next) {
+            var node = new Node<>(entry);
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+                node.prev = last;
+            }
+            last = node;
+            insert(node);
+            size++;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    HashEntry<K, V> find(Object key, int hash) {
+        var node = find(root, key, hash);
+        return node != null ? node.entry : null;
+    }
+
+    /**
+     * Adds entry that has just been put to the head of the bin's chain.
+     */
+    void addFirst(HashEntry<K, V> entry) {
+        var node = new Node<>(entry);
+        node.next = first;
+        if (first != null) {
+            first.prev = node;
+        }
+        first = node;
+        insert(node);
+        size++;
+    }
+
+    /**
+     * Removes entry from the tree.
+     *
+     * @return entry that precedes removed one in the bin's chain, or {@code null} if removed entry is
+     * the head of the chain.
+     */
+    HashEntry<K, V> remove(HashEntry<K, V> entry) {
+        var node = find(root, entry.key, entry.origKeyHash);
+        var prev = node.prev != null ? node.prev.entry : null;
+        unlinkFromChain(node);
+        delete(node);
+        size--;
+        return prev;
+    }
+
+    private static <K, V> Node<K, V> find(Node<K, V> node, Object key, int hash) {
+        while (node != null) {
+            var nodeKey = node.entry.key;
+            int nodeHash = node.entry.origKeyHash;
+            if (hash < nodeHash) {
+                node = node.left;
+            } else if (hash > nodeHash) {
+                node = node.right;
+            } else if (key == nodeKey || key != null && key.equals(nodeKey)) {
+                return node;
+            } else if (node.left == null) {
+                node = node.right;
+            } else if (node.right == null) {
+                node = node.left;
+            } else {
+                int direction = compareComparable(key, nodeKey);
+                if (direction != 0) {
+                    node = direction < 0 ? node.left : node.right;
+                } else {
+                    var result = find(node.right, key, hash);
+                    if (result != null) {
+                        return result;
+                    }
+                    node = node.left;
+                }
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareComparable(Object a, Object b) {
+        if (a == null || b == null || a.getClass() != b.getClass() || !(a instanceof Comparable)) {
+            return 0;
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    private static int compareKeys(Object a, Object b) {
+        if (a == null) {
+            return -1;
+        } else if (b == null) {
+            return 1;
+        }
+        if (a.getClass() != b.getClass()) {
+            int result = a.getClass().getName().compareTo(b.getClass().getName());
+            if (result != 0) {
+                return result;
+            }
+        } else {
+            int result = compareComparable(a, b);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return System.identityHashCode(a) <= System.identityHashCode(b) ? -1 : 1;
+    }
+
+    private void unlinkFromChain(Node<K, V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            first = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private void insert(Node<K, V> node) {
+        int hash = node.entry.origKeyHash;
+        var key = node.entry.key;
+        Node<K, V> parent = null;
+        var current = root;
+        int direction = 0;
+        while (current != null) {
+            parent = current;
+            int currentHash = current.entry.origKeyHash;
+            if (hash < currentHash) {
+                direction = -1;
+            } else if (hash > currentHash) {
+                direction = 1;
+            } else {
+                direction = compareKeys(key, current.entry.key);
+            }
+            current = direction < 0 ? current.left : current.right;
+        }
+        node.parent = parent;
+        if (parent == null) {
+            root = node;
+        } else if (direction < 0) {
+            parent.left = node;
+        } else {
+            parent.right = node;
+        }
+        fixAfterInsertion(node);
+    }
+
+    private void delete(Node<K, V> node) {
+        if (node.left != null && node.right != null) {
+            // Move successor to the place of the node being deleted, keeping chain links pointing to it
+            var successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.entry = successor.entry;
+            node.prev = successor.prev;
+            node.next = successor.next;
+            if (node.prev != null) {
+                node.prev.next = node;
+            } else {
+                first = node;
+            }
+            if (node.next != null) {
+                node.next.prev = node;
+            }
+            node = successor;
+        }
+
+        var replacement = node.left != null ? node.left : node.right;
+        if (replacement != null) {
+            replacement.parent = node.parent;
+            if (node.parent == null) {
+                root = replacement;
+            } else if (node == node.parent.left) {
+                node.parent.left = replacement;
+            } else {
+                node.parent.right = replacement;
+            }
+            node.left = null;
+            node.right = null;
+            node.parent = null;
+            if (!node.red) {
+                fixAfterDeletion(replacement);
+            }
+        } else if (node.parent == null) {
+            root = null;
+        } else {
+            if (!node.red) {
+                fixAfterDeletion(node);
+            }
+            if (node.parent != null) {
+                if (node == node.parent.left) {
+                    node.parent.left = null;
+                } else if (node == node.parent.right) {
+                    node.parent.right = null;
+                }
+                node.parent = null;
+            }
+        }
+    }
+
+    private void fixAfterInsertion(Node<K, V> node) {
+        node.red = true;
+        while (node != root && node.parent.red) {
+            var parent = node.parent;
+            var grandParent = parent.parent;
+            if (parent == grandParent.left) {
+                var uncle = grandParent.right;
+                if (isRed(uncle)) {
+                    parent.red = false;
+                    uncle.red = false;
+                    grandParent.red = true;
+                    node = grandParent;
+                } else {
+                    if (node == parent.right) {
+                        node = parent;
+                        rotateLeft(node);
+                    }
+                    node.parent.red = false;
+                    node.parent.parent.red = true;
+                    rotateRight(node.parent.parent);
+                }
+            } else {
+                var uncle = grandParent.left;
+                if (isRed(uncle)) {
+                    parent.red = false;
+                    uncle.red = false;
+                    grandParent.red = true;
+                    node = grandParent;
+                } else {
+                    if (node == parent.left) {
+                        node = parent;
+                        rotateRight(node);
+                    }
+                    node.parent.red = false;
+                    node.parent.parent.red = true;
+                    rotateLeft(node.parent.parent);
+                }
+            }
+        }
+        root.red = false;
+    }
+
+    private void fixAfterDeletion(Node<K, V> node) {
+        while (node != root && !node.red) {
+            var parent = node.parent;
+            if (node == parent.left) {
+                var sibling = parent.right;
+                if (isRed(sibling)) {
+                    sibling.red = false;
+                    parent.red = true;
+                    rotateLeft(parent);
+                    sibling = parent.right;
+                }
+                if (!isRed(sibling.left) && !isRed(sibling.right)) {
+                    sibling.red = true;
+                    node = parent;
+                } else {
+                    if (!isRed(sibling.right)) {
+                        sibling.left.red = false;
+                        sibling.red = true;
+                        rotateRight(sibling);
+                        sibling = parent.right;
+                    }
+                    sibling.red = parent.red;
+                    parent.red = false;
+                    sibling.right.red = false;
+                    rotateLeft(parent);
+                    node = root;
+                }
+            } else {
+                var sibling = parent.left;
+                if (isRed(sibling)) {
+                    sibling.red = false;
+                    parent.red = true;
+                    rotateRight(parent);
+                    sibling = parent.left;
+                }
+                if (!isRed(sibling.left) && !isRed(sibling.right)) {
+                    sibling.red = true;
+                    node = parent;
+                } else {
+                    if (!isRed(sibling.left)) {
+                        sibling.right.red = false;
+                        sibling.red = true;
+                        rotateLeft(sibling);
+                        sibling = parent.left;
+                    }
+                    sibling.red = parent.red;
+                    parent.red = false;
+                    sibling.left.red = false;
+                    rotateRight(parent);
+                    node = root;
+                }
+            }
+        }
+        node.red = false;
+    }
+
+    private static boolean isRed(Node<?, ?> node) {
+        return node != null && node.red;
+    }
+
+    private void rotateLeft(Node<K, V> node) {
+        var right = node.right;
+        node.right = right.left;
+        if (right.left != null) {
+            right.left.parent = node;
+        }
+        replaceChild(node, right);
+        right.left = node;
+        node.parent = right;
+    }
+
+    private void rotateRight(Node<K, V> node) {
+        var left = node.left;
+        node.left = left.right;
+        if (left.right != null) {
+            left.right.parent = node;
+        }
+        replaceChild(node, left);
+        left.right = node;
+        node.parent = left;
+    }
+
+    private void replaceChild(Node<K, V> node, Node<K, V> replacement) {
+        var parent = node.parent;
+        replacement.parent = parent;
+        if (parent == null) {
+            root = replacement;
+        } else if (parent.left == node) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+    }
+
+    private static final class Node<K, V> {
+        HashEntry<K, V> entry;
+        Node<K, V> parent;
+        Node<K, V> left;
+        Node<K, V> right;
+        Node<K, V> prev;
+        Node<K, V> next;
+        boolean red;
+
+        Node(HashEntry<K, V> entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -30,9 +30,13 @@ import org.teavm.interop.Rename;
 public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TSerializable {
     transient int elementCount;
     transient HashEntry<K, V>[] elementData;
+    transient THashBinTree<K, V>[] trees;
     transient int modCount;
     private static final int DEFAULT_SIZE = 16;
     private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+    private static final int MIN_TREEIFY_CAPACITY = 64;
     final float loadFactor;
     int threshold;
 
@@ -48,7 +52,7 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
 
         HashEntry(K theKey, V theValue) {
             super(theKey, theValue);
-            origKeyHash = TObjects.hashCode(theKey);
+            origKeyHash = hash(theKey);
         }
 
         @Override
@@ -67,7 +71,6 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
         int expectedModCount;
         HashEntry<K, V> futureEntry;
         HashEntry<K, V> currentEntry;
-        HashEntry<K, V> prevEntry;
 
         final THashMap<K, V> associatedMap;
 
@@ -105,11 +108,7 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
             if (futureEntry == null) {
                 currentEntry = associatedMap.elementData[position++];
                 futureEntry = currentEntry.next;
-                prevEntry = null;
             } else {
-                if (currentEntry != null) {
-                    prevEntry = currentEntry;
-                }
                 currentEntry = futureEntry;
                 futureEntry = futureEntry.next;
             }
@@ -120,17 +119,9 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
             if (currentEntry == null) {
                 throw new TIllegalStateException();
             }
-            if (prevEntry == null) {
-                int index = currentEntry.origKeyHash & (associatedMap.elementData.length - 1);
-                associatedMap.elementData[index] = associatedMap.elementData[index].next;
-            } else {
-                prevEntry.next = currentEntry.next;
-            }
+            associatedMap.removeEntry(currentEntry);
             currentEntry = null;
             expectedModCount++;
-            associatedMap.modCount++;
-            associatedMap.elementCount--;
-
         }
     }
 
@@ -302,6 +293,7 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
         if (elementCount > 0) {
             elementCount = 0;
             Arrays.fill(elementData, null);
+            trees = null;
             modCount++;
         }
     }
@@ -313,6 +305,7 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
             THashMap<K, V> map = (THashMap<K, V>) super.clone();
             map.elementCount = 0;
             map.elementData = newElementArray(elementData.length);
+            map.trees = null;
             map.putAll(this);
 
             return map;
@@ -376,7 +369,7 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
         if (key == null) {
             m = findNullKeyEntry();
         } else {
-            int hash = key.hashCode();
+            int hash = hash(key);
             int index = hash & (elementData.length - 1);
             m = findNonNullKeyEntry(key, index, hash);
         }
@@ -384,6 +377,9 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
     }
 
     final HashEntry<K, V> findNonNullKeyEntry(Object key, int index, int keyHash) {
+        if (trees != null && trees[index] != null) {
+            return trees[index].find(key, keyHash);
+        }
         HashEntry<K, V> m = elementData[index];
         while (m != null && (m.origKeyHash != keyHash || !areEqualKeys(key, m.key))) {
             m = m.next;
@@ -392,6 +388,9 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
     }
 
     final HashEntry<K, V> findNullKeyEntry() {
+        if (trees != null && trees[0] != null) {
+            return trees[0].find(null, 0);
+        }
         HashEntry<K, V> m = elementData[0];
         while (m != null && m.key != null) {
             m = m.next;
@@ -461,7 +460,7 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
                 }
             }
         } else {
-            int hash = key.hashCode();
+            int hash = hash(key);
             int index = hash & (elementData.length - 1);
             entry = findNonNullKeyEntry(key, index, hash);
             if (entry == null) {
@@ -480,9 +479,41 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
 
     private HashEntry<K, V> createHashedEntry(K key, int index, int hash) {
         HashEntry<K, V> entry = new HashEntry<>(key, hash);
+        addEntry(entry, index);
+        return entry;
+    }
+
+    final void addEntry(HashEntry<K, V> entry, int index) {
         entry.next = elementData[index];
         elementData[index] = entry;
-        return entry;
+        if (trees != null && trees[index] != null) {
+            trees[index].addFirst(entry);
+        } else if (entry.next != null && isCrowded(entry)) {
+            if (elementData.length < MIN_TREEIFY_CAPACITY) {
+                rehash();
+            } else {
+                treeify(index);
+            }
+        }
+    }
+
+    private static boolean isCrowded(HashEntry<?, ?> chain) {
+        int length = 0;
+        while (chain != null) {
+            if (++length >= TREEIFY_THRESHOLD) {
+                return true;
+            }
+            chain = chain.next;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void treeify(int index) {
+        if (trees == null) {
+            trees = new THashBinTree[elementData.length];
+        }
+        trees[index] = new THashBinTree<>(elementData[index]);
     }
 
     @Override
@@ -506,6 +537,8 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
     void rehash(int capacity) {
         int length = calculateCapacity(capacity == 0 ? 1 : capacity << 1);
 
+        boolean hadTrees = trees != null;
+        trees = null;
         HashEntry<K, V>[] newData = newElementArray(length);
         for (int i = 0; i < elementData.length; i++) {
             HashEntry<K, V> entry = elementData[i];
@@ -520,6 +553,14 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
         }
         elementData = newData;
         computeThreshold();
+
+        if (hadTrees && length >= MIN_TREEIFY_CAPACITY) {
+            for (int i = 0; i < length; ++i) {
+                if (isCrowded(newData[i])) {
+                    treeify(i);
+                }
+            }
+        }
     }
 
     void rehash() {
@@ -537,26 +578,46 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
 
     final void removeEntry(HashEntry<K, V> entry) {
         int index = entry.origKeyHash & (elementData.length - 1);
-        var m = elementData[index];
-        if (m == entry) {
-            elementData[index] = entry.next;
+        var tree = trees != null ? trees[index] : null;
+        if (tree != null) {
+            var prev = tree.remove(entry);
+            if (tree.size() <= UNTREEIFY_THRESHOLD) {
+                trees[index] = null;
+            }
+            if (prev == null) {
+                elementData[index] = entry.next;
+            } else {
+                prev.next = entry.next;
+            }
         } else {
-            while (m.next != entry) {
-                m = m.next;
+            var m = elementData[index];
+            if (m == entry) {
+                elementData[index] = entry.next;
+            } else {
+                while (m.next != entry) {
+                    m = m.next;
+                }
+                m.next = entry.next;
             }
-            m.next = entry.next;
         }
         modCount++;
         elementCount--;
     }
 
     final HashEntry<K, V> removeByKey(Object key) {
-        int index = 0;
+        int hash = hash(key);
+        int index = hash & (elementData.length - 1);
+        if (trees != null && trees[index] != null) {
+            var entry = trees[index].find(key, hash);
+            if (entry != null) {
+                removeEntry(entry);
+            }
+            return entry;
+        }
+
         HashEntry<K, V> entry;
         HashEntry<K, V> last = null;
         if (key != null) {
-            int hash = key.hashCode();
-            index = hash & (elementData.length - 1);
             entry = elementData[index];
             while (entry != null && !(entry.origKeyHash == hash && areEqualKeys(key, entry.key))) {
                 last = entry;
@@ -657,6 +718,17 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
         }
     }
 
+    /**
+     * Mixes higher bits of hash code into lower ones, since only lower bits are used to choose a bin.
+     */
+    static int hash(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
     static boolean areEqualKeys(Object key1, Object key2) {
         return (key1 == key2) || key1.equals(key2);
     }
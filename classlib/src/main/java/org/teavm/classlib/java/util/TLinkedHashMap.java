@@ -15,7 +15,6 @@
  */
 package org.teavm.classlib.java.util;
 
-import java.util.Objects;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 
@@ -132,8 +131,8 @@ public class TLinkedHashMap<K, V> extends THashMap<K, V> implements TSequencedMa
         if (key == null) {
             entry = (LinkedHashMapEntry<K, V>) findNullKeyEntry();
         } else {
-            int hash = key.hashCode();
-            int index = (hash & 0x7FFFFFFF) % elementData.length;
+            int hash = hash(key);
+            int index = hash & (elementData.length - 1);
             entry = (LinkedHashMapEntry<K, V>) findNonNullKeyEntry(key, index, hash);
         }
         if (entry == null) {
@@ -152,8 +151,7 @@ public class TLinkedHashMap<K, V> extends THashMap<K, V> implements TSequencedMa
 
     private HashEntry<K, V> createHashedEntry(K key, int index, int hash, boolean first) {
         var entry = new LinkedHashMapEntry<K, V>(key, hash);
-        entry.next = elementData[index];
-        elementData[index] = entry;
+        addEntry(entry, index);
         if (first) {
             if (head != null) {
                 head.chainBackward = entry;
@@ -192,14 +190,14 @@ public class TLinkedHashMap<K, V> extends THashMap<K, V> implements TSequencedMa
             head = null;
             tail = null;
         }
-        int hash = Objects.hashCode(key);
-        int index = (hash & Integer.MAX_VALUE) % elementData.length;
+        int hash = hash(key);
+        int index = hash & (elementData.length - 1);
         entry = (LinkedHashMapEntry<K, V>) (key != null ? findNonNullKeyEntry(key, index, hash) : findNullKeyEntry());
         if (entry == null) {
             modCount++;
             if (++elementCount > threshold) {
                 rehash();
-                index = (hash & Integer.MAX_VALUE) % elementData.length;
+                index = hash & (elementData.length - 1);
             }
             entry = (LinkedHashMapEntry<K, V>) createHashedEntry(key, index, hash, first);
         } else if (forceMotion) {
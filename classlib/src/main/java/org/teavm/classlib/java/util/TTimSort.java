@@ -0,0 +1,260 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util;
+
+/**
+ * <p>Stable in-place sorting of object arrays, used by {@link TArrays}.</p>
+ *
+ * <p>This is a simplified TimSort: the range is split into natural runs (strictly descending runs are reversed),
+ * short runs are extended to a minimal length with binary insertion sort, and runs are merged as they are pushed
+ * to the stack, so that lengths of runs on the stack decrease at least as fast as Fibonacci numbers. Before merging
+ * two runs, elements that are already in place are skipped by binary search, and only the shorter of the remaining
+ * parts is copied to a temporary array. Therefore, already sorted or reversed input takes linear time.</p>
+ */
+final class TTimSort {
+    private static final int MIN_MERGE = 32;
+
+    private Object[] a;
+    private TComparator<Object> c;
+    private Object[] tmp;
+    private int[] runStart = new int[40];
+    private int[] runLength = new int[40];
+    private int stackSize;
+
+    private TTimSort(Object[] a, TComparator<Object> c) {
+        this.a = a;
+        this.c = c;
+    }
+
+    @SuppressWarnings("unchecked")
+    static void sort(Object[] a, int fromIndex, int toIndex, TComparator<?> c) {
+        var comparator = (TComparator<Object>) c;
+        int remaining = toIndex - fromIndex;
+        if (remaining < 2) {
+            return;
+        }
+        if (remaining < MIN_MERGE) {
+            int runEnd = countRun(a, fromIndex, toIndex, comparator);
+            binaryInsertionSort(a, fromIndex, toIndex, runEnd, comparator);
+            return;
+        }
+
+        var sorter = new TTimSort(a, comparator);
+        int minRun = minRunLength(remaining);
+        int lo = fromIndex;
+        do {
+            int runEnd = countRun(a, lo, toIndex, comparator);
+            int length = runEnd - lo;
+            if (length < minRun) {
+                int forced = Math.min(remaining, minRun);
+                binaryInsertionSort(a, lo, lo + forced, runEnd, comparator);
+                length = forced;
+            }
+            sorter.pushRun(lo, length);
+            sorter.mergeCollapse();
+            lo += length;
+            remaining -= length;
+        } while (remaining > 0);
+        sorter.mergeForceCollapse();
+    }
+
+    private static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    private static int countRun(Object[] a, int lo, int hi, TComparator<Object> c) {
+        int runEnd = lo + 1;
+        if (runEnd == hi) {
+            return runEnd;
+        }
+        if (c.compare(a[runEnd++], a[lo]) < 0) {
+            while (runEnd < hi && c.compare(a[runEnd], a[runEnd - 1]) < 0) {
+                runEnd++;
+            }
+            reverse(a, lo, runEnd);
+        } else {
+            while (runEnd < hi && c.compare(a[runEnd], a[runEnd - 1]) >= 0) {
+                runEnd++;
+            }
+        }
+        return runEnd;
+    }
+
+    private static void reverse(Object[] a, int lo, int hi) {
+        --hi;
+        while (lo < hi) {
+            Object t = a[lo];
+            a[lo++] = a[hi];
+            a[hi--] = t;
+        }
+    }
+
+    private static void binaryInsertionSort(Object[] a, int lo, int hi, int start, TComparator<Object> c) {
+        for (; start < hi; ++start) {
+            Object pivot = a[start];
+            int left = lo;
+            int right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (c.compare(pivot, a[mid]) < 0) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            System.arraycopy(a, left, a, left + 1, start - left);
+            a[left] = pivot;
+        }
+    }
+
+    private void pushRun(int start, int length) {
+        if (stackSize == runStart.length) {
+            runStart = TArrays.copyOf(runStart, stackSize * 2);
+            runLength = TArrays.copyOf(runLength, stackSize * 2);
+        }
+        runStart[stackSize] = start;
+        runLength[stackSize] = length;
+        stackSize++;
+    }
+
+    private void mergeCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                    || n > 1 && runLength[n - 2] <= runLength[n - 1] + runLength[n]) {
+                if (runLength[n - 1] < runLength[n + 1]) {
+                    n--;
+                }
+            } else if (runLength[n] > runLength[n + 1]) {
+                break;
+            }
+            mergeAt(n);
+        }
+    }
+
+    private void mergeForceCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLength[n - 1] < runLength[n + 1]) {
+                n--;
+            }
+            mergeAt(n);
+        }
+    }
+
+    private void mergeAt(int i) {
+        int base1 = runStart[i];
+        int length1 = runLength[i];
+        int base2 = runStart[i + 1];
+        int length2 = runLength[i + 1];
+
+        runLength[i] = length1 + length2;
+        if (i == stackSize - 3) {
+            runStart[i + 1] = runStart[i + 2];
+            runLength[i + 1] = runLength[i + 2];
+        }
+        stackSize--;
+
+        // Elements of the first run that are not greater than the first element of the second run
+        // are already in place, as well as elements of the second run that are not less than the last
+        // element of the first run
+        int skip = upperBound(a[base2], base1, base1 + length1);
+        length1 -= skip - base1;
+        base1 = skip;
+        if (length1 == 0) {
+            return;
+        }
+        length2 = lowerBound(a[base1 + length1 - 1], base2, base2 + length2) - base2;
+        if (length2 == 0) {
+            return;
+        }
+
+        if (length1 <= length2) {
+            mergeLow(base1, length1, base2, length2);
+        } else {
+            mergeHigh(base1, length1, base2, length2);
+        }
+    }
+
+    private int upperBound(Object key, int lo, int hi) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (c.compare(key, a[mid]) < 0) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private int lowerBound(Object key, int lo, int hi) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (c.compare(a[mid], key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private Object[] ensureCapacity(int length) {
+        if (tmp == null || tmp.length < length) {
+            tmp = new Object[Math.max(length, Math.min(a.length >>> 1, 256))];
+        }
+        return tmp;
+    }
+
+    private void mergeLow(int base1, int length1, int base2, int length2) {
+        Object[] t = ensureCapacity(length1);
+        System.arraycopy(a, base1, t, 0, length1);
+        int i = 0;
+        int j = base2;
+        int end2 = base2 + length2;
+        int dest = base1;
+        while (i < length1 && j < end2) {
+            if (c.compare(a[j], t[i]) < 0) {
+                a[dest++] = a[j++];
+            } else {
+                a[dest++] = t[i++];
+            }
+        }
+        System.arraycopy(t, i, a, dest, length1 - i);
+    }
+
+    private void mergeHigh(int base1, int length1, int base2, int length2) {
+        Object[] t = ensureCapacity(length2);
+        System.arraycopy(a, base2, t, 0, length2);
+        int i = base1 + length1 - 1;
+        int j = length2 - 1;
+        int dest = base2 + length2 - 1;
+        while (i >= base1 && j >= 0) {
+            if (c.compare(t[j], a[i]) < 0) {
+                a[dest--] = a[i--];
+            } else {
+                a[dest--] = t[j--];
+            }
+        }
+        System.arraycopy(t, 0, a, dest - j, j + 1);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+public abstract class TAbstractExecutorService implements TExecutorService {
+    protected <T> TRunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new TFutureTask<>(runnable, value);
+    }
+
+    protected <T> TRunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new TFutureTask<>(callable);
+    }
+
+    @Override
+    public TFuture<?> submit(Runnable task) {
+        Objects.requireNonNull(task);
+        var future = newTaskFor(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> TFuture<T> submit(Runnable task, T result) {
+        Objects.requireNonNull(task);
+        var future = newTaskFor(task, result);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> TFuture<T> submit(Callable<T> task) {
+        Objects.requireNonNull(task);
+        var future = newTaskFor(task);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> List<TFuture<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        var futures = submitAll(tasks);
+        for (var future : futures) {
+            try {
+                future.get();
+            } catch (TExecutionException | TCancellationException e) {
+                // Reported by the future itself
+            }
+        }
+        return futures;
+    }
+
+    @Override
+    public <T> List<TFuture<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TTimeUnit unit)
+            throws InterruptedException {
+        long deadline = TExecutors.deadline(timeout, unit);
+        var futures = submitAll(tasks);
+        for (var future : futures) {
+            try {
+                future.get(Math.max(0, deadline - System.currentTimeMillis()), TTimeUnit.MILLISECONDS);
+            } catch (TExecutionException | TCancellationException e) {
+                // Reported by the future itself
+            } catch (TTimeoutException e) {
+                for (var remaining : futures) {
+                    remaining.cancel(true);
+                }
+                break;
+            }
+        }
+        return futures;
+    }
+
+    private <T> List<TFuture<T>> submitAll(Collection<? extends Callable<T>> tasks) {
+        var futures = new ArrayList<TFuture<T>>(tasks.size());
+        for (var task : tasks) {
+            futures.add(submit(task));
+        }
+        return futures;
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException,
+            TExecutionException {
+        try {
+            return invokeAny(tasks, Long.MAX_VALUE, TTimeUnit.MILLISECONDS);
+        } catch (TTimeoutException e) {
+            throw new TExecutionException(e);
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TTimeUnit unit)
+            throws InterruptedException, TExecutionException, TTimeoutException {
+        if (tasks.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        long deadline = TExecutors.deadline(timeout, unit);
+        var futures = submitAll(tasks);
+        TExecutionException lastException = null;
+        try {
+            for (var future : futures) {
+                try {
+                    return deadline == Long.MAX_VALUE
+                            ? future.get()
+                            : future.get(Math.max(0, deadline - System.currentTimeMillis()), TTimeUnit.MILLISECONDS);
+                } catch (TExecutionException e) {
+                    lastException = e;
+                } catch (TCancellationException e) {
+                    lastException = new TExecutionException(e);
+                }
+            }
+        } finally {
+            for (var future : futures) {
+                future.cancel(true);
+            }
+        }
+        throw lastException;
+    }
+}
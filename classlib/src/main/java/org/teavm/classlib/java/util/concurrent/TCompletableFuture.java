@@ -0,0 +1,780 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>Completable future for the single-threaded runtime. Dependent actions are either run by the thread that
+ * completes the future or, for asynchronous methods, are submitted to an executor. By default it's the shared
+ * executor that runs tasks on the event loop.</p>
+ *
+ * <p>Completion of a future runs all its dependents, which are stored in a plain list, since no
+ * other thread may interfere while the list is processed.</p>
+ */
+public class TCompletableFuture<T> implements TFuture<T>, TCompletionStage<T> {
+    private static TEventLoopExecutor defaultExecutor;
+
+    private boolean done;
+    private T value;
+    private Throwable exception;
+    private List<Runnable> dependents;
+
+    public TCompletableFuture() {
+    }
+
+    static TEventLoopExecutor defaultExecutorImpl() {
+        if (defaultExecutor == null) {
+            defaultExecutor = new TEventLoopExecutor();
+        }
+        return defaultExecutor;
+    }
+
+    public static <U> TCompletableFuture<U> supplyAsync(Supplier<U> supplier) {
+        return supplyAsync(supplier, defaultExecutorImpl());
+    }
+
+    public static <U> TCompletableFuture<U> supplyAsync(Supplier<U> supplier, TExecutor executor) {
+        Objects.requireNonNull(supplier);
+        var result = new TCompletableFuture<U>();
+        result.runOn(executor, () -> result.completeValue(supplier.get()));
+        return result;
+    }
+
+    public static TCompletableFuture<Void> runAsync(Runnable runnable) {
+        return runAsync(runnable, defaultExecutorImpl());
+    }
+
+    public static TCompletableFuture<Void> runAsync(Runnable runnable, TExecutor executor) {
+        Objects.requireNonNull(runnable);
+        var result = new TCompletableFuture<Void>();
+        result.runOn(executor, () -> {
+            runnable.run();
+            result.completeValue(null);
+        });
+        return result;
+    }
+
+    public static <U> TCompletableFuture<U> completedFuture(U value) {
+        var result = new TCompletableFuture<U>();
+        result.completeValue(value);
+        return result;
+    }
+
+    public static <U> TCompletionStage<U> completedStage(U value) {
+        return completedFuture(value);
+    }
+
+    public static <U> TCompletableFuture<U> failedFuture(Throwable ex) {
+        Objects.requireNonNull(ex);
+        var result = new TCompletableFuture<U>();
+        result.completeThrowable(ex, false);
+        return result;
+    }
+
+    public static <U> TCompletionStage<U> failedStage(Throwable ex) {
+        return failedFuture(ex);
+    }
+
+    public static TCompletableFuture<Void> allOf(TCompletableFuture<?>... cfs) {
+        var result = new TCompletableFuture<Void>();
+        if (cfs.length == 0) {
+            result.completeValue(null);
+            return result;
+        }
+        var remaining = new int[] { cfs.length };
+        for (var cf : cfs) {
+            cf.onDone(() -> {
+                if (--remaining[0] > 0) {
+                    return;
+                }
+                for (var other : cfs) {
+                    if (other.exception != null) {
+                        result.completeThrowable(other.exception, true);
+                        return;
+                    }
+                }
+                result.completeValue(null);
+            });
+        }
+        return result;
+    }
+
+    public static TCompletableFuture<Object> anyOf(TCompletableFuture<?>... cfs) {
+        var result = new TCompletableFuture<Object>();
+        for (var cf : cfs) {
+            cf.onDone(() -> result.relay(cf));
+        }
+        return result;
+    }
+
+    public static TExecutor delayedExecutor(long delay, TTimeUnit unit) {
+        return delayedExecutor(delay, unit, defaultExecutorImpl());
+    }
+
+    public static TExecutor delayedExecutor(long delay, TTimeUnit unit, TExecutor executor) {
+        Objects.requireNonNull(unit);
+        Objects.requireNonNull(executor);
+        return command -> {
+            Objects.requireNonNull(command);
+            defaultExecutorImpl().schedule(() -> executor.execute(command), delay, unit);
+        };
+    }
+
+    public TExecutor defaultExecutor() {
+        return defaultExecutorImpl();
+    }
+
+    public <U> TCompletableFuture<U> newIncompleteFuture() {
+        return new TCompletableFuture<>();
+    }
+
+    private void onDone(Runnable action) {
+        if (done) {
+            action.run();
+        } else {
+            if (dependents == null) {
+                dependents = new ArrayList<>();
+            }
+            dependents.add(action);
+        }
+    }
+
+    private void runOn(TExecutor executor, Runnable action) {
+        Objects.requireNonNull(executor);
+        Runnable task = () -> {
+            try {
+                action.run();
+            } catch (Throwable e) {
+                completeThrowable(e, true);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (Throwable e) {
+            completeThrowable(e, true);
+        }
+    }
+
+    private <U> TCompletableFuture<U> then(TExecutor executor, boolean handlesErrors,
+            Completion<T, U> completion) {
+        var target = this.<U>newIncompleteFuture();
+        onDone(() -> {
+            if (!handlesErrors && exception != null) {
+                target.completeThrowable(exception, true);
+                return;
+            }
+            Runnable action = () -> completion.complete(value, exception, target);
+            if (executor != null) {
+                target.runOn(executor, action);
+            } else {
+                try {
+                    action.run();
+                } catch (Throwable e) {
+                    target.completeThrowable(e, true);
+                }
+            }
+        });
+        return target;
+    }
+
+    private <U, V> TCompletableFuture<V> thenBoth(TCompletionStage<? extends U> other, TExecutor executor,
+            BiFunction<? super T, ? super U, ? extends V> fn) {
+        var second = other.toCompletableFuture();
+        return this.<TCompletableFuture<V>>then(null, false, (r, e, t) -> {
+            t.completeValue(second.then(executor, false, (r1, e1, t1) -> t1.completeValue(fn.apply(r, r1))));
+        }).thenCompose(Function.identity());
+    }
+
+    private <U> TCompletableFuture<U> thenEither(TCompletionStage<? extends T> other, TExecutor executor,
+            Function<? super T, U> fn) {
+        var first = new TCompletableFuture<T>();
+        onDone(() -> first.relay(this));
+        var second = other.toCompletableFuture();
+        second.onDone(() -> first.relay(second));
+        return first.then(executor, false, (r, e, t) -> t.completeValue(fn.apply(r)));
+    }
+
+    private void relay(TCompletableFuture<? extends T> source) {
+        if (source.exception != null) {
+            completeThrowable(source.exception, true);
+        } else {
+            completeValue(source.value);
+        }
+    }
+
+    private boolean completeValue(T value) {
+        if (done) {
+            return false;
+        }
+        this.value = value;
+        postComplete();
+        return true;
+    }
+
+    private boolean completeThrowable(Throwable e, boolean wrap) {
+        if (done) {
+            return false;
+        }
+        exception = wrap && !(e instanceof TCompletionException) ? new TCompletionException(e) : e;
+        postComplete();
+        return true;
+    }
+
+    private void postComplete() {
+        done = true;
+        var actions = dependents;
+        dependents = null;
+        if (actions != null) {
+            for (var action : actions) {
+                action.run();
+            }
+        }
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenApply(Function<? super T, ? extends U> fn) {
+        return thenApplyImpl(fn, null);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn) {
+        return thenApplyImpl(fn, defaultExecutor());
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn, TExecutor executor) {
+        return thenApplyImpl(fn, Objects.requireNonNull(executor));
+    }
+
+    private <U> TCompletableFuture<U> thenApplyImpl(Function<? super T, ? extends U> fn, TExecutor executor) {
+        Objects.requireNonNull(fn);
+        return then(executor, false, (r, e, t) -> t.completeValue(fn.apply(r)));
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenAccept(Consumer<? super T> action) {
+        return thenAcceptImpl(action, null);
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action) {
+        return thenAcceptImpl(action, defaultExecutor());
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action, TExecutor executor) {
+        return thenAcceptImpl(action, Objects.requireNonNull(executor));
+    }
+
+    private TCompletableFuture<Void> thenAcceptImpl(Consumer<? super T> action, TExecutor executor) {
+        Objects.requireNonNull(action);
+        return then(executor, false, (r, e, t) -> {
+            action.accept(r);
+            t.completeValue(null);
+        });
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenRun(Runnable action) {
+        return thenRunImpl(action, null);
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenRunAsync(Runnable action) {
+        return thenRunImpl(action, defaultExecutor());
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenRunAsync(Runnable action, TExecutor executor) {
+        return thenRunImpl(action, Objects.requireNonNull(executor));
+    }
+
+    private TCompletableFuture<Void> thenRunImpl(Runnable action, TExecutor executor) {
+        Objects.requireNonNull(action);
+        return then(executor, false, (r, e, t) -> {
+            action.run();
+            t.completeValue(null);
+        });
+    }
+
+    @Override
+    public <U, V> TCompletableFuture<V> thenCombine(TCompletionStage<? extends U> other,
+            BiFunction<? super T, ? super U, ? extends V> fn) {
+        Objects.requireNonNull(fn);
+        return thenBoth(other, null, fn);
+    }
+
+    @Override
+    public <U, V> TCompletableFuture<V> thenCombineAsync(TCompletionStage<? extends U> other,
+            BiFunction<? super T, ? super U, ? extends V> fn) {
+        Objects.requireNonNull(fn);
+        return thenBoth(other, defaultExecutor(), fn);
+    }
+
+    @Override
+    public <U, V> TCompletableFuture<V> thenCombineAsync(TCompletionStage<? extends U> other,
+            BiFunction<? super T, ? super U, ? extends V> fn, TExecutor executor) {
+        Objects.requireNonNull(fn);
+        return thenBoth(other, Objects.requireNonNull(executor), fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<Void> thenAcceptBoth(TCompletionStage<? extends U> other,
+            BiConsumer<? super T, ? super U> action) {
+        return thenAcceptBothImpl(other, action, null);
+    }
+
+    @Override
+    public <U> TCompletableFuture<Void> thenAcceptBothAsync(TCompletionStage<? extends U> other,
+            BiConsumer<? super T, ? super U> action) {
+        return thenAcceptBothImpl(other, action, defaultExecutor());
+    }
+
+    @Override
+    public <U> TCompletableFuture<Void> thenAcceptBothAsync(TCompletionStage<? extends U> other,
+            BiConsumer<? super T, ? super U> action, TExecutor executor) {
+        return thenAcceptBothImpl(other, action, Objects.requireNonNull(executor));
+    }
+
+    private <U> TCompletableFuture<Void> thenAcceptBothImpl(TCompletionStage<? extends U> other,
+            BiConsumer<? super T, ? super U> action, TExecutor executor) {
+        Objects.requireNonNull(action);
+        return thenBoth(other, executor, (r1, r2) -> {
+            action.accept(r1, r2);
+            return null;
+        });
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterBoth(TCompletionStage<?> other, Runnable action) {
+        return runAfterBothImpl(other, action, null);
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterBothAsync(TCompletionStage<?> other, Runnable action) {
+        return runAfterBothImpl(other, action, defaultExecutor());
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterBothAsync(TCompletionStage<?> other, Runnable action,
+            TExecutor executor) {
+        return runAfterBothImpl(other, action, Objects.requireNonNull(executor));
+    }
+
+    private TCompletableFuture<Void> runAfterBothImpl(TCompletionStage<?> other, Runnable action,
+            TExecutor executor) {
+        Objects.requireNonNull(action);
+        return thenBoth(other, executor, (r1, r2) -> {
+            action.run();
+            return null;
+        });
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> applyToEither(TCompletionStage<? extends T> other, Function<? super T, U> fn) {
+        Objects.requireNonNull(fn);
+        return thenEither(other, null, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> applyToEitherAsync(TCompletionStage<? extends T> other,
+            Function<? super T, U> fn) {
+        Objects.requireNonNull(fn);
+        return thenEither(other, defaultExecutor(), fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> applyToEitherAsync(TCompletionStage<? extends T> other,
+            Function<? super T, U> fn, TExecutor executor) {
+        Objects.requireNonNull(fn);
+        return thenEither(other, Objects.requireNonNull(executor), fn);
+    }
+
+    @Override
+    public TCompletableFuture<Void> acceptEither(TCompletionStage<? extends T> other, Consumer<? super T> action) {
+        return acceptEitherImpl(other, action, null);
+    }
+
+    @Override
+    public TCompletableFuture<Void> acceptEitherAsync(TCompletionStage<? extends T> other,
+            Consumer<? super T> action) {
+        return acceptEitherImpl(other, action, defaultExecutor());
+    }
+
+    @Override
+    public TCompletableFuture<Void> acceptEitherAsync(TCompletionStage<? extends T> other,
+            Consumer<? super T> action, TExecutor executor) {
+        return acceptEitherImpl(other, action, Objects.requireNonNull(executor));
+    }
+
+    private TCompletableFuture<Void> acceptEitherImpl(TCompletionStage<? extends T> other,
+            Consumer<? super T> action, TExecutor executor) {
+        Objects.requireNonNull(action);
+        return thenEither(other, executor, r -> {
+            action.accept(r);
+            return null;
+        });
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterEither(TCompletionStage<?> other, Runnable action) {
+        return runAfterEitherImpl(other, action, null);
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterEitherAsync(TCompletionStage<?> other, Runnable action) {
+        return runAfterEitherImpl(other, action, defaultExecutor());
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterEitherAsync(TCompletionStage<?> other, Runnable action,
+            TExecutor executor) {
+        return runAfterEitherImpl(other, action, Objects.requireNonNull(executor));
+    }
+
+    @SuppressWarnings("unchecked")
+    private TCompletableFuture<Void> runAfterEitherImpl(TCompletionStage<?> other, Runnable action,
+            TExecutor executor) {
+        Objects.requireNonNull(action);
+        return ((TCompletableFuture<Object>) this).thenEither(other, executor, r -> {
+            action.run();
+            return null;
+        });
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenCompose(Function<? super T, ? extends TCompletionStage<U>> fn) {
+        return thenComposeImpl(fn, null);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenComposeAsync(Function<? super T, ? extends TCompletionStage<U>> fn) {
+        return thenComposeImpl(fn, defaultExecutor());
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenComposeAsync(Function<? super T, ? extends TCompletionStage<U>> fn,
+            TExecutor executor) {
+        return thenComposeImpl(fn, Objects.requireNonNull(executor));
+    }
+
+    private <U> TCompletableFuture<U> thenComposeImpl(Function<? super T, ? extends TCompletionStage<U>> fn,
+            TExecutor executor) {
+        Objects.requireNonNull(fn);
+        return then(executor, false, (r, e, t) -> {
+            var next = fn.apply(r).toCompletableFuture();
+            next.onDone(() -> t.relay(next));
+        });
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> handle(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return handleImpl(fn, null);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return handleImpl(fn, defaultExecutor());
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn,
+            TExecutor executor) {
+        return handleImpl(fn, Objects.requireNonNull(executor));
+    }
+
+    private <U> TCompletableFuture<U> handleImpl(BiFunction<? super T, Throwable, ? extends U> fn,
+            TExecutor executor) {
+        Objects.requireNonNull(fn);
+        return then(executor, true, (r, e, t) -> t.completeValue(fn.apply(r, e)));
+    }
+
+    @Override
+    public TCompletableFuture<T> whenComplete(BiConsumer<? super T, ? super Throwable> action) {
+        return whenCompleteImpl(action, null);
+    }
+
+    @Override
+    public TCompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action) {
+        return whenCompleteImpl(action, defaultExecutor());
+    }
+
+    @Override
+    public TCompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action,
+            TExecutor executor) {
+        return whenCompleteImpl(action, Objects.requireNonNull(executor));
+    }
+
+    private TCompletableFuture<T> whenCompleteImpl(BiConsumer<? super T, ? super Throwable> action,
+            TExecutor executor) {
+        Objects.requireNonNull(action);
+        return then(executor, true, (r, e, t) -> {
+            try {
+                action.accept(r, e);
+            } catch (Throwable actionError) {
+                if (e == null) {
+                    throw actionError;
+                }
+            }
+            t.relay(this);
+        });
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionally(Function<Throwable, ? extends T> fn) {
+        return exceptionallyImpl(fn, null);
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionallyAsync(Function<Throwable, ? extends T> fn) {
+        return exceptionallyImpl(fn, defaultExecutor());
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionallyAsync(Function<Throwable, ? extends T> fn, TExecutor executor) {
+        return exceptionallyImpl(fn, Objects.requireNonNull(executor));
+    }
+
+    private TCompletableFuture<T> exceptionallyImpl(Function<Throwable, ? extends T> fn, TExecutor executor) {
+        Objects.requireNonNull(fn);
+        var target = this.<T>newIncompleteFuture();
+        onDone(() -> {
+            if (exception == null) {
+                target.completeValue(value);
+            } else if (executor == null) {
+                try {
+                    target.completeValue(fn.apply(exception));
+                } catch (Throwable e) {
+                    target.completeThrowable(e, true);
+                }
+            } else {
+                target.runOn(executor, () -> target.completeValue(fn.apply(exception)));
+            }
+        });
+        return target;
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionallyCompose(Function<Throwable, ? extends TCompletionStage<T>> fn) {
+        return exceptionallyComposeImpl(fn, null);
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionallyComposeAsync(Function<Throwable, ? extends TCompletionStage<T>> fn) {
+        return exceptionallyComposeImpl(fn, defaultExecutor());
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionallyComposeAsync(Function<Throwable, ? extends TCompletionStage<T>> fn,
+            TExecutor executor) {
+        return exceptionallyComposeImpl(fn, Objects.requireNonNull(executor));
+    }
+
+    private TCompletableFuture<T> exceptionallyComposeImpl(Function<Throwable, ? extends TCompletionStage<T>> fn,
+            TExecutor executor) {
+        Objects.requireNonNull(fn);
+        return this.<TCompletionStage<T>>then(executor, true, (r, e, t) -> t.completeValue(e == null ? this
+                : fn.apply(e))).thenCompose(Function.identity());
+    }
+
+    @Override
+    public TCompletableFuture<T> toCompletableFuture() {
+        return this;
+    }
+
+    public TCompletionStage<T> minimalCompletionStage() {
+        return copy();
+    }
+
+    public TCompletableFuture<T> copy() {
+        return thenApply(Function.identity());
+    }
+
+    public boolean complete(T value) {
+        return completeValue(value);
+    }
+
+    public boolean completeExceptionally(Throwable ex) {
+        return completeThrowable(Objects.requireNonNull(ex), false);
+    }
+
+    public TCompletableFuture<T> completeAsync(Supplier<? extends T> supplier) {
+        return completeAsync(supplier, defaultExecutor());
+    }
+
+    public TCompletableFuture<T> completeAsync(Supplier<? extends T> supplier, TExecutor executor) {
+        Objects.requireNonNull(supplier);
+        runOn(executor, () -> completeValue(supplier.get()));
+        return this;
+    }
+
+    public TCompletableFuture<T> orTimeout(long timeout, TTimeUnit unit) {
+        Objects.requireNonNull(unit);
+        if (!done) {
+            var timer = defaultExecutorImpl().schedule(() -> completeThrowable(new TTimeoutException(), false),
+                    timeout, unit);
+            onDone(() -> timer.cancel(false));
+        }
+        return this;
+    }
+
+    public TCompletableFuture<T> completeOnTimeout(T value, long timeout, TTimeUnit unit) {
+        Objects.requireNonNull(unit);
+        if (!done) {
+            var timer = defaultExecutorImpl().schedule(() -> completeValue(value), timeout, unit);
+            onDone(() -> timer.cancel(false));
+        }
+        return this;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return completeThrowable(new TCancellationException(), false) || isCancelled();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return exception instanceof TCancellationException;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    public boolean isCompletedExceptionally() {
+        return exception != null;
+    }
+
+    public void obtrudeValue(T value) {
+        done = true;
+        this.value = value;
+        exception = null;
+    }
+
+    public void obtrudeException(Throwable ex) {
+        Objects.requireNonNull(ex);
+        done = true;
+        value = null;
+        exception = ex;
+    }
+
+    public int getNumberOfDependents() {
+        return dependents != null ? dependents.size() : 0;
+    }
+
+    @Override
+    public T get() throws InterruptedException, TExecutionException {
+        synchronized (this) {
+            while (!done) {
+                wait();
+            }
+        }
+        return reportGet();
+    }
+
+    @Override
+    public T get(long timeout, TTimeUnit unit) throws InterruptedException, TExecutionException, TTimeoutException {
+        long deadline = TExecutors.deadline(timeout, unit);
+        synchronized (this) {
+            while (!done) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new TTimeoutException();
+                }
+                wait(Math.min(remaining, Integer.MAX_VALUE));
+            }
+        }
+        return reportGet();
+    }
+
+    public T join() {
+        synchronized (this) {
+            boolean interrupted = false;
+            while (!done) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return reportJoin();
+    }
+
+    public T getNow(T valueIfAbsent) {
+        return done ? reportJoin() : valueIfAbsent;
+    }
+
+    private T reportGet() throws TExecutionException {
+        if (exception == null) {
+            return value;
+        }
+        if (exception instanceof TCancellationException) {
+            throw (TCancellationException) exception;
+        }
+        var cause = exception;
+        if (cause instanceof TCompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        throw new TExecutionException(cause);
+    }
+
+    private T reportJoin() {
+        if (exception == null) {
+            return value;
+        }
+        if (exception instanceof TCancellationException) {
+            throw (TCancellationException) exception;
+        }
+        if (exception instanceof TCompletionException) {
+            throw (TCompletionException) exception;
+        }
+        throw new TCompletionException(exception);
+    }
+
+    @Override
+    public String toString() {
+        String status;
+        if (!done) {
+            int count = getNumberOfDependents();
+            status = count == 0 ? "[Incomplete]" : "[Incomplete with " + count + " dependents]";
+        } else if (exception != null) {
+            status = "[Completed exceptionally: " + exception + "]";
+        } else {
+            status = "[Completed normally]";
+        }
+        return super.toString() + status;
+    }
+
+    private interface Completion<T, U> {
+        void complete(T value, Throwable exception, TCompletableFuture<U> target);
+    }
+}
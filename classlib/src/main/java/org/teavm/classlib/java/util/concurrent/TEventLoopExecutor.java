@@ -0,0 +1,280 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import org.teavm.classlib.PlatformDetector;
+import org.teavm.platform.Platform;
+import org.teavm.runtime.EventQueue;
+
+/**
+ * <p>Executor that runs tasks on the event loop, i.e. on {@link EventQueue} in low-level targets and
+ * on {@link Platform#postpone} and {@link Platform#schedule} in JavaScript.</p>
+ *
+ * <p>Instead of posting an event per task, tasks are put to a queue, which is drained by a single thread.
+ * The thread is started (which costs one event) only when the queue becomes non-empty, so a batch of short
+ * tasks is run within one turn of the event loop. Since tasks run within a thread, they are allowed to block.
+ * After each task the draining thread yields, so the runtime can switch to other threads when the batch runs
+ * for too long. Delayed tasks are put on the timer of the event loop and are added to the queue
+ * when they are due.</p>
+ *
+ * <p>Note that tasks run one after another, so a task that waits for another task from the same executor
+ * never completes.</p>
+ */
+class TEventLoopExecutor extends TAbstractExecutorService implements TScheduledExecutorService {
+    private ArrayDeque<Runnable> queue = new ArrayDeque<>();
+    private Set<ScheduledTask<?>> scheduledTasks = new LinkedHashSet<>();
+    private boolean draining;
+    private boolean shutdown;
+    private int pendingCount;
+
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command);
+        if (shutdown) {
+            throw new TRejectedExecutionException();
+        }
+        ++pendingCount;
+        enqueue(command);
+    }
+
+    private void enqueue(Runnable command) {
+        queue.add(command);
+        if (!draining) {
+            draining = true;
+            new Thread(this::drain).start();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            var task = queue.poll();
+            if (task == null) {
+                break;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                var thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+            taskFinished();
+            Thread.yield();
+        }
+        draining = false;
+    }
+
+    private void taskFinished() {
+        if (--pendingCount == 0 && shutdown) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        for (var task : scheduledTasks.toArray(new ScheduledTask<?>[0])) {
+            if (task.isPeriodic()) {
+                task.cancel(false);
+            }
+        }
+        if (pendingCount == 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        var result = new ArrayList<Runnable>(queue);
+        pendingCount -= queue.size();
+        queue.clear();
+        for (var task : scheduledTasks.toArray(new ScheduledTask<?>[0])) {
+            if (task.timerId >= 0) {
+                task.killTimer();
+                result.add(task);
+                --pendingCount;
+            }
+        }
+        scheduledTasks.clear();
+        if (pendingCount == 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && pendingCount == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TTimeUnit unit) throws InterruptedException {
+        long deadline = TExecutors.deadline(timeout, unit);
+        synchronized (this) {
+            while (!isTerminated()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(Math.min(remaining, Integer.MAX_VALUE));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public TScheduledFuture<?> schedule(Runnable command, long delay, TTimeUnit unit) {
+        Objects.requireNonNull(command);
+        return schedule(new ScheduledTask<>(TExecutors.callable(command), 0), delay, unit);
+    }
+
+    @Override
+    public <V> TScheduledFuture<V> schedule(Callable<V> callable, long delay, TTimeUnit unit) {
+        Objects.requireNonNull(callable);
+        return schedule(new ScheduledTask<>(callable, 0), delay, unit);
+    }
+
+    @Override
+    public TScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+            TTimeUnit unit) {
+        Objects.requireNonNull(command);
+        if (period <= 0) {
+            throw new IllegalArgumentException();
+        }
+        return schedule(new ScheduledTask<>(TExecutors.callable(command), Math.max(1, unit.toMillis(period))),
+                initialDelay, unit);
+    }
+
+    @Override
+    public TScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+            TTimeUnit unit) {
+        Objects.requireNonNull(command);
+        if (delay <= 0) {
+            throw new IllegalArgumentException();
+        }
+        return schedule(new ScheduledTask<>(TExecutors.callable(command), -Math.max(1, unit.toMillis(delay))),
+                initialDelay, unit);
+    }
+
+    private <V> TScheduledFuture<V> schedule(ScheduledTask<V> task, long delay, TTimeUnit unit) {
+        if (shutdown) {
+            throw new TRejectedExecutionException();
+        }
+        ++pendingCount;
+        task.time = TExecutors.deadline(delay, unit);
+        task.startTimer();
+        return task;
+    }
+
+    class ScheduledTask<V> extends TFutureTask<V> implements TScheduledFuture<V> {
+        long time;
+        private long period;
+        int timerId = -1;
+
+        ScheduledTask(Callable<V> callable, long period) {
+            super(callable);
+            this.period = period;
+        }
+
+        boolean isPeriodic() {
+            return period != 0;
+        }
+
+        void startTimer() {
+            scheduledTasks.add(this);
+            if (PlatformDetector.isLowLevel()) {
+                timerId = EventQueue.offer(this::fire, time);
+            } else {
+                long delay = Math.max(0, time - System.currentTimeMillis());
+                timerId = Platform.schedule(this::fire, (int) Math.min(delay, Integer.MAX_VALUE));
+            }
+        }
+
+        void killTimer() {
+            if (PlatformDetector.isLowLevel()) {
+                EventQueue.kill(timerId);
+            } else {
+                Platform.killSchedule(timerId);
+            }
+            timerId = -1;
+            scheduledTasks.remove(this);
+        }
+
+        private void fire() {
+            // Due tasks wait for their turn in the queue along with other tasks
+            timerId = -1;
+            scheduledTasks.remove(this);
+            enqueue(this);
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (runAndReset() && !shutdown) {
+                time = period > 0 ? time + period : System.currentTimeMillis() - period;
+                ++pendingCount;
+                startTimer();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!super.cancel(mayInterruptIfRunning)) {
+                return false;
+            }
+            if (timerId >= 0) {
+                killTimer();
+                taskFinished();
+            }
+            return true;
+        }
+
+        @Override
+        public long getDelay(TTimeUnit unit) {
+            return unit.convert(time - System.currentTimeMillis(), TTimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(TDelayed o) {
+            if (o == this) {
+                return 0;
+            }
+            return Long.compare(getDelay(TTimeUnit.MILLISECONDS), o.getDelay(TTimeUnit.MILLISECONDS));
+        }
+    }
+}
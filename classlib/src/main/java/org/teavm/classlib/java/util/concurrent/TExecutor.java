@@ -15,8 +15,6 @@
  */
 package org.teavm.classlib.java.util.concurrent;
 
-import org.teavm.classlib.java.lang.TRunnable;
-
 public interface TExecutor {
-    void execute(TRunnable command);
+    void execute(Runnable command);
 }
@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * <p>Factory methods for executors.</p>
+ *
+ * <p>TeaVM runs all threads on a single event loop, so every executor created here submits tasks to this loop,
+ * whatever number of threads is requested. Parallelism is only emulated, however tasks may block, since they run
+ * within a thread.</p>
+ */
+public final class TExecutors {
+    private TExecutors() {
+    }
+
+    public static TExecutorService newFixedThreadPool(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException();
+        }
+        return new TEventLoopExecutor();
+    }
+
+    public static TExecutorService newCachedThreadPool() {
+        return new TEventLoopExecutor();
+    }
+
+    public static TExecutorService newSingleThreadExecutor() {
+        return new TEventLoopExecutor();
+    }
+
+    public static TExecutorService newWorkStealingPool() {
+        return new TEventLoopExecutor();
+    }
+
+    public static TExecutorService newWorkStealingPool(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException();
+        }
+        return new TEventLoopExecutor();
+    }
+
+    public static TExecutorService newVirtualThreadPerTaskExecutor() {
+        return new TEventLoopExecutor();
+    }
+
+    public static TScheduledExecutorService newScheduledThreadPool(int corePoolSize) {
+        if (corePoolSize < 0) {
+            throw new IllegalArgumentException();
+        }
+        return new TEventLoopExecutor();
+    }
+
+    public static TScheduledExecutorService newSingleThreadScheduledExecutor() {
+        return new TEventLoopExecutor();
+    }
+
+    public static <T> Callable<T> callable(Runnable task, T result) {
+        Objects.requireNonNull(task);
+        return () -> {
+            task.run();
+            return result;
+        };
+    }
+
+    public static Callable<Object> callable(Runnable task) {
+        return callable(task, null);
+    }
+
+    static long deadline(long timeout, TTimeUnit unit) {
+        long millis = unit.toMillis(timeout);
+        long now = System.currentTimeMillis();
+        return millis > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + Math.max(0, millis);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pool that runs {@link TForkJoinTask}s on the calling thread. Parallelism is always reported as 1.
+ */
+public class TForkJoinPool extends TAbstractExecutorService {
+    private static final TForkJoinPool COMMON = new TForkJoinPool();
+    private boolean shutdown;
+
+    public TForkJoinPool() {
+    }
+
+    public TForkJoinPool(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    public static TForkJoinPool commonPool() {
+        return COMMON;
+    }
+
+    public static int getCommonPoolParallelism() {
+        return 1;
+    }
+
+    public int getParallelism() {
+        return 1;
+    }
+
+    public <T> T invoke(TForkJoinTask<T> task) {
+        return task.invoke();
+    }
+
+    public void execute(TForkJoinTask<?> task) {
+        task.fork();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) {
+            throw new TRejectedExecutionException();
+        }
+        command.run();
+    }
+
+    public <T> TForkJoinTask<T> submit(TForkJoinTask<T> task) {
+        return task.fork();
+    }
+
+    @Override
+    public void shutdown() {
+        if (this != COMMON) {
+            shutdown = true;
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TTimeUnit unit) {
+        return shutdown;
+    }
+}
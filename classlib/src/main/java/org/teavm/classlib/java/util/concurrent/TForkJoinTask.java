@@ -0,0 +1,198 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.Collection;
+
+/**
+ * <p>Task that can be split into subtasks, which are forked and joined.</p>
+ *
+ * <p>There is no pool of worker threads in TeaVM, so {@link #fork()} runs a task right away on the calling
+ * thread. Since tasks are expected to be pure computations, this gives the same results as running them
+ * in parallel, in the order a sequential version of the algorithm would run them.</p>
+ */
+public abstract class TForkJoinTask<V> implements TFuture<V> {
+    private static final int NEW = 0;
+    private static final int NORMAL = 1;
+    private static final int EXCEPTIONAL = 2;
+    private static final int CANCELLED = 3;
+
+    private int status;
+    private Throwable exception;
+
+    public abstract V getRawResult();
+
+    protected abstract void setRawResult(V value);
+
+    protected abstract boolean exec();
+
+    public final TForkJoinTask<V> fork() {
+        doExec();
+        return this;
+    }
+
+    public final V join() {
+        doExec();
+        return reportResult();
+    }
+
+    public final V invoke() {
+        doExec();
+        return reportResult();
+    }
+
+    public final void quietlyJoin() {
+        doExec();
+    }
+
+    public final void quietlyInvoke() {
+        doExec();
+    }
+
+    public static void invokeAll(TForkJoinTask<?> t1, TForkJoinTask<?> t2) {
+        t1.doExec();
+        t2.doExec();
+        t1.reportResult();
+        t2.reportResult();
+    }
+
+    public static void invokeAll(TForkJoinTask<?>... tasks) {
+        for (var task : tasks) {
+            task.doExec();
+        }
+        for (var task : tasks) {
+            task.reportResult();
+        }
+    }
+
+    public static <T extends TForkJoinTask<?>> Collection<T> invokeAll(Collection<T> tasks) {
+        for (var task : tasks) {
+            task.doExec();
+        }
+        for (var task : tasks) {
+            task.reportResult();
+        }
+        return tasks;
+    }
+
+    final void doExec() {
+        if (status != NEW) {
+            return;
+        }
+        try {
+            if (exec()) {
+                status = NORMAL;
+            }
+        } catch (Throwable e) {
+            exception = e;
+            status = EXCEPTIONAL;
+        }
+    }
+
+    final V reportResult() {
+        switch (status) {
+            case CANCELLED:
+                throw new TCancellationException();
+            case EXCEPTIONAL:
+                if (exception instanceof RuntimeException) {
+                    throw (RuntimeException) exception;
+                }
+                if (exception instanceof Error) {
+                    throw (Error) exception;
+                }
+                throw new RuntimeException(exception);
+            default:
+                return getRawResult();
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (status == NEW) {
+            status = CANCELLED;
+        }
+        return status == CANCELLED;
+    }
+
+    @Override
+    public final boolean isCancelled() {
+        return status == CANCELLED;
+    }
+
+    @Override
+    public final boolean isDone() {
+        return status != NEW;
+    }
+
+    public final boolean isCompletedNormally() {
+        return status == NORMAL;
+    }
+
+    public final boolean isCompletedAbnormally() {
+        return status == EXCEPTIONAL || status == CANCELLED;
+    }
+
+    public final Throwable getException() {
+        switch (status) {
+            case EXCEPTIONAL:
+                return exception;
+            case CANCELLED:
+                return new TCancellationException();
+            default:
+                return null;
+        }
+    }
+
+    public void complete(V value) {
+        setRawResult(value);
+        status = NORMAL;
+    }
+
+    public void completeExceptionally(Throwable ex) {
+        exception = ex;
+        status = EXCEPTIONAL;
+    }
+
+    public final void reinitialize() {
+        status = NEW;
+        exception = null;
+    }
+
+    @Override
+    public final V get() throws InterruptedException, TExecutionException {
+        doExec();
+        if (status == CANCELLED) {
+            throw new TCancellationException();
+        }
+        if (status == EXCEPTIONAL) {
+            throw new TExecutionException(exception);
+        }
+        return getRawResult();
+    }
+
+    @Override
+    public final V get(long timeout, TTimeUnit unit) throws InterruptedException, TExecutionException {
+        return get();
+    }
+
+    public static boolean inForkJoinPool() {
+        return false;
+    }
+
+    public static TForkJoinPool getPool() {
+        return null;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+public class TFutureTask<V> implements TRunnableFuture<V> {
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int NORMAL = 2;
+    private static final int EXCEPTIONAL = 3;
+    private static final int CANCELLED = 4;
+
+    private Callable<V> callable;
+    private int state;
+    private V result;
+    private Throwable exception;
+
+    public TFutureTask(Callable<V> callable) {
+        this.callable = Objects.requireNonNull(callable);
+    }
+
+    public TFutureTask(Runnable runnable, V result) {
+        this(TExecutors.callable(runnable, result));
+    }
+
+    @Override
+    public void run() {
+        if (state != NEW) {
+            return;
+        }
+        state = RUNNING;
+        try {
+            set(callable.call());
+        } catch (Throwable e) {
+            setException(e);
+        }
+    }
+
+    protected boolean runAndReset() {
+        if (state != NEW) {
+            return false;
+        }
+        state = RUNNING;
+        try {
+            callable.call();
+        } catch (Throwable e) {
+            setException(e);
+            return false;
+        }
+        if (state != RUNNING) {
+            return false;
+        }
+        state = NEW;
+        return true;
+    }
+
+    protected void set(V v) {
+        if (state == NEW || state == RUNNING) {
+            result = v;
+            state = NORMAL;
+            finish();
+        }
+    }
+
+    protected void setException(Throwable t) {
+        if (state == NEW || state == RUNNING) {
+            exception = t;
+            state = EXCEPTIONAL;
+            finish();
+        }
+    }
+
+    protected void done() {
+    }
+
+    private void finish() {
+        callable = null;
+        done();
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (state != NEW && state != RUNNING) {
+            return false;
+        }
+        state = CANCELLED;
+        finish();
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    @Override
+    public boolean isDone() {
+        return state > RUNNING;
+    }
+
+    @Override
+    public V get() throws InterruptedException, TExecutionException {
+        synchronized (this) {
+            while (!isDone()) {
+                wait();
+            }
+        }
+        return report();
+    }
+
+    @Override
+    public V get(long timeout, TTimeUnit unit) throws InterruptedException, TExecutionException, TTimeoutException {
+        long deadline = TExecutors.deadline(timeout, unit);
+        synchronized (this) {
+            while (!isDone()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new TTimeoutException();
+                }
+                wait(Math.min(remaining, Integer.MAX_VALUE));
+            }
+        }
+        return report();
+    }
+
+    private V report() throws TExecutionException {
+        switch (state) {
+            case CANCELLED:
+                throw new TCancellationException();
+            case EXCEPTIONAL:
+                throw new TExecutionException(exception);
+            default:
+                return result;
+        }
+    }
+
+    @Override
+    public String toString() {
+        String status;
+        switch (state) {
+            case NORMAL:
+                status = "[Completed normally]";
+                break;
+            case EXCEPTIONAL:
+                status = "[Completed exceptionally: " + exception + "]";
+                break;
+            case CANCELLED:
+                status = "[Cancelled]";
+                break;
+            default:
+                status = "[Not completed]";
+                break;
+        }
+        return super.toString() + status;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+public abstract class TRecursiveTask<V> extends TForkJoinTask<V> {
+    private V result;
+
+    protected abstract V compute();
+
+    @Override
+    public final V getRawResult() {
+        return result;
+    }
+
+    @Override
+    protected final void setRawResult(V value) {
+        result = value;
+    }
+
+    @Override
+    protected final boolean exec() {
+        result = compute();
+        return true;
+    }
+}
@@ -101,6 +101,10 @@ public final class TPattern implements Serializable {
 
     static final int BACK_REF_NUMBER = 10;
 
+    private static final int CACHE_SIZE = 32;
+
+    private static TPattern[] cache;
+
     /**
      * Bit mask that includes all defined match flags
      */
@@ -1243,6 +1247,28 @@ public final class TPattern implements Serializable {
         return compile(pattern, 0);
     }
 
+    /**
+     * Returns a compiled pattern for the regular expression, taking it from a small cache when the same
+     * expression was compiled recently. Used by methods that take regular expression as a string,
+     * like {@link String#split(String)}, so that calling them in a loop does not parse the expression
+     * every time.
+     */
+    public static TPattern compileCached(String pattern) {
+        if (pattern == null) {
+            throw new NullPointerException("Patter is null");
+        }
+        if (cache == null) {
+            cache = new TPattern[CACHE_SIZE];
+        }
+        int index = pattern.hashCode() & (CACHE_SIZE - 1);
+        TPattern result = cache[index];
+        if (result == null || result.flags != 0 || !result.lexemes.toString().equals(pattern)) {
+            result = compile(pattern);
+            cache[index] = result;
+        }
+        return result;
+    }
+
     /*
      * This method do traverses of automata to finish compilation.
      */
@@ -1276,7 +1302,7 @@ public final class TPattern implements Serializable {
      * @see TMatcher#matches()
      */
     public static boolean matches(String regex, CharSequence input) {
-        return TPattern.compile(regex).matcher(input).matches();
+        return TPattern.compileCached(regex).matcher(input).matches();
     }
 
     /**
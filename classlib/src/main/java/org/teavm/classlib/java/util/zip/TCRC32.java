@@ -13,29 +13,29 @@
  *  See the License for the specific language governing permissions and
  *  limitations under the License.
  */
-
 package org.teavm.classlib.java.util.zip;
 
-import com.jcraft.jzlib.CRC32;
-
 public class TCRC32 implements TChecksum {
-    private CRC32 impl = new CRC32();
+    private static int[] table;
+    private int crc;
     long tbytes;
 
     @Override
     public long getValue() {
-        return impl.getValue();
+        return crc & 0xFFFFFFFFL;
     }
 
     @Override
     public void reset() {
-        impl.reset();
+        crc = 0;
         tbytes = 0;
     }
 
     @Override
     public void update(int val) {
-        impl.update(new byte[] { (byte) val }, 0, 1);
+        var table = table();
+        crc = ~((~crc >>> 8) ^ table[(~crc ^ val) & 0xFF]);
+        tbytes++;
     }
 
     public void update(byte[] buf) {
@@ -46,10 +46,55 @@ public class TCRC32 implements TChecksum {
     public void update(byte[] buf, int off, int nbytes) {
         // avoid int overflow, check null buf
         if (off <= buf.length && nbytes >= 0 && off >= 0 && buf.length - off >= nbytes) {
-            impl.update(buf, off, nbytes);
+            crc = update(crc, buf, off, nbytes);
             tbytes += nbytes;
         } else {
             throw new ArrayIndexOutOfBoundsException();
         }
     }
+
+    // Slice-by-8: processes eight bytes per iteration using eight lookup tables,
+    // table k contains CRC of a byte followed by k zero bytes
+    private static int update(int crc, byte[] buf, int off, int nbytes) {
+        var table = table();
+        int c = ~crc;
+        int end = off + nbytes;
+        while (end - off >= 8) {
+            int low = c ^ ((buf[off] & 0xFF) | ((buf[off + 1] & 0xFF) << 8) | ((buf[off + 2] & 0xFF) << 16)
+                    | (buf[off + 3] << 24));
+            int high = (buf[off + 4] & 0xFF) | ((buf[off + 5] & 0xFF) << 8) | ((buf[off + 6] & 0xFF) << 16)
+                    | (buf[off + 7] << 24);
+            c = table[7 * 256 + (low & 0xFF)] ^ table[6 * 256 + ((low >>> 8) & 0xFF)]
+                    ^ table[5 * 256 + ((low >>> 16) & 0xFF)] ^ table[4 * 256 + (low >>> 24)]
+                    ^ table[3 * 256 + (high & 0xFF)] ^ table[2 * 256 + ((high >>> 8) & 0xFF)]
+                    ^ table[256 + ((high >>> 16) & 0xFF)] ^ table[high >>> 24];
+            off += 8;
+        }
+        while (off < end) {
+            c = (c >>> 8) ^ table[(c ^ buf[off++]) & 0xFF];
+        }
+        return ~c;
+    }
+
+    private static int[] table() {
+        if (table == null) {
+            var result = new int[8 * 256];
+            for (int i = 0; i < 256; ++i) {
+                int c = i;
+                for (int k = 0; k < 8; ++k) {
+                    c = (c & 1) != 0 ? (c >>> 1) ^ 0xEDB88320 : c >>> 1;
+                }
+                result[i] = c;
+            }
+            for (int i = 0; i < 256; ++i) {
+                int c = result[i];
+                for (int k = 1; k < 8; ++k) {
+                    c = (c >>> 8) ^ result[c & 0xFF];
+                    result[k * 256 + i] = c;
+                }
+            }
+            table = result;
+        }
+        return table;
+    }
 }
@@ -27,6 +27,7 @@ public class TInflaterInputStream extends FilterInputStream {
     protected int len;
     boolean closed;
     boolean eof;
+    private byte[] singleByteBuf;
     static final int BUF_SIZE = 512;
 
     public TInflaterInputStream(InputStream is) {
@@ -51,11 +52,13 @@ public class TInflaterInputStream extends FilterInputStream {
 
     @Override
     public int read() throws IOException {
-        byte[] b = new byte[1];
-        if (read(b, 0, 1) == -1) {
+        if (singleByteBuf == null) {
+            singleByteBuf = new byte[1];
+        }
+        if (read(singleByteBuf, 0, 1) == -1) {
             return -1;
         }
-        return b[0] & 0xff;
+        return singleByteBuf[0] & 0xff;
     }
 
     @Override
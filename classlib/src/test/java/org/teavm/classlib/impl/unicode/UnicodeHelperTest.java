@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.impl.unicode;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class UnicodeHelperTest {
+    @Test
+    public void compressesRunAtTheEnd() {
+        var expected = new StringBuilder();
+        expected.append(UnicodeHelper.encodeByte((byte) 1));
+        expected.append(UnicodeHelper.encodeByte((byte) (2 + 32)));
+        expected.append(UnicodeHelper.encodeByte((byte) 3));
+        assertEquals(expected.toString(), UnicodeHelper.compressRle(new byte[] { 1, 2, 2, 2 }));
+    }
+
+    @Test
+    public void compressesLongRunAtTheEnd() {
+        var bytes = new byte[1000];
+        bytes[0] = 1;
+        var expected = new StringBuilder();
+        expected.append(UnicodeHelper.encodeByte((byte) 1));
+        expected.append(UnicodeHelper.encodeByte((byte) 64));
+        expected.append(UnicodeHelper.encodeByte((byte) 0));
+        expected.append(UnicodeHelper.encodeByte((byte) (999 & 0x3F)));
+        expected.append(UnicodeHelper.encodeByte((byte) ((999 >> 6) & 0x3F)));
+        expected.append(UnicodeHelper.encodeByte((byte) 0));
+        assertEquals(expected.toString(), UnicodeHelper.compressRle(bytes));
+    }
+
+    @Test
+    public void classTableRoundTrip() {
+        var classes = UnicodeSupport.getClasses();
+        var table = UnicodeHelper.decodeClassTable(UnicodeHelper.encodeClassTable(classes));
+        for (var i = 0; i < classes.length; ++i) {
+            assertEquals("Class of " + Integer.toHexString(i), classes[i], getClass(table, i));
+        }
+    }
+
+    @Test
+    public void classTableOfPartialBlock() {
+        var classes = new byte[CharClassTable.BLOCK_SIZE * CharClassTable.GROUP_SIZE + 3];
+        for (var i = 0; i < classes.length; ++i) {
+            classes[i] = (byte) (i % 7 == 0 ? 5 : 1);
+        }
+        var table = UnicodeHelper.decodeClassTable(UnicodeHelper.encodeClassTable(classes));
+        for (var i = 0; i < classes.length; ++i) {
+            assertEquals(classes[i], getClass(table, i));
+        }
+    }
+
+    private static byte getClass(CharClassTable table, int codePoint) {
+        int group = table.groupIndex[codePoint >> (CharClassTable.BLOCK_SHIFT + CharClassTable.GROUP_SHIFT)];
+        int block = table.groups[(group << CharClassTable.GROUP_SHIFT)
+                | ((codePoint >> CharClassTable.BLOCK_SHIFT) & CharClassTable.GROUP_MASK)];
+        return table.blocks[(block << CharClassTable.BLOCK_SHIFT) | (codePoint & CharClassTable.BLOCK_MASK)];
+    }
+}
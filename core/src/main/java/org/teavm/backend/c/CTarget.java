@@ -113,11 +113,13 @@ import org.teavm.model.lowlevel.Characteristics;
 import org.teavm.model.lowlevel.ClassInitializerEliminator;
 import org.teavm.model.lowlevel.ClassInitializerTransformer;
 import org.teavm.model.lowlevel.ExportDependencyListener;
+import org.teavm.model.lowlevel.GCReachabilityAnalysis;
 import org.teavm.model.lowlevel.LowLevelNullCheckFilter;
 import org.teavm.model.lowlevel.ShadowStackTransformer;
 import org.teavm.model.lowlevel.WriteBarrierInsertion;
 import org.teavm.model.optimization.InliningFilterFactory;
 import org.teavm.model.transformation.BoundCheckInsertion;
+import org.teavm.model.transformation.ClassInitializerInsertionTransformer;
 import org.teavm.model.transformation.ClassPatch;
 import org.teavm.model.transformation.NullCheckInsertion;
 import org.teavm.model.util.AsyncMethodFinder;
@@ -154,6 +156,7 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
     private FileNameProvider fileNames = new SimpleFileNameProvider();
     private ClassInitializerEliminator classInitializerEliminator;
     private ClassInitializerTransformer classInitializerTransformer;
+    private ClassInitializerInsertionTransformer clinitInsertion;
     private ShadowStackTransformer shadowStackTransformer;
     private WriteBarrierInsertion writeBarrierInsertion;
     private NullCheckInsertion nullCheckInsertion;
@@ -162,6 +165,7 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
     private int minHeapSize = 4 * 1024 * 1024;
     private int maxHeapSize = 128 * 1024 * 1024;
     private List<IntrinsicFactory> intrinsicFactories = new ArrayList<>();
+    private List<Intrinsic> intrinsics;
     private List<GeneratorFactory> generatorFactories = new ArrayList<>();
     private Characteristics characteristics;
     private Set<MethodReference> asyncMethods;
@@ -232,7 +236,14 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         characteristics = new Characteristics(controller.getUnprocessedClassSource());
         classInitializerEliminator = new ClassInitializerEliminator(controller.getUnprocessedClassSource());
         classInitializerTransformer = new ClassInitializerTransformer();
-        shadowStackTransformer = new ShadowStackTransformer(characteristics);
+        clinitInsertion = new ClassInitializerInsertionTransformer(controller.getUnprocessedClassSource(),
+                controller.getClassInitializerInfo());
+        intrinsics = createIntrinsics();
+        var spillAtAllCallSites = Boolean.parseBoolean(controller.getProperties().getProperty(
+                ShadowStackTransformer.SPILL_AT_ALL_CALL_SITES));
+        shadowStackTransformer = new ShadowStackTransformer(characteristics, !incremental && !spillAtAllCallSites
+                ? new GCReachabilityAnalysis(characteristics, this::isIntrinsic, this::lowerCallee)
+                : null);
         nullCheckInsertion = new NullCheckInsertion(new LowLevelNullCheckFilter(characteristics));
         writeBarrierInsertion = new WriteBarrierInsertion(characteristics);
 
@@ -342,10 +353,7 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
 
     @Override
     public void afterOptimizations(Program program, MethodReader method) {
-        classInitializerEliminator.apply(program);
-        classInitializerTransformer.transform(program);
-        new CoroutineTransformation(controller.getUnprocessedClassSource(), asyncMethods, hasThreads)
-                .apply(program, method.getReference());
+        lowerBeforeShadowStack(program, method);
         var shadowStackTransformer = !incremental
                 ? this.shadowStackTransformer
                 : new ShadowStackTransformer(characteristics);
@@ -353,17 +361,29 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         writeBarrierInsertion.apply(program);
     }
 
-    @Override
-    public void emit(ListableClassHolderSource classes, BuildTarget buildTarget, String outputName) throws IOException {
-        VirtualTableProvider vtableProvider = !incremental ? createVirtualTableProvider(classes) : null;
-        ClassHierarchy hierarchy = new ClassHierarchy(classes);
-        TagRegistry tagRegistry = !incremental ? new TagRegistry(classes, hierarchy) : null;
+    private void lowerBeforeShadowStack(Program program, MethodReader method) {
+        classInitializerEliminator.apply(program);
+        classInitializerTransformer.transform(program);
+        new CoroutineTransformation(controller.getUnprocessedClassSource(), asyncMethods, hasThreads)
+                .apply(program, method.getReference());
+    }
 
-        Decompiler decompiler = new Decompiler(classes, new HashSet<>(), controller.isFriendlyToDebugger());
+    private void lowerCallee(Program program, MethodReader method) {
+        clinitInsertion.apply(method, program);
+        beforeOptimizations(program, method);
+        lowerBeforeShadowStack(program, method);
+    }
 
-        NameProvider nameProvider = new NameProviderWithSpecialNames(rawNameProvider,
-                controller.getUnprocessedClassSource());
+    private boolean isIntrinsic(MethodReference method) {
+        for (Intrinsic intrinsic : intrinsics) {
+            if (intrinsic.canHandle(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
+    private List<Intrinsic> createIntrinsics() {
         List<Intrinsic> intrinsics = new ArrayList<>();
         intrinsics.add(new ShadowStackIntrinsic());
         intrinsics.add(new AddressIntrinsic());
@@ -386,6 +406,26 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         intrinsics.add(new StringsIntrinsic());
         intrinsics.add(new ConsoleIntrinsic());
 
+        IntrinsicFactoryContextImpl intrinsicFactoryContext = new IntrinsicFactoryContextImpl(
+                controller.getUnprocessedClassSource(), controller.getClassLoader(), controller.getServices(),
+                controller.getProperties());
+        for (IntrinsicFactory intrinsicFactory : intrinsicFactories) {
+            intrinsics.add(intrinsicFactory.createIntrinsic(intrinsicFactoryContext));
+        }
+        return intrinsics;
+    }
+
+    @Override
+    public void emit(ListableClassHolderSource classes, BuildTarget buildTarget, String outputName) throws IOException {
+        VirtualTableProvider vtableProvider = !incremental ? createVirtualTableProvider(classes) : null;
+        ClassHierarchy hierarchy = new ClassHierarchy(classes);
+        TagRegistry tagRegistry = !incremental ? new TagRegistry(classes, hierarchy) : null;
+
+        Decompiler decompiler = new Decompiler(classes, new HashSet<>(), controller.isFriendlyToDebugger());
+
+        NameProvider nameProvider = new NameProviderWithSpecialNames(rawNameProvider,
+                controller.getUnprocessedClassSource());
+
         List<Generator> generators = new ArrayList<>();
         generators.add(new ArrayGenerator());
         generators.add(new WeakReferenceGenerator());
@@ -429,9 +469,6 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         IntrinsicFactoryContextImpl intrinsicFactoryContext = new IntrinsicFactoryContextImpl(
                 controller.getUnprocessedClassSource(), controller.getClassLoader(), controller.getServices(),
                 controller.getProperties());
-        for (IntrinsicFactory intrinsicFactory : intrinsicFactories) {
-            context.addIntrinsic(intrinsicFactory.createIntrinsic(intrinsicFactoryContext));
-        }
         for (GeneratorFactory generatorFactory : generatorFactories) {
             context.addGenerator(generatorFactory.createGenerator(intrinsicFactoryContext));
         }
@@ -36,8 +36,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Function;
 import org.teavm.ast.ControlFlowEntry;
+import org.teavm.backend.javascript.codegen.AliasProvider;
 import org.teavm.backend.javascript.codegen.DefaultAliasProvider;
 import org.teavm.backend.javascript.codegen.DefaultNamingStrategy;
 import org.teavm.backend.javascript.codegen.MinifyingAliasProvider;
@@ -51,17 +53,23 @@ import org.teavm.backend.javascript.intrinsics.ref.ReferenceQueueTransformer;
 import org.teavm.backend.javascript.intrinsics.ref.WeakReferenceDependencyListener;
 import org.teavm.backend.javascript.intrinsics.ref.WeakReferenceGenerator;
 import org.teavm.backend.javascript.intrinsics.ref.WeakReferenceTransformer;
+import org.teavm.backend.javascript.optimization.LongArithmeticNarrowing;
 import org.teavm.backend.javascript.rendering.NameFrequencyEstimator;
 import org.teavm.backend.javascript.rendering.Renderer;
 import org.teavm.backend.javascript.rendering.RenderingContext;
 import org.teavm.backend.javascript.rendering.RenderingUtil;
 import org.teavm.backend.javascript.rendering.RuntimeRenderer;
+import org.teavm.backend.javascript.runtime.ChunkLoader;
 import org.teavm.backend.javascript.spi.GeneratedBy;
 import org.teavm.backend.javascript.spi.Generator;
 import org.teavm.backend.javascript.spi.InjectedBy;
 import org.teavm.backend.javascript.spi.Injector;
 import org.teavm.backend.javascript.spi.MethodContributor;
 import org.teavm.backend.javascript.spi.MethodContributorContext;
+import org.teavm.backend.javascript.splitting.ChunkAliasProvider;
+import org.teavm.backend.javascript.splitting.ChunkLoaderGenerator;
+import org.teavm.backend.javascript.splitting.ChunkPartitioner;
+import org.teavm.backend.javascript.splitting.SplitPointTransformer;
 import org.teavm.backend.javascript.templating.JavaScriptTemplateFactory;
 import org.teavm.cache.EmptyMethodNodeCache;
 import org.teavm.cache.MethodNodeCache;
@@ -74,6 +82,7 @@ import org.teavm.dependency.DependencyAnalyzer;
 import org.teavm.dependency.DependencyListener;
 import org.teavm.dependency.DependencyType;
 import org.teavm.dependency.MethodDependency;
+import org.teavm.interop.AsyncCallback;
 import org.teavm.interop.PlatformMarker;
 import org.teavm.interop.Platforms;
 import org.teavm.model.BasicBlock;
@@ -90,6 +99,7 @@ import org.teavm.model.Program;
 import org.teavm.model.TextLocation;
 import org.teavm.model.ValueType;
 import org.teavm.model.Variable;
+import org.teavm.model.optimization.InliningFilterFactory;
 import org.teavm.model.instructions.ConstructInstruction;
 import org.teavm.model.instructions.InvocationType;
 import org.teavm.model.instructions.InvokeInstruction;
@@ -134,13 +144,29 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
     private JSModuleType moduleType = JSModuleType.UMD;
     private List<ExportedDeclaration> exports = new ArrayList<>();
     private int maxTopLevelNames = 80_000;
+    private boolean codeSplitting;
+    private SplitPointTransformer splitPointTransformer;
+    private final ChunkLoaderGenerator chunkLoaderGenerator = new ChunkLoaderGenerator();
 
     @Override
     public List<ClassHolderTransformer> getTransformers() {
-        return List.of(
-                new WeakReferenceTransformer(),
-                new ReferenceQueueTransformer()
-        );
+        var transformers = new ArrayList<ClassHolderTransformer>();
+        transformers.add(new WeakReferenceTransformer());
+        transformers.add(new ReferenceQueueTransformer());
+        if (codeSplitting && moduleType == JSModuleType.ES2015) {
+            splitPointTransformer = new SplitPointTransformer();
+            transformers.add(splitPointTransformer);
+        }
+        return transformers;
+    }
+
+    @Override
+    public InliningFilterFactory getInliningFilter() {
+        if (splitPointTransformer == null) {
+            return InliningFilterFactory.DEFAULT;
+        }
+        var splitPoints = splitPointTransformer.getSplitPoints();
+        return method -> callee -> !splitPoints.containsKey(callee);
     }
 
     @Override
@@ -164,6 +190,9 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         var refQueueGenerator = new ReferenceQueueGenerator();
         methodGenerators.put(new MethodReference(ReferenceQueue.class, "<init>", void.class), refQueueGenerator);
         methodGenerators.put(new MethodReference(ReferenceQueue.class, "poll", Reference.class), refQueueGenerator);
+
+        methodGenerators.put(new MethodReference(ChunkLoader.class, "loadImpl", String.class, AsyncCallback.class,
+                void.class), chunkLoaderGenerator);
     }
 
     @Override
@@ -237,6 +266,17 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         this.maxTopLevelNames = maxTopLevelNames;
     }
 
+    /**
+     * Specifies whether methods marked with {@link org.teavm.interop.SplitPoint} should be emitted into
+     * separate chunks that are loaded on demand. Only supported for {@link JSModuleType#ES2015} modules,
+     * for other module types all code is emitted into single file.
+     *
+     * @param codeSplitting whether TeaVM should split code into chunks.
+     */
+    public void setCodeSplitting(boolean codeSplitting) {
+        this.codeSplitting = codeSplitting;
+    }
+
     @Override
     public List<TeaVMHostExtension> getHostExtensions() {
         return Collections.singletonList(this);
@@ -333,6 +373,22 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
 
     @Override
     public void emit(ListableClassHolderSource classes, BuildTarget target, String outputName) {
+        if (codeSplitting && moduleType != JSModuleType.ES2015) {
+            controller.getDiagnostics().warning(null, "Code splitting is only supported for ES2015 modules, "
+                    + "emitting all code into single file");
+        }
+        if (splitPointTransformer != null) {
+            var splitPoints = new HashMap<MethodReference, String>();
+            for (var entry : splitPointTransformer.getSplitPoints().entrySet()) {
+                if (classes.resolve(entry.getKey()) != null) {
+                    splitPoints.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (!splitPoints.isEmpty()) {
+                emitChunks(classes, target, outputName, splitPoints);
+                return;
+            }
+        }
         try (OutputStream output = target.createResource(outputName);
                 Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
             emit(classes, writer, target);
@@ -357,6 +413,9 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
 
     @Override
     public void afterOptimizations(Program program, MethodReader method) {
+        if (!controller.isFriendlyToDebugger()) {
+            new LongArithmeticNarrowing().apply(program, method.getReference());
+        }
     }
 
     private void emit(ListableClassHolderSource classes, Writer writer, BuildTarget target) {
@@ -369,22 +428,8 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
             debugEmitterToUse = new DummyDebugInformationEmitter();
         }
 
-        var methodContributorContext = new MethodContributorContextImpl(classes);
-        RenderingContext renderingContext = new RenderingContext(debugEmitterToUse,
-                controller.getUnprocessedClassSource(), classes,
-                controller.getClassLoader(), controller.getServices(), controller.getProperties(), naming,
-                controller.getDependencyInfo(),
-                m -> isVirtual(methodContributorContext, m),
-                m -> isForcedFunction(methodContributorContext, m),
-                controller.getClassInitializerInfo(), strict
-        ) {
-            @Override
-            public String importModule(String name) {
-                return JavaScriptTarget.this.importModule(name);
-            }
-        };
-        renderingContext.setMinifying(obfuscated);
-
+        preprocessNativeMethods(classes);
+        var renderingContext = createRenderingContext(classes, naming, debugEmitterToUse);
         if (controller.wasCancelled()) {
             return;
         }
@@ -392,22 +437,8 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         var builder = new OutputSourceWriterBuilder(naming);
         builder.setMinified(obfuscated);
 
-        for (var className : classes.getClassNames()) {
-            var cls = classes.get(className);
-            for (var method : cls.getMethods()) {
-                preprocessNativeMethod(method);
-            }
-        }
-        for (var entry : methodInjectors.entrySet()) {
-            renderingContext.addInjector(entry.getKey(), entry.getValue());
-        }
-
         var rememberingWriter = new RememberingSourceWriter(debugEmitter != null);
-        var renderer = new Renderer(rememberingWriter, asyncMethods, renderingContext, controller.getDiagnostics(),
-                methodGenerators, astCache, controller.getCacheStatus(), templateFactory, exports,
-                controller.getEntryPoint());
-        renderer.setProperties(controller.getProperties());
-        renderer.setProgressConsumer(controller::reportProgress);
+        var renderer = createRenderer(rememberingWriter, renderingContext);
 
         for (var listener : rendererListeners) {
             listener.begin(renderer, target);
@@ -421,20 +452,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         renderer.renderStringPool();
         renderer.renderStringConstants();
         renderer.renderCompatibilityStubs();
-
-        var alias = "$rt_export_main";
-        var ref = new MethodReference(controller.getEntryPoint(), "main", ValueType.parse(String[].class),
-                ValueType.parse(void.class));
-        if (classes.resolve(ref) != null) {
-            rememberingWriter.startVariableDeclaration().appendFunction(alias)
-                    .appendFunction("$rt_mainStarter").append("(").appendMethod(ref);
-            rememberingWriter.append(")").endDeclaration();
-            rememberingWriter.appendFunction(alias).append(".")
-                    .append("javaException").ws().append("=").ws().appendFunction("$rt_javaException")
-                    .append(";").newLine();
-            exports.add(new ExportedDeclaration(w -> w.appendFunction(alias),
-                    n -> n.functionName(alias), controller.getEntryPointName()));
-        }
+        renderMainExport(classes, rememberingWriter);
 
         for (var listener : rendererListeners) {
             listener.complete();
@@ -490,6 +508,324 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         printStats(sourceWriter, totalSize);
     }
 
+    private RenderingContext createRenderingContext(ListableClassHolderSource classes, DefaultNamingStrategy naming,
+            DebugInformationEmitter debugEmitterToUse) {
+        var methodContributorContext = new MethodContributorContextImpl(classes);
+        RenderingContext renderingContext = new RenderingContext(debugEmitterToUse,
+                controller.getUnprocessedClassSource(), classes,
+                controller.getClassLoader(), controller.getServices(), controller.getProperties(), naming,
+                controller.getDependencyInfo(),
+                m -> isVirtual(methodContributorContext, m),
+                m -> isForcedFunction(methodContributorContext, m),
+                controller.getClassInitializerInfo(), strict
+        ) {
+            @Override
+            public String importModule(String name) {
+                return JavaScriptTarget.this.importModule(name);
+            }
+        };
+        renderingContext.setMinifying(obfuscated);
+        for (var entry : methodInjectors.entrySet()) {
+            renderingContext.addInjector(entry.getKey(), entry.getValue());
+        }
+        return renderingContext;
+    }
+
+    private void preprocessNativeMethods(ListableClassHolderSource classes) {
+        for (var className : classes.getClassNames()) {
+            var cls = classes.get(className);
+            for (var method : cls.getMethods()) {
+                preprocessNativeMethod(method);
+            }
+        }
+    }
+
+    private Renderer createRenderer(RememberingSourceWriter writer, RenderingContext renderingContext) {
+        var renderer = new Renderer(writer, asyncMethods, renderingContext, controller.getDiagnostics(),
+                methodGenerators, astCache, controller.getCacheStatus(), templateFactory, exports,
+                controller.getEntryPoint());
+        renderer.setProperties(controller.getProperties());
+        renderer.setProgressConsumer(controller::reportProgress);
+        renderer.setThreadCount(controller.getThreadCount());
+        return renderer;
+    }
+
+    private void renderMainExport(ListableClassHolderSource classes, RememberingSourceWriter rememberingWriter) {
+        var alias = "$rt_export_main";
+        var ref = new MethodReference(controller.getEntryPoint(), "main", ValueType.parse(String[].class),
+                ValueType.parse(void.class));
+        if (classes.resolve(ref) != null) {
+            rememberingWriter.startVariableDeclaration().appendFunction(alias)
+                    .appendFunction("$rt_mainStarter").append("(").appendMethod(ref);
+            rememberingWriter.append(")").endDeclaration();
+            rememberingWriter.appendFunction(alias).append(".")
+                    .append("javaException").ws().append("=").ws().appendFunction("$rt_javaException")
+                    .append(";").newLine();
+            exports.add(new ExportedDeclaration(w -> w.appendFunction(alias),
+                    n -> n.functionName(alias), controller.getEntryPointName()));
+        }
+    }
+
+    private void emitChunks(ListableClassHolderSource classes, BuildTarget target, String outputName,
+            Map<MethodReference, String> splitPoints) {
+        int fileNameIndex = outputName.lastIndexOf('/') + 1;
+        var directory = outputName.substring(0, fileNameIndex);
+        var mainFileName = outputName.substring(fileNameIndex);
+        int extensionIndex = mainFileName.lastIndexOf('.');
+        if (extensionIndex < 0) {
+            extensionIndex = mainFileName.length();
+        }
+        var chunkPrefix = mainFileName.substring(0, extensionIndex) + "-";
+        var chunkSuffix = mainFileName.substring(extensionIndex);
+        chunkLoaderGenerator.setFileName(chunkPrefix, chunkSuffix);
+
+        // Chunks can't assign to bindings they import, so everything they may assign to is accessed through
+        // additional scope, and additional scope is never used for anything else.
+        AliasProvider aliasProvider = obfuscated
+                ? new MinifyingAliasProvider(Integer.MAX_VALUE)
+                : new DefaultAliasProvider(Integer.MAX_VALUE);
+        aliasProvider = new ChunkAliasProvider(aliasProvider, splitPoints.keySet());
+        var naming = new DefaultNamingStrategy(aliasProvider, controller.getUnprocessedClassSource());
+        DebugInformationEmitter debugEmitterToUse = debugEmitter;
+        if (debugEmitterToUse == null) {
+            debugEmitterToUse = new DummyDebugInformationEmitter();
+        }
+
+        preprocessNativeMethods(classes);
+        var renderingContext = createRenderingContext(classes, naming, debugEmitterToUse);
+        if (controller.wasCancelled()) {
+            return;
+        }
+
+        var builder = new OutputSourceWriterBuilder(naming);
+        builder.setMinified(obfuscated);
+
+        // Debug commands are always remembered, since partitioner needs them to attribute metadata to classes
+        var rememberingWriter = new RememberingSourceWriter(true);
+        var renderer = createRenderer(rememberingWriter, renderingContext);
+        var classFragments = new LinkedHashMap<String, RememberedSource>();
+        renderer.setClassRenderedListener(className -> {
+            classFragments.put(className, rememberingWriter.save());
+            rememberingWriter.clear();
+        });
+
+        for (var listener : rendererListeners) {
+            listener.begin(renderer, target);
+        }
+        if (!renderer.renderClasses(classes, controller.isFriendlyToDebugger())) {
+            return;
+        }
+        renderer.renderClassMetadata(className -> true);
+        var metadata = rememberingWriter.save();
+        rememberingWriter.clear();
+        renderer.renderStringConstants();
+        var stringConstants = rememberingWriter.save();
+        rememberingWriter.clear();
+
+        renderer.renderStringPool();
+        var stringPool = rememberingWriter.save();
+        rememberingWriter.clear();
+
+        renderer.renderCompatibilityStubs();
+        renderMainExport(classes, rememberingWriter);
+        for (var listener : rendererListeners) {
+            listener.complete();
+        }
+        var epilogue = rememberingWriter.save();
+        rememberingWriter.clear();
+
+        for (var export : exports) {
+            export.name.accept(rememberingWriter);
+        }
+        var exportedNames = rememberingWriter.save();
+        rememberingWriter.clear();
+
+        var allFragments = new ArrayList<>(classFragments.values());
+        allFragments.add(metadata);
+        allFragments.add(stringConstants);
+        allFragments.add(stringPool);
+        allFragments.add(epilogue);
+        var runtimeRenderer = new RuntimeRenderer(classes, rememberingWriter, controller.getClassInitializerInfo());
+        runtimeRenderer.prepareAstParts(renderer.isThreadLibraryUsed());
+        for (var fragment : allFragments) {
+            fragment.replay(runtimeRenderer.sink, RememberedSource.FILTER_REF);
+        }
+        exportedNames.replay(runtimeRenderer.sink, RememberedSource.FILTER_REF);
+        runtimeRenderer.removeUnusedParts();
+        runtimeRenderer.renderRuntime();
+        var runtime = rememberingWriter.save();
+        rememberingWriter.clear();
+        runtimeRenderer.renderEpilogue();
+        var runtimeEpilogue = rememberingWriter.save();
+        rememberingWriter.clear();
+
+        var dependencyInfo = controller.getDependencyInfo();
+        var partitioner = new ChunkPartitioner(dependencyInfo.getCallGraph(), dependencyInfo.getReachableMethods(),
+                splitPoints);
+        partitioner.addMainFragment(runtime);
+        partitioner.addMainFragment(runtimeEpilogue);
+        partitioner.addMainFragment(stringPool);
+        partitioner.addMainFragment(epilogue);
+        partitioner.addMainFragment(exportedNames);
+        for (var module : importedModules.values()) {
+            partitioner.addMainFunction(module);
+        }
+        for (var entry : classFragments.entrySet()) {
+            var methods = new ArrayList<MethodReference>();
+            for (var method : classes.get(entry.getKey()).getMethods()) {
+                methods.add(method.getReference());
+            }
+            partitioner.addClass(entry.getKey(), methods, entry.getValue());
+        }
+        partitioner.addMetadata(metadata);
+        partitioner.partition();
+
+        int moduleCount = partitioner.getModuleCount();
+        var moduleFragments = new ArrayList<List<RememberedSource>>();
+        for (int i = 0; i < moduleCount; ++i) {
+            moduleFragments.add(new ArrayList<>());
+        }
+        for (var entry : classFragments.entrySet()) {
+            moduleFragments.get(partitioner.getModule(entry.getKey())).add(entry.getValue());
+        }
+        var moduleConstants = new ArrayList<RememberedSource>();
+        for (int i = 0; i < moduleCount; ++i) {
+            int module = i;
+            renderer.renderClassMetadata(className -> partitioner.getModule(className) == module);
+            moduleFragments.get(i).add(rememberingWriter.save());
+            rememberingWriter.clear();
+            renderer.renderStringConstants(className -> partitioner.getModule(className) == module);
+            moduleConstants.add(rememberingWriter.save());
+            rememberingWriter.clear();
+        }
+
+        var scopeName = naming.additionalScopeName();
+        for (var module : importedModules.values()) {
+            naming.functionName(module);
+        }
+        for (var export : exports) {
+            export.nameFreq.accept(naming);
+            naming.reserveName(export.alias);
+        }
+        var frequencyEstimator = new NameFrequencyEstimator();
+        runtime.replay(frequencyEstimator, RememberedSource.FILTER_REF);
+        runtimeEpilogue.replay(frequencyEstimator, RememberedSource.FILTER_REF);
+        for (var fragment : allFragments) {
+            fragment.replay(frequencyEstimator, RememberedSource.FILTER_REF);
+        }
+        frequencyEstimator.apply(naming);
+
+        var moduleImports = new ArrayList<Map<Integer, Set<String>>>();
+        var moduleExports = new ArrayList<Set<String>>();
+        for (int i = 0; i < moduleCount; ++i) {
+            moduleExports.add(new TreeSet<>());
+        }
+        moduleExports.get(ChunkPartitioner.MAIN).add(scopeName);
+        moduleImports.add(Map.of());
+        for (int i = 1; i < moduleCount; ++i) {
+            var fragments = new ArrayList<>(moduleFragments.get(i));
+            fragments.add(moduleConstants.get(i));
+            var imports = partitioner.getImports(i, fragments, naming);
+            imports.computeIfAbsent(ChunkPartitioner.MAIN, k -> new TreeSet<>()).add(scopeName);
+            for (var entry : imports.entrySet()) {
+                moduleExports.get(entry.getKey()).addAll(entry.getValue());
+            }
+            moduleImports.add(imports);
+        }
+        for (var export : exports) {
+            if (moduleExports.get(ChunkPartitioner.MAIN).contains(export.alias)) {
+                controller.getDiagnostics().error(null, "Export '" + export.alias + "' clashes with name "
+                        + "that is shared with chunks, please choose another name");
+            }
+        }
+
+        try (var output = target.createResource(outputName);
+                var writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+            var sourceWriter = builder.build(writer);
+            sourceWriter.setDebugInformationEmitter(debugEmitterToUse);
+            printWrapperStart(sourceWriter);
+            sourceWriter.append("let ").append(scopeName).ws().append('=').ws().append("{};").softNewLine();
+
+            int start = sourceWriter.getOffset();
+            runtime.write(sourceWriter, 0);
+            for (var fragment : moduleFragments.get(ChunkPartitioner.MAIN)) {
+                fragment.write(sourceWriter, 0);
+            }
+            runtimeEpilogue.write(sourceWriter, 0);
+            stringPool.write(sourceWriter, 0);
+            moduleConstants.get(ChunkPartitioner.MAIN).write(sourceWriter, 0);
+            epilogue.write(sourceWriter, 0);
+
+            printModuleEnd(sourceWriter);
+            printChunkExports(sourceWriter, moduleExports.get(ChunkPartitioner.MAIN));
+            sourceWriter.finish();
+
+            int totalSize = sourceWriter.getOffset() - start;
+            printStats(sourceWriter, totalSize);
+        } catch (IOException e) {
+            throw new RenderingException(e);
+        }
+
+        var commonChunkUsed = classFragments.keySet().stream()
+                .anyMatch(className -> partitioner.getModule(className) == ChunkPartitioner.COMMON);
+        for (int i = 1; i < moduleCount; ++i) {
+            if (i == ChunkPartitioner.COMMON && !commonChunkUsed) {
+                continue;
+            }
+            var fileName = chunkPrefix + partitioner.getModuleName(i) + chunkSuffix;
+            try (var output = target.createResource(directory + fileName);
+                    var writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+                var sourceWriter = builder.build(writer);
+                sourceWriter.setDebugInformationEmitter(new DummyDebugInformationEmitter());
+                sourceWriter.append("\"use strict\";").newLine();
+                for (var entry : moduleImports.get(i).entrySet()) {
+                    var source = entry.getKey() == ChunkPartitioner.MAIN
+                            ? mainFileName
+                            : chunkPrefix + partitioner.getModuleName(entry.getKey()) + chunkSuffix;
+                    printChunkImports(sourceWriter, entry.getValue(), source);
+                }
+                for (var fragment : moduleFragments.get(i)) {
+                    fragment.write(sourceWriter, 0);
+                }
+                moduleConstants.get(i).write(sourceWriter, 0);
+                printChunkExports(sourceWriter, moduleExports.get(i));
+                sourceWriter.finish();
+            } catch (IOException e) {
+                throw new RenderingException(e);
+            }
+        }
+    }
+
+    private void printChunkImports(SourceWriter writer, Set<String> names, String fileName) {
+        writer.append("import").ws().append("{").ws();
+        var first = true;
+        for (var name : names) {
+            if (!first) {
+                writer.append(",").ws();
+            }
+            first = false;
+            writer.append(name);
+        }
+        writer.ws().append("}").ws().append("from").ws().append("\"./")
+                .append(RenderingUtil.escapeString(fileName)).append("\";").softNewLine();
+    }
+
+    private void printChunkExports(SourceWriter writer, Set<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        writer.append("export").ws().append("{").ws();
+        var first = true;
+        for (var name : names) {
+            if (!first) {
+                writer.append(",").ws();
+            }
+            first = false;
+            writer.append(name);
+        }
+        writer.ws().append("};").softNewLine();
+    }
+
     private void printWrapperStart(SourceWriter writer) {
         writer.append("\"use strict\";").newLine();
         printModuleStart(writer);
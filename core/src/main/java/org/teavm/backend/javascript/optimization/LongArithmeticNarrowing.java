@@ -0,0 +1,480 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.optimization;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.Incoming;
+import org.teavm.model.Instruction;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Phi;
+import org.teavm.model.Program;
+import org.teavm.model.TryCatchBlock;
+import org.teavm.model.Variable;
+import org.teavm.model.analysis.LongRangeAnalysis;
+import org.teavm.model.instructions.AssignInstruction;
+import org.teavm.model.instructions.BinaryInstruction;
+import org.teavm.model.instructions.BinaryOperation;
+import org.teavm.model.instructions.CastNumberInstruction;
+import org.teavm.model.instructions.DoubleConstantInstruction;
+import org.teavm.model.instructions.LongConstantInstruction;
+import org.teavm.model.instructions.NegateInstruction;
+import org.teavm.model.instructions.NumericOperandType;
+import org.teavm.model.util.InstructionVariableMapper;
+import org.teavm.model.util.UsageExtractor;
+
+/**
+ * <p>Moves {@code long} arithmetic that is proven not to leave the range of integers exactly representable
+ * by JavaScript numbers (i.e. 53 bits) from BigInt to plain numbers.</p>
+ *
+ * <p>Ranges are computed by {@link LongRangeAnalysis}. Constants, {@code int} to {@code long} casts, addition,
+ * subtraction, multiplication, negation, remainder by a non-zero divisor, assignments and phis are rewritten
+ * to their {@code double} counterparts, as long as all their operands and result fit into the safe range.
+ * Values are converted back to BigInt where they escape to other instructions (invocations, fields, arrays,
+ * returns and so on).</p>
+ *
+ * <p>This transformation relies on the way JavaScript backend renders {@code double} operations, in particular
+ * on {@code double} to {@code int} cast being rendered as {@code value | 0}, which truncates integers
+ * the same way {@code long} to {@code int} cast does. So it must only be applied to programs that are
+ * going to be rendered to JavaScript, after all other optimizations.</p>
+ */
+public class LongArithmeticNarrowing {
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+    private Program program;
+    private LongRangeAnalysis ranges;
+    private Instruction[] definitions;
+    private Phi[] phiDefinitions;
+    private List<List<Instruction>> usages;
+    private List<List<Phi>> phiUsages;
+    private boolean[] exceptionHandlers;
+    private boolean[] narrowed;
+    private boolean[] mayBeNegativeZero;
+    private UsageExtractor usageExtractor = new UsageExtractor();
+
+    public void apply(Program program, MethodReference method) {
+        this.program = program;
+        ranges = new LongRangeAnalysis(program, method);
+        if (!collectCandidates()) {
+            return;
+        }
+        removeUnprofitable();
+        findNegativeZeros();
+        for (BasicBlock block : program.getBasicBlocks()) {
+            rewrite(block);
+        }
+
+        this.program = null;
+        ranges = null;
+        definitions = null;
+        phiDefinitions = null;
+        usages = null;
+        phiUsages = null;
+        exceptionHandlers = null;
+        narrowed = null;
+        mayBeNegativeZero = null;
+    }
+
+    private boolean collectCandidates() {
+        int count = program.variableCount();
+        definitions = new Instruction[count];
+        phiDefinitions = new Phi[count];
+        usages = new ArrayList<>(count);
+        phiUsages = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            usages.add(new ArrayList<>());
+            phiUsages.add(new ArrayList<>());
+        }
+
+        exceptionHandlers = new boolean[program.basicBlockCount()];
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (TryCatchBlock tryCatch : block.getTryCatchBlocks()) {
+                exceptionHandlers[tryCatch.getHandler().getIndex()] = true;
+            }
+        }
+
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Phi phi : block.getPhis()) {
+                phiDefinitions[phi.getReceiver().getIndex()] = phi;
+                for (Incoming incoming : phi.getIncomings()) {
+                    phiUsages.get(incoming.getValue().getIndex()).add(phi);
+                }
+            }
+            for (Instruction insn : block) {
+                insn.acceptVisitor(usageExtractor);
+                for (Variable used : usageExtractor.getUsedVariables()) {
+                    usages.get(used.getIndex()).add(insn);
+                }
+                Variable receiver = getNarrowableReceiver(insn);
+                if (receiver != null) {
+                    definitions[receiver.getIndex()] = insn;
+                }
+            }
+        }
+
+        narrowed = new boolean[count];
+        boolean hasCandidates = false;
+        for (int i = 0; i < count; ++i) {
+            Variable variable = program.variableAt(i);
+            if (definitions[i] != null) {
+                narrowed[i] = isCandidate(definitions[i]);
+            } else if (phiDefinitions[i] != null) {
+                narrowed[i] = isCandidate(phiDefinitions[i]);
+            }
+            if (narrowed[i]) {
+                for (Phi phi : phiUsages.get(i)) {
+                    if (exceptionHandlers[phi.getBasicBlock().getIndex()]) {
+                        narrowed[i] = false;
+                        break;
+                    }
+                }
+            }
+            if (narrowed[i] && !isSafe(variable)) {
+                narrowed[i] = false;
+            }
+            hasCandidates |= narrowed[i];
+        }
+        return hasCandidates;
+    }
+
+    private Variable getNarrowableReceiver(Instruction insn) {
+        if (insn instanceof LongConstantInstruction) {
+            return ((LongConstantInstruction) insn).getReceiver();
+        } else if (insn instanceof CastNumberInstruction) {
+            var cast = (CastNumberInstruction) insn;
+            return cast.getSourceType() == NumericOperandType.INT && cast.getTargetType() == NumericOperandType.LONG
+                    ? cast.getReceiver()
+                    : null;
+        } else if (insn instanceof BinaryInstruction) {
+            var binary = (BinaryInstruction) insn;
+            if (binary.getOperandType() != NumericOperandType.LONG) {
+                return null;
+            }
+            switch (binary.getOperation()) {
+                case ADD:
+                case SUBTRACT:
+                case MULTIPLY:
+                case MODULO:
+                    return binary.getReceiver();
+                default:
+                    return null;
+            }
+        } else if (insn instanceof NegateInstruction) {
+            var negate = (NegateInstruction) insn;
+            return negate.getOperandType() == NumericOperandType.LONG ? negate.getReceiver() : null;
+        } else if (insn instanceof AssignInstruction) {
+            var assign = (AssignInstruction) insn;
+            return ranges.isTracked(assign.getReceiver()) ? assign.getReceiver() : null;
+        }
+        return null;
+    }
+
+    private boolean isCandidate(Instruction insn) {
+        var block = insn.getBasicBlock();
+        if (insn instanceof BinaryInstruction) {
+            var binary = (BinaryInstruction) insn;
+            if (!isSafe(binary.getFirstOperand(), block) || !isSafe(binary.getSecondOperand(), block)) {
+                return false;
+            }
+            if (binary.getOperation() == BinaryOperation.MODULO) {
+                var divisor = binary.getSecondOperand();
+                return ranges.getLowerBound(divisor, block) > 0 || ranges.getUpperBound(divisor, block) < 0;
+            }
+            return true;
+        } else if (insn instanceof NegateInstruction) {
+            return isSafe(((NegateInstruction) insn).getOperand(), block);
+        } else if (insn instanceof AssignInstruction) {
+            return isSafe(((AssignInstruction) insn).getAssignee(), block);
+        }
+        return true;
+    }
+
+    private boolean isCandidate(Phi phi) {
+        if (!ranges.isTracked(phi.getReceiver()) || exceptionHandlers[phi.getBasicBlock().getIndex()]) {
+            return false;
+        }
+        for (Incoming incoming : phi.getIncomings()) {
+            if (!isSafe(incoming.getValue(), incoming.getSource())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isSafe(Variable variable) {
+        return ranges.isTracked(variable)
+                && ranges.getLowerBound(variable) >= -MAX_SAFE_INTEGER
+                && ranges.getUpperBound(variable) <= MAX_SAFE_INTEGER;
+    }
+
+    /*
+     * Operand that is not narrowed itself is converted to number right before its use, so it's enough
+     * for it to fit into safe range at this particular place, for example, after a bounds check.
+     */
+    private boolean isSafe(Variable variable, BasicBlock block) {
+        return ranges.isTracked(variable)
+                && ranges.getLowerBound(variable, block) >= -MAX_SAFE_INTEGER
+                && ranges.getUpperBound(variable, block) <= MAX_SAFE_INTEGER;
+    }
+
+    /*
+     * Variable that is only passed to invocations, fields and so on has to be converted to BigInt anyway,
+     * so it's cheaper to leave it as is.
+     */
+    private void removeUnprofitable() {
+        boolean changed;
+        do {
+            changed = false;
+            for (int i = 0; i < narrowed.length; ++i) {
+                if (narrowed[i] && !hasNumericUsage(i)) {
+                    narrowed[i] = false;
+                    changed = true;
+                }
+            }
+        } while (changed);
+    }
+
+    private boolean hasNumericUsage(int variable) {
+        for (Phi phi : phiUsages.get(variable)) {
+            if (narrowed[phi.getReceiver().getIndex()]) {
+                return true;
+            }
+        }
+        for (Instruction insn : usages.get(variable)) {
+            Variable receiver = getNarrowableReceiver(insn);
+            if (receiver != null && narrowed[receiver.getIndex()]) {
+                return true;
+            }
+            if (isComparison(insn) || isCastFromLong(insn)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isComparison(Instruction insn) {
+        if (!(insn instanceof BinaryInstruction)) {
+            return false;
+        }
+        var binary = (BinaryInstruction) insn;
+        return binary.getOperation() == BinaryOperation.COMPARE
+                && binary.getOperandType() == NumericOperandType.LONG
+                && isSafe(binary.getFirstOperand(), insn.getBasicBlock())
+                && isSafe(binary.getSecondOperand(), insn.getBasicBlock());
+    }
+
+    private boolean isCastFromLong(Instruction insn) {
+        return insn instanceof CastNumberInstruction
+                && ((CastNumberInstruction) insn).getSourceType() == NumericOperandType.LONG;
+    }
+
+    /*
+     * Unlike long, double distinguishes between 0 and -0, which can be produced by multiplication,
+     * remainder or negation. It's only observable after cast to double or float, so we track variables
+     * that may hold -0 to fix up these casts.
+     */
+    private void findNegativeZeros() {
+        mayBeNegativeZero = new boolean[narrowed.length];
+        boolean changed;
+        do {
+            changed = false;
+            for (int i = 0; i < narrowed.length; ++i) {
+                if (narrowed[i] && !mayBeNegativeZero[i] && computeMayBeNegativeZero(i)) {
+                    mayBeNegativeZero[i] = true;
+                    changed = true;
+                }
+            }
+        } while (changed);
+    }
+
+    private boolean computeMayBeNegativeZero(int variable) {
+        if (phiDefinitions[variable] != null) {
+            for (Incoming incoming : phiDefinitions[variable].getIncomings()) {
+                if (mayBeNegativeZero[incoming.getValue().getIndex()]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Instruction insn = definitions[variable];
+        if (insn instanceof NegateInstruction) {
+            return true;
+        } else if (insn instanceof AssignInstruction) {
+            return mayBeNegativeZero[((AssignInstruction) insn).getAssignee().getIndex()];
+        } else if (insn instanceof BinaryInstruction) {
+            var binary = (BinaryInstruction) insn;
+            switch (binary.getOperation()) {
+                case MULTIPLY:
+                case MODULO:
+                    return true;
+                case ADD:
+                    return mayBeNegativeZero[binary.getFirstOperand().getIndex()]
+                            && mayBeNegativeZero[binary.getSecondOperand().getIndex()];
+                case SUBTRACT:
+                    return mayBeNegativeZero[binary.getFirstOperand().getIndex()];
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+
+    private void rewrite(BasicBlock block) {
+        for (Phi phi : block.getPhis()) {
+            boolean receiverNarrowed = narrowed[phi.getReceiver().getIndex()];
+            for (Incoming incoming : phi.getIncomings()) {
+                if (narrowed[incoming.getValue().getIndex()] != receiverNarrowed) {
+                    Instruction last = incoming.getSource().getLastInstruction();
+                    incoming.setValue(receiverNarrowed
+                            ? convert(incoming.getValue(), NumericOperandType.LONG, NumericOperandType.DOUBLE, last)
+                            : convert(incoming.getValue(), NumericOperandType.DOUBLE, NumericOperandType.LONG, last));
+                }
+            }
+        }
+
+        List<Instruction> instructions = new ArrayList<>();
+        for (Instruction insn : block) {
+            instructions.add(insn);
+        }
+        for (Instruction insn : instructions) {
+            Variable receiver = getNarrowableReceiver(insn);
+            if (receiver != null && narrowed[receiver.getIndex()]) {
+                rewriteDefinition(insn);
+            } else if (isComparison(insn) && usesNarrowed(insn)) {
+                rewriteComparison((BinaryInstruction) insn);
+            } else if (isCastFromLong(insn) && narrowed[((CastNumberInstruction) insn).getValue().getIndex()]) {
+                rewriteCast((CastNumberInstruction) insn);
+            } else if (usesNarrowed(insn)) {
+                var mapper = new InstructionVariableMapper(variable -> narrowed[variable.getIndex()]
+                        ? convert(variable, NumericOperandType.DOUBLE, NumericOperandType.LONG, insn)
+                        : variable);
+                insn.acceptVisitor(mapper);
+            }
+        }
+    }
+
+    private boolean usesNarrowed(Instruction insn) {
+        insn.acceptVisitor(usageExtractor);
+        for (Variable used : usageExtractor.getUsedVariables()) {
+            if (narrowed[used.getIndex()]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rewriteDefinition(Instruction insn) {
+        if (insn instanceof LongConstantInstruction) {
+            var constant = (LongConstantInstruction) insn;
+            var replacement = new DoubleConstantInstruction();
+            replacement.setConstant(constant.getConstant());
+            replacement.setReceiver(constant.getReceiver());
+            replacement.setLocation(constant.getLocation());
+            insn.replace(replacement);
+        } else if (insn instanceof CastNumberInstruction) {
+            var cast = (CastNumberInstruction) insn;
+            var replacement = new CastNumberInstruction(NumericOperandType.INT, NumericOperandType.DOUBLE);
+            replacement.setValue(cast.getValue());
+            replacement.setReceiver(cast.getReceiver());
+            replacement.setLocation(cast.getLocation());
+            insn.replace(replacement);
+        } else if (insn instanceof BinaryInstruction) {
+            var binary = (BinaryInstruction) insn;
+            var replacement = new BinaryInstruction(binary.getOperation(), NumericOperandType.DOUBLE);
+            setNumberOperands(replacement, binary, insn);
+            replacement.setReceiver(binary.getReceiver());
+            replacement.setLocation(binary.getLocation());
+            insn.replace(replacement);
+        } else if (insn instanceof NegateInstruction) {
+            var negate = (NegateInstruction) insn;
+            var replacement = new NegateInstruction(NumericOperandType.DOUBLE);
+            replacement.setOperand(toNumber(negate.getOperand(), insn));
+            replacement.setReceiver(negate.getReceiver());
+            replacement.setLocation(negate.getLocation());
+            insn.replace(replacement);
+        } else if (insn instanceof AssignInstruction) {
+            var assign = (AssignInstruction) insn;
+            assign.setAssignee(toNumber(assign.getAssignee(), insn));
+        }
+    }
+
+    private void rewriteComparison(BinaryInstruction insn) {
+        var replacement = new BinaryInstruction(BinaryOperation.COMPARE, NumericOperandType.DOUBLE);
+        setNumberOperands(replacement, insn, insn);
+        replacement.setReceiver(insn.getReceiver());
+        replacement.setLocation(insn.getLocation());
+        insn.replace(replacement);
+    }
+
+    private void rewriteCast(CastNumberInstruction insn) {
+        Variable value = insn.getValue();
+        if (insn.getTargetType() != NumericOperandType.INT && mayBeNegativeZero[value.getIndex()]) {
+            var zero = new DoubleConstantInstruction();
+            zero.setReceiver(program.createVariable());
+            zero.setLocation(insn.getLocation());
+            insn.insertPrevious(zero);
+
+            var add = new BinaryInstruction(BinaryOperation.ADD, NumericOperandType.DOUBLE);
+            add.setFirstOperand(value);
+            add.setSecondOperand(zero.getReceiver());
+            add.setReceiver(program.createVariable());
+            add.setLocation(insn.getLocation());
+            insn.insertPrevious(add);
+            value = add.getReceiver();
+        }
+
+        Instruction replacement;
+        if (insn.getTargetType() == NumericOperandType.DOUBLE) {
+            var assign = new AssignInstruction();
+            assign.setAssignee(value);
+            assign.setReceiver(insn.getReceiver());
+            replacement = assign;
+        } else {
+            var cast = new CastNumberInstruction(NumericOperandType.DOUBLE, insn.getTargetType());
+            cast.setValue(value);
+            cast.setReceiver(insn.getReceiver());
+            replacement = cast;
+        }
+        replacement.setLocation(insn.getLocation());
+        insn.replace(replacement);
+    }
+
+    private void setNumberOperands(BinaryInstruction target, BinaryInstruction source, Instruction insn) {
+        Variable first = toNumber(source.getFirstOperand(), insn);
+        target.setFirstOperand(first);
+        target.setSecondOperand(source.getSecondOperand() == source.getFirstOperand()
+                ? first
+                : toNumber(source.getSecondOperand(), insn));
+    }
+
+    private Variable toNumber(Variable variable, Instruction insn) {
+        return narrowed[variable.getIndex()]
+                ? variable
+                : convert(variable, NumericOperandType.LONG, NumericOperandType.DOUBLE, insn);
+    }
+
+    private Variable convert(Variable value, NumericOperandType sourceType, NumericOperandType targetType,
+            Instruction before) {
+        var cast = new CastNumberInstruction(sourceType, targetType);
+        cast.setValue(value);
+        cast.setReceiver(program.createVariable());
+        cast.setLocation(before.getLocation());
+        before.insertPrevious(cast);
+        return cast.getReceiver();
+    }
+}
@@ -29,7 +29,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import org.teavm.ast.AsyncMethodNode;
 import org.teavm.ast.ControlFlowEntry;
 import org.teavm.ast.MethodNode;
@@ -47,6 +51,7 @@ import org.teavm.cache.AstCacheEntry;
 import org.teavm.cache.AstDependencyExtractor;
 import org.teavm.cache.CacheStatus;
 import org.teavm.cache.MethodNodeCache;
+import org.teavm.common.ConcurrentUtil;
 import org.teavm.common.ServiceRepository;
 import org.teavm.dependency.DependencyInfo;
 import org.teavm.diagnostics.Diagnostics;
@@ -74,6 +79,7 @@ import org.teavm.vm.TeaVMProgressFeedback;
 public class Renderer implements RenderingManager {
     public static final int SECTION_STRING_POOL = 0;
     public static final int SECTION_METADATA = 1;
+    private static final int DECOMPILATION_BATCH_SIZE_PER_THREAD = 64;
 
     private final SourceWriter writer;
     private final ListableClassReaderSource classSource;
@@ -94,6 +100,10 @@ public class Renderer implements RenderingManager {
     private AstDependencyExtractor dependencyExtractor = new AstDependencyExtractor();
     private List<ExportedDeclaration> exports;
     private String entryPoint;
+    private int threadCount = 1;
+    private Map<MethodReference, MethodNode> decompiledMethods = new HashMap<>();
+    private List<ClassHolder> sequence = new ArrayList<>();
+    private Consumer<String> classRenderedListener;
 
     public static final MethodDescriptor CLINIT_METHOD = new MethodDescriptor("<clinit>", ValueType.VOID);
 
@@ -168,6 +178,18 @@ public class Renderer implements RenderingManager {
         this.progressConsumer = progressConsumer;
     }
 
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Sets listener that is called each time declaration and methods of a class are written,
+     * so that the caller can cut output into per-class fragments.
+     */
+    public void setClassRenderedListener(Consumer<String> classRenderedListener) {
+        this.classRenderedListener = classRenderedListener;
+    }
+
     public void setProperties(Properties properties) {
         this.properties.clear();
         this.properties.putAll(properties);
@@ -190,7 +212,14 @@ public class Renderer implements RenderingManager {
     }
 
     public void renderStringConstants() throws RenderingException {
+        renderStringConstants(className -> true);
+    }
+
+    public void renderStringConstants(Predicate<String> classFilter) throws RenderingException {
         for (PostponedFieldInitializer initializer : postponedFieldInitializers) {
+            if (!classFilter.test(initializer.field.getClassName())) {
+                continue;
+            }
             writer.markSectionStart(SECTION_STRING_POOL);
             writer.appendStaticField(initializer.field).ws().append("=").ws();
             context.constantToString(writer, initializer.value);
@@ -231,7 +260,20 @@ public class Renderer implements RenderingManager {
     }
 
     public boolean render(ListableClassHolderSource classes, boolean isFriendlyToDebugger) {
-        var sequence = new ArrayList<ClassHolder>();
+        if (!renderClasses(classes, isFriendlyToDebugger)) {
+            return false;
+        }
+        renderClassMetadata(className -> true);
+        return true;
+    }
+
+    /**
+     * Renders declarations and method bodies of classes, but not their metadata.
+     *
+     * @return <code>false</code> if rendering was cancelled.
+     */
+    public boolean renderClasses(ListableClassHolderSource classes, boolean isFriendlyToDebugger) {
+        sequence = new ArrayList<>();
         var visited = new HashSet<String>();
         for (String className : classes.getClassNames()) {
             orderClasses(classes, className, visited, sequence);
@@ -245,21 +287,111 @@ public class Renderer implements RenderingManager {
         splitMethods.addAll(asyncFinder.getAsyncFamilyMethods());
 
         var decompiler = new Decompiler(classes, splitMethods, isFriendlyToDebugger);
+        var pool = threadCount > 1 ? new ForkJoinPool(threadCount) : null;
+        try {
+            ThreadLocal<Decompiler> workerDecompiler = null;
+            if (pool != null) {
+                ClassHolderSource synchronizedClasses = name -> {
+                    synchronized (classes) {
+                        return classes.get(name);
+                    }
+                };
+                workerDecompiler = ThreadLocal.withInitial(() -> new Decompiler(synchronizedClasses,
+                        splitMethods, isFriendlyToDebugger));
+            }
 
-        int index = 0;
-        for (var cls : sequence) {
-            writer.markClassStart(cls.getName());
-            renderDeclaration(cls);
-            renderMethodBodies(cls, decompiler);
-            writer.markClassEnd();
-            if (progressConsumer.apply(1000 * ++index / sequence.size()) == TeaVMProgressFeedback.CANCEL) {
-                return false;
+            int index = 0;
+            int decompiledUntil = 0;
+            for (var cls : sequence) {
+                if (pool != null && index == decompiledUntil) {
+                    decompiledUntil = decompileAhead(pool, workerDecompiler, sequence, index);
+                }
+                writer.markClassStart(cls.getName());
+                renderDeclaration(cls);
+                renderMethodBodies(cls, decompiler);
+                writer.markClassEnd();
+                if (classRenderedListener != null) {
+                    classRenderedListener.accept(cls.getName());
+                }
+                if (progressConsumer.apply(1000 * ++index / sequence.size()) == TeaVMProgressFeedback.CANCEL) {
+                    return false;
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
             }
+            decompiledMethods.clear();
         }
-        renderClassMetadata(sequence);
         return true;
     }
 
+    /*
+     * Decompiles methods of a portion of classes, starting from the given one, in the pool.
+     * Only decompilation runs concurrently: rendering relies on shared state
+     * (string pool, generators, injectors), which makes the output depend on the order
+     * in which methods are rendered, so methods are still rendered one by one in class order.
+     * Returns index of the class next to the last decompiled one.
+     */
+    private int decompileAhead(ForkJoinPool pool, ThreadLocal<Decompiler> decompiler, List<ClassHolder> sequence,
+            int start) {
+        var methods = new ArrayList<MethodHolder>();
+        int limit = threadCount * DECOMPILATION_BATCH_SIZE_PER_THREAD;
+        int end = start;
+        while (end < sequence.size() && methods.size() < limit) {
+            for (var method : sequence.get(end++).getMethods()) {
+                if (!filterMethod(method) || method.hasModifier(ElementModifier.NATIVE)) {
+                    continue;
+                }
+                var reference = method.getReference();
+                var async = asyncMethods.contains(reference);
+                if (astCache != null && !cacheStatus.isStaleMethod(reference)) {
+                    MethodNode node;
+                    if (async) {
+                        node = astCache.getAsync(reference, cacheStatus);
+                    } else {
+                        var entry = astCache.get(reference, cacheStatus);
+                        node = entry != null ? entry.method : null;
+                    }
+                    if (node != null) {
+                        decompiledMethods.put(reference, node);
+                        continue;
+                    }
+                }
+                methods.add(method);
+            }
+        }
+
+        var tasks = new ArrayList<Callable<Object>>();
+        for (var method : methods) {
+            if (asyncMethods.contains(method.getReference())) {
+                tasks.add(() -> decompiler.get().decompileAsync(method));
+            } else {
+                tasks.add(() -> decompileRegularCacheMiss(decompiler.get(), method));
+            }
+        }
+        var results = ConcurrentUtil.invokeAll(pool, tasks);
+
+        for (int i = 0; i < methods.size(); ++i) {
+            var reference = methods.get(i).getReference();
+            var result = results.get(i);
+            if (result instanceof AsyncMethodNode) {
+                var node = (AsyncMethodNode) result;
+                if (astCache != null) {
+                    astCache.storeAsync(reference, node, () -> dependencyExtractor.extract(node));
+                }
+                decompiledMethods.put(reference, node);
+            } else {
+                var entry = (AstCacheEntry) result;
+                if (astCache != null) {
+                    astCache.store(reference, entry, () -> dependencyExtractor.extract(entry.method));
+                }
+                decompiledMethods.put(reference, entry.method);
+            }
+        }
+        return end;
+    }
+
     private void orderClasses(ClassHolderSource classes, String className, Set<String> visited,
             List<ClassHolder> order) {
         if (!visited.add(className)) {
@@ -464,6 +596,21 @@ public class Renderer implements RenderingManager {
                 .appendClass(cls.getName()).append(");").softNewLine();
     }
 
+    /**
+     * Renders metadata of classes that were previously rendered by {@link #renderClasses}.
+     */
+    public void renderClassMetadata(Predicate<String> classFilter) {
+        var classReaders = new ArrayList<ClassReader>();
+        for (var cls : sequence) {
+            if (classFilter.test(cls.getName())) {
+                classReaders.add(cls);
+            }
+        }
+        if (!classReaders.isEmpty()) {
+            renderClassMetadata(classReaders);
+        }
+    }
+
     private void renderClassMetadata(List<? extends ClassReader> classReaders) {
         ClassMetadataRequirements metadataRequirements = new ClassMetadataRequirements(context.getDependencyInfo());
 
@@ -906,13 +1053,15 @@ public class Renderer implements RenderingManager {
 
     private void renderRegularBody(MethodHolder method, Decompiler decompiler, boolean isFunction) {
         MethodReference reference = method.getReference();
-        MethodNode node;
         var async = asyncMethods.contains(reference);
-        if (async) {
-            node = decompileAsync(decompiler, method);
-        } else {
-            var entry = decompileRegular(decompiler, method);
-            node = entry.method;
+        var node = decompiledMethods.remove(reference);
+        if (node == null) {
+            if (async) {
+                node = decompileAsync(decompiler, method);
+            } else {
+                var entry = decompileRegular(decompiler, method);
+                node = entry.method;
+            }
         }
 
         methodBodyRenderer.setCurrentMethod(node);
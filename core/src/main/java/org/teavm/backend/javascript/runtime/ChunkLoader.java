@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.runtime;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.teavm.interop.Async;
+import org.teavm.interop.AsyncCallback;
+
+public final class ChunkLoader {
+    private static Set<String> loadedChunks;
+
+    private ChunkLoader() {
+    }
+
+    public static void load(String name) {
+        if (loadedChunks == null) {
+            loadedChunks = new HashSet<>();
+        } else if (loadedChunks.contains(name)) {
+            return;
+        }
+        var error = loadImpl(name);
+        if (error != null) {
+            throw new IllegalStateException("Could not load chunk " + name + ": " + error);
+        }
+        loadedChunks.add(name);
+    }
+
+    @Async
+    private static native String loadImpl(String name);
+
+    private static native void loadImpl(String name, AsyncCallback<String> callback);
+}
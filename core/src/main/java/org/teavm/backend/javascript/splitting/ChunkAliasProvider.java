@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.splitting;
+
+import java.util.Set;
+import org.teavm.backend.javascript.codegen.AliasProvider;
+import org.teavm.backend.javascript.codegen.ScopedName;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Alias provider for code that is split into several ES2015 modules. Bindings imported from another module
+ * are read-only, so names which can be assigned from other modules are moved to the additional scope object,
+ * which is shared by all modules. These are static fields and bodies of split points, which are assigned
+ * by a chunk and called by a stub from the main module.</p>
+ *
+ * <p>Underlying provider must never start the additional scope by itself, since names it produces for
+ * the additional scope may clash with names this provider moves there.</p>
+ */
+public class ChunkAliasProvider implements AliasProvider {
+    private final AliasProvider underlying;
+    private final Set<MethodReference> scopedMethods;
+
+    public ChunkAliasProvider(AliasProvider underlying, Set<MethodReference> scopedMethods) {
+        this.underlying = underlying;
+        this.scopedMethods = scopedMethods;
+    }
+
+    @Override
+    public String getFieldAlias(FieldReference field) {
+        return underlying.getFieldAlias(field);
+    }
+
+    @Override
+    public ScopedName getStaticFieldAlias(FieldReference field) {
+        return scoped(underlying.getStaticFieldAlias(field));
+    }
+
+    @Override
+    public ScopedName getStaticMethodAlias(MethodReference method) {
+        var name = underlying.getStaticMethodAlias(method);
+        return scopedMethods.contains(method) ? scoped(name) : name;
+    }
+
+    @Override
+    public String getMethodAlias(MethodDescriptor method) {
+        return underlying.getMethodAlias(method);
+    }
+
+    @Override
+    public ScopedName getClassAlias(String className) {
+        return underlying.getClassAlias(className);
+    }
+
+    @Override
+    public ScopedName getFunctionAlias(String name) {
+        return underlying.getFunctionAlias(name);
+    }
+
+    @Override
+    public ScopedName getClassInitAlias(String className) {
+        return underlying.getClassInitAlias(className);
+    }
+
+    @Override
+    public String getAdditionalScopeName() {
+        return underlying.getAdditionalScopeName();
+    }
+
+    @Override
+    public void reserveName(String name) {
+        underlying.reserveName(name);
+    }
+
+    private static ScopedName scoped(ScopedName name) {
+        return name.scoped ? name : new ScopedName(name.name, true);
+    }
+}
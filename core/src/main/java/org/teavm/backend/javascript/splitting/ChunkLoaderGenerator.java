@@ -0,0 +1,51 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.splitting;
+
+import org.teavm.backend.javascript.codegen.SourceWriter;
+import org.teavm.backend.javascript.rendering.RenderingUtil;
+import org.teavm.backend.javascript.spi.Generator;
+import org.teavm.backend.javascript.spi.GeneratorContext;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodReference;
+
+public class ChunkLoaderGenerator implements Generator {
+    private static final MethodDescriptor COMPLETE_METHOD = new MethodDescriptor("complete",
+            Object.class, void.class);
+    private String fileNamePrefix = "";
+    private String fileNameSuffix = ".js";
+
+    public void setFileName(String prefix, String suffix) {
+        fileNamePrefix = prefix;
+        fileNameSuffix = suffix;
+    }
+
+    @Override
+    public void generate(GeneratorContext context, SourceWriter writer, MethodReference methodRef) {
+        var name = context.getParameterName(1);
+        var callback = context.getParameterName(2);
+        writer.append("import(\"./").append(RenderingUtil.escapeString(fileNamePrefix)).append("\"").ws()
+                .append("+").ws().appendFunction("$rt_ustr").append("(").append(name).append(")").ws()
+                .append("+").ws().append("\"").append(RenderingUtil.escapeString(fileNameSuffix)).append("\")")
+                .append(".then(()").sameLineWs().append("=>").ws().append("{").indent().softNewLine();
+        writer.append(callback).append(".").appendVirtualMethod(COMPLETE_METHOD).append("(null);").softNewLine();
+        writer.outdent().append("},").ws().append("$e").sameLineWs().append("=>").ws().append("{")
+                .indent().softNewLine();
+        writer.append(callback).append(".").appendVirtualMethod(COMPLETE_METHOD).append("(")
+                .appendFunction("$rt_str").append("(\"\"").ws().append("+").ws().append("$e));").softNewLine();
+        writer.outdent().append("});").softNewLine();
+    }
+}
@@ -0,0 +1,417 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.splitting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.teavm.backend.javascript.codegen.NamingStrategy;
+import org.teavm.backend.javascript.codegen.RememberedSource;
+import org.teavm.backend.javascript.codegen.ScopedName;
+import org.teavm.backend.javascript.codegen.SourceWriterSink;
+import org.teavm.callgraph.CallGraph;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Distributes rendered classes between the main module, the common chunk and chunks that are loaded
+ * on demand through split points.</p>
+ *
+ * <p>Initial placement comes from the call graph: a method belongs to a chunk if it can be reached from
+ * split points of this chunk only, to the common chunk if it can be reached from split points of several
+ * chunks and to the main module if it can be reached without passing through any split point. A class
+ * is placed according to its methods. After that, actual references between rendered classes are taken
+ * into account: a class referred to from several modules is moved to the common chunk or to the main module,
+ * until no module refers to a declaration from a module that may be not loaded yet.</p>
+ */
+public class ChunkPartitioner {
+    public static final int MAIN = 0;
+    public static final int COMMON = 1;
+    private static final int UNKNOWN = -1;
+
+    private final CallGraph callGraph;
+    private final Collection<? extends MethodReference> reachableMethods;
+    private final Map<MethodReference, String> splitPoints;
+    private final List<String> chunkNames = new ArrayList<>();
+    private final Map<String, Unit> units = new LinkedHashMap<>();
+    private final Map<Name, Unit> declarations = new HashMap<>();
+    private final Set<Name> mainDeclarations = new HashSet<>();
+    private final Set<Name> mainReferences = new HashSet<>();
+    private final Set<Name> exemptNames = new HashSet<>();
+
+    public ChunkPartitioner(CallGraph callGraph, Collection<? extends MethodReference> reachableMethods,
+            Map<MethodReference, String> splitPoints) {
+        this.callGraph = callGraph;
+        this.reachableMethods = reachableMethods;
+        this.splitPoints = splitPoints;
+        chunkNames.addAll(new TreeSet<>(splitPoints.values()));
+        for (var implementation : splitPoints.keySet()) {
+            exemptNames.add(new Name(Name.METHOD, implementation));
+        }
+    }
+
+    public List<String> getChunkNames() {
+        return chunkNames;
+    }
+
+    public int getModuleCount() {
+        return chunkNames.size() + 2;
+    }
+
+    public String getModuleName(int module) {
+        switch (module) {
+            case MAIN:
+                return null;
+            case COMMON:
+                return SplitPointTransformer.COMMON_CHUNK;
+            default:
+                return chunkNames.get(module - 2);
+        }
+    }
+
+    /**
+     * Adds code that always goes to the main module, like runtime or epilogue.
+     */
+    public void addMainFragment(RememberedSource source) {
+        var collector = new ReferenceCollector();
+        source.replay(collector, RememberedSource.FILTER_TEXT | RememberedSource.FILTER_REF);
+        mainDeclarations.addAll(collector.declared);
+        mainReferences.addAll(collector.referenced);
+    }
+
+    /**
+     * Adds a function that is declared in the main module outside of any rendered fragment,
+     * for example, an alias of an imported module.
+     */
+    public void addMainFunction(String name) {
+        mainDeclarations.add(new Name(Name.FUNCTION, name));
+    }
+
+    public void addClass(String className, Collection<? extends MethodReference> methods,
+            RememberedSource declaration) {
+        var unit = new Unit();
+        unit.methods.addAll(methods);
+        units.put(className, unit);
+        var collector = new ReferenceCollector();
+        declaration.replay(collector, RememberedSource.FILTER_TEXT | RememberedSource.FILTER_REF);
+        unit.references.addAll(collector.referenced);
+        for (var name : collector.declared) {
+            declarations.put(name, unit);
+        }
+    }
+
+    /**
+     * Adds class metadata. References made by metadata of a class are attributed to this class.
+     */
+    public void addMetadata(RememberedSource metadata) {
+        var collector = new ReferenceCollector();
+        metadata.replay(collector, RememberedSource.FILTER_TEXT | RememberedSource.FILTER_REF
+                | RememberedSource.FILTER_DEBUG);
+        for (var entry : collector.referencedByClass.entrySet()) {
+            var unit = units.get(entry.getKey());
+            if (unit != null) {
+                unit.references.addAll(entry.getValue());
+            }
+        }
+    }
+
+    public void partition() {
+        var methodModules = placeMethods();
+        for (var unit : units.values()) {
+            var module = UNKNOWN;
+            for (var method : unit.methods) {
+                module = meet(module, methodModules.getOrDefault(method, UNKNOWN));
+            }
+            unit.module = module;
+        }
+
+        var queue = new ArrayDeque<Unit>();
+        for (var name : mainReferences) {
+            var unit = declarations.get(name);
+            if (unit != null && !exemptNames.contains(name) && unit.module != MAIN) {
+                unit.module = MAIN;
+                queue.add(unit);
+            }
+        }
+        for (var unit : units.values()) {
+            if (unit.module != UNKNOWN) {
+                queue.add(unit);
+            }
+        }
+        propagate(queue);
+
+        // Classes that can't be reached neither through the call graph nor by references,
+        // for example, classes referred only by runtime internals
+        for (var unit : units.values()) {
+            if (unit.module == UNKNOWN) {
+                unit.module = MAIN;
+                queue.add(unit);
+            }
+        }
+        propagate(queue);
+    }
+
+    private void propagate(ArrayDeque<Unit> queue) {
+        while (!queue.isEmpty()) {
+            var unit = queue.remove();
+            for (var name : unit.references) {
+                var target = declarations.get(name);
+                if (target == null || target == unit || exemptNames.contains(name)) {
+                    continue;
+                }
+                var module = meet(target.module, unit.module);
+                if (module != target.module) {
+                    target.module = module;
+                    queue.add(target);
+                }
+            }
+        }
+    }
+
+    private Map<MethodReference, Integer> placeMethods() {
+        var result = new HashMap<MethodReference, Integer>();
+        var chunkRoots = new HashMap<String, List<MethodReference>>();
+        for (var entry : splitPoints.entrySet()) {
+            chunkRoots.computeIfAbsent(entry.getValue(), k -> new ArrayList<>()).add(entry.getKey());
+        }
+        for (int i = 0; i < chunkNames.size(); ++i) {
+            visitClosure(chunkRoots.get(chunkNames.get(i)), i + 2, result);
+        }
+
+        var mainRoots = new ArrayList<MethodReference>();
+        for (var method : reachableMethods) {
+            if (!result.containsKey(method) && !splitPoints.containsKey(method)) {
+                mainRoots.add(method);
+            }
+        }
+        visitClosure(mainRoots, MAIN, result);
+        return result;
+    }
+
+    private void visitClosure(List<MethodReference> roots, int module, Map<MethodReference, Integer> modules) {
+        var visited = new HashSet<MethodReference>(roots);
+        var stack = new ArrayList<>(roots);
+        while (!stack.isEmpty()) {
+            var method = stack.remove(stack.size() - 1);
+            modules.put(method, meet(modules.getOrDefault(method, UNKNOWN), module));
+            var node = callGraph.getNode(method);
+            if (node == null) {
+                continue;
+            }
+            for (var callSite : node.getCallSites()) {
+                for (var callee : callSite.getCalledMethods()) {
+                    var calledMethod = callee.getMethod();
+                    if (!splitPoints.containsKey(calledMethod) && visited.add(calledMethod)) {
+                        stack.add(calledMethod);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int meet(int a, int b) {
+        if (a == UNKNOWN) {
+            return b;
+        }
+        if (b == UNKNOWN || a == b) {
+            return a;
+        }
+        return a == MAIN || b == MAIN ? MAIN : COMMON;
+    }
+
+    public int getModule(String className) {
+        var unit = units.get(className);
+        return unit != null ? unit.module : MAIN;
+    }
+
+    /**
+     * Computes names that given fragments of a module refer to, but which are declared in other modules.
+     * Names that are accessed through additional scope are not imported.
+     *
+     * @return map from module to sorted set of names to import from it.
+     */
+    public Map<Integer, Set<String>> getImports(int module, List<RememberedSource> fragments,
+            NamingStrategy naming) {
+        var collector = new ReferenceCollector();
+        for (var fragment : fragments) {
+            fragment.replay(collector, RememberedSource.FILTER_TEXT | RememberedSource.FILTER_REF);
+        }
+        var result = new TreeMap<Integer, Set<String>>();
+        for (var name : collector.referenced) {
+            if (collector.declared.contains(name)) {
+                continue;
+            }
+            int source;
+            var unit = declarations.get(name);
+            if (unit != null) {
+                source = unit.module;
+            } else if (mainDeclarations.contains(name)) {
+                source = MAIN;
+            } else {
+                continue;
+            }
+            if (source == module) {
+                continue;
+            }
+            var jsName = name.resolve(naming);
+            if (!jsName.scoped) {
+                result.computeIfAbsent(source, k -> new TreeSet<>()).add(jsName.name);
+            }
+        }
+        return result;
+    }
+
+    private static class Unit {
+        final Set<MethodReference> methods = new HashSet<>();
+        final Set<Name> references = new HashSet<>();
+        int module = UNKNOWN;
+    }
+
+    private static final class Name {
+        static final int CLASS = 0;
+        static final int STATIC_FIELD = 1;
+        static final int METHOD = 2;
+        static final int INIT = 3;
+        static final int CLASS_INIT = 4;
+        static final int FUNCTION = 5;
+
+        final int kind;
+        final Object value;
+
+        Name(int kind, Object value) {
+            this.kind = kind;
+            this.value = value;
+        }
+
+        ScopedName resolve(NamingStrategy naming) {
+            switch (kind) {
+                case CLASS:
+                    return naming.className((String) value);
+                case STATIC_FIELD:
+                    return naming.fieldName((FieldReference) value);
+                case METHOD:
+                    return naming.methodName((MethodReference) value);
+                case INIT:
+                    return naming.initializerName((MethodReference) value);
+                case CLASS_INIT:
+                    return naming.classInitializerName((String) value);
+                default:
+                    return naming.functionName((String) value);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Name)) {
+                return false;
+            }
+            var that = (Name) o;
+            return kind == that.kind && value.equals(that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, value);
+        }
+    }
+
+    private static class ReferenceCollector implements SourceWriterSink {
+        final Set<Name> declared = new HashSet<>();
+        final Set<Name> referenced = new HashSet<>();
+        final Map<String, Set<Name>> referencedByClass = new HashMap<>();
+        private boolean expectingDeclaration;
+        private String currentClass;
+
+        private SourceWriterSink add(int kind, Object value) {
+            var name = new Name(kind, value);
+            if (expectingDeclaration) {
+                expectingDeclaration = false;
+                declared.add(name);
+            } else {
+                referenced.add(name);
+                if (currentClass != null) {
+                    referencedByClass.computeIfAbsent(currentClass, k -> new HashSet<>()).add(name);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public SourceWriterSink appendClass(String cls) {
+            return add(Name.CLASS, cls);
+        }
+
+        @Override
+        public SourceWriterSink appendStaticField(FieldReference field) {
+            return add(Name.STATIC_FIELD, field);
+        }
+
+        @Override
+        public SourceWriterSink appendMethod(MethodReference method) {
+            return add(Name.METHOD, method);
+        }
+
+        @Override
+        public SourceWriterSink appendInit(MethodReference method) {
+            return add(Name.INIT, method);
+        }
+
+        @Override
+        public SourceWriterSink appendClassInit(String className) {
+            return add(Name.CLASS_INIT, className);
+        }
+
+        @Override
+        public SourceWriterSink appendFunction(String name) {
+            return add(Name.FUNCTION, name);
+        }
+
+        @Override
+        public SourceWriterSink startVariableDeclaration() {
+            expectingDeclaration = true;
+            return this;
+        }
+
+        @Override
+        public SourceWriterSink startFunctionDeclaration() {
+            expectingDeclaration = true;
+            return this;
+        }
+
+        @Override
+        public SourceWriterSink declareVariable() {
+            expectingDeclaration = true;
+            return this;
+        }
+
+        @Override
+        public void emitClass(String className) {
+            currentClass = className;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.splitting;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.teavm.backend.javascript.runtime.ChunkLoader;
+import org.teavm.interop.SplitPoint;
+import org.teavm.model.AccessLevel;
+import org.teavm.model.AnnotationReader;
+import org.teavm.model.CallLocation;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ClassHolderTransformer;
+import org.teavm.model.ClassHolderTransformerContext;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.ValueType;
+import org.teavm.model.Variable;
+import org.teavm.model.instructions.ExitInstruction;
+import org.teavm.model.instructions.InvocationType;
+import org.teavm.model.instructions.InvokeInstruction;
+import org.teavm.model.instructions.StringConstantInstruction;
+
+/**
+ * Moves bodies of methods annotated with {@link SplitPoint} to separate classes, so that they can be
+ * emitted in chunks, and replaces them with stubs that load the chunk before calling the moved body.
+ */
+public class SplitPointTransformer implements ClassHolderTransformer {
+    public static final String COMMON_CHUNK = "common";
+    private static final MethodReference LOAD_METHOD = new MethodReference(ChunkLoader.class, "load",
+            String.class, void.class);
+    private final Map<MethodReference, String> splitPoints = new ConcurrentHashMap<>();
+
+    /**
+     * Returns methods that hold bodies of split points, mapped to names of their chunks.
+     */
+    public Map<MethodReference, String> getSplitPoints() {
+        return Collections.unmodifiableMap(splitPoints);
+    }
+
+    @Override
+    public void transformClass(ClassHolder cls, ClassHolderTransformerContext context) {
+        int suffix = 0;
+        for (var method : List.copyOf(cls.getMethods())) {
+            var annot = method.getAnnotations().get(SplitPoint.class.getName());
+            if (annot == null) {
+                continue;
+            }
+            if (!method.hasModifier(ElementModifier.STATIC) || !method.hasProgram()) {
+                context.getDiagnostics().error(new CallLocation(method.getReference()),
+                        "Split point {{m0}} must be a static method with a body", method.getReference());
+                continue;
+            }
+            var chunkName = getChunkName(method, annot);
+            if (chunkName.equals(COMMON_CHUNK)) {
+                context.getDiagnostics().error(new CallLocation(method.getReference()),
+                        "Split point {{m0}} uses reserved chunk name '" + COMMON_CHUNK + "'",
+                        method.getReference());
+                continue;
+            }
+
+            var implClass = new ClassHolder(cls.getName() + "$" + method.getName() + "$split$" + suffix++);
+            implClass.setParent("java.lang.Object");
+            implClass.setLevel(AccessLevel.PUBLIC);
+            implClass.getModifiers().add(ElementModifier.FINAL);
+            var implMethod = new MethodHolder(method.getDescriptor());
+            implMethod.setLevel(AccessLevel.PUBLIC);
+            implMethod.getModifiers().add(ElementModifier.STATIC);
+            implMethod.setProgram(method.getProgram());
+            implClass.addMethod(implMethod);
+            context.submit(implClass);
+
+            splitPoints.put(implMethod.getReference(), chunkName);
+            method.setProgram(createStub(method, chunkName, implMethod.getReference()));
+        }
+    }
+
+    private static String getChunkName(MethodHolder method, AnnotationReader annot) {
+        var value = annot.getValue("value");
+        var name = value != null ? value.getString() : "";
+        if (name.isEmpty()) {
+            var className = method.getOwnerName();
+            name = className.substring(className.lastIndexOf('.') + 1) + "-" + method.getName();
+        }
+        var sb = new StringBuilder();
+        for (int i = 0; i < name.length(); ++i) {
+            char c = name.charAt(i);
+            boolean valid = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                    || c == '-' || c == '_';
+            sb.append(valid ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    private static Program createStub(MethodHolder method, String chunkName, MethodReference implementation) {
+        var program = new Program();
+        var arguments = new Variable[method.parameterCount()];
+        program.createVariable();
+        for (int i = 0; i < arguments.length; ++i) {
+            arguments[i] = program.createVariable();
+        }
+        var block = program.createBasicBlock();
+
+        var nameConstant = new StringConstantInstruction();
+        nameConstant.setConstant(chunkName);
+        nameConstant.setReceiver(program.createVariable());
+        block.add(nameConstant);
+
+        var load = new InvokeInstruction();
+        load.setType(InvocationType.SPECIAL);
+        load.setMethod(LOAD_METHOD);
+        load.setArguments(nameConstant.getReceiver());
+        block.add(load);
+
+        var call = new InvokeInstruction();
+        call.setType(InvocationType.SPECIAL);
+        call.setMethod(implementation);
+        call.setArguments(arguments);
+        if (method.getResultType() != ValueType.VOID) {
+            call.setReceiver(program.createVariable());
+        }
+        block.add(call);
+
+        var exit = new ExitInstruction();
+        exit.setValueToReturn(call.getReceiver());
+        block.add(exit);
+
+        return program;
+    }
+}
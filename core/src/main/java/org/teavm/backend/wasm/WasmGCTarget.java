@@ -22,6 +22,7 @@ import org.teavm.backend.wasm.generate.gc.WasmGCDeclarationsGenerator;
 import org.teavm.backend.wasm.generators.gc.WasmGCCustomGenerators;
 import org.teavm.backend.wasm.intrinsics.gc.WasmGCIntrinsics;
 import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.optimization.WasmOptimizer;
 import org.teavm.backend.wasm.render.WasmBinaryRenderer;
 import org.teavm.backend.wasm.render.WasmBinaryStatsCollector;
 import org.teavm.backend.wasm.render.WasmBinaryVersion;
@@ -39,6 +40,7 @@ import org.teavm.model.transformation.NullCheckFilter;
 import org.teavm.model.transformation.NullCheckInsertion;
 import org.teavm.model.util.VariableCategoryProvider;
 import org.teavm.vm.BuildTarget;
+import org.teavm.vm.TeaVMOptimizationLevel;
 import org.teavm.vm.TeaVMTarget;
 import org.teavm.vm.TeaVMTargetController;
 import org.teavm.vm.spi.TeaVMHostExtension;
@@ -155,10 +157,21 @@ public class WasmGCTarget implements TeaVMTarget {
 
         moduleGenerator.generate();
         adjustModuleMemory(module);
+        optimize(module);
 
         emitWasmFile(module, buildTarget, outputName);
     }
 
+    private void optimize(WasmModule module) {
+        var level = controller.getOptimizationLevel();
+        if (level == TeaVMOptimizationLevel.SIMPLE) {
+            return;
+        }
+        var optimizer = new WasmOptimizer(module);
+        optimizer.setInlining(level == TeaVMOptimizationLevel.FULL);
+        optimizer.optimize();
+    }
+
     private void adjustModuleMemory(WasmModule module) {
         var memorySize = 0;
         for (var segment : module.getSegments()) {
@@ -174,17 +187,22 @@ public class WasmGCTarget implements TeaVMTarget {
     }
 
     private void emitWasmFile(WasmModule module, BuildTarget buildTarget, String outputName) throws IOException {
-        var binaryWriter = new WasmBinaryWriter();
-        var binaryRenderer = new WasmBinaryRenderer(binaryWriter, WasmBinaryVersion.V_0x1, obfuscated,
-                null, null, null, null, WasmBinaryStatsCollector.EMPTY);
-        module.prepareForRendering();
-        binaryRenderer.render(module);
-        var data = binaryWriter.getData();
         if (!outputName.endsWith(".wasm")) {
             outputName += ".wasm";
         }
+        module.prepareForRendering();
+        var complete = false;
         try (var output = buildTarget.createResource(outputName)) {
-            output.write(data);
+            var binaryWriter = new WasmBinaryWriter(output);
+            var binaryRenderer = new WasmBinaryRenderer(binaryWriter, WasmBinaryVersion.V_0x1, obfuscated,
+                    null, null, null, null, WasmBinaryStatsCollector.EMPTY);
+            binaryRenderer.render(module);
+            binaryWriter.flush();
+            complete = true;
+        } finally {
+            if (!complete) {
+                buildTarget.deleteResource(outputName);
+            }
         }
     }
 
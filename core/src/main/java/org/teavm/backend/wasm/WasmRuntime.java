@@ -148,6 +148,11 @@ public final class WasmRuntime {
         WasmSupport.printInt(i);
     }
 
+    @Unmanaged
+    public static long nanoTime() {
+        return WasmSupport.nanoTime();
+    }
+
     @Unmanaged
     public static void printOutOfMemory() {
         WasmSupport.printOutOfMemory();
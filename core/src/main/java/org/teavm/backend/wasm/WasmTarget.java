@@ -63,6 +63,7 @@ import org.teavm.backend.wasm.intrinsics.FloatIntrinsic;
 import org.teavm.backend.wasm.intrinsics.FunctionClassIntrinsic;
 import org.teavm.backend.wasm.intrinsics.FunctionIntrinsic;
 import org.teavm.backend.wasm.intrinsics.GCIntrinsic;
+import org.teavm.backend.wasm.intrinsics.GCStatisticsIntrinsic;
 import org.teavm.backend.wasm.intrinsics.IntegerIntrinsic;
 import org.teavm.backend.wasm.intrinsics.LongIntrinsic;
 import org.teavm.backend.wasm.intrinsics.MemoryTraceIntrinsic;
@@ -154,10 +155,12 @@ import org.teavm.model.lowlevel.Characteristics;
 import org.teavm.model.lowlevel.ClassInitializerEliminator;
 import org.teavm.model.lowlevel.ClassInitializerTransformer;
 import org.teavm.model.lowlevel.LowLevelNullCheckFilter;
+import org.teavm.model.lowlevel.GCReachabilityAnalysis;
 import org.teavm.model.lowlevel.ShadowStackTransformer;
 import org.teavm.model.lowlevel.WriteBarrierInsertion;
 import org.teavm.model.optimization.InliningFilterFactory;
 import org.teavm.model.transformation.BoundCheckInsertion;
+import org.teavm.model.transformation.ClassInitializerInsertionTransformer;
 import org.teavm.model.transformation.ClassPatch;
 import org.teavm.model.transformation.NullCheckInsertion;
 import org.teavm.model.util.AsyncMethodFinder;
@@ -197,6 +200,8 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
     private WriteBarrierInsertion writeBarrierInsertion;
     private WasmBinaryVersion version = WasmBinaryVersion.V_0x1;
     private List<WasmIntrinsicFactory> additionalIntrinsics = new ArrayList<>();
+    private List<WasmIntrinsic> intrinsics;
+    private ClassInitializerInsertionTransformer clinitInsertion;
     private NullCheckInsertion nullCheckInsertion;
     private BoundCheckInsertion boundCheckInsertion = new BoundCheckInsertion();
     private int minHeapSize = 2 * 1024 * 1024;
@@ -215,7 +220,14 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         characteristics = new Characteristics(controller.getUnprocessedClassSource());
         classInitializerEliminator = new ClassInitializerEliminator(controller.getUnprocessedClassSource());
         classInitializerTransformer = new ClassInitializerTransformer();
-        shadowStackTransformer = new ShadowStackTransformer(characteristics);
+        clinitInsertion = new ClassInitializerInsertionTransformer(controller.getUnprocessedClassSource(),
+                controller.getClassInitializerInfo());
+        intrinsics = createIntrinsics();
+        var spillAtAllCallSites = Boolean.parseBoolean(controller.getProperties().getProperty(
+                ShadowStackTransformer.SPILL_AT_ALL_CALL_SITES));
+        shadowStackTransformer = new ShadowStackTransformer(characteristics, !spillAtAllCallSites
+                ? new GCReachabilityAnalysis(characteristics, this::isIntrinsic, this::lowerCallee)
+                : null);
         nullCheckInsertion = new NullCheckInsertion(new LowLevelNullCheckFilter(characteristics));
         writeBarrierInsertion = new WriteBarrierInsertion(characteristics);
 
@@ -370,6 +382,7 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         dependencyAnalyzer.linkMethod(new MethodReference(WasmRuntime.class, "printInt",
                 int.class, void.class)).use();
         dependencyAnalyzer.linkMethod(new MethodReference(WasmRuntime.class, "printOutOfMemory", void.class)).use();
+        dependencyAnalyzer.linkMethod(new MethodReference(WasmRuntime.class, "nanoTime", long.class)).use();
 
         dependencyAnalyzer.linkMethod(INIT_HEAP_REF).use();
         dependencyAnalyzer.linkMethod(RESIZE_HEAP_REF).use();
@@ -457,12 +470,66 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
 
     @Override
     public void afterOptimizations(Program program, MethodReader method) {
+        lowerBeforeShadowStack(program, method);
+        shadowStackTransformer.apply(program, method);
+        writeBarrierInsertion.apply(program);
+    }
+
+    private void lowerBeforeShadowStack(Program program, MethodReader method) {
         classInitializerEliminator.apply(program);
         classInitializerTransformer.transform(program);
         new CoroutineTransformation(controller.getUnprocessedClassSource(), asyncMethods, hasThreads)
                 .apply(program, method.getReference());
-        shadowStackTransformer.apply(program, method);
-        writeBarrierInsertion.apply(program);
+    }
+
+    private void lowerCallee(Program program, MethodReader method) {
+        clinitInsertion.apply(method, program);
+        beforeOptimizations(program, method);
+        lowerBeforeShadowStack(program, method);
+    }
+
+    /*
+     * Intrinsics that depend on memory layout are created in emit and are not consulted here. They only
+     * handle native and unmanaged methods, which GCReachabilityAnalysis considers collecting anyway.
+     */
+    private boolean isIntrinsic(MethodReference method) {
+        for (WasmIntrinsic intrinsic : intrinsics) {
+            if (intrinsic.isApplicable(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<WasmIntrinsic> createIntrinsics() {
+        var intrinsics = new ArrayList<WasmIntrinsic>();
+        intrinsics.add(new FunctionClassIntrinsic());
+        intrinsics.add(new WasmRuntimeIntrinsic());
+        intrinsics.add(new PlatformIntrinsic());
+        intrinsics.add(new PlatformClassIntrinsic());
+        intrinsics.add(new PlatformClassMetadataIntrinsic());
+        intrinsics.add(new ClassIntrinsic());
+        intrinsics.add(new RuntimeClassIntrinsic());
+        intrinsics.add(new FloatIntrinsic());
+        intrinsics.add(new DoubleIntrinsic());
+        intrinsics.add(new LongIntrinsic());
+        intrinsics.add(new IntegerIntrinsic());
+        intrinsics.add(new ObjectIntrinsic());
+        intrinsics.add(new ConsoleIntrinsic());
+        intrinsics.add(new GCStatisticsIntrinsic());
+        boolean vmAssertions = Boolean.parseBoolean(System.getProperty("teavm.wasm.vmAssertions", "false"));
+        if (!vmAssertions) {
+            intrinsics.add(new MemoryTraceIntrinsic());
+        }
+        intrinsics.add(new WasmHeapIntrinsic(vmAssertions));
+        intrinsics.add(new FiberIntrinsic());
+        intrinsics.add(new ShadowStackIntrinsic());
+
+        var intrinsicFactoryContext = new IntrinsicFactoryContext();
+        for (WasmIntrinsicFactory additionalIntrinsicFactory : additionalIntrinsics) {
+            intrinsics.add(additionalIntrinsicFactory.create(intrinsicFactoryContext));
+        }
+        return intrinsics;
     }
 
     @Override
@@ -508,40 +575,17 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         context.addIntrinsic(new AddressIntrinsic(classGenerator));
         context.addIntrinsic(new StructureIntrinsic(classes, classGenerator));
         context.addIntrinsic(new FunctionIntrinsic(classGenerator));
-        context.addIntrinsic(new FunctionClassIntrinsic());
-        var wasmRuntimeIntrinsic = new WasmRuntimeIntrinsic();
-        context.addIntrinsic(wasmRuntimeIntrinsic);
         context.addIntrinsic(new AllocatorIntrinsic(classGenerator));
-        context.addIntrinsic(new PlatformIntrinsic());
-        context.addIntrinsic(new PlatformClassIntrinsic());
         context.addIntrinsic(new PlatformObjectIntrinsic(classGenerator));
-        context.addIntrinsic(new PlatformClassMetadataIntrinsic());
-        context.addIntrinsic(new ClassIntrinsic());
-        context.addIntrinsic(new RuntimeClassIntrinsic());
-        context.addIntrinsic(new FloatIntrinsic());
-        context.addIntrinsic(new DoubleIntrinsic());
-        context.addIntrinsic(new LongIntrinsic());
-        context.addIntrinsic(new IntegerIntrinsic());
-        context.addIntrinsic(new ObjectIntrinsic());
-        context.addIntrinsic(new ConsoleIntrinsic());
-        context.addGenerator(new ArrayGenerator());
-        boolean vmAssertions = Boolean.parseBoolean(System.getProperty("teavm.wasm.vmAssertions", "false"));
-        if (!vmAssertions) {
-            context.addIntrinsic(new MemoryTraceIntrinsic());
-        }
-        context.addIntrinsic(new WasmHeapIntrinsic(vmAssertions));
-        context.addIntrinsic(new FiberIntrinsic());
-
-        var intrinsicFactoryContext = new IntrinsicFactoryContext();
-        for (WasmIntrinsicFactory additionalIntrinsicFactory : additionalIntrinsics) {
-            context.addIntrinsic(additionalIntrinsicFactory.create(intrinsicFactoryContext));
+        for (WasmIntrinsic intrinsic : intrinsics) {
+            context.addIntrinsic(intrinsic);
         }
+        context.addGenerator(new ArrayGenerator());
 
         GCIntrinsic gcIntrinsic = new GCIntrinsic();
         context.addIntrinsic(gcIntrinsic);
         MutatorIntrinsic mutatorIntrinsic = new MutatorIntrinsic();
         context.addIntrinsic(mutatorIntrinsic);
-        context.addIntrinsic(new ShadowStackIntrinsic());
         var exceptionHandlingIntrinsic = new ExceptionHandlingIntrinsic(binaryWriter,
                 classGenerator, stringPool, obfuscated);
         context.addIntrinsic(exceptionHandlingIntrinsic);
@@ -623,23 +667,27 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
             WasmModule module, WasmClassGenerator classGenerator, DwarfGenerator dwarfGenerator,
             DwarfClassGenerator dwarfClassGen, WasmBinaryStatsCollector statsCollector) throws IOException {
 
-        var writer = new WasmBinaryWriter();
         var debugBuilder = debugging ? new DebugInfoBuilder() : null;
         if (debugBuilder != null) {
             classGenerator.writeDebug(debugBuilder.classLayout());
         }
 
-        var renderer = new WasmBinaryRenderer(
-                writer, version, obfuscated, dwarfGenerator, dwarfClassGen,
-                debugBuilder != null ? debugBuilder.lines() : null,
-                debugBuilder != null ? debugBuilder.variables() : null,
-                statsCollector
-        );
-        renderer.render(module, buildDebug(dwarfGenerator, dwarfClassGen, debugBuilder));
-
+        var complete = false;
         try (var output = buildTarget.createResource(outputName)) {
-            output.write(writer.getData());
-            output.flush();
+            var writer = new WasmBinaryWriter(output);
+            var renderer = new WasmBinaryRenderer(
+                    writer, version, obfuscated, dwarfGenerator, dwarfClassGen,
+                    debugBuilder != null ? debugBuilder.lines() : null,
+                    debugBuilder != null ? debugBuilder.variables() : null,
+                    statsCollector
+            );
+            renderer.render(module, buildDebug(dwarfGenerator, dwarfClassGen, debugBuilder));
+            writer.flush();
+            complete = true;
+        } finally {
+            if (!complete) {
+                buildTarget.deleteResource(outputName);
+            }
         }
     }
 
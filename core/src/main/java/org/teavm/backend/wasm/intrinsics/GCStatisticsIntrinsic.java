@@ -0,0 +1,39 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.intrinsics;
+
+import org.teavm.ast.InvocationExpr;
+import org.teavm.backend.wasm.WasmRuntime;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.model.MethodReference;
+import org.teavm.runtime.GCStatistics;
+
+public class GCStatisticsIntrinsic implements WasmIntrinsic {
+    private static final MethodReference NANO_TIME = new MethodReference(WasmRuntime.class,
+            "nanoTime", long.class);
+
+    @Override
+    public boolean isApplicable(MethodReference methodReference) {
+        return methodReference.getClassName().equals(GCStatistics.class.getName())
+                && methodReference.getName().equals("nanoTime");
+    }
+
+    @Override
+    public WasmExpression apply(InvocationExpr invocation, WasmIntrinsicManager manager) {
+        return new WasmCall(manager.getFunctions().forStaticMethod(NANO_TIME));
+    }
+}
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Predicate;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
 import org.teavm.model.MethodReference;
 
@@ -111,6 +112,20 @@ public class WasmFunction extends WasmEntity {
         localVariables.add(local);
     }
 
+    public void removeLocals(Predicate<? super WasmLocal> predicate) {
+        int parameterCount = type.getParameterTypes().size();
+        int index = 0;
+        for (var iter = localVariables.iterator(); iter.hasNext();) {
+            var local = iter.next();
+            if (local.index >= parameterCount && predicate.test(local)) {
+                local.function = null;
+                iter.remove();
+            } else {
+                local.index = index++;
+            }
+        }
+    }
+
     public MethodReference getJavaMethod() {
         return javaMethod;
     }
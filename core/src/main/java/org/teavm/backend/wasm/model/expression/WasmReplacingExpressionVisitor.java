@@ -116,6 +116,7 @@ public class WasmReplacingExpressionVisitor implements WasmExpressionVisitor {
     @Override
     public void visit(WasmSetLocal expression) {
         expression.getValue().acceptVisitor(this);
+        expression.setValue(mapper.apply(expression.getValue()));
     }
 
     @Override
@@ -125,6 +126,7 @@ public class WasmReplacingExpressionVisitor implements WasmExpressionVisitor {
     @Override
     public void visit(WasmSetGlobal expression) {
         expression.getValue().acceptVisitor(this);
+        expression.setValue(mapper.apply(expression.getValue()));
     }
 
     @Override
@@ -354,7 +356,7 @@ public class WasmReplacingExpressionVisitor implements WasmExpressionVisitor {
         expression.setIndex(mapper.apply(expression.getIndex()));
 
         expression.getValue().acceptVisitor(this);
-        expression.setValue(mapper.apply(expression.getIndex()));
+        expression.setValue(mapper.apply(expression.getValue()));
     }
 
     @Override
@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.ObjectIntMap;
+import java.util.List;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmBreak;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
+import org.teavm.backend.wasm.model.expression.WasmUnreachable;
+
+/**
+ * Simplifies structure of a function: removes code that follows unconditional jumps, removes
+ * breaks to the end of the enclosing block, inlines blocks that are never targeted by branches
+ * into the enclosing sequence and removes dropped expressions that have no effects.
+ */
+public class BlockSimplification {
+    private ObjectIntMap<WasmBlock> branchCount = new ObjectIntHashMap<>();
+    private boolean changed;
+
+    public boolean apply(WasmFunction function) {
+        changed = false;
+        branchCount.clear();
+        for (var part : function.getBody()) {
+            part.acceptVisitor(branchCounter);
+        }
+        simplify(function.getBody(), null);
+        branchCount.clear();
+        return changed;
+    }
+
+    private void simplify(List<WasmExpression> expressions, WasmBlock owner) {
+        for (int i = 0; i < expressions.size(); ++i) {
+            var part = expressions.get(i);
+            part.acceptVisitor(nestedSimplifier);
+            if (part instanceof WasmBlock) {
+                var block = (WasmBlock) part;
+                if (block.getType() == null && branchCount.get(block) == 0) {
+                    expressions.remove(i);
+                    expressions.addAll(i, block.getBody());
+                    i += block.getBody().size() - 1;
+                    changed = true;
+                }
+            } else if (part instanceof WasmDrop) {
+                if (ExpressionEffects.isRemovable(((WasmDrop) part).getOperand())) {
+                    expressions.remove(i--);
+                    changed = true;
+                }
+            }
+        }
+
+        for (int i = 0; i < expressions.size() - 1; ++i) {
+            if (isJump(expressions.get(i))) {
+                expressions.subList(i + 1, expressions.size()).clear();
+                changed = true;
+                break;
+            }
+        }
+
+        if (owner != null && !owner.isLoop() && !expressions.isEmpty()) {
+            var last = expressions.get(expressions.size() - 1);
+            if (last instanceof WasmBreak && ((WasmBreak) last).getTarget() == owner) {
+                var result = ((WasmBreak) last).getResult();
+                if (result != null) {
+                    expressions.set(expressions.size() - 1, result);
+                } else {
+                    expressions.remove(expressions.size() - 1);
+                }
+                branchCount.addTo(owner, -1);
+                changed = true;
+            }
+        }
+    }
+
+    private static boolean isJump(WasmExpression expression) {
+        return expression instanceof WasmBreak || expression instanceof WasmSwitch
+                || expression instanceof WasmReturn || expression instanceof WasmUnreachable
+                || expression instanceof WasmThrow;
+    }
+
+    private WasmDefaultExpressionVisitor nestedSimplifier = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmBlock expression) {
+            simplify(expression.getBody(), expression);
+        }
+
+        @Override
+        public void visit(WasmConditional expression) {
+            expression.getCondition().acceptVisitor(this);
+            simplify(expression.getThenBlock().getBody(), expression.getThenBlock());
+            simplify(expression.getElseBlock().getBody(), expression.getElseBlock());
+        }
+
+        @Override
+        public void visit(WasmTry expression) {
+            simplify(expression.getBody(), null);
+            for (var catchClause : expression.getCatches()) {
+                simplify(catchClause.getBody(), null);
+            }
+        }
+    };
+
+    private WasmDefaultExpressionVisitor branchCounter = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmBranch expression) {
+            super.visit(expression);
+            branchCount.addTo(expression.getTarget(), 1);
+        }
+
+        @Override
+        public void visit(WasmBreak expression) {
+            super.visit(expression);
+            branchCount.addTo(expression.getTarget(), 1);
+        }
+
+        @Override
+        public void visit(WasmSwitch expression) {
+            super.visit(expression);
+            for (var target : expression.getTargets()) {
+                branchCount.addTo(target, 1);
+            }
+            branchCount.addTo(expression.getDefaultTarget(), 1);
+        }
+    };
+}
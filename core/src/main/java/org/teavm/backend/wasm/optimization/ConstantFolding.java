@@ -0,0 +1,311 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmNumType;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmBreak;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmConversion;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmInt64Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntType;
+import org.teavm.backend.wasm.model.expression.WasmIntUnary;
+import org.teavm.backend.wasm.model.expression.WasmReplacingExpressionVisitor;
+
+/**
+ * Evaluates integer operations on constant operands, removes trivial operations like {@code x + 0}
+ * and resolves conditionals and branches on constant conditions. Operations that trap
+ * (for example, division by zero) are left as is.
+ */
+public class ConstantFolding {
+    private boolean changed;
+    private WasmReplacingExpressionVisitor visitor = new WasmReplacingExpressionVisitor(this::fold);
+
+    public boolean apply(WasmFunction function) {
+        changed = false;
+        visitor.replace(function);
+        return changed;
+    }
+
+    private WasmExpression fold(WasmExpression expression) {
+        WasmExpression result = null;
+        if (expression instanceof WasmIntBinary) {
+            result = foldBinary((WasmIntBinary) expression);
+        } else if (expression instanceof WasmIntUnary) {
+            result = foldUnary((WasmIntUnary) expression);
+        } else if (expression instanceof WasmConversion) {
+            result = foldConversion((WasmConversion) expression);
+        } else if (expression instanceof WasmConditional) {
+            result = foldConditional((WasmConditional) expression);
+        } else if (expression instanceof WasmBranch) {
+            result = foldBranch((WasmBranch) expression);
+        }
+        if (result == null) {
+            return expression;
+        }
+        if (result.getLocation() == null) {
+            result.setLocation(expression.getLocation());
+        }
+        changed = true;
+        return result;
+    }
+
+    private WasmExpression foldBinary(WasmIntBinary expression) {
+        if (expression.getType() == WasmIntType.INT32) {
+            if (expression.getFirst() instanceof WasmInt32Constant
+                    && expression.getSecond() instanceof WasmInt32Constant) {
+                var a = ((WasmInt32Constant) expression.getFirst()).getValue();
+                var b = ((WasmInt32Constant) expression.getSecond()).getValue();
+                return foldInt32(expression, a, b);
+            }
+            if (expression.getSecond() instanceof WasmInt32Constant) {
+                var b = ((WasmInt32Constant) expression.getSecond()).getValue();
+                if (isIdentity(expression, b)) {
+                    return expression.getFirst();
+                }
+            }
+        } else {
+            if (expression.getFirst() instanceof WasmInt64Constant
+                    && expression.getSecond() instanceof WasmInt64Constant) {
+                var a = ((WasmInt64Constant) expression.getFirst()).getValue();
+                var b = ((WasmInt64Constant) expression.getSecond()).getValue();
+                return foldInt64(expression, a, b);
+            }
+            if (expression.getSecond() instanceof WasmInt64Constant) {
+                var b = ((WasmInt64Constant) expression.getSecond()).getValue();
+                if (isIdentity(expression, b)) {
+                    return expression.getFirst();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isIdentity(WasmIntBinary expression, long value) {
+        switch (expression.getOperation()) {
+            case ADD:
+            case SUB:
+            case OR:
+            case XOR:
+            case SHL:
+            case SHR_SIGNED:
+            case SHR_UNSIGNED:
+            case ROTL:
+            case ROTR:
+                return value == 0;
+            case MUL:
+                return value == 1;
+            default:
+                return false;
+        }
+    }
+
+    private static WasmExpression foldInt32(WasmIntBinary expression, int a, int b) {
+        switch (expression.getOperation()) {
+            case ADD:
+                return new WasmInt32Constant(a + b);
+            case SUB:
+                return new WasmInt32Constant(a - b);
+            case MUL:
+                return new WasmInt32Constant(a * b);
+            case DIV_SIGNED:
+                return b == 0 || (a == Integer.MIN_VALUE && b == -1) ? null : new WasmInt32Constant(a / b);
+            case DIV_UNSIGNED:
+                return b == 0 ? null : new WasmInt32Constant(Integer.divideUnsigned(a, b));
+            case REM_SIGNED:
+                return b == 0 ? null : new WasmInt32Constant(b == -1 ? 0 : a % b);
+            case REM_UNSIGNED:
+                return b == 0 ? null : new WasmInt32Constant(Integer.remainderUnsigned(a, b));
+            case OR:
+                return new WasmInt32Constant(a | b);
+            case AND:
+                return new WasmInt32Constant(a & b);
+            case XOR:
+                return new WasmInt32Constant(a ^ b);
+            case SHL:
+                return new WasmInt32Constant(a << b);
+            case SHR_SIGNED:
+                return new WasmInt32Constant(a >> b);
+            case SHR_UNSIGNED:
+                return new WasmInt32Constant(a >>> b);
+            case ROTL:
+                return new WasmInt32Constant(Integer.rotateLeft(a, b));
+            case ROTR:
+                return new WasmInt32Constant(Integer.rotateRight(a, b));
+            default:
+                return foldComparison(expression, Integer.compare(a, b), Integer.compareUnsigned(a, b));
+        }
+    }
+
+    private static WasmExpression foldInt64(WasmIntBinary expression, long a, long b) {
+        switch (expression.getOperation()) {
+            case ADD:
+                return new WasmInt64Constant(a + b);
+            case SUB:
+                return new WasmInt64Constant(a - b);
+            case MUL:
+                return new WasmInt64Constant(a * b);
+            case DIV_SIGNED:
+                return b == 0 || (a == Long.MIN_VALUE && b == -1) ? null : new WasmInt64Constant(a / b);
+            case DIV_UNSIGNED:
+                return b == 0 ? null : new WasmInt64Constant(Long.divideUnsigned(a, b));
+            case REM_SIGNED:
+                return b == 0 ? null : new WasmInt64Constant(b == -1 ? 0 : a % b);
+            case REM_UNSIGNED:
+                return b == 0 ? null : new WasmInt64Constant(Long.remainderUnsigned(a, b));
+            case OR:
+                return new WasmInt64Constant(a | b);
+            case AND:
+                return new WasmInt64Constant(a & b);
+            case XOR:
+                return new WasmInt64Constant(a ^ b);
+            case SHL:
+                return new WasmInt64Constant(a << b);
+            case SHR_SIGNED:
+                return new WasmInt64Constant(a >> b);
+            case SHR_UNSIGNED:
+                return new WasmInt64Constant(a >>> b);
+            case ROTL:
+                return new WasmInt64Constant(Long.rotateLeft(a, (int) b));
+            case ROTR:
+                return new WasmInt64Constant(Long.rotateRight(a, (int) b));
+            default:
+                return foldComparison(expression, Long.compare(a, b), Long.compareUnsigned(a, b));
+        }
+    }
+
+    private static WasmExpression foldComparison(WasmIntBinary expression, int signed, int unsigned) {
+        boolean result;
+        switch (expression.getOperation()) {
+            case EQ:
+                result = signed == 0;
+                break;
+            case NE:
+                result = signed != 0;
+                break;
+            case LT_SIGNED:
+                result = signed < 0;
+                break;
+            case LT_UNSIGNED:
+                result = unsigned < 0;
+                break;
+            case LE_SIGNED:
+                result = signed <= 0;
+                break;
+            case LE_UNSIGNED:
+                result = unsigned <= 0;
+                break;
+            case GT_SIGNED:
+                result = signed > 0;
+                break;
+            case GT_UNSIGNED:
+                result = unsigned > 0;
+                break;
+            case GE_SIGNED:
+                result = signed >= 0;
+                break;
+            case GE_UNSIGNED:
+                result = unsigned >= 0;
+                break;
+            default:
+                return null;
+        }
+        return new WasmInt32Constant(result ? 1 : 0);
+    }
+
+    private WasmExpression foldUnary(WasmIntUnary expression) {
+        if (expression.getType() == WasmIntType.INT32) {
+            if (!(expression.getOperand() instanceof WasmInt32Constant)) {
+                return null;
+            }
+            var value = ((WasmInt32Constant) expression.getOperand()).getValue();
+            switch (expression.getOperation()) {
+                case EQZ:
+                    return new WasmInt32Constant(value == 0 ? 1 : 0);
+                case CLZ:
+                    return new WasmInt32Constant(Integer.numberOfLeadingZeros(value));
+                case CTZ:
+                    return new WasmInt32Constant(Integer.numberOfTrailingZeros(value));
+                case POPCNT:
+                    return new WasmInt32Constant(Integer.bitCount(value));
+                default:
+                    return null;
+            }
+        } else {
+            if (!(expression.getOperand() instanceof WasmInt64Constant)) {
+                return null;
+            }
+            var value = ((WasmInt64Constant) expression.getOperand()).getValue();
+            switch (expression.getOperation()) {
+                case EQZ:
+                    return new WasmInt32Constant(value == 0 ? 1 : 0);
+                case CLZ:
+                    return new WasmInt64Constant(Long.numberOfLeadingZeros(value));
+                case CTZ:
+                    return new WasmInt64Constant(Long.numberOfTrailingZeros(value));
+                case POPCNT:
+                    return new WasmInt64Constant(Long.bitCount(value));
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private WasmExpression foldConversion(WasmConversion expression) {
+        if (expression.isReinterpret()) {
+            return null;
+        }
+        if (expression.getSourceType() == WasmNumType.INT32 && expression.getTargetType() == WasmNumType.INT64
+                && expression.getOperand() instanceof WasmInt32Constant) {
+            var value = ((WasmInt32Constant) expression.getOperand()).getValue();
+            return new WasmInt64Constant(expression.isSigned() ? value : Integer.toUnsignedLong(value));
+        }
+        if (expression.getSourceType() == WasmNumType.INT64 && expression.getTargetType() == WasmNumType.INT32
+                && expression.getOperand() instanceof WasmInt64Constant) {
+            var value = ((WasmInt64Constant) expression.getOperand()).getValue();
+            return new WasmInt32Constant((int) value);
+        }
+        return null;
+    }
+
+    private WasmExpression foldConditional(WasmConditional expression) {
+        if (!(expression.getCondition() instanceof WasmInt32Constant)) {
+            return null;
+        }
+        var value = ((WasmInt32Constant) expression.getCondition()).getValue();
+        var block = value != 0 ? expression.getThenBlock() : expression.getElseBlock();
+        block.setType(expression.getType());
+        return block;
+    }
+
+    private WasmExpression foldBranch(WasmBranch expression) {
+        if (!(expression.getCondition() instanceof WasmInt32Constant)) {
+            return null;
+        }
+        var value = ((WasmInt32Constant) expression.getCondition()).getValue();
+        if (value != 0) {
+            var result = new WasmBreak(expression.getTarget());
+            result.setResult(expression.getResult());
+            return result;
+        }
+        return expression.getResult() != null ? expression.getResult() : new WasmBlock(false);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.teavm.backend.wasm.model.WasmNumType;
+import org.teavm.backend.wasm.model.expression.WasmArrayGet;
+import org.teavm.backend.wasm.model.expression.WasmArrayLength;
+import org.teavm.backend.wasm.model.expression.WasmArraySet;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmBreak;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmCast;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmConversion;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmFloat32Constant;
+import org.teavm.backend.wasm.model.expression.WasmFloat64Constant;
+import org.teavm.backend.wasm.model.expression.WasmFloatBinary;
+import org.teavm.backend.wasm.model.expression.WasmFloatUnary;
+import org.teavm.backend.wasm.model.expression.WasmFunctionReference;
+import org.teavm.backend.wasm.model.expression.WasmGetGlobal;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmInt31Get;
+import org.teavm.backend.wasm.model.expression.WasmInt31Reference;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmInt64Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntUnary;
+import org.teavm.backend.wasm.model.expression.WasmNullConstant;
+import org.teavm.backend.wasm.model.expression.WasmReferencesEqual;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+import org.teavm.backend.wasm.model.expression.WasmSetGlobal;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
+import org.teavm.backend.wasm.model.expression.WasmStructGet;
+import org.teavm.backend.wasm.model.expression.WasmStructNew;
+import org.teavm.backend.wasm.model.expression.WasmStructSet;
+import org.teavm.backend.wasm.model.expression.WasmTest;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+
+final class ExpressionEffects {
+    private ExpressionEffects() {
+    }
+
+    static boolean isConstant(WasmExpression expression) {
+        return expression instanceof WasmInt32Constant || expression instanceof WasmInt64Constant
+                || expression instanceof WasmFloat32Constant || expression instanceof WasmFloat64Constant
+                || expression instanceof WasmNullConstant || expression instanceof WasmFunctionReference;
+    }
+
+    /**
+     * Tells whether expression can be removed or evaluated at another point without changing behaviour,
+     * i.e. whether it neither writes anything, nor traps, nor transfers control, nor reads any state
+     * except locals.
+     */
+    static boolean isPure(WasmExpression expression) {
+        if (!isPureOperation(expression)) {
+            return false;
+        }
+        for (var operand : operands(expression)) {
+            if (!isPure(operand)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #isPure(WasmExpression)}, but also allows reading globals. Such expressions can be
+     * removed, but not moved across other expressions.
+     */
+    static boolean isRemovable(WasmExpression expression) {
+        return expression instanceof WasmGetGlobal || isPure(expression);
+    }
+
+    /**
+     * Tells whether expression has no effects except for effects of its operands.
+     */
+    static boolean isPureOperation(WasmExpression expression) {
+        if (isConstant(expression) || expression instanceof WasmGetLocal || expression instanceof WasmFloatBinary
+                || expression instanceof WasmFloatUnary || expression instanceof WasmIntUnary
+                || expression instanceof WasmReferencesEqual || expression instanceof WasmTest
+                || expression instanceof WasmInt31Reference) {
+            return true;
+        }
+        if (expression instanceof WasmIntBinary) {
+            return !canTrap((WasmIntBinary) expression);
+        }
+        if (expression instanceof WasmConversion) {
+            return !canTrap((WasmConversion) expression);
+        }
+        return false;
+    }
+
+    /**
+     * Returns operands of an expression in the order of their evaluation. Operands are evaluated
+     * before the operation itself takes place. For a conditional returns its condition only.
+     * For blocks, loops and other expressions not known to this method returns {@code null}.
+     */
+    static List<WasmExpression> operands(WasmExpression expression) {
+        if (isConstant(expression) || expression instanceof WasmGetLocal || expression instanceof WasmGetGlobal) {
+            return Collections.emptyList();
+        }
+        if (expression instanceof WasmIntBinary) {
+            var binary = (WasmIntBinary) expression;
+            return Arrays.asList(binary.getFirst(), binary.getSecond());
+        }
+        if (expression instanceof WasmFloatBinary) {
+            var binary = (WasmFloatBinary) expression;
+            return Arrays.asList(binary.getFirst(), binary.getSecond());
+        }
+        if (expression instanceof WasmReferencesEqual) {
+            var equal = (WasmReferencesEqual) expression;
+            return Arrays.asList(equal.getFirst(), equal.getSecond());
+        }
+        if (expression instanceof WasmIntUnary) {
+            return List.of(((WasmIntUnary) expression).getOperand());
+        }
+        if (expression instanceof WasmFloatUnary) {
+            return List.of(((WasmFloatUnary) expression).getOperand());
+        }
+        if (expression instanceof WasmConversion) {
+            return List.of(((WasmConversion) expression).getOperand());
+        }
+        if (expression instanceof WasmTest) {
+            return List.of(((WasmTest) expression).getValue());
+        }
+        if (expression instanceof WasmCast) {
+            return List.of(((WasmCast) expression).getValue());
+        }
+        if (expression instanceof WasmInt31Reference) {
+            return List.of(((WasmInt31Reference) expression).getValue());
+        }
+        if (expression instanceof WasmInt31Get) {
+            return List.of(((WasmInt31Get) expression).getValue());
+        }
+        if (expression instanceof WasmDrop) {
+            return List.of(((WasmDrop) expression).getOperand());
+        }
+        if (expression instanceof WasmSetLocal) {
+            return List.of(((WasmSetLocal) expression).getValue());
+        }
+        if (expression instanceof WasmSetGlobal) {
+            return List.of(((WasmSetGlobal) expression).getValue());
+        }
+        if (expression instanceof WasmStructGet) {
+            return List.of(((WasmStructGet) expression).getInstance());
+        }
+        if (expression instanceof WasmStructSet) {
+            var set = (WasmStructSet) expression;
+            return Arrays.asList(set.getInstance(), set.getValue());
+        }
+        if (expression instanceof WasmArrayLength) {
+            return List.of(((WasmArrayLength) expression).getInstance());
+        }
+        if (expression instanceof WasmArrayGet) {
+            var get = (WasmArrayGet) expression;
+            return Arrays.asList(get.getInstance(), get.getIndex());
+        }
+        if (expression instanceof WasmArraySet) {
+            var set = (WasmArraySet) expression;
+            return Arrays.asList(set.getInstance(), set.getIndex(), set.getValue());
+        }
+        if (expression instanceof WasmStructNew) {
+            return ((WasmStructNew) expression).getInitializers();
+        }
+        if (expression instanceof WasmCall) {
+            return ((WasmCall) expression).getArguments();
+        }
+        if (expression instanceof WasmThrow) {
+            return ((WasmThrow) expression).getArguments();
+        }
+        if (expression instanceof WasmReturn) {
+            var value = ((WasmReturn) expression).getValue();
+            return value != null ? List.of(value) : Collections.emptyList();
+        }
+        if (expression instanceof WasmBreak) {
+            var result = ((WasmBreak) expression).getResult();
+            return result != null ? List.of(result) : Collections.emptyList();
+        }
+        if (expression instanceof WasmBranch) {
+            var branch = (WasmBranch) expression;
+            var result = new ArrayList<WasmExpression>(2);
+            if (branch.getResult() != null) {
+                result.add(branch.getResult());
+            }
+            result.add(branch.getCondition());
+            return result;
+        }
+        if (expression instanceof WasmConditional) {
+            return List.of(((WasmConditional) expression).getCondition());
+        }
+        return null;
+    }
+
+    static boolean canTrap(WasmIntBinary expression) {
+        switch (expression.getOperation()) {
+            case DIV_SIGNED:
+            case DIV_UNSIGNED:
+            case REM_SIGNED:
+            case REM_UNSIGNED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean canTrap(WasmConversion expression) {
+        return !expression.isReinterpret() && isFloat(expression.getSourceType())
+                && !isFloat(expression.getTargetType());
+    }
+
+    private static boolean isFloat(WasmNumType type) {
+        return type == WasmNumType.FLOAT32 || type == WasmNumType.FLOAT64;
+    }
+}
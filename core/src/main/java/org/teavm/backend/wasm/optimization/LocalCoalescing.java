@@ -0,0 +1,241 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
+import org.teavm.backend.wasm.model.expression.WasmTry;
+
+/**
+ * <p>Reuses the same local for several variables whose lifetimes don't overlap and removes unused locals.</p>
+ *
+ * <p>Lifetime is computed conservatively on the structure of the function rather than on its control flow graph.
+ * A local takes part in coalescing only if the first reference to it (in order of evaluation) is an
+ * assignment, which is a statement of some sequence, and all other references are located in the subsequent
+ * statements of the same sequence. Since control can't reach any statement of a sequence without passing
+ * all previous statements, such local is always written before it is read, and its lifetime is
+ * a range of statements of the sequence. Locals of the same sequence with disjoint ranges are merged.</p>
+ */
+public class LocalCoalescing {
+    private int parameterCount;
+    private int time;
+    private Map<WasmLocal, Lifetime> lifetimes = new HashMap<>();
+    private Set<WasmLocal> excluded = new HashSet<>();
+    private Map<WasmLocal, WasmLocal> replacements = new HashMap<>();
+
+    public boolean apply(WasmFunction function) {
+        parameterCount = function.getType().getParameterTypes().size();
+        time = 0;
+        analyzeSequence(function.getBody());
+
+        var candidatesBySequence = new HashMap<List<Statement>, List<Lifetime>>();
+        for (var lifetime : lifetimes.values()) {
+            if (lifetime.sequence == null || excluded.contains(lifetime.local)) {
+                continue;
+            }
+            lifetime.lastStatement = findStatement(lifetime.sequence, lifetime.lastReference);
+            if (lifetime.lastStatement >= 0) {
+                candidatesBySequence.computeIfAbsent(lifetime.sequence, k -> new ArrayList<>()).add(lifetime);
+            }
+        }
+        for (var candidates : candidatesBySequence.values()) {
+            coalesce(candidates);
+        }
+
+        boolean changed = !replacements.isEmpty();
+        if (changed) {
+            for (var part : function.getBody()) {
+                part.acceptVisitor(replacer);
+            }
+        }
+        var used = new HashSet<WasmLocal>();
+        for (var part : function.getBody()) {
+            part.acceptVisitor(new WasmDefaultExpressionVisitor() {
+                @Override
+                public void visit(WasmGetLocal expression) {
+                    used.add(expression.getLocal());
+                }
+
+                @Override
+                public void visit(WasmSetLocal expression) {
+                    super.visit(expression);
+                    used.add(expression.getLocal());
+                }
+            });
+        }
+        int localCount = function.getLocalVariables().size();
+        function.removeLocals(local -> !used.contains(local));
+        changed |= localCount != function.getLocalVariables().size();
+
+        lifetimes.clear();
+        excluded.clear();
+        replacements.clear();
+        return changed;
+    }
+
+    private void coalesce(List<Lifetime> candidates) {
+        candidates.sort(Comparator.comparingInt(lifetime -> lifetime.firstStatement));
+        var slots = new ArrayList<Lifetime>();
+        for (var candidate : candidates) {
+            Lifetime slot = null;
+            for (var existing : slots) {
+                if (existing.lastStatement <= candidate.firstStatement
+                        && existing.local.getType() == candidate.local.getType()
+                        && Objects.equals(existing.local.getJavaType(), candidate.local.getJavaType())) {
+                    slot = existing;
+                    break;
+                }
+            }
+            if (slot == null) {
+                slots.add(candidate);
+            } else {
+                replacements.put(candidate.local, slot.local);
+                slot.lastStatement = candidate.lastStatement;
+            }
+        }
+    }
+
+    private static int findStatement(List<Statement> sequence, int time) {
+        for (int i = 0; i < sequence.size(); ++i) {
+            var statement = sequence.get(i);
+            if (statement.start <= time && time < statement.end) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void analyzeSequence(List<WasmExpression> expressions) {
+        var sequence = new ArrayList<Statement>(expressions.size());
+        for (var part : expressions) {
+            var statement = new Statement();
+            statement.start = time;
+            sequence.add(statement);
+            part.acceptVisitor(analyzer);
+            statement.end = time;
+            if (part instanceof WasmSetLocal) {
+                var local = ((WasmSetLocal) part).getLocal();
+                var lifetime = lifetimes.get(local);
+                if (lifetime != null && lifetime.firstReference == statement.end - 1) {
+                    lifetime.sequence = sequence;
+                    lifetime.firstStatement = sequence.size() - 1;
+                }
+            }
+        }
+    }
+
+    private void reference(WasmLocal local, boolean write) {
+        int index = time++;
+        if (local.getIndex() < parameterCount || excluded.contains(local)) {
+            return;
+        }
+        var lifetime = lifetimes.get(local);
+        if (lifetime == null) {
+            if (!write) {
+                excluded.add(local);
+                return;
+            }
+            lifetime = new Lifetime(local);
+            lifetime.firstReference = index;
+            lifetimes.put(local, lifetime);
+        }
+        lifetime.lastReference = index;
+    }
+
+    private WasmDefaultExpressionVisitor analyzer = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmBlock expression) {
+            analyzeSequence(expression.getBody());
+        }
+
+        @Override
+        public void visit(WasmConditional expression) {
+            expression.getCondition().acceptVisitor(this);
+            analyzeSequence(expression.getThenBlock().getBody());
+            analyzeSequence(expression.getElseBlock().getBody());
+        }
+
+        @Override
+        public void visit(WasmTry expression) {
+            analyzeSequence(expression.getBody());
+            for (var catchClause : expression.getCatches()) {
+                analyzeSequence(catchClause.getBody());
+            }
+        }
+
+        @Override
+        public void visit(WasmGetLocal expression) {
+            reference(expression.getLocal(), false);
+        }
+
+        @Override
+        public void visit(WasmSetLocal expression) {
+            super.visit(expression);
+            reference(expression.getLocal(), true);
+        }
+    };
+
+    private WasmDefaultExpressionVisitor replacer = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmGetLocal expression) {
+            var replacement = replacements.get(expression.getLocal());
+            if (replacement != null) {
+                expression.setLocal(replacement);
+            }
+        }
+
+        @Override
+        public void visit(WasmSetLocal expression) {
+            super.visit(expression);
+            var replacement = replacements.get(expression.getLocal());
+            if (replacement != null) {
+                expression.setLocal(replacement);
+            }
+        }
+    };
+
+    static class Statement {
+        int start;
+        int end;
+    }
+
+    static class Lifetime {
+        final WasmLocal local;
+        int firstReference;
+        int lastReference;
+        List<Statement> sequence;
+        int firstStatement;
+        int lastStatement;
+
+        Lifetime(WasmLocal local) {
+            this.local = local;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.ObjectIntMap;
+import java.util.List;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmReplacingExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
+import org.teavm.backend.wasm.model.expression.WasmTry;
+
+/**
+ * <p>Removes unnecessary accesses to locals:</p>
+ *
+ * <ul>
+ *   <li>assignments of local to itself;</li>
+ *   <li>assignments to locals that are never read (value is still evaluated if it has effects);</li>
+ *   <li>locals that are written once and read once in the immediately following statement,
+ *     when nothing but reading other locals and pure computations happens between write and read.
+ *     In this case value is substituted directly in place of the read.</li>
+ * </ul>
+ */
+public class RedundantLocalAccessElimination {
+    private ObjectIntMap<WasmLocal> readCount = new ObjectIntHashMap<>();
+    private ObjectIntMap<WasmLocal> writeCount = new ObjectIntHashMap<>();
+    private int parameterCount;
+    private boolean changed;
+    private WasmLocal forwardedLocal;
+    private WasmGetLocal forwardTarget;
+    private WasmExpression forwardedValue;
+
+    public boolean apply(WasmFunction function) {
+        changed = false;
+        parameterCount = function.getType().getParameterTypes().size();
+        for (var part : function.getBody()) {
+            part.acceptVisitor(counter);
+        }
+        new WasmReplacingExpressionVisitor(this::removeRedundantSet).replace(function);
+        forward(function.getBody());
+        readCount.clear();
+        writeCount.clear();
+        return changed;
+    }
+
+    private boolean isParameter(WasmLocal local) {
+        return local.getIndex() < parameterCount;
+    }
+
+    private WasmExpression removeRedundantSet(WasmExpression expression) {
+        if (!(expression instanceof WasmSetLocal)) {
+            return expression;
+        }
+        var set = (WasmSetLocal) expression;
+        var local = set.getLocal();
+        var value = set.getValue();
+        if (value instanceof WasmGetLocal && ((WasmGetLocal) value).getLocal() == local) {
+            readCount.addTo(local, -1);
+            writeCount.addTo(local, -1);
+            changed = true;
+            return new WasmBlock(false);
+        }
+        if (!isParameter(local) && readCount.get(local) == 0) {
+            writeCount.addTo(local, -1);
+            changed = true;
+            if (ExpressionEffects.isRemovable(value)) {
+                value.acceptVisitor(uncounter);
+                return new WasmBlock(false);
+            }
+            var drop = new WasmDrop(value);
+            drop.setLocation(set.getLocation());
+            return drop;
+        }
+        return expression;
+    }
+
+    private void forward(List<WasmExpression> expressions) {
+        for (int i = 0; i < expressions.size(); ++i) {
+            var part = expressions.get(i);
+            part.acceptVisitor(nestedForwarder);
+            if (i == 0 || !(expressions.get(i - 1) instanceof WasmSetLocal)) {
+                continue;
+            }
+            var set = (WasmSetLocal) expressions.get(i - 1);
+            var local = set.getLocal();
+            if (isParameter(local) || readCount.get(local) != 1 || writeCount.get(local) != 1
+                    || containsLocalWrites(set.getValue())) {
+                continue;
+            }
+            forwardedLocal = local;
+            forwardTarget = null;
+            findRead(part);
+            if (forwardTarget == null) {
+                continue;
+            }
+            forwardedValue = set.getValue();
+            if (part == forwardTarget) {
+                expressions.set(i, forwardedValue);
+            } else {
+                part.acceptVisitor(forwarder);
+            }
+            expressions.remove(--i);
+            readCount.remove(local);
+            writeCount.remove(local);
+            forwardedLocal = null;
+            forwardTarget = null;
+            forwardedValue = null;
+            changed = true;
+        }
+    }
+
+    /**
+     * Looks for the read of forwarded local in evaluation order, stopping as soon as some
+     * expression with effects is met.
+     *
+     * @return whether evaluation can proceed past the given expression
+     */
+    private boolean findRead(WasmExpression expression) {
+        if (expression instanceof WasmGetLocal && ((WasmGetLocal) expression).getLocal() == forwardedLocal) {
+            forwardTarget = (WasmGetLocal) expression;
+            return false;
+        }
+        var operands = ExpressionEffects.operands(expression);
+        if (operands == null) {
+            return false;
+        }
+        for (var operand : operands) {
+            if (!findRead(operand)) {
+                return false;
+            }
+        }
+        return ExpressionEffects.isPureOperation(expression);
+    }
+
+    private boolean containsLocalWrites(WasmExpression expression) {
+        var finder = new WasmDefaultExpressionVisitor() {
+            boolean found;
+
+            @Override
+            public void visit(WasmSetLocal expression) {
+                found = true;
+            }
+        };
+        expression.acceptVisitor(finder);
+        return finder.found;
+    }
+
+    private WasmReplacingExpressionVisitor forwarder = new WasmReplacingExpressionVisitor(
+            expression -> expression == forwardTarget ? forwardedValue : expression);
+
+    private WasmDefaultExpressionVisitor nestedForwarder = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmBlock expression) {
+            forward(expression.getBody());
+        }
+
+        @Override
+        public void visit(WasmConditional expression) {
+            expression.getCondition().acceptVisitor(this);
+            forward(expression.getThenBlock().getBody());
+            forward(expression.getElseBlock().getBody());
+        }
+
+        @Override
+        public void visit(WasmTry expression) {
+            forward(expression.getBody());
+            for (var catchClause : expression.getCatches()) {
+                forward(catchClause.getBody());
+            }
+        }
+    };
+
+    private WasmDefaultExpressionVisitor counter = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmGetLocal expression) {
+            readCount.addTo(expression.getLocal(), 1);
+        }
+
+        @Override
+        public void visit(WasmSetLocal expression) {
+            super.visit(expression);
+            writeCount.addTo(expression.getLocal(), 1);
+        }
+    };
+
+    private WasmDefaultExpressionVisitor uncounter = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmGetLocal expression) {
+            readCount.addTo(expression.getLocal(), -1);
+        }
+    };
+}
@@ -0,0 +1,349 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.expression.WasmArrayGet;
+import org.teavm.backend.wasm.model.expression.WasmArrayLength;
+import org.teavm.backend.wasm.model.expression.WasmArraySet;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmCast;
+import org.teavm.backend.wasm.model.expression.WasmConversion;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmFloat32Constant;
+import org.teavm.backend.wasm.model.expression.WasmFloat64Constant;
+import org.teavm.backend.wasm.model.expression.WasmFloatBinary;
+import org.teavm.backend.wasm.model.expression.WasmFloatUnary;
+import org.teavm.backend.wasm.model.expression.WasmFunctionReference;
+import org.teavm.backend.wasm.model.expression.WasmGetGlobal;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmInt31Get;
+import org.teavm.backend.wasm.model.expression.WasmInt31Reference;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmInt64Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntUnary;
+import org.teavm.backend.wasm.model.expression.WasmNullConstant;
+import org.teavm.backend.wasm.model.expression.WasmReferencesEqual;
+import org.teavm.backend.wasm.model.expression.WasmReplacingExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+import org.teavm.backend.wasm.model.expression.WasmSetGlobal;
+import org.teavm.backend.wasm.model.expression.WasmStructGet;
+import org.teavm.backend.wasm.model.expression.WasmStructSet;
+import org.teavm.backend.wasm.model.expression.WasmTest;
+
+/**
+ * <p>Replaces calls to tiny functions (field getters and setters, wrappers around other calls,
+ * simple arithmetic helpers and so on) with their bodies.</p>
+ *
+ * <p>Only functions that consist of a single expression without any control flow and without
+ * locals except for parameters are inlined. Arguments are substituted in place of parameters,
+ * so inlining is only possible when arguments are evaluated in the same order and exactly
+ * once in the inlined body, or when all arguments are trivial (constants or locals).</p>
+ */
+public class SmallFunctionInlining {
+    private static final int MAX_SIZE = 12;
+    private WasmModule module;
+    private Map<WasmFunction, Template> templates = new HashMap<>();
+    private WasmLocal[] currentParameters;
+
+    public SmallFunctionInlining(WasmModule module) {
+        this.module = module;
+    }
+
+    public void apply() {
+        for (var function : module.functions) {
+            var template = createTemplate(function);
+            if (template != null) {
+                templates.put(function, template);
+            }
+        }
+        if (templates.isEmpty()) {
+            return;
+        }
+        var visitor = new WasmReplacingExpressionVisitor(this::inline);
+        for (var function : module.functions) {
+            if (function.getImportName() == null) {
+                visitor.replace(function);
+            }
+        }
+        templates.clear();
+    }
+
+    private Template createTemplate(WasmFunction function) {
+        if (function.getImportName() != null || function.getBody().size() > 1) {
+            return null;
+        }
+        int parameterCount = function.getType().getParameterTypes().size();
+        if (function.getLocalVariables().size() != parameterCount) {
+            return null;
+        }
+        var parameters = function.getLocalVariables().toArray(new WasmLocal[0]);
+        if (function.getBody().isEmpty()) {
+            return new Template(parameters, null, false);
+        }
+
+        var body = function.getBody().get(0);
+        if (body instanceof WasmReturn) {
+            body = ((WasmReturn) body).getValue();
+            if (body == null) {
+                return new Template(parameters, null, false);
+            }
+        }
+        if (size(body) > MAX_SIZE) {
+            return null;
+        }
+        currentParameters = parameters;
+        var copy = copy(body, null, this::copyParameter);
+        currentParameters = null;
+        if (copy == null) {
+            return null;
+        }
+        var orderChecker = new ParameterOrderChecker(parameters);
+        orderChecker.check(copy);
+        return new Template(parameters, copy, orderChecker.valid && orderChecker.next == parameters.length);
+    }
+
+    private WasmExpression copyParameter(WasmLocal local) {
+        for (var parameter : currentParameters) {
+            if (parameter == local) {
+                return new WasmGetLocal(local);
+            }
+        }
+        return null;
+    }
+
+    private static int size(WasmExpression expression) {
+        var operands = ExpressionEffects.operands(expression);
+        if (operands == null) {
+            return Integer.MAX_VALUE;
+        }
+        int result = 1;
+        for (var operand : operands) {
+            int operandSize = size(operand);
+            if (operandSize == Integer.MAX_VALUE) {
+                return operandSize;
+            }
+            result += operandSize;
+        }
+        return result;
+    }
+
+    private WasmExpression inline(WasmExpression expression) {
+        if (!(expression instanceof WasmCall)) {
+            return expression;
+        }
+        var call = (WasmCall) expression;
+        var template = templates.get(call.getFunction());
+        if (template == null) {
+            return expression;
+        }
+        var arguments = call.getArguments();
+        if (!template.argumentsUsedInOrder) {
+            for (var argument : arguments) {
+                if (!isTrivial(argument)) {
+                    return expression;
+                }
+            }
+        }
+
+        if (template.body == null) {
+            return new WasmBlock(false);
+        }
+        Function<WasmLocal, WasmExpression> parameterMapper = local -> {
+            for (int i = 0; i < template.parameters.length; ++i) {
+                if (template.parameters[i] == local) {
+                    var argument = arguments.get(i);
+                    return template.argumentsUsedInOrder
+                            ? argument
+                            : copy(argument, call, WasmGetLocal::new);
+                }
+            }
+            return null;
+        };
+        return copy(template.body, call, parameterMapper);
+    }
+
+    private static boolean isTrivial(WasmExpression expression) {
+        return expression instanceof WasmGetLocal || ExpressionEffects.isConstant(expression);
+    }
+
+    private WasmExpression copy(WasmExpression expression, WasmExpression location,
+            Function<WasmLocal, WasmExpression> localMapper) {
+        var result = copyStructure(expression, location, localMapper);
+        if (result != null && location != null && !(expression instanceof WasmGetLocal)) {
+            result.setLocation(location.getLocation());
+        }
+        return result;
+    }
+
+    private WasmExpression copyStructure(WasmExpression expression, WasmExpression location,
+            Function<WasmLocal, WasmExpression> localMapper) {
+        if (expression instanceof WasmGetLocal) {
+            return localMapper.apply(((WasmGetLocal) expression).getLocal());
+        }
+        if (expression instanceof WasmInt32Constant) {
+            return new WasmInt32Constant(((WasmInt32Constant) expression).getValue());
+        }
+        if (expression instanceof WasmInt64Constant) {
+            return new WasmInt64Constant(((WasmInt64Constant) expression).getValue());
+        }
+        if (expression instanceof WasmFloat32Constant) {
+            return new WasmFloat32Constant(((WasmFloat32Constant) expression).getValue());
+        }
+        if (expression instanceof WasmFloat64Constant) {
+            return new WasmFloat64Constant(((WasmFloat64Constant) expression).getValue());
+        }
+        if (expression instanceof WasmNullConstant) {
+            return new WasmNullConstant(((WasmNullConstant) expression).getType());
+        }
+        if (expression instanceof WasmFunctionReference) {
+            return new WasmFunctionReference(((WasmFunctionReference) expression).getFunction());
+        }
+        if (expression instanceof WasmGetGlobal) {
+            return new WasmGetGlobal(((WasmGetGlobal) expression).getGlobal());
+        }
+
+        var operands = ExpressionEffects.operands(expression);
+        if (operands == null) {
+            return null;
+        }
+        var copies = new WasmExpression[operands.size()];
+        for (int i = 0; i < copies.length; ++i) {
+            copies[i] = copy(operands.get(i), location, localMapper);
+            if (copies[i] == null) {
+                return null;
+            }
+        }
+
+        if (expression instanceof WasmIntBinary) {
+            var binary = (WasmIntBinary) expression;
+            return new WasmIntBinary(binary.getType(), binary.getOperation(), copies[0], copies[1]);
+        }
+        if (expression instanceof WasmFloatBinary) {
+            var binary = (WasmFloatBinary) expression;
+            return new WasmFloatBinary(binary.getType(), binary.getOperation(), copies[0], copies[1]);
+        }
+        if (expression instanceof WasmIntUnary) {
+            var unary = (WasmIntUnary) expression;
+            return new WasmIntUnary(unary.getType(), unary.getOperation(), copies[0]);
+        }
+        if (expression instanceof WasmFloatUnary) {
+            var unary = (WasmFloatUnary) expression;
+            return new WasmFloatUnary(unary.getType(), unary.getOperation(), copies[0]);
+        }
+        if (expression instanceof WasmConversion) {
+            var conversion = (WasmConversion) expression;
+            var result = new WasmConversion(conversion.getSourceType(), conversion.getTargetType(),
+                    conversion.isSigned(), copies[0]);
+            result.setReinterpret(conversion.isReinterpret());
+            return result;
+        }
+        if (expression instanceof WasmReferencesEqual) {
+            return new WasmReferencesEqual(copies[0], copies[1]);
+        }
+        if (expression instanceof WasmTest) {
+            return new WasmTest(copies[0], ((WasmTest) expression).getTestType());
+        }
+        if (expression instanceof WasmCast) {
+            return new WasmCast(copies[0], ((WasmCast) expression).getTargetType());
+        }
+        if (expression instanceof WasmInt31Reference) {
+            return new WasmInt31Reference(copies[0]);
+        }
+        if (expression instanceof WasmInt31Get) {
+            return new WasmInt31Get(copies[0], ((WasmInt31Get) expression).getSignedType());
+        }
+        if (expression instanceof WasmDrop) {
+            return new WasmDrop(copies[0]);
+        }
+        if (expression instanceof WasmSetGlobal) {
+            return new WasmSetGlobal(((WasmSetGlobal) expression).getGlobal(), copies[0]);
+        }
+        if (expression instanceof WasmStructGet) {
+            var get = (WasmStructGet) expression;
+            var result = new WasmStructGet(get.getType(), copies[0], get.getFieldIndex());
+            result.setSignedType(get.getSignedType());
+            return result;
+        }
+        if (expression instanceof WasmStructSet) {
+            var set = (WasmStructSet) expression;
+            return new WasmStructSet(set.getType(), copies[0], set.getFieldIndex(), copies[1]);
+        }
+        if (expression instanceof WasmArrayLength) {
+            return new WasmArrayLength(copies[0]);
+        }
+        if (expression instanceof WasmArrayGet) {
+            var get = (WasmArrayGet) expression;
+            var result = new WasmArrayGet(get.getType(), copies[0], copies[1]);
+            result.setSignedType(get.getSignedType());
+            return result;
+        }
+        if (expression instanceof WasmArraySet) {
+            return new WasmArraySet(((WasmArraySet) expression).getType(), copies[0], copies[1], copies[2]);
+        }
+        if (expression instanceof WasmCall) {
+            return new WasmCall(((WasmCall) expression).getFunction(), copies);
+        }
+        return null;
+    }
+
+    static class Template {
+        final WasmLocal[] parameters;
+        final WasmExpression body;
+        final boolean argumentsUsedInOrder;
+
+        Template(WasmLocal[] parameters, WasmExpression body, boolean argumentsUsedInOrder) {
+            this.parameters = parameters;
+            this.body = body;
+            this.argumentsUsedInOrder = argumentsUsedInOrder;
+        }
+    }
+
+    static class ParameterOrderChecker {
+        private final WasmLocal[] parameters;
+        int next;
+        boolean valid = true;
+
+        ParameterOrderChecker(WasmLocal[] parameters) {
+            this.parameters = parameters;
+        }
+
+        void check(WasmExpression expression) {
+            if (expression instanceof WasmGetLocal) {
+                var local = ((WasmGetLocal) expression).getLocal();
+                if (next >= parameters.length || parameters[next] != local) {
+                    valid = false;
+                }
+                ++next;
+                return;
+            }
+            for (var operand : ExpressionEffects.operands(expression)) {
+                check(operand);
+            }
+            if (next < parameters.length && !ExpressionEffects.isPureOperation(expression)) {
+                valid = false;
+            }
+        }
+    }
+}
@@ -27,6 +27,12 @@ import org.teavm.backend.wasm.model.expression.WasmExpression;
 import org.teavm.backend.wasm.model.expression.WasmExpressionVisitor;
 import org.teavm.backend.wasm.model.expression.WasmFunctionReference;
 
+/**
+ * Removes functions that can't be reached from exported functions, function table, start function,
+ * functions declared as {@link WasmFunction#isReferenced() referenced} and initializers of globals.
+ * Only Wasm GC backend marks functions as referenced or puts function references into initializers
+ * of globals, so for other backends only the first three kinds of roots matter.
+ */
 public class UnusedFunctionElimination {
     private WasmModule module;
     private Set<WasmFunction> usedFunctions = new HashSet<>();
@@ -48,6 +54,16 @@ public class UnusedFunctionElimination {
         if (module.getStartFunction() != null) {
             use(module.getStartFunction());
         }
+        for (var function : module.functions) {
+            if (function.isReferenced()) {
+                use(function);
+            }
+        }
+        for (var global : module.globals) {
+            if (global.getInitialValue() != null) {
+                global.getInitialValue().acceptVisitor(visitor);
+            }
+        }
 
         module.functions.removeIf(function -> !usedFunctions.contains(function));
     }
@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmModule;
+
+/**
+ * <p>Runs optimizations on generated WebAssembly module. Java code is already optimized before
+ * it gets translated into WebAssembly, so these optimizations mostly clean up after generator:
+ * temporary locals, constant conditions produced by intrinsics, nested blocks with no branches
+ * and so on.</p>
+ *
+ * <p>Each function is simplified until there's nothing more to simplify, then locals are coalesced.
+ * When inlining is enabled, calls to tiny functions are inlined first and functions that
+ * are no more used are removed from the module.</p>
+ */
+public class WasmOptimizer {
+    private static final int MAX_ITERATIONS = 8;
+    private WasmModule module;
+    private boolean inlining;
+    private ConstantFolding constantFolding = new ConstantFolding();
+    private BlockSimplification blockSimplification = new BlockSimplification();
+    private RedundantLocalAccessElimination localAccessElimination = new RedundantLocalAccessElimination();
+    private LocalCoalescing localCoalescing = new LocalCoalescing();
+
+    public WasmOptimizer(WasmModule module) {
+        this.module = module;
+    }
+
+    public boolean isInlining() {
+        return inlining;
+    }
+
+    public void setInlining(boolean inlining) {
+        this.inlining = inlining;
+    }
+
+    public void optimize() {
+        if (inlining) {
+            new SmallFunctionInlining(module).apply();
+            new UnusedFunctionElimination(module).apply();
+        }
+        for (var function : module.functions) {
+            if (function.getImportName() == null) {
+                optimize(function);
+            }
+        }
+    }
+
+    private void optimize(WasmFunction function) {
+        for (int i = 0; i < MAX_ITERATIONS; ++i) {
+            var changed = constantFolding.apply(function);
+            changed |= blockSimplification.apply(function);
+            changed |= localAccessElimination.apply(function);
+            if (!changed) {
+                break;
+            }
+        }
+        localCoalescing.apply(function);
+    }
+}
@@ -133,7 +133,7 @@ public class WasmBinaryRenderer {
             }
         }
 
-        writeSection(SECTION_TYPE, "type", section.getData());
+        writeSection(SECTION_TYPE, "type", section);
     }
 
     private void renderImports(WasmModule module) {
@@ -165,7 +165,7 @@ public class WasmBinaryRenderer {
             section.writeLEB(signatureIndex);
         }
 
-        writeSection(SECTION_IMPORT, "import", section.getData());
+        writeSection(SECTION_IMPORT, "import", section);
     }
 
     private void renderFunctions(WasmModule module) {
@@ -180,7 +180,7 @@ public class WasmBinaryRenderer {
             section.writeLEB(module.types.indexOf(function.getType()));
         }
 
-        writeSection(SECTION_FUNCTION, "function", section.getData());
+        writeSection(SECTION_FUNCTION, "function", section);
     }
 
     private void renderTable(WasmModule module) {
@@ -195,7 +195,7 @@ public class WasmBinaryRenderer {
         section.writeByte(0);
         section.writeLEB(module.functions.size());
 
-        writeSection(SECTION_TABLE, "table", section.getData());
+        writeSection(SECTION_TABLE, "table", section);
     }
 
     private void renderMemory(WasmModule module) {
@@ -206,7 +206,7 @@ public class WasmBinaryRenderer {
         section.writeLEB(module.getMinMemorySize());
         section.writeLEB(module.getMaxMemorySize());
 
-        writeSection(SECTION_MEMORY, "memory", section.getData());
+        writeSection(SECTION_MEMORY, "memory", section);
     }
 
     private void renderGlobals(WasmModule module) {
@@ -224,7 +224,7 @@ public class WasmBinaryRenderer {
             section.writeByte(0x0b);
         }
 
-        writeSection(SECTION_GLOBAL, "global", section.getData());
+        writeSection(SECTION_GLOBAL, "global", section);
     }
 
     private void renderExport(WasmModule module) {
@@ -263,7 +263,7 @@ public class WasmBinaryRenderer {
         section.writeByte(EXTERNAL_KIND_MEMORY);
         section.writeLEB(0);
 
-        writeSection(SECTION_EXPORT, "export", section.getData());
+        writeSection(SECTION_EXPORT, "export", section);
     }
 
     private void renderStart(WasmModule module) {
@@ -274,7 +274,7 @@ public class WasmBinaryRenderer {
         WasmBinaryWriter section = new WasmBinaryWriter();
         section.writeLEB(module.functions.indexOf(module.getStartFunction()));
 
-        writeSection(SECTION_START, "start", section.getData());
+        writeSection(SECTION_START, "start", section);
     }
 
     private void renderElement(WasmModule module) {
@@ -313,7 +313,7 @@ public class WasmBinaryRenderer {
             }
         }
 
-        writeSection(SECTION_ELEMENT, "element", section.getData());
+        writeSection(SECTION_ELEMENT, "element", section);
     }
 
     private void renderCode(WasmModule module) {
@@ -327,8 +327,8 @@ public class WasmBinaryRenderer {
         for (var function : functions) {
             var body = renderFunction(module, function, section.getPosition() + 4);
             var startPos = section.getPosition();
-            section.writeLEB4(body.length);
-            section.writeBytes(body);
+            section.writeLEB4(body.getPosition());
+            body.writeTo(section);
             var size = section.getPosition() - startPos;
             if (function.getJavaMethod() != null) {
                 statsCollector.addClassCodeSize(function.getJavaMethod().getClassName(), size);
@@ -339,10 +339,10 @@ public class WasmBinaryRenderer {
             dwarfGenerator.setCodeSize(section.getPosition());
         }
 
-        writeSection(SECTION_CODE, "code", section.getData());
+        writeSection(SECTION_CODE, "code", section);
     }
 
-    private byte[] renderFunction(WasmModule module, WasmFunction function, int offset) {
+    private WasmBinaryWriter renderFunction(WasmModule module, WasmFunction function, int offset) {
         var code = new WasmBinaryWriter();
 
         var dwarfSubprogram = dwarfClassGen != null ? dwarfClassGen.getSubprogram(function.getName()) : null;
@@ -399,7 +399,7 @@ public class WasmBinaryRenderer {
             writeDebugVariables(function, offset, code.getPosition());
         }
 
-        return code.getData();
+        return code;
     }
 
     private void writeDebugVariables(WasmFunction function, int offset, int size) {
@@ -424,22 +424,32 @@ public class WasmBinaryRenderer {
             return;
         }
 
-        WasmBinaryWriter section = new WasmBinaryWriter();
-
-        section.writeLEB(module.getSegments().size());
+        var headers = new ArrayList<WasmBinaryWriter>();
+        var header = new WasmBinaryWriter();
+        header.writeLEB(module.getSegments().size());
+        var size = header.getPosition();
         for (WasmMemorySegment segment : module.getSegments()) {
-            section.writeByte(0);
-            renderInitializer(section, segment.getOffset());
-
-            section.writeLEB(segment.getLength());
+            var segmentHeader = new WasmBinaryWriter();
+            segmentHeader.writeByte(0);
+            renderInitializer(segmentHeader, segment.getOffset());
+            segmentHeader.writeLEB(segment.getLength());
+            headers.add(segmentHeader);
+            size += segmentHeader.getPosition() + segment.getLength();
+        }
+
+        // Segments may be big, so write them directly to output instead of copying to a section buffer
+        var start = writeSectionHeader(SECTION_DATA, "data", size);
+        header.writeTo(output);
+        for (int i = 0; i < module.getSegments().size(); ++i) {
+            var segment = module.getSegments().get(i);
+            headers.get(i).writeTo(output);
             int chunkSize = 65536;
-            for (int i = 0; i < segment.getLength(); i += chunkSize) {
-                int next = Math.min(i + chunkSize, segment.getLength());
-                section.writeBytes(segment.getData(i, next - i));
+            for (int j = 0; j < segment.getLength(); j += chunkSize) {
+                int next = Math.min(j + chunkSize, segment.getLength());
+                output.writeBytes(segment.getData(j, next - j));
             }
         }
-
-        writeSection(SECTION_DATA, "data", section.getData());
+        statsCollector.addSectionSize("data", output.getPosition() - start);
     }
 
     private void renderTags(WasmModule module) {
@@ -454,7 +464,7 @@ public class WasmBinaryRenderer {
             section.writeLEB(module.types.indexOf(tag.getType()));
         }
 
-        writeSection(SECTION_TAGS, "tags", section.getData());
+        writeSection(SECTION_TAGS, "tags", section);
     }
 
     private void renderNames(WasmModule module) {
@@ -471,10 +481,9 @@ public class WasmBinaryRenderer {
             functionsSubsection.writeAsciiString(function.getName());
         }
 
-        byte[] payload = functionsSubsection.getData();
         section.writeLEB(1);
-        section.writeLEB(payload.length);
-        section.writeBytes(payload);
+        section.writeLEB(functionsSubsection.getPosition());
+        functionsSubsection.writeTo(section);
 
         var functionsWithLocalNames = module.functions.stream()
                 .filter(fn -> fn.getLocalVariables().stream().anyMatch(v -> v.getName() != null))
@@ -494,10 +503,9 @@ public class WasmBinaryRenderer {
                 }
             }
 
-            payload = subsection.getData();
             section.writeLEB(2);
-            section.writeLEB(payload.length);
-            section.writeBytes(payload);
+            section.writeLEB(subsection.getPosition());
+            subsection.writeTo(section);
         }
 
         var types = module.types.stream()
@@ -511,10 +519,9 @@ public class WasmBinaryRenderer {
                 typesSubsection.writeAsciiString(type.getName());
             }
 
-            payload = typesSubsection.getData();
             section.writeLEB(4);
-            section.writeLEB(payload.length);
-            section.writeBytes(payload);
+            section.writeLEB(typesSubsection.getPosition());
+            typesSubsection.writeTo(section);
         }
 
         var globals = module.globals.stream()
@@ -528,10 +535,9 @@ public class WasmBinaryRenderer {
                 globalsSubsection.writeAsciiString(global.getName());
             }
 
-            payload = globalsSubsection.getData();
             section.writeLEB(7);
-            section.writeLEB(payload.length);
-            section.writeBytes(payload);
+            section.writeLEB(globalsSubsection.getPosition());
+            globalsSubsection.writeTo(section);
         }
 
         var typesWithNamedFields = module.types.stream()
@@ -553,13 +559,12 @@ public class WasmBinaryRenderer {
                 }
             }
 
-            payload = subsection.getData();
             section.writeLEB(10);
-            section.writeLEB(payload.length);
-            section.writeBytes(payload);
+            section.writeLEB(subsection.getPosition());
+            subsection.writeTo(section);
         }
 
-        writeSection(SECTION_UNKNOWN, "name", section.getData());
+        writeSection(SECTION_UNKNOWN, "name", section);
     }
 
     private void renderCustomSections(WasmModule module,
@@ -588,9 +593,20 @@ public class WasmBinaryRenderer {
     }
 
     private void writeSection(int id, String name, byte[] data) {
+        var start = writeSectionHeader(id, name, data.length);
+        output.writeBytes(data);
+        statsCollector.addSectionSize(name, output.getPosition() - start);
+    }
+
+    private void writeSection(int id, String name, WasmBinaryWriter data) {
+        var start = writeSectionHeader(id, name, data.getPosition());
+        data.writeTo(output);
+        statsCollector.addSectionSize(name, output.getPosition() - start);
+    }
+
+    private int writeSectionHeader(int id, String name, int length) {
         var start = output.getPosition();
         output.writeByte(id);
-        int length = data.length;
         if (id == 0) {
             length += name.length() + 1;
         }
@@ -598,9 +614,6 @@ public class WasmBinaryRenderer {
         if (id == 0) {
             output.writeAsciiString(name);
         }
-
-        output.writeBytes(data);
-
-        statsCollector.addSectionSize(name, output.getPosition() - start);
+        return start;
     }
 }
@@ -15,15 +15,40 @@
  */
 package org.teavm.backend.wasm.render;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.teavm.backend.wasm.model.WasmModule;
 import org.teavm.backend.wasm.model.WasmNumType;
 import org.teavm.backend.wasm.model.WasmType;
 
+/**
+ * <p>Writes WebAssembly binary data. Data is either accumulated in memory or, when writer is created
+ * with an output stream, passed to the stream as soon as an internal buffer fills up.</p>
+ *
+ * <p>In-memory data is kept in a list of chunks of fixed size, so that growing writer never copies
+ * data that was written before. This is important for big sections (like code section), that may take
+ * tens of megabytes.</p>
+ */
 public class WasmBinaryWriter {
-    private byte[] data = new byte[1024];
+    private static final int CHUNK_SIZE = 65536;
+    private OutputStream output;
+    private List<byte[]> chunks = new ArrayList<>();
+    private int chunksSize;
+    private byte[] data;
     private int pointer;
 
+    public WasmBinaryWriter() {
+        data = new byte[1024];
+    }
+
+    public WasmBinaryWriter(OutputStream output) {
+        this.output = output;
+        data = new byte[CHUNK_SIZE];
+    }
+
     public void writeByte(int v) {
         alloc(1);
         data[pointer++] = (byte) v;
@@ -101,13 +126,35 @@ public class WasmBinaryWriter {
     }
 
     public int getPosition() {
-        return pointer;
+        return chunksSize + pointer;
     }
 
     public void writeBytes(byte[] bytes) {
-        alloc(bytes.length);
-        System.arraycopy(bytes, 0, data, pointer, bytes.length);
-        pointer += bytes.length;
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        while (length > 0) {
+            alloc(1);
+            var count = Math.min(length, data.length - pointer);
+            System.arraycopy(bytes, offset, data, pointer, count);
+            pointer += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Appends everything written to this writer to another writer.
+     */
+    public void writeTo(WasmBinaryWriter target) {
+        if (output != null) {
+            throw new IllegalStateException("Data was already written to output stream");
+        }
+        for (var chunk : chunks) {
+            target.writeBytes(chunk);
+        }
+        target.writeBytes(data, 0, pointer);
     }
 
     public void writeAsciiString(String str) {
@@ -220,16 +267,61 @@ public class WasmBinaryWriter {
     }
 
     private void alloc(int size) {
-        if (data.length - pointer < size) {
+        if (data.length - pointer >= size) {
+            return;
+        }
+        if (data.length < CHUNK_SIZE) {
             int newLength = data.length * 2;
-            if (newLength < pointer + size) {
-                newLength = (pointer + size) * 2;
+            while (newLength < pointer + size && newLength < CHUNK_SIZE) {
+                newLength *= 2;
+            }
+            data = Arrays.copyOf(data, Math.min(newLength, CHUNK_SIZE));
+            if (data.length - pointer >= size) {
+                return;
             }
-            data = Arrays.copyOf(data, newLength);
         }
+        if (output != null) {
+            writeToOutput();
+        } else {
+            chunks.add(pointer == data.length ? data : Arrays.copyOf(data, pointer));
+            data = new byte[CHUNK_SIZE];
+        }
+        chunksSize += pointer;
+        pointer = 0;
+    }
+
+    private void writeToOutput() {
+        try {
+            output.write(data, 0, pointer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes buffered data to the output stream. Writer should not be used after this method is called.
+     */
+    public void flush() throws IOException {
+        if (output == null) {
+            throw new IllegalStateException("Writer has no output stream");
+        }
+        output.write(data, 0, pointer);
+        chunksSize += pointer;
+        pointer = 0;
+        output.flush();
     }
 
     public byte[] getData() {
-        return Arrays.copyOf(data, pointer);
+        if (output != null) {
+            throw new IllegalStateException("Data was already written to output stream");
+        }
+        var result = new byte[getPosition()];
+        var offset = 0;
+        for (var chunk : chunks) {
+            System.arraycopy(chunk, 0, result, offset, chunk.length);
+            offset += chunk.length;
+        }
+        System.arraycopy(data, 0, result, offset, pointer);
+        return result;
     }
 }
@@ -20,6 +20,7 @@ import org.teavm.interop.Import;
 
 public final class Wasi {
     public static final int CLOCKID_REALTIME = 0;
+    public static final int CLOCKID_MONOTONIC = 1;
 
     public static final byte PRESTAT_DIR = 0;
 
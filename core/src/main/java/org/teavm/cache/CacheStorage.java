@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Persistent storage of named binary entries that backs disk caches. Names are relative paths
+ * separated by {@code /}.
+ */
+public interface CacheStorage {
+    /**
+     * Opens entry for reading.
+     *
+     * @return stream with entry content or {@code null} if there's no such entry.
+     */
+    InputStream read(String name) throws IOException;
+
+    /**
+     * Gets time when entry was written, in milliseconds since epoch.
+     *
+     * @return time of last modification or {@code 0} if there's no such entry.
+     */
+    long lastModified(String name) throws IOException;
+
+    /**
+     * Opens stream that replaces content of the entry. New content is not guaranteed to be visible
+     * before the stream is closed and {@link #flush()} is called.
+     */
+    OutputStream write(String name) throws IOException;
+
+    /**
+     * Opens stream that appends data to the end of the entry, creating entry if necessary.
+     */
+    OutputStream append(String name) throws IOException;
+
+    void flush() throws IOException;
+}
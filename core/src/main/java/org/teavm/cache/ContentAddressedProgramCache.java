@@ -0,0 +1,258 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.ProgramReader;
+import org.teavm.model.ReferenceCache;
+
+/**
+ * <p>Cache of optimized programs that can be shared by different builds, possibly on different machines.
+ * Unlike {@link org.teavm.model.ProgramCache}, which relies on modification dates to find out whether
+ * cached program is still valid, entries are addressed by a hash of everything the optimized program
+ * is computed from:</p>
+ *
+ * <ul>
+ *   <li>program of the method as it is passed to optimizer;</li>
+ *   <li>classes the program depends on, as reported by {@link ProgramDependencyExtractor};</li>
+ *   <li>compiler options, passed as an opaque string to the constructor.</li>
+ * </ul>
+ *
+ * <p>Therefore, a cached entry is never stale and never needs to be invalidated. Entries are self-contained,
+ * i.e. they don't refer to shared symbol tables. New entries are kept in memory until {@link #flush()}.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+public class ContentAddressedProgramCache {
+    private static final int FORMAT_VERSION = 1;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private ContentStore store;
+    private ReferenceCache referenceCache;
+    private byte[] options;
+    private ProgramDependencyExtractor dependencyExtractor = new ProgramDependencyExtractor();
+    private ClassReaderSource lastClassSource;
+    private Map<String, byte[]> classHashes = new HashMap<>();
+    private Map<String, byte[]> pendingEntries = new LinkedHashMap<>();
+    private int hitCount;
+    private int missCount;
+
+    public ContentAddressedProgramCache(ContentStore store, ReferenceCache referenceCache, String options) {
+        this.store = store;
+        this.referenceCache = referenceCache;
+        this.options = options.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Computes a key of the optimized program.
+     *
+     * @param method method which program is being optimized.
+     * @param input program of the method before optimizations. Program is not modified.
+     * @param classSource source of classes which program depends on. Content of classes must not change
+     *                    while this source is used.
+     */
+    public String computeKey(MethodReference method, Program input, ClassReaderSource classSource) {
+        if (classSource != lastClassSource) {
+            lastClassSource = classSource;
+            classHashes.clear();
+        }
+        MessageDigest digest = createDigest();
+        digest.update((byte) FORMAT_VERSION);
+        updateWithLength(digest, options);
+        updateWithLength(digest, method.toString().getBytes(StandardCharsets.UTF_8));
+        updateWithLength(digest, writeEntry(input));
+
+        String[] dependencies = dependencyExtractor.extractDependencies(input);
+        Arrays.sort(dependencies);
+        for (String dependency : dependencies) {
+            updateWithLength(digest, dependency.getBytes(StandardCharsets.UTF_8));
+            digest.update(classHash(dependency, classSource));
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Returns cached program.
+     *
+     * @return optimized program or {@code null} if there is no program stored under this key, or the store is
+     *         not available.
+     */
+    public Program get(String key) {
+        byte[] data = pendingEntries.get(key);
+        if (data == null) {
+            try {
+                data = store.get(key);
+            } catch (IOException e) {
+                // Shared cache only saves time, so an unavailable store is treated as a missing entry
+                data = null;
+            }
+        }
+        if (data == null) {
+            ++missCount;
+            return null;
+        }
+        try {
+            Program program = readEntry(data);
+            ++hitCount;
+            return program;
+        } catch (IOException | RuntimeException e) {
+            ++missCount;
+            return null;
+        }
+    }
+
+    public void store(String key, ProgramReader program) {
+        pendingEntries.put(key, writeEntry(program));
+    }
+
+    /**
+     * Writes entries stored since last flush into the content store.
+     *
+     * @throws IOException if the store is unavailable. Entries that were not written are discarded.
+     */
+    public void flush() throws IOException {
+        try {
+            for (Map.Entry<String, byte[]> entry : pendingEntries.entrySet()) {
+                store.put(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            pendingEntries.clear();
+        }
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getMissCount() {
+        return missCount;
+    }
+
+    private byte[] classHash(String className, ClassReaderSource classSource) {
+        byte[] hash = classHashes.get(className);
+        if (hash == null) {
+            MessageDigest digest = createDigest();
+            ClassReader cls = classSource.get(className);
+            if (cls != null) {
+                InMemorySymbolTable symbolTable = new InMemorySymbolTable();
+                InMemorySymbolTable fileTable = new InMemorySymbolTable();
+                InMemorySymbolTable variableTable = new InMemorySymbolTable();
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                try {
+                    new ClassIO(referenceCache, symbolTable, fileTable, variableTable).writeClass(output, cls);
+                    VarDataOutput data = new VarDataOutput(output);
+                    writeSymbols(data, symbolTable);
+                    writeSymbols(data, fileTable);
+                    writeSymbols(data, variableTable);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                digest.update(output.toByteArray());
+            }
+            hash = digest.digest();
+            classHashes.put(className, hash);
+        }
+        return hash;
+    }
+
+    private byte[] writeEntry(ProgramReader program) {
+        InMemorySymbolTable symbolTable = new InMemorySymbolTable();
+        InMemorySymbolTable fileTable = new InMemorySymbolTable();
+        InMemorySymbolTable variableTable = new InMemorySymbolTable();
+        try {
+            ByteArrayOutputStream programOutput = new ByteArrayOutputStream();
+            new ProgramIO(referenceCache, symbolTable, fileTable, variableTable).write(program, programOutput);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            VarDataOutput data = new VarDataOutput(output);
+            data.writeUnsigned(FORMAT_VERSION);
+            writeSymbols(data, symbolTable);
+            writeSymbols(data, fileTable);
+            writeSymbols(data, variableTable);
+            data.writeBytes(programOutput.toByteArray());
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Program readEntry(byte[] entry) throws IOException {
+        VarDataInput data = new VarDataInput(new ByteArrayInputStream(entry));
+        if (data.readUnsigned() != FORMAT_VERSION) {
+            throw new IOException("Unsupported format of cache entry");
+        }
+        InMemorySymbolTable symbolTable = readSymbols(data);
+        InMemorySymbolTable fileTable = readSymbols(data);
+        InMemorySymbolTable variableTable = readSymbols(data);
+        byte[] program = data.readBytes();
+        return new ProgramIO(referenceCache, symbolTable, fileTable, variableTable)
+                .read(new ByteArrayInputStream(program));
+    }
+
+    private static void writeSymbols(VarDataOutput data, InMemorySymbolTable table) throws IOException {
+        List<String> symbols = table.getSymbols();
+        data.writeUnsigned(symbols.size());
+        for (String symbol : symbols) {
+            data.write(symbol);
+        }
+    }
+
+    private static InMemorySymbolTable readSymbols(VarDataInput data) throws IOException {
+        InMemorySymbolTable table = new InMemorySymbolTable();
+        int count = data.readUnsigned();
+        for (int i = 0; i < count; ++i) {
+            table.lookup(data.read());
+        }
+        return table;
+    }
+
+    private static void updateWithLength(MessageDigest digest, byte[] data) {
+        int length = data.length;
+        digest.update(new byte[] { (byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8),
+                (byte) length });
+        digest.update(data);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; ++i) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >>> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
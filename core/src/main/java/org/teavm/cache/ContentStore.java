@@ -0,0 +1,36 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.IOException;
+
+/**
+ * Storage of immutable entries addressed by a hash of their content or of the data they were produced from.
+ * Since an entry never changes once stored, a store can be shared by several builds and machines.
+ */
+public interface ContentStore {
+    /**
+     * Returns content of the entry.
+     *
+     * @return content of the entry or {@code null} if there is no such entry.
+     */
+    byte[] get(String key) throws IOException;
+
+    /**
+     * Stores content of the entry. Storing an entry that already exists is allowed and has no effect.
+     */
+    void put(String key, byte[] data) throws IOException;
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Stores each entry in a separate file of the given directory.
+ */
+public class DirectoryCacheStorage implements CacheStorage {
+    private File directory;
+
+    public DirectoryCacheStorage(File directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public InputStream read(String name) throws IOException {
+        File file = new File(directory, name);
+        if (!file.exists()) {
+            return null;
+        }
+        return new BufferedInputStream(new FileInputStream(file));
+    }
+
+    @Override
+    public long lastModified(String name) {
+        return new File(directory, name).lastModified();
+    }
+
+    @Override
+    public OutputStream write(String name) throws IOException {
+        return open(name, false);
+    }
+
+    @Override
+    public OutputStream append(String name) throws IOException {
+        return open(name, true);
+    }
+
+    private OutputStream open(String name, boolean append) throws IOException {
+        File file = new File(directory, name);
+        file.getParentFile().mkdirs();
+        return new BufferedOutputStream(new FileOutputStream(file, append));
+    }
+
+    @Override
+    public void flush() {
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Stores entries as files of a directory, which can be shared by several builds, for example
+ * over a network file system. Entries are first written into temporary files and then moved
+ * to their places, so concurrent builds never see partially written entries.
+ */
+public class DirectoryContentStore implements ContentStore {
+    private File directory;
+
+    public DirectoryContentStore(File directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        File file = fileFor(key);
+        if (!file.exists()) {
+            return null;
+        }
+        return Files.readAllBytes(file.toPath());
+    }
+
+    @Override
+    public void put(String key, byte[] data) throws IOException {
+        File file = fileFor(key);
+        if (file.exists()) {
+            return;
+        }
+        File parent = file.getParentFile();
+        parent.mkdirs();
+        File tmpFile = File.createTempFile(key, ".tmp", parent);
+        try {
+            try (OutputStream output = new FileOutputStream(tmpFile)) {
+                output.write(data);
+            }
+            try {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            tmpFile.delete();
+        }
+    }
+
+    private File fileFor(String key) {
+        if (key.length() < 3 || key.indexOf('/') >= 0 || key.indexOf('\\') >= 0 || key.startsWith(".")) {
+            throw new IllegalArgumentException("Invalid key: " + key);
+        }
+        return new File(new File(directory, key.substring(0, 2)), key);
+    }
+}
@@ -15,11 +15,7 @@
  */
 package org.teavm.cache;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -36,7 +32,7 @@ import org.teavm.model.ReferenceCache;
 import org.teavm.parsing.ClassDateProvider;
 
 public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStatus {
-    private File directory;
+    private CacheStorage storage;
     private ClassHolderSource innerSource;
     private ClassDateProvider classDateProvider;
     private Map<String, Item> cache = new LinkedHashMap<>();
@@ -46,7 +42,14 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
     public DiskCachedClassReaderSource(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
             SymbolTable fileTable, SymbolTable variableTable, ClassHolderSource innerSource,
             ClassDateProvider classDateProvider) {
-        this.directory = directory;
+        this(new DirectoryCacheStorage(directory), referenceCache, symbolTable, fileTable, variableTable,
+                innerSource, classDateProvider);
+    }
+
+    public DiskCachedClassReaderSource(CacheStorage storage, ReferenceCache referenceCache, SymbolTable symbolTable,
+            SymbolTable fileTable, SymbolTable variableTable, ClassHolderSource innerSource,
+            ClassDateProvider classDateProvider) {
+        this.storage = storage;
         this.innerSource = innerSource;
         this.classDateProvider = classDateProvider;
         classIO = new ClassIO(referenceCache, symbolTable, fileTable, variableTable);
@@ -72,17 +75,20 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
         if (item == null) {
             item = new Item();
             cache.put(name, item);
-            File classFile = new File(directory, name.replace('.', '/') + ".teavm-cls");
-            if (classFile.exists()) {
-                Date classDate = classDateProvider.getModificationDate(name);
-                if (classDate != null && classDate.before(new Date(classFile.lastModified()))) {
-                    try (InputStream input = new BufferedInputStream(new FileInputStream(classFile))) {
-                        item.cls = classIO.readClass(input, name);
-                    } catch (IOException e) {
-                        // We could not access cache file, so let's parse class file
-                        item.cls = null;
+            String classFile = getClassFile(name);
+            try {
+                long cacheDate = storage.lastModified(classFile);
+                if (cacheDate != 0) {
+                    Date classDate = classDateProvider.getModificationDate(name);
+                    if (classDate != null && classDate.before(new Date(cacheDate))) {
+                        try (InputStream input = storage.read(classFile)) {
+                            item.cls = input != null ? classIO.readClass(input, name) : null;
+                        }
                     }
                 }
+            } catch (IOException e) {
+                // We could not access cache file, so let's parse class file
+                item.cls = null;
             }
             if (item.cls == null) {
                 item.dirty = true;
@@ -102,12 +108,14 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
         for (String className : newClasses) {
             Item item = cache.get(className);
             if (item.cls != null) {
-                File classFile = new File(directory, className.replace('.', '/') + ".teavm-cls");
-                classFile.getParentFile().mkdirs();
-                try (OutputStream output = new BufferedOutputStream(new FileOutputStream(classFile))) {
+                try (OutputStream output = storage.write(getClassFile(className))) {
                     classIO.writeClass(output, item.cls);
                 }
             }
         }
     }
+
+    private static String getClassFile(String className) {
+        return className.replace('.', '/') + ".teavm-cls";
+    }
 }
@@ -15,11 +15,7 @@
  */
 package org.teavm.cache;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
@@ -34,7 +30,7 @@ import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
 
 public class DiskMethodNodeCache implements MethodNodeCache {
-    private final File directory;
+    private final CacheStorage storage;
     private final AstIO astIO;
     private final Map<MethodReference, Item> cache = new HashMap<>();
     private final Map<MethodReference, AsyncItem> asyncCache = new HashMap<>();
@@ -43,7 +39,12 @@ public class DiskMethodNodeCache implements MethodNodeCache {
 
     public DiskMethodNodeCache(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
             SymbolTable fileTable, SymbolTable variableTable) {
-        this.directory = directory;
+        this(new DirectoryCacheStorage(directory), referenceCache, symbolTable, fileTable, variableTable);
+    }
+
+    public DiskMethodNodeCache(CacheStorage storage, ReferenceCache referenceCache, SymbolTable symbolTable,
+            SymbolTable fileTable, SymbolTable variableTable) {
+        this.storage = storage;
         astIO = new AstIO(referenceCache, symbolTable, fileTable, variableTable);
     }
 
@@ -53,18 +54,17 @@ public class DiskMethodNodeCache implements MethodNodeCache {
         if (item == null) {
             item = new Item();
             cache.put(methodReference, item);
-            File file = getMethodFile(methodReference, false);
-            if (file.exists()) {
-                try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            try (InputStream stream = storage.read(getMethodFile(methodReference, false))) {
+                if (stream != null) {
                     VarDataInput input = new VarDataInput(stream);
                     if (!checkIfDependenciesChanged(input, cacheStatus)) {
                         RegularMethodNode node = astIO.read(input, methodReference);
                         ControlFlowEntry[] cfg = astIO.readControlFlow(input);
                         item.entry = new AstCacheEntry(node, cfg);
                     }
-                } catch (IOException e) {
-                    // we could not read program, just leave it empty
                 }
+            } catch (IOException e) {
+                // we could not read program, just leave it empty
             }
         }
         return item.entry;
@@ -85,16 +85,15 @@ public class DiskMethodNodeCache implements MethodNodeCache {
         if (item == null) {
             item = new AsyncItem();
             asyncCache.put(methodReference, item);
-            File file = getMethodFile(methodReference, true);
-            if (file.exists()) {
-                try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            try (InputStream stream = storage.read(getMethodFile(methodReference, true))) {
+                if (stream != null) {
                     VarDataInput input = new VarDataInput(stream);
                     if (!checkIfDependenciesChanged(input, cacheStatus)) {
                         item.node = astIO.readAsync(input, methodReference);
                     }
-                } catch (IOException e) {
-                    // we could not read program, just leave it empty
                 }
+            } catch (IOException e) {
+                // we could not read program, just leave it empty
             }
         }
         return item.node;
@@ -122,9 +121,8 @@ public class DiskMethodNodeCache implements MethodNodeCache {
 
     public void flush() throws IOException {
         for (MethodReference method : newMethods) {
-            File file = getMethodFile(method, true);
             Item item = cache.get(method);
-            try (VarDataOutput output = new VarDataOutput(new BufferedOutputStream(new FileOutputStream(file)))) {
+            try (VarDataOutput output = new VarDataOutput(storage.write(getMethodFile(method, false)))) {
                 output.writeUnsigned(item.dependencies.length);
                 for (String dependency : item.dependencies) {
                     output.write(dependency);
@@ -134,9 +132,8 @@ public class DiskMethodNodeCache implements MethodNodeCache {
             }
         }
         for (MethodReference method : newAsyncMethods) {
-            File file = getMethodFile(method, true);
             AsyncItem item = asyncCache.get(method);
-            try (VarDataOutput output = new VarDataOutput(new BufferedOutputStream(new FileOutputStream(file)))) {
+            try (VarDataOutput output = new VarDataOutput(storage.write(getMethodFile(method, true)))) {
                 output.writeUnsigned(item.dependencies.length);
                 for (String dependency : item.dependencies) {
                     output.write(dependency);
@@ -146,10 +143,10 @@ public class DiskMethodNodeCache implements MethodNodeCache {
         }
     }
 
-    private File getMethodFile(MethodReference method, boolean async) {
-        File dir = new File(directory, method.getClassName().replace('.', '/'));
-        return new File(dir, FileNameEncoder.encodeFileName(method.getDescriptor().toString()) + ".teavm-ast"
-                + (async ? "-async" : ""));
+    private String getMethodFile(MethodReference method, boolean async) {
+        return method.getClassName().replace('.', '/') + "/"
+                + FileNameEncoder.encodeFileName(method.getDescriptor().toString()) + ".teavm-ast"
+                + (async ? "-async" : "");
     }
 
     private static class Item {
@@ -15,15 +15,11 @@
  */
 package org.teavm.cache;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -38,14 +34,19 @@ import org.teavm.model.ProgramCache;
 import org.teavm.model.ReferenceCache;
 
 public class DiskProgramCache implements ProgramCache {
-    private File directory;
+    private CacheStorage storage;
     private ProgramIO programIO;
     private Map<MethodReference, Item> cache = new HashMap<>();
     private Set<MethodReference> newMethods = new HashSet<>();
 
     public DiskProgramCache(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
             SymbolTable fileTable, SymbolTable variableTable) {
-        this.directory = directory;
+        this(new DirectoryCacheStorage(directory), referenceCache, symbolTable, fileTable, variableTable);
+    }
+
+    public DiskProgramCache(CacheStorage storage, ReferenceCache referenceCache, SymbolTable symbolTable,
+            SymbolTable fileTable, SymbolTable variableTable) {
+        this.storage = storage;
         programIO = new ProgramIO(referenceCache, symbolTable, fileTable, variableTable);
     }
 
@@ -55,9 +56,8 @@ public class DiskProgramCache implements ProgramCache {
         if (item == null) {
             item = new Item();
             cache.put(method, item);
-            File file = getMethodFile(method);
-            if (file.exists()) {
-                try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            try (InputStream stream = storage.read(getMethodFile(method))) {
+                if (stream != null) {
                     DataInput input = new DataInputStream(stream);
                     int depCount = input.readShort();
                     boolean dependenciesChanged = false;
@@ -71,9 +71,9 @@ public class DiskProgramCache implements ProgramCache {
                     if (!dependenciesChanged) {
                         item.program = programIO.read(stream);
                     }
-                } catch (IOException e) {
-                    // we could not read program, just leave it empty
                 }
+            } catch (IOException e) {
+                // we could not read program, just leave it empty
             }
         }
         return item.program;
@@ -91,10 +91,7 @@ public class DiskProgramCache implements ProgramCache {
     public void flush() throws IOException {
         for (MethodReference method : newMethods) {
             Item item = cache.get(method);
-            File file = getMethodFile(method);
-            file.getParentFile().mkdirs();
-
-            try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
+            try (OutputStream stream = storage.write(getMethodFile(method))) {
                 DataOutput output = new DataOutputStream(stream);
 
                 output.writeShort(item.dependencies.length);
@@ -106,9 +103,9 @@ public class DiskProgramCache implements ProgramCache {
         }
     }
 
-    private File getMethodFile(MethodReference method) {
-        File dir = new File(directory, method.getClassName().replace('.', '/'));
-        return new File(dir, FileNameEncoder.encodeFileName(method.getDescriptor().toString()) + ".teavm-opt");
+    private String getMethodFile(MethodReference method) {
+        return method.getClassName().replace('.', '/') + "/"
+                + FileNameEncoder.encodeFileName(method.getDescriptor().toString()) + ".teavm-opt";
     }
 
     static class Item {
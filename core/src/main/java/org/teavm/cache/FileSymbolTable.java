@@ -22,20 +22,30 @@ import java.util.List;
 import java.util.Map;
 
 public class FileSymbolTable implements SymbolTable {
-    private File file;
+    private CacheStorage storage;
+    private String name;
     private List<String> symbols = new ArrayList<>();
     private Map<String, Integer> symbolMap = new HashMap<>();
     private int firstUnstoredIndex;
 
     public FileSymbolTable(File file) {
-        this.file = file;
+        this(new DirectoryCacheStorage(file.getAbsoluteFile().getParentFile()), file.getName());
+    }
+
+    public FileSymbolTable(CacheStorage storage, String name) {
+        this.storage = storage;
+        this.name = name;
     }
 
     public void update() throws IOException {
         symbols.clear();
         symbolMap.clear();
         firstUnstoredIndex = 0;
-        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+        InputStream stream = storage.read(name);
+        if (stream == null) {
+            throw new FileNotFoundException(name);
+        }
+        try (DataInputStream input = new DataInputStream(stream)) {
             while (true) {
                 int length = input.read();
                 if (length == -1) {
@@ -58,8 +68,7 @@ public class FileSymbolTable implements SymbolTable {
         if (firstUnstoredIndex >= symbols.size()) {
             return;
         }
-        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
-                new FileOutputStream(file, true)))) {
+        try (DataOutputStream output = new DataOutputStream(storage.append(name))) {
             while (firstUnstoredIndex < symbols.size()) {
                 String symbol = symbols.get(firstUnstoredIndex);
                 output.writeByte((symbol.length() >> 8) & 0xFF);
@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Stores entries on a plain HTTP server. Entry is read by {@code GET <base URL>/<key>}, which is expected to
+ * respond with 404 status when there is no such entry, and written by {@code PUT <base URL>/<key>}.
+ */
+public class HttpContentStore implements ContentStore {
+    private static final int TIMEOUT = 10_000;
+    private String baseUrl;
+
+    public HttpContentStore(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    }
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        HttpURLConnection connection = open(key);
+        try {
+            connection.setRequestMethod("GET");
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+                return null;
+            }
+            checkStatus(connection, status);
+            try (InputStream input = connection.getInputStream()) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                while (true) {
+                    int count = input.read(buffer);
+                    if (count < 0) {
+                        break;
+                    }
+                    output.write(buffer, 0, count);
+                }
+                return output.toByteArray();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] data) throws IOException {
+        HttpURLConnection connection = open(key);
+        try {
+            connection.setRequestMethod("PUT");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(data.length);
+            connection.setRequestProperty("Content-Type", "application/octet-stream");
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(data);
+            }
+            checkStatus(connection, connection.getResponseCode());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(String key) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + key).openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        connection.setUseCaches(false);
+        return connection;
+    }
+
+    private void checkStatus(HttpURLConnection connection, int status) throws IOException {
+        if (status / 100 != 2) {
+            throw new IOException("Content store responded with status " + status + " to "
+                    + connection.getRequestMethod() + " " + connection.getURL());
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package org.teavm.cache;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +41,10 @@ public class InMemorySymbolTable implements SymbolTable {
         return index;
     }
 
+    public List<String> getSymbols() {
+        return Collections.unmodifiableList(symbols);
+    }
+
     public void invalidate() {
         symbols.clear();
         indexes.clear();
@@ -54,6 +54,13 @@ public class MemoryCachedClassReaderSource implements ClassReaderSource, CacheSt
         return isStaleClass(method.getClassName());
     }
 
+    /**
+     * Tells whether class was requested from this source since it was last evicted, even if it was not found.
+     */
+    public boolean isCached(String className) {
+        return cache.containsKey(className);
+    }
+
     public void populate(String name) {
         getEntry(name);
     }
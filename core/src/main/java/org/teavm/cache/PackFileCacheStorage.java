@@ -0,0 +1,325 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Stores all entries in a single file, which avoids creating a file per cached class or method.</p>
+ *
+ * <p>File starts with a header and continues with records, each record consists of entry name, time of
+ * modification and content. New and modified entries are appended to the end of file by {@link #flush()},
+ * so the latest record with a given name wins. Index of records is built when storage is first accessed,
+ * contents are read from memory-mapped file. When outdated records take more space than actual ones,
+ * {@link #flush()} rewrites the file from scratch.</p>
+ */
+public class PackFileCacheStorage implements CacheStorage {
+    private static final int MAGIC = 0x5445504B;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private File file;
+    private Map<String, Entry> entries = new LinkedHashMap<>();
+    private Map<String, PendingEntry> pendingEntries = new LinkedHashMap<>();
+    private ByteBuffer buffer;
+    private boolean loaded;
+    private long validSize;
+    private long outdatedSize;
+
+    public PackFileCacheStorage(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public InputStream read(String name) throws IOException {
+        byte[] pendingData = getPendingData(name);
+        if (pendingData != null) {
+            return new ByteBufferInputStream(ByteBuffer.wrap(pendingData));
+        }
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer data = map().duplicate();
+        data.position(entry.dataOffset);
+        data.limit(entry.dataOffset + entry.dataLength);
+        return new ByteBufferInputStream(data.slice());
+    }
+
+    @Override
+    public long lastModified(String name) throws IOException {
+        load();
+        PendingEntry pending = pendingEntries.get(name);
+        if (pending != null) {
+            return pending.timestamp;
+        }
+        Entry entry = entries.get(name);
+        return entry != null ? entry.timestamp : 0;
+    }
+
+    @Override
+    public OutputStream write(String name) throws IOException {
+        load();
+        return new EntryOutputStream(name, null);
+    }
+
+    @Override
+    public OutputStream append(String name) throws IOException {
+        byte[] existing = getPendingData(name);
+        if (existing == null) {
+            try (InputStream input = read(name)) {
+                existing = input != null ? input.readAllBytes() : null;
+            }
+        }
+        return new EntryOutputStream(name, existing);
+    }
+
+    private byte[] getPendingData(String name) throws IOException {
+        load();
+        PendingEntry pending = pendingEntries.get(name);
+        return pending != null ? pending.data : null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        load();
+        if (pendingEntries.isEmpty()) {
+            return;
+        }
+        long pendingSize = 0;
+        for (Map.Entry<String, PendingEntry> pending : pendingEntries.entrySet()) {
+            pendingSize += recordSize(pending.getKey(), pending.getValue().data.length);
+            Entry entry = entries.get(pending.getKey());
+            if (entry != null) {
+                outdatedSize += recordSize(pending.getKey(), entry.dataLength);
+            }
+        }
+        if (validSize == 0 || outdatedSize > validSize + pendingSize - outdatedSize) {
+            rewrite();
+        } else {
+            appendPending();
+        }
+    }
+
+    private void appendPending() throws IOException {
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            // Drop partially written records, if previous write failed
+            output.setLength(validSize);
+            output.seek(validSize);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(bytes);
+            for (Map.Entry<String, PendingEntry> pending : pendingEntries.entrySet()) {
+                writeRecord(data, pending.getKey(), pending.getValue());
+            }
+            output.write(bytes.toByteArray());
+        }
+        buffer = null;
+        loaded = false;
+        entries.clear();
+        pendingEntries.clear();
+    }
+
+    private void rewrite() throws IOException {
+        File tmpFile = new File(file.getPath() + ".tmp");
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(tmpFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                if (!pendingEntries.containsKey(entry.getKey())) {
+                    try (InputStream input = read(entry.getKey())) {
+                        PendingEntry copy = new PendingEntry(input.readAllBytes(), entry.getValue().timestamp);
+                        writeRecord(output, entry.getKey(), copy);
+                    }
+                }
+            }
+            for (Map.Entry<String, PendingEntry> pending : pendingEntries.entrySet()) {
+                writeRecord(output, pending.getKey(), pending.getValue());
+            }
+        }
+        buffer = null;
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        loaded = false;
+        entries.clear();
+        pendingEntries.clear();
+    }
+
+    private static void writeRecord(DataOutputStream output, String name, PendingEntry entry) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(nameBytes.length);
+        output.write(nameBytes);
+        output.writeLong(entry.timestamp);
+        output.writeInt(entry.data.length);
+        output.write(entry.data);
+    }
+
+    private static long recordSize(String name, long dataLength) {
+        return 4 + name.getBytes(StandardCharsets.UTF_8).length + 8 + 4 + dataLength;
+    }
+
+    private void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        entries.clear();
+        validSize = 0;
+        outdatedSize = 0;
+        if (!file.exists()) {
+            return;
+        }
+
+        ByteBuffer data = map().duplicate();
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            // Pack file of unknown format, so it will be rewritten by the next flush
+            return;
+        }
+        int offset = HEADER_SIZE;
+        while (true) {
+            validSize = offset;
+            if (data.limit() - offset < 4) {
+                break;
+            }
+            int nameLength = data.getInt(offset);
+            if (nameLength < 0 || data.limit() - offset - 4 < (long) nameLength + 12) {
+                break;
+            }
+            byte[] nameBytes = new byte[nameLength];
+            data.position(offset + 4);
+            data.get(nameBytes);
+            int timestampOffset = offset + 4 + nameLength;
+            long timestamp = data.getLong(timestampOffset);
+            int dataLength = data.getInt(timestampOffset + 8);
+            int dataOffset = timestampOffset + 12;
+            if (dataLength < 0 || data.limit() - dataOffset < dataLength) {
+                break;
+            }
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+            Entry previous = entries.put(name, new Entry(timestamp, dataOffset, dataLength));
+            if (previous != null) {
+                outdatedSize += recordSize(name, previous.dataLength);
+            }
+            offset = dataOffset + dataLength;
+        }
+    }
+
+    private ByteBuffer map() throws IOException {
+        if (buffer == null) {
+            try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Pack file is too large: " + file);
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        return buffer;
+    }
+
+    static class Entry {
+        final long timestamp;
+        final int dataOffset;
+        final int dataLength;
+
+        Entry(long timestamp, int dataOffset, int dataLength) {
+            this.timestamp = timestamp;
+            this.dataOffset = dataOffset;
+            this.dataLength = dataLength;
+        }
+    }
+
+    static class PendingEntry {
+        final byte[] data;
+        final long timestamp;
+
+        PendingEntry(byte[] data, long timestamp) {
+            this.data = data;
+            this.timestamp = timestamp;
+        }
+    }
+
+    class EntryOutputStream extends ByteArrayOutputStream {
+        private String name;
+        private boolean closed;
+
+        EntryOutputStream(String name, byte[] initialData) {
+            this.name = name;
+            if (initialData != null) {
+                writeBytes(initialData);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                pendingEntries.put(name, new PendingEntry(toByteArray(), System.currentTimeMillis()));
+            }
+        }
+    }
+
+    static class ByteBufferInputStream extends InputStream {
+        private ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+public final class ConcurrentUtil {
+    private ConcurrentUtil() {
+    }
+
+    /**
+     * Runs all tasks in the given executor and waits for their completion. Results are returned
+     * in order of tasks, regardless of the order in which tasks complete. If some of tasks fail,
+     * exception of the first failed task (in order of tasks) is rethrown. Exceptions are rethrown as is,
+     * checked exceptions are wrapped into {@link RuntimeException}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> invokeAll(ExecutorService executor, List<? extends Callable<T>> tasks) {
+        if (tasks.isEmpty()) {
+            return List.of();
+        }
+
+        // Some executors (namely, ForkJoinPool) rethrow copies of exceptions thrown by tasks,
+        // so exceptions are caught within tasks to preserve original ones
+        var wrappedTasks = new ArrayList<Callable<Object>>(tasks.size());
+        for (var task : tasks) {
+            wrappedTasks.add(() -> {
+                try {
+                    return task.call();
+                } catch (Throwable e) {
+                    return new Failure(e);
+                }
+            });
+        }
+
+        var result = new ArrayList<T>(tasks.size());
+        try {
+            for (var future : executor.invokeAll(wrappedTasks)) {
+                var value = future.get();
+                if (value instanceof Failure) {
+                    var cause = ((Failure) value).exception;
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new RuntimeException(cause);
+                }
+                result.add((T) value);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return result;
+    }
+
+    private static class Failure {
+        final Throwable exception;
+
+        Failure(Throwable exception) {
+            this.exception = exception;
+        }
+    }
+}
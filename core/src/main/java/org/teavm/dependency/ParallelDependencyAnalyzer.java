@@ -0,0 +1,208 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.dependency;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import org.teavm.common.ServiceRepository;
+import org.teavm.diagnostics.Diagnostics;
+import org.teavm.model.BasicBlockReader;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodReader;
+import org.teavm.model.MethodReference;
+import org.teavm.model.ProgramReader;
+import org.teavm.model.ReferenceCache;
+import org.teavm.model.TryCatchBlockReader;
+import org.teavm.model.ValueType;
+import org.teavm.model.VariableReader;
+import org.teavm.model.instructions.AbstractInstructionReader;
+import org.teavm.model.instructions.InvocationType;
+
+/**
+ * <p>Dependency analyzer that builds the same graph as {@link PreciseDependencyAnalyzer}, but loads classes
+ * on several threads.</p>
+ *
+ * <p>Propagation of types through the graph remains on the calling thread, since it calls back to listeners
+ * and plugins, which expect to be called in a deterministic order. Instead, each time a method becomes used,
+ * classes it refers to are requested from the underlying class source by a pool of worker threads, so that
+ * parsing of these classes runs concurrently with propagation. Analysis itself never waits for the workers,
+ * it gets classes that are not loaded yet as usual. Therefore, set of reachable classes and methods
+ * does not depend on the number of threads.</p>
+ *
+ * <p>Underlying class source must support concurrent calls to {@link ClassReaderSource#get(String)}
+ * and must not modify classes it has already returned.</p>
+ *
+ * <p>This analyzer is not selected automatically. It only pays off when class loading is a noticeable part
+ * of analysis and there are spare cores, so it is left to be chosen explicitly via
+ * {@link org.teavm.vm.TeaVMBuilder#setDependencyAnalyzerFactory(DependencyAnalyzerFactory)}.</p>
+ */
+public class ParallelDependencyAnalyzer extends PreciseDependencyAnalyzer {
+    private ForkJoinPool pool;
+    private Set<String> requestedClasses = ConcurrentHashMap.newKeySet();
+
+    public ParallelDependencyAnalyzer(ClassReaderSource classSource, ClassLoader classLoader,
+            ServiceRepository services, Diagnostics diagnostics, ReferenceCache referenceCache,
+            String[] platformTags, int threadCount) {
+        super(classSource, classLoader, services, diagnostics, referenceCache, platformTags);
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threadCount);
+        }
+        pool = new ForkJoinPool(Math.max(1, threadCount - 1));
+    }
+
+    public static DependencyAnalyzerFactory factory(int threadCount) {
+        return (classSource, classLoader, services, diagnostics, referenceCache, platformTags) ->
+                new ParallelDependencyAnalyzer(classSource, classLoader, services, diagnostics, referenceCache,
+                        platformTags, threadCount);
+    }
+
+    @Override
+    void scheduleMethodAnalysis(MethodDependency dep) {
+        super.scheduleMethodAnalysis(dep);
+        if (pool != null) {
+            var method = dep.getReference();
+            pool.execute(() -> prefetch(method));
+        }
+    }
+
+    @Override
+    public void processDependencies() {
+        try {
+            super.processDependencies();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+                pool = null;
+            }
+        }
+    }
+
+    private void prefetch(MethodReference methodRef) {
+        try {
+            prefetchClass(methodRef.getClassName());
+            var cls = getUnprocessedClassSource().get(methodRef.getClassName());
+            if (cls == null) {
+                return;
+            }
+            var method = cls.getMethod(methodRef.getDescriptor());
+            if (method != null) {
+                prefetchMethod(method);
+            }
+        } catch (RuntimeException e) {
+            // Analysis requests the same class by itself later and reports the error properly
+        }
+    }
+
+    private void prefetchClass(String className) {
+        if (!requestedClasses.add(className)) {
+            return;
+        }
+        var cls = getUnprocessedClassSource().get(className);
+        if (cls == null) {
+            return;
+        }
+        if (cls.getParent() != null) {
+            prefetchClass(cls.getParent());
+        }
+        for (var itf : cls.getInterfaces()) {
+            prefetchClass(itf);
+        }
+    }
+
+    private void prefetchMethod(MethodReader method) {
+        ProgramReader program = method.getProgram();
+        if (program == null) {
+            return;
+        }
+        var reader = new ReferencedClassesReader();
+        for (BasicBlockReader block : program.getBasicBlocks()) {
+            block.readAllInstructions(reader);
+            for (TryCatchBlockReader tryCatch : block.readTryCatchBlocks()) {
+                if (tryCatch.getExceptionType() != null) {
+                    prefetchClass(tryCatch.getExceptionType());
+                }
+            }
+        }
+    }
+
+    private class ReferencedClassesReader extends AbstractInstructionReader {
+        void prefetch(ValueType type) {
+            while (type instanceof ValueType.Array) {
+                type = ((ValueType.Array) type).getItemType();
+            }
+            if (type instanceof ValueType.Object) {
+                prefetchClass(((ValueType.Object) type).getClassName());
+            }
+        }
+
+        @Override
+        public void classConstant(VariableReader receiver, ValueType cst) {
+            prefetch(cst);
+        }
+
+        @Override
+        public void cast(VariableReader receiver, VariableReader value, ValueType targetType, boolean weak) {
+            prefetch(targetType);
+        }
+
+        @Override
+        public void createArray(VariableReader receiver, ValueType itemType, VariableReader size) {
+            prefetch(itemType);
+        }
+
+        @Override
+        public void createArray(VariableReader receiver, ValueType itemType,
+                List<? extends VariableReader> dimensions) {
+            prefetch(itemType);
+        }
+
+        @Override
+        public void create(VariableReader receiver, String type) {
+            prefetchClass(type);
+        }
+
+        @Override
+        public void getField(VariableReader receiver, VariableReader instance, FieldReference field,
+                ValueType fieldType) {
+            prefetchClass(field.getClassName());
+        }
+
+        @Override
+        public void putField(VariableReader instance, FieldReference field, VariableReader value,
+                ValueType fieldType) {
+            prefetchClass(field.getClassName());
+        }
+
+        @Override
+        public void invoke(VariableReader receiver, VariableReader instance, MethodReference method,
+                List<? extends VariableReader> arguments, InvocationType type) {
+            prefetchClass(method.getClassName());
+        }
+
+        @Override
+        public void isInstance(VariableReader receiver, VariableReader value, ValueType type) {
+            prefetch(type);
+        }
+
+        @Override
+        public void initClass(String className) {
+            prefetchClass(className);
+        }
+    }
+}
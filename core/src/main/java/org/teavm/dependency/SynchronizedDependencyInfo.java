@@ -0,0 +1,287 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.dependency;
+
+import java.util.Collection;
+import org.teavm.callgraph.CallGraph;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Wraps results of dependency analysis so that they can be queried from several threads at once.
+ * Dependency analyzer lazily creates some of its structures (for example, types and method caches),
+ * so every query, including queries to the nested method, field and value infos, is serialized
+ * with a single lock.</p>
+ *
+ * <p>Analysis must be complete before this wrapper is created, no new dependencies are expected to
+ * be reached through it.</p>
+ */
+public class SynchronizedDependencyInfo implements DependencyInfo {
+    private final DependencyInfo underlying;
+    private final Object lock = new Object();
+    private final ClassReaderSource classSource;
+
+    public SynchronizedDependencyInfo(DependencyInfo underlying) {
+        this.underlying = underlying;
+        var underlyingClassSource = underlying.getClassSource();
+        classSource = new ClassReaderSource() {
+            @Override
+            public ClassReader get(String name) {
+                synchronized (lock) {
+                    return underlyingClassSource.get(name);
+                }
+            }
+        };
+    }
+
+    @Override
+    public ClassReaderSource getClassSource() {
+        return classSource;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return underlying.getClassLoader();
+    }
+
+    @Override
+    public Collection<MethodReference> getReachableMethods() {
+        synchronized (lock) {
+            return underlying.getReachableMethods();
+        }
+    }
+
+    @Override
+    public Collection<FieldReference> getReachableFields() {
+        synchronized (lock) {
+            return underlying.getReachableFields();
+        }
+    }
+
+    @Override
+    public Collection<String> getReachableClasses() {
+        synchronized (lock) {
+            return underlying.getReachableClasses();
+        }
+    }
+
+    @Override
+    public FieldDependencyInfo getField(FieldReference fieldRef) {
+        synchronized (lock) {
+            return wrap(underlying.getField(fieldRef));
+        }
+    }
+
+    @Override
+    public MethodDependencyInfo getMethod(MethodReference methodRef) {
+        synchronized (lock) {
+            return wrap(underlying.getMethod(methodRef));
+        }
+    }
+
+    @Override
+    public MethodDependencyInfo getMethodImplementation(MethodReference methodRef) {
+        synchronized (lock) {
+            return wrap(underlying.getMethodImplementation(methodRef));
+        }
+    }
+
+    @Override
+    public ClassDependencyInfo getClass(String className) {
+        synchronized (lock) {
+            return underlying.getClass(className);
+        }
+    }
+
+    @Override
+    public CallGraph getCallGraph() {
+        synchronized (lock) {
+            return underlying.getCallGraph();
+        }
+    }
+
+    private MethodDependencyInfo wrap(MethodDependencyInfo method) {
+        return method != null ? new SynchronizedMethodInfo(method) : null;
+    }
+
+    private FieldDependencyInfo wrap(FieldDependencyInfo field) {
+        return field != null ? new SynchronizedFieldInfo(field) : null;
+    }
+
+    private ValueDependencyInfo wrap(ValueDependencyInfo value) {
+        return value != null ? new SynchronizedValueInfo(value) : null;
+    }
+
+    class SynchronizedMethodInfo implements MethodDependencyInfo {
+        private final MethodDependencyInfo underlying;
+
+        SynchronizedMethodInfo(MethodDependencyInfo underlying) {
+            this.underlying = underlying;
+        }
+
+        @Override
+        public ValueDependencyInfo[] getVariables() {
+            synchronized (lock) {
+                var variables = underlying.getVariables();
+                var result = new ValueDependencyInfo[variables.length];
+                for (int i = 0; i < variables.length; ++i) {
+                    result[i] = wrap(variables[i]);
+                }
+                return result;
+            }
+        }
+
+        @Override
+        public int getVariableCount() {
+            synchronized (lock) {
+                return underlying.getVariableCount();
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getVariable(int index) {
+            synchronized (lock) {
+                return wrap(underlying.getVariable(index));
+            }
+        }
+
+        @Override
+        public int getParameterCount() {
+            synchronized (lock) {
+                return underlying.getParameterCount();
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getResult() {
+            synchronized (lock) {
+                return wrap(underlying.getResult());
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getThrown() {
+            synchronized (lock) {
+                return wrap(underlying.getThrown());
+            }
+        }
+
+        @Override
+        public MethodReference getReference() {
+            return underlying.getReference();
+        }
+
+        @Override
+        public boolean isUsed() {
+            synchronized (lock) {
+                return underlying.isUsed();
+            }
+        }
+
+        @Override
+        public boolean isCalled() {
+            synchronized (lock) {
+                return underlying.isCalled();
+            }
+        }
+
+        @Override
+        public boolean isMissing() {
+            synchronized (lock) {
+                return underlying.isMissing();
+            }
+        }
+    }
+
+    class SynchronizedFieldInfo implements FieldDependencyInfo {
+        private final FieldDependencyInfo underlying;
+
+        SynchronizedFieldInfo(FieldDependencyInfo underlying) {
+            this.underlying = underlying;
+        }
+
+        @Override
+        public ValueDependencyInfo getValue() {
+            synchronized (lock) {
+                return wrap(underlying.getValue());
+            }
+        }
+
+        @Override
+        public FieldReference getReference() {
+            return underlying.getReference();
+        }
+
+        @Override
+        public boolean isMissing() {
+            synchronized (lock) {
+                return underlying.isMissing();
+            }
+        }
+    }
+
+    class SynchronizedValueInfo implements ValueDependencyInfo {
+        private final ValueDependencyInfo underlying;
+
+        SynchronizedValueInfo(ValueDependencyInfo underlying) {
+            this.underlying = underlying;
+        }
+
+        @Override
+        public String[] getTypes() {
+            synchronized (lock) {
+                return underlying.getTypes();
+            }
+        }
+
+        @Override
+        public boolean hasType(String type) {
+            synchronized (lock) {
+                return underlying.hasType(type);
+            }
+        }
+
+        @Override
+        public boolean hasMoreTypesThan(int limit) {
+            synchronized (lock) {
+                return underlying.hasMoreTypesThan(limit);
+            }
+        }
+
+        @Override
+        public boolean hasArrayType() {
+            synchronized (lock) {
+                return underlying.hasArrayType();
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getArrayItem() {
+            synchronized (lock) {
+                return wrap(underlying.getArrayItem());
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getClassValueNode() {
+            synchronized (lock) {
+                return wrap(underlying.getClassValueNode());
+            }
+        }
+    }
+}
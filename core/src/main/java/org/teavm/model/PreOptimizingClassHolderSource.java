@@ -15,8 +15,8 @@
  */
 package org.teavm.model;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import org.teavm.model.optimization.GlobalValueNumbering;
 import org.teavm.model.optimization.UnusedVariableElimination;
@@ -24,7 +24,7 @@ import org.teavm.model.transformation.NoSuchFieldCatchElimination;
 
 public class PreOptimizingClassHolderSource implements ClassHolderSource {
     private ClassHolderSource innerClassSource;
-    private Map<String, ClassHolder> cache = new LinkedHashMap<>();
+    private Map<String, ClassHolder> cache = new ConcurrentHashMap<>();
 
     public PreOptimizingClassHolderSource(ClassHolderSource innerClassSource) {
         this.innerClassSource = innerClassSource;
@@ -32,16 +32,9 @@ public class PreOptimizingClassHolderSource implements ClassHolderSource {
 
     @Override
     public ClassHolder get(String name) {
-        ClassHolder cls = cache.get(name);
-        if (cls == null) {
-            cls = optimize(innerClassSource::get, name);
-            if (cls == null) {
-                return null;
-            }
-
-            cache.put(name, cls);
-        }
-        return cls;
+        // Inner source returns the same instance to concurrent callers, so it's important
+        // that only one thread optimizes it.
+        return cache.computeIfAbsent(name, n -> optimize(innerClassSource::get, n));
     }
 
     public static ClassHolder optimize(Function<String, ClassHolder> innerSource, String name) {
@@ -15,18 +15,24 @@
  */
 package org.teavm.model;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * <p>Interns references, descriptors, types and names so that equal values share a single instance.</p>
+ *
+ * <p>Cache can be used by several threads at once, for example, when classes are parsed concurrently.
+ * When two threads race to intern equal values, both get the same instance.</p>
+ */
 public class ReferenceCache {
-    private Map<String, Map<MethodDescriptor, MethodReference>> referenceCache = new HashMap<>();
-    private Map<FieldReference, FieldReference> fieldRefenceCache = new HashMap<>();
-    private Map<MethodDescriptor, MethodDescriptor> descriptorCache = new HashMap<>();
-    private Map<ValueType, ValueType> valueTypeCache = new HashMap<>();
-    private Map<GenericValueType, GenericValueType> genericValueTypeCache = new HashMap<>();
-    private Map<String, String> stringCache = new HashMap<>();
-    private Map<String, MethodDescriptor> descriptorParseCache = new HashMap<>();
-    private Map<String, ValueType> valueTypeParseCache = new HashMap<>();
+    private Map<String, Map<MethodDescriptor, MethodReference>> referenceCache = new ConcurrentHashMap<>();
+    private Map<FieldReference, FieldReference> fieldRefenceCache = new ConcurrentHashMap<>();
+    private Map<MethodDescriptor, MethodDescriptor> descriptorCache = new ConcurrentHashMap<>();
+    private Map<ValueType, ValueType> valueTypeCache = new ConcurrentHashMap<>();
+    private Map<GenericValueType, GenericValueType> genericValueTypeCache = new ConcurrentHashMap<>();
+    private Map<String, String> stringCache = new ConcurrentHashMap<>();
+    private Map<String, MethodDescriptor> descriptorParseCache = new ConcurrentHashMap<>();
+    private Map<String, ValueType> valueTypeParseCache = new ConcurrentHashMap<>();
 
     public MethodReference getCached(MethodReference reference) {
         return getCached(reference.getClassName(), reference.getDescriptor());
@@ -34,7 +40,7 @@ public class ReferenceCache {
 
     public MethodReference getCached(String className, MethodDescriptor descriptor) {
         return referenceCache
-                .computeIfAbsent(className, key -> new HashMap<>())
+                .computeIfAbsent(className, key -> new ConcurrentHashMap<>())
                 .computeIfAbsent(getCached(descriptor), key -> new MethodReference(className, key));
     }
 
@@ -58,7 +64,7 @@ public class ReferenceCache {
             if (signatureChanged) {
                 result = new MethodDescriptor(descriptor.getName(), signature);
             }
-            descriptorCache.put(result, result);
+            result = intern(descriptorCache, result);
         }
         return result;
     }
@@ -72,7 +78,7 @@ public class ReferenceCache {
             if (classNameCached != reference.getClassName() || fieldNameCached != reference.getFieldName()) {
                 result = new FieldReference(classNameCached, fieldNameCached);
             }
-            fieldRefenceCache.put(result, result);
+            result = intern(fieldRefenceCache, result);
         }
         return result;
     }
@@ -98,7 +104,7 @@ public class ReferenceCache {
                     result = ValueType.arrayOf(cachedItem);
                 }
             }
-            valueTypeCache.put(result, result);
+            result = intern(valueTypeCache, result);
         }
         return result;
     }
@@ -158,7 +164,7 @@ public class ReferenceCache {
                     result = new GenericValueType.Array(cachedItem);
                 }
             }
-            genericValueTypeCache.put(result, result);
+            result = intern(genericValueTypeCache, result);
         }
 
         return result;
@@ -167,8 +173,7 @@ public class ReferenceCache {
     public String getCached(String s) {
         String result = stringCache.get(s);
         if (result == null) {
-            result = s;
-            stringCache.put(result, result);
+            result = intern(stringCache, s);
         }
         return result;
     }
@@ -190,4 +195,9 @@ public class ReferenceCache {
         }
         return result;
     }
+
+    private static <T> T intern(Map<T, T> cache, T value) {
+        var existing = cache.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
 }
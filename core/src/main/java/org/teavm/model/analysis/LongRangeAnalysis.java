@@ -0,0 +1,559 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.teavm.common.DominatorTree;
+import org.teavm.common.Graph;
+import org.teavm.common.GraphUtils;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.Incoming;
+import org.teavm.model.Instruction;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Phi;
+import org.teavm.model.Program;
+import org.teavm.model.Variable;
+import org.teavm.model.instructions.AbstractInstructionVisitor;
+import org.teavm.model.instructions.AssignInstruction;
+import org.teavm.model.instructions.BinaryInstruction;
+import org.teavm.model.instructions.BinaryOperation;
+import org.teavm.model.instructions.BranchingCondition;
+import org.teavm.model.instructions.BranchingInstruction;
+import org.teavm.model.instructions.CastNumberInstruction;
+import org.teavm.model.instructions.LongConstantInstruction;
+import org.teavm.model.instructions.NegateInstruction;
+import org.teavm.model.instructions.NumericOperandType;
+import org.teavm.model.util.ProgramUtils;
+import org.teavm.model.util.TypeInferer;
+import org.teavm.model.util.VariableType;
+
+/**
+ * <p>Computes an interval of possible values for each {@code long} variable of a program in SSA form.</p>
+ *
+ * <p>Intervals are propagated through constants, {@code int} to {@code long} casts, arithmetic and phis.
+ * Any arithmetic operation that may overflow produces the full range. Additionally, comparisons of two
+ * {@code long} values followed by a branch restrict ranges of compared variables in the blocks dominated
+ * by the corresponding branch target. Loops are handled by widening after several updates of a variable,
+ * followed by a few narrowing passes.</p>
+ */
+public class LongRangeAnalysis {
+    private static final int WIDENING_THRESHOLD = 3;
+    private static final int NARROWING_PASSES = 2;
+
+    private Program program;
+    private DominatorTree dom;
+    private boolean[] tracked;
+    private long[] lower;
+    private long[] upper;
+    private int[] updateCount;
+    private List<List<Constraint>> constraints = new ArrayList<>();
+    private boolean narrowing;
+    private boolean changed;
+    private BasicBlock currentBlock;
+    private long rangeLower;
+    private long rangeUpper;
+
+    public LongRangeAnalysis(Program program, MethodReference methodReference) {
+        this.program = program;
+        int count = program.variableCount();
+        tracked = new boolean[count];
+        lower = new long[count];
+        upper = new long[count];
+        updateCount = new int[count];
+
+        var typeInferer = new TypeInferer();
+        typeInferer.inferTypes(program, methodReference);
+        for (int i = 0; i < count; ++i) {
+            tracked[i] = typeInferer.typeOf(i) == VariableType.LONG;
+            lower[i] = Long.MIN_VALUE;
+            upper[i] = Long.MAX_VALUE;
+        }
+
+        dom = GraphUtils.buildDominatorTree(ProgramUtils.buildControlFlowGraph(program));
+        initRanges();
+        collectConstraints();
+        analyze();
+    }
+
+    /**
+     * Tells whether variable was recognized as {@code long} one, i.e. whether analysis computed its range.
+     */
+    public boolean isTracked(Variable variable) {
+        return tracked[variable.getIndex()];
+    }
+
+    public long getLowerBound(Variable variable) {
+        return lower[variable.getIndex()];
+    }
+
+    public long getUpperBound(Variable variable) {
+        return upper[variable.getIndex()];
+    }
+
+    /**
+     * Returns lower bound of variable's value, taking into account branches that must be passed
+     * to reach the given block.
+     */
+    public long getLowerBound(Variable variable, BasicBlock block) {
+        rangeAt(variable, block);
+        return rangeLower;
+    }
+
+    /**
+     * Returns upper bound of variable's value, taking into account branches that must be passed
+     * to reach the given block.
+     */
+    public long getUpperBound(Variable variable, BasicBlock block) {
+        rangeAt(variable, block);
+        return rangeUpper;
+    }
+
+    private void initRanges() {
+        var initializer = new AbstractInstructionVisitor() {
+            @Override
+            public void visit(LongConstantInstruction insn) {
+                reset(insn.getReceiver());
+            }
+
+            @Override
+            public void visit(CastNumberInstruction insn) {
+                if (insn.getSourceType() == NumericOperandType.INT) {
+                    reset(insn.getReceiver());
+                }
+            }
+
+            @Override
+            public void visit(BinaryInstruction insn) {
+                reset(insn.getReceiver());
+            }
+
+            @Override
+            public void visit(NegateInstruction insn) {
+                reset(insn.getReceiver());
+            }
+
+            @Override
+            public void visit(AssignInstruction insn) {
+                reset(insn.getReceiver());
+            }
+        };
+
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Phi phi : block.getPhis()) {
+                reset(phi.getReceiver());
+            }
+            for (Instruction insn : block) {
+                insn.acceptVisitor(initializer);
+            }
+        }
+    }
+
+    private void reset(Variable variable) {
+        int index = variable.getIndex();
+        if (tracked[index]) {
+            lower[index] = Long.MAX_VALUE;
+            upper[index] = Long.MIN_VALUE;
+        }
+    }
+
+    private void collectConstraints() {
+        var comparisons = new BinaryInstruction[program.variableCount()];
+        for (BasicBlock block : program.getBasicBlocks()) {
+            constraints.add(new ArrayList<>());
+            for (Instruction insn : block) {
+                if (insn instanceof BinaryInstruction) {
+                    var binary = (BinaryInstruction) insn;
+                    if (binary.getOperation() == BinaryOperation.COMPARE
+                            && binary.getOperandType() == NumericOperandType.LONG) {
+                        comparisons[binary.getReceiver().getIndex()] = binary;
+                    }
+                }
+            }
+        }
+
+        Graph cfg = ProgramUtils.buildControlFlowGraph(program);
+        for (BasicBlock block : program.getBasicBlocks()) {
+            if (!(block.getLastInstruction() instanceof BranchingInstruction)) {
+                continue;
+            }
+            var branching = (BranchingInstruction) block.getLastInstruction();
+            var comparison = comparisons[branching.getOperand().getIndex()];
+            if (comparison == null || branching.getCondition() == BranchingCondition.NULL
+                    || branching.getCondition() == BranchingCondition.NOT_NULL
+                    || branching.getConsequent() == branching.getAlternative()) {
+                continue;
+            }
+            addConstraints(cfg, branching.getConsequent(), comparison, branching.getCondition());
+            addConstraints(cfg, branching.getAlternative(), comparison, negate(branching.getCondition()));
+        }
+    }
+
+    private void addConstraints(Graph cfg, BasicBlock target, BinaryInstruction comparison,
+            BranchingCondition condition) {
+        if (target.getIndex() == 0 || cfg.incomingEdgesCount(target.getIndex()) != 1) {
+            return;
+        }
+        var first = comparison.getFirstOperand().getIndex();
+        var second = comparison.getSecondOperand().getIndex();
+        var targetConstraints = constraints.get(target.getIndex());
+        targetConstraints.add(new Constraint(first, condition, second));
+        targetConstraints.add(new Constraint(second, converse(condition), first));
+    }
+
+    private static BranchingCondition negate(BranchingCondition condition) {
+        switch (condition) {
+            case EQUAL:
+                return BranchingCondition.NOT_EQUAL;
+            case NOT_EQUAL:
+                return BranchingCondition.EQUAL;
+            case LESS:
+                return BranchingCondition.GREATER_OR_EQUAL;
+            case LESS_OR_EQUAL:
+                return BranchingCondition.GREATER;
+            case GREATER:
+                return BranchingCondition.LESS_OR_EQUAL;
+            case GREATER_OR_EQUAL:
+                return BranchingCondition.LESS;
+            default:
+                throw new IllegalArgumentException(condition.name());
+        }
+    }
+
+    private static BranchingCondition converse(BranchingCondition condition) {
+        switch (condition) {
+            case LESS:
+                return BranchingCondition.GREATER;
+            case LESS_OR_EQUAL:
+                return BranchingCondition.GREATER_OR_EQUAL;
+            case GREATER:
+                return BranchingCondition.LESS;
+            case GREATER_OR_EQUAL:
+                return BranchingCondition.LESS_OR_EQUAL;
+            default:
+                return condition;
+        }
+    }
+
+    private void analyze() {
+        var transfer = new TransferVisitor();
+        do {
+            changed = false;
+            for (BasicBlock block : program.getBasicBlocks()) {
+                processBlock(block, transfer);
+            }
+        } while (changed);
+
+        narrowing = true;
+        for (int i = 0; i < NARROWING_PASSES; ++i) {
+            for (BasicBlock block : program.getBasicBlocks()) {
+                processBlock(block, transfer);
+            }
+        }
+    }
+
+    private void processBlock(BasicBlock block, TransferVisitor transfer) {
+        currentBlock = block;
+        for (Phi phi : block.getPhis()) {
+            if (!tracked[phi.getReceiver().getIndex()]) {
+                continue;
+            }
+            long phiLower = Long.MAX_VALUE;
+            long phiUpper = Long.MIN_VALUE;
+            for (Incoming incoming : phi.getIncomings()) {
+                rangeAt(incoming.getValue(), incoming.getSource());
+                if (rangeLower <= rangeUpper) {
+                    phiLower = Math.min(phiLower, rangeLower);
+                    phiUpper = Math.max(phiUpper, rangeUpper);
+                }
+            }
+            update(phi.getReceiver(), phiLower, phiUpper);
+        }
+        for (Instruction insn : block) {
+            insn.acceptVisitor(transfer);
+        }
+    }
+
+    private void update(Variable variable, long newLower, long newUpper) {
+        int index = variable.getIndex();
+        if (narrowing) {
+            lower[index] = Math.max(lower[index], newLower);
+            upper[index] = Math.min(upper[index], newUpper);
+            return;
+        }
+        if (newLower > newUpper) {
+            return;
+        }
+
+        long oldLower = lower[index];
+        long oldUpper = upper[index];
+        if (oldLower <= oldUpper) {
+            newLower = Math.min(newLower, oldLower);
+            newUpper = Math.max(newUpper, oldUpper);
+            if (newLower == oldLower && newUpper == oldUpper) {
+                return;
+            }
+            if (++updateCount[index] > WIDENING_THRESHOLD) {
+                if (newLower < oldLower) {
+                    newLower = Long.MIN_VALUE;
+                }
+                if (newUpper > oldUpper) {
+                    newUpper = Long.MAX_VALUE;
+                }
+            }
+        }
+
+        lower[index] = newLower;
+        upper[index] = newUpper;
+        changed = true;
+    }
+
+    private void rangeAt(Variable variable, BasicBlock block) {
+        int index = variable.getIndex();
+        if (!tracked[index]) {
+            rangeLower = Long.MIN_VALUE;
+            rangeUpper = Long.MAX_VALUE;
+            return;
+        }
+        rangeLower = lower[index];
+        rangeUpper = upper[index];
+
+        int steps = program.basicBlockCount();
+        for (int b = block.getIndex(); b >= 0 && steps-- > 0; b = dom.immediateDominatorOf(b)) {
+            for (Constraint constraint : constraints.get(b)) {
+                if (constraint.variable == index) {
+                    refine(constraint);
+                }
+            }
+        }
+    }
+
+    private void refine(Constraint constraint) {
+        long otherLower = lower[constraint.other];
+        long otherUpper = upper[constraint.other];
+        if (otherLower > otherUpper) {
+            return;
+        }
+        switch (constraint.condition) {
+            case LESS:
+                if (otherUpper == Long.MIN_VALUE) {
+                    makeRangeEmpty();
+                } else {
+                    rangeUpper = Math.min(rangeUpper, otherUpper - 1);
+                }
+                break;
+            case LESS_OR_EQUAL:
+                rangeUpper = Math.min(rangeUpper, otherUpper);
+                break;
+            case GREATER:
+                if (otherLower == Long.MAX_VALUE) {
+                    makeRangeEmpty();
+                } else {
+                    rangeLower = Math.max(rangeLower, otherLower + 1);
+                }
+                break;
+            case GREATER_OR_EQUAL:
+                rangeLower = Math.max(rangeLower, otherLower);
+                break;
+            case EQUAL:
+                rangeLower = Math.max(rangeLower, otherLower);
+                rangeUpper = Math.min(rangeUpper, otherUpper);
+                break;
+            case NOT_EQUAL:
+                if (otherLower == otherUpper) {
+                    if (rangeLower == otherLower) {
+                        if (rangeLower == Long.MAX_VALUE) {
+                            makeRangeEmpty();
+                            break;
+                        }
+                        rangeLower++;
+                    }
+                    if (rangeUpper == otherUpper) {
+                        if (rangeUpper == Long.MIN_VALUE) {
+                            makeRangeEmpty();
+                            break;
+                        }
+                        rangeUpper--;
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void makeRangeEmpty() {
+        rangeLower = Long.MAX_VALUE;
+        rangeUpper = Long.MIN_VALUE;
+    }
+
+    class TransferVisitor extends AbstractInstructionVisitor {
+        @Override
+        public void visit(LongConstantInstruction insn) {
+            update(insn.getReceiver(), insn.getConstant(), insn.getConstant());
+        }
+
+        @Override
+        public void visit(CastNumberInstruction insn) {
+            if (insn.getSourceType() == NumericOperandType.INT && insn.getTargetType() == NumericOperandType.LONG) {
+                update(insn.getReceiver(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void visit(AssignInstruction insn) {
+            if (tracked[insn.getReceiver().getIndex()]) {
+                rangeAt(insn.getAssignee(), currentBlock);
+                if (rangeLower <= rangeUpper) {
+                    update(insn.getReceiver(), rangeLower, rangeUpper);
+                }
+            }
+        }
+
+        @Override
+        public void visit(NegateInstruction insn) {
+            if (insn.getOperandType() != NumericOperandType.LONG) {
+                return;
+            }
+            rangeAt(insn.getOperand(), currentBlock);
+            if (rangeLower > rangeUpper) {
+                return;
+            }
+            if (rangeLower == Long.MIN_VALUE) {
+                update(insn.getReceiver(), Long.MIN_VALUE, Long.MAX_VALUE);
+            } else {
+                update(insn.getReceiver(), -rangeUpper, -rangeLower);
+            }
+        }
+
+        @Override
+        public void visit(BinaryInstruction insn) {
+            if (insn.getOperandType() != NumericOperandType.LONG || !tracked[insn.getReceiver().getIndex()]) {
+                return;
+            }
+            rangeAt(insn.getFirstOperand(), currentBlock);
+            long a = rangeLower;
+            long b = rangeUpper;
+            if (a > b) {
+                return;
+            }
+
+            switch (insn.getOperation()) {
+                case SHIFT_RIGHT:
+                    update(insn.getReceiver(), Math.min(a, 0), Math.max(b, 0));
+                    return;
+                case SHIFT_RIGHT_UNSIGNED:
+                    if (a >= 0) {
+                        update(insn.getReceiver(), 0, b);
+                    } else {
+                        update(insn.getReceiver(), Long.MIN_VALUE, Long.MAX_VALUE);
+                    }
+                    return;
+                case SHIFT_LEFT:
+                    update(insn.getReceiver(), Long.MIN_VALUE, Long.MAX_VALUE);
+                    return;
+                default:
+                    break;
+            }
+
+            rangeAt(insn.getSecondOperand(), currentBlock);
+            long c = rangeLower;
+            long d = rangeUpper;
+            if (c > d) {
+                return;
+            }
+            try {
+                binary(insn.getOperation(), insn.getReceiver(), a, b, c, d);
+            } catch (ArithmeticException e) {
+                update(insn.getReceiver(), Long.MIN_VALUE, Long.MAX_VALUE);
+            }
+        }
+
+        private void binary(BinaryOperation operation, Variable receiver, long a, long b, long c, long d) {
+            switch (operation) {
+                case ADD:
+                    update(receiver, Math.addExact(a, c), Math.addExact(b, d));
+                    break;
+                case SUBTRACT:
+                    update(receiver, Math.subtractExact(a, d), Math.subtractExact(b, c));
+                    break;
+                case MULTIPLY: {
+                    long p1 = Math.multiplyExact(a, c);
+                    long p2 = Math.multiplyExact(a, d);
+                    long p3 = Math.multiplyExact(b, c);
+                    long p4 = Math.multiplyExact(b, d);
+                    update(receiver, Math.min(Math.min(p1, p2), Math.min(p3, p4)),
+                            Math.max(Math.max(p1, p2), Math.max(p3, p4)));
+                    break;
+                }
+                case DIVIDE: {
+                    if (a >= 0 && c >= 0) {
+                        update(receiver, 0, b);
+                    } else {
+                        long magnitude = Math.max(Math.abs(Math.negateExact(a)), Math.abs(b));
+                        update(receiver, -magnitude, magnitude);
+                    }
+                    break;
+                }
+                case MODULO: {
+                    long limit = c == Long.MIN_VALUE
+                            ? Long.MAX_VALUE
+                            : Math.max(Math.abs(c), Math.abs(d)) - 1;
+                    if (limit < 0) {
+                        return;
+                    }
+                    update(receiver, a >= 0 ? 0 : Math.max(a, -limit), b <= 0 ? 0 : Math.min(b, limit));
+                    break;
+                }
+                case AND:
+                    if (a >= 0 && c >= 0) {
+                        update(receiver, 0, Math.min(b, d));
+                    } else if (a >= 0) {
+                        update(receiver, 0, b);
+                    } else if (c >= 0) {
+                        update(receiver, 0, d);
+                    } else {
+                        update(receiver, Long.MIN_VALUE, Long.MAX_VALUE);
+                    }
+                    break;
+                case OR:
+                case XOR:
+                    if (a >= 0 && c >= 0) {
+                        long max = Math.max(b, d);
+                        update(receiver, 0, max == 0 ? 0 : (Long.highestOneBit(max) << 1) - 1);
+                    } else {
+                        update(receiver, Long.MIN_VALUE, Long.MAX_VALUE);
+                    }
+                    break;
+                default:
+                    update(receiver, Long.MIN_VALUE, Long.MAX_VALUE);
+                    break;
+            }
+        }
+    }
+
+    static class Constraint {
+        final int variable;
+        final BranchingCondition condition;
+        final int other;
+
+        Constraint(int variable, BranchingCondition condition, int other) {
+            this.variable = variable;
+            this.condition = condition;
+            this.other = other;
+        }
+    }
+}
@@ -39,6 +39,10 @@ public class Characteristics {
         this.classSource = classSource;
     }
 
+    ClassReaderSource getClassSource() {
+        return classSource;
+    }
+
     public boolean isStructure(String className) {
         byte result = isStructure.getOrDefault(className, (byte) -1);
         if (result < 0) {
@@ -0,0 +1,329 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.lowlevel;
+
+import com.carrotsearch.hppc.ObjectByteHashMap;
+import com.carrotsearch.hppc.ObjectByteMap;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import org.teavm.interop.DelegateTo;
+import org.teavm.model.BasicBlockReader;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodHandle;
+import org.teavm.model.MethodReader;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.RuntimeConstant;
+import org.teavm.model.TextLocation;
+import org.teavm.model.ValueType;
+import org.teavm.model.VariableReader;
+import org.teavm.model.instructions.ArrayElementType;
+import org.teavm.model.instructions.BinaryBranchingCondition;
+import org.teavm.model.instructions.BinaryOperation;
+import org.teavm.model.instructions.BranchingCondition;
+import org.teavm.model.instructions.CastIntegerDirection;
+import org.teavm.model.instructions.InstructionReader;
+import org.teavm.model.instructions.IntegerSubtype;
+import org.teavm.model.instructions.InvocationType;
+import org.teavm.model.instructions.InvokeInstruction;
+import org.teavm.model.instructions.NumericOperandType;
+import org.teavm.model.instructions.SwitchTableEntryReader;
+import org.teavm.model.util.ProgramUtils;
+
+/**
+ * <p>Finds invocations that never get to the garbage collector, so that references that are live across
+ * them don't have to be stored to the shadow stack.</p>
+ *
+ * <p>Callees are examined in the form they take in the generated code. Their programs are copied and passed
+ * through the same lowering that the target applies to the methods it compiles, so that class initialization,
+ * null checks and bound checks show up as instructions. Methods that the target replaces by intrinsics
+ * are considered collecting, as well as native and unmanaged methods.</p>
+ *
+ * <p>Analysis is conservative. A method is considered non-collecting only if its lowered body consists
+ * of arithmetic, control flow, field accesses and non-virtual calls to other non-collecting methods. Anything
+ * that may allocate, throw an exception, initialize a class or suspend a thread is considered collecting.</p>
+ */
+public class GCReachabilityAnalysis {
+    private static final byte IN_PROGRESS = 2;
+    private Characteristics characteristics;
+    private ClassReaderSource classSource;
+    private Predicate<MethodReference> intrinsics;
+    private BiConsumer<Program, MethodReader> lowering;
+    private ObjectByteMap<MethodReference> mayCollect = new ObjectByteHashMap<>();
+
+    /**
+     * @param characteristics characteristics of the program being compiled.
+     * @param intrinsics tells whether target generates code for a method by itself rather than from its body.
+     * @param lowering transformations that target applies to a method's program before it gets
+     *                 to {@link ShadowStackTransformer}.
+     */
+    public GCReachabilityAnalysis(Characteristics characteristics, Predicate<MethodReference> intrinsics,
+            BiConsumer<Program, MethodReader> lowering) {
+        this.characteristics = characteristics;
+        this.intrinsics = intrinsics;
+        this.lowering = lowering;
+        classSource = characteristics.getClassSource();
+    }
+
+    boolean mayCollect(InvokeInstruction invocation) {
+        if (invocation.getType() != InvocationType.SPECIAL) {
+            return true;
+        }
+        return mayCollect(invocation.getMethod());
+    }
+
+    private boolean mayCollect(MethodReference methodRef) {
+        byte result = mayCollect.getOrDefault(methodRef, (byte) -1);
+        if (result < 0) {
+            mayCollect.put(methodRef, IN_PROGRESS);
+            result = computeMayCollect(methodRef) ? (byte) 1 : 0;
+            mayCollect.put(methodRef, result);
+        }
+        return result != 0;
+    }
+
+    private boolean computeMayCollect(MethodReference methodRef) {
+        if (!characteristics.isManaged(methodRef) || intrinsics.test(methodRef)) {
+            return true;
+        }
+        MethodReader method = classSource.resolve(methodRef);
+        if (method == null || method.getProgram() == null || !characteristics.isManaged(method.getReference())
+                || intrinsics.test(method.getReference())
+                || method.hasModifier(ElementModifier.NATIVE) || method.hasModifier(ElementModifier.SYNCHRONIZED)
+                || method.getAnnotations().get(DelegateTo.class.getName()) != null) {
+            return true;
+        }
+
+        Program program = ProgramUtils.copy(method.getProgram());
+        lowering.accept(program, method);
+        Analyzer analyzer = new Analyzer();
+        for (BasicBlockReader block : program.getBasicBlocks()) {
+            if (!block.readTryCatchBlocks().isEmpty()) {
+                return true;
+            }
+            block.readAllInstructions(analyzer);
+            if (analyzer.mayCollect) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class Analyzer implements InstructionReader {
+        boolean mayCollect;
+
+        @Override
+        public void location(TextLocation location) {
+        }
+
+        @Override
+        public void nop() {
+        }
+
+        @Override
+        public void classConstant(VariableReader receiver, ValueType cst) {
+        }
+
+        @Override
+        public void nullConstant(VariableReader receiver) {
+        }
+
+        @Override
+        public void integerConstant(VariableReader receiver, int cst) {
+        }
+
+        @Override
+        public void longConstant(VariableReader receiver, long cst) {
+        }
+
+        @Override
+        public void floatConstant(VariableReader receiver, float cst) {
+        }
+
+        @Override
+        public void doubleConstant(VariableReader receiver, double cst) {
+        }
+
+        @Override
+        public void stringConstant(VariableReader receiver, String cst) {
+        }
+
+        @Override
+        public void binary(BinaryOperation op, VariableReader receiver, VariableReader first, VariableReader second,
+                NumericOperandType type) {
+            if (op == BinaryOperation.DIVIDE || op == BinaryOperation.MODULO) {
+                if (type == NumericOperandType.INT || type == NumericOperandType.LONG) {
+                    mayCollect = true;
+                }
+            }
+        }
+
+        @Override
+        public void negate(VariableReader receiver, VariableReader operand, NumericOperandType type) {
+        }
+
+        @Override
+        public void assign(VariableReader receiver, VariableReader assignee) {
+        }
+
+        @Override
+        public void cast(VariableReader receiver, VariableReader value, ValueType targetType, boolean weak) {
+            if (!weak) {
+                mayCollect = true;
+            }
+        }
+
+        @Override
+        public void cast(VariableReader receiver, VariableReader value, NumericOperandType sourceType,
+                NumericOperandType targetType) {
+        }
+
+        @Override
+        public void cast(VariableReader receiver, VariableReader value, IntegerSubtype type,
+                CastIntegerDirection targetType) {
+        }
+
+        @Override
+        public void jumpIf(BranchingCondition cond, VariableReader operand, BasicBlockReader consequent,
+                BasicBlockReader alternative) {
+        }
+
+        @Override
+        public void jumpIf(BinaryBranchingCondition cond, VariableReader first, VariableReader second,
+                BasicBlockReader consequent, BasicBlockReader alternative) {
+        }
+
+        @Override
+        public void jump(BasicBlockReader target) {
+        }
+
+        @Override
+        public void choose(VariableReader condition, List<? extends SwitchTableEntryReader> table,
+                BasicBlockReader defaultTarget) {
+        }
+
+        @Override
+        public void exit(VariableReader valueToReturn) {
+        }
+
+        @Override
+        public void raise(VariableReader exception) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void createArray(VariableReader receiver, ValueType itemType, VariableReader size) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void createArray(VariableReader receiver, ValueType itemType,
+                List<? extends VariableReader> dimensions) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void create(VariableReader receiver, String type) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void getField(VariableReader receiver, VariableReader instance, FieldReference field,
+                ValueType fieldType) {
+        }
+
+        @Override
+        public void putField(VariableReader instance, FieldReference field, VariableReader value,
+                ValueType fieldType) {
+        }
+
+        @Override
+        public void arrayLength(VariableReader receiver, VariableReader array) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void cloneArray(VariableReader receiver, VariableReader array) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void unwrapArray(VariableReader receiver, VariableReader array, ArrayElementType elementType) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void getElement(VariableReader receiver, VariableReader array, VariableReader index,
+                ArrayElementType elementType) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void putElement(VariableReader array, VariableReader index, VariableReader value,
+                ArrayElementType elementType) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void invoke(VariableReader receiver, VariableReader instance, MethodReference method,
+                List<? extends VariableReader> arguments, InvocationType type) {
+            if (type != InvocationType.SPECIAL || GCReachabilityAnalysis.this.mayCollect(method)) {
+                mayCollect = true;
+            }
+        }
+
+        @Override
+        public void invokeDynamic(VariableReader receiver, VariableReader instance, MethodDescriptor method,
+                List<? extends VariableReader> arguments, MethodHandle bootstrapMethod,
+                List<RuntimeConstant> bootstrapArguments) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void isInstance(VariableReader receiver, VariableReader value, ValueType type) {
+        }
+
+        @Override
+        public void initClass(String className) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void nullCheck(VariableReader receiver, VariableReader value) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void monitorEnter(VariableReader objectRef) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void monitorExit(VariableReader objectRef) {
+            mayCollect = true;
+        }
+
+        @Override
+        public void boundCheck(VariableReader receiver, VariableReader index, VariableReader array,
+                boolean lower) {
+            mayCollect = true;
+        }
+    }
+}
@@ -60,9 +60,20 @@ import org.teavm.runtime.ShadowStack;
 public class GCShadowStackContributor {
     private Characteristics characteristics;
     private NativePointerFinder nativePointerFinder;
+    private GCReachabilityAnalysis reachabilityAnalysis;
 
     public GCShadowStackContributor(Characteristics characteristics) {
+        this(characteristics, null);
+    }
+
+    /**
+     * @param characteristics characteristics of the program being compiled.
+     * @param reachabilityAnalysis finds call sites whose callees never get to GC, so that they can be skipped.
+     *                             If null, live references are spilled before every call site.
+     */
+    public GCShadowStackContributor(Characteristics characteristics, GCReachabilityAnalysis reachabilityAnalysis) {
         this.characteristics = characteristics;
+        this.reachabilityAnalysis = reachabilityAnalysis;
         nativePointerFinder = new NativePointerFinder(characteristics);
     }
 
@@ -160,7 +171,7 @@ public class GCShadowStackContributor {
                 for (Variable definedVar : defExtractor.getDefinedVariables()) {
                     currentLiveOut.clear(definedVar.getIndex());
                 }
-                if (ExceptionHandlingUtil.isCallInstruction(characteristics, insn)) {
+                if (ExceptionHandlingUtil.isCallInstruction(characteristics, insn) && mayCollect(insn)) {
                     BitSet csLiveIn = (BitSet) currentLiveOut.clone();
                     for (int v = csLiveIn.nextSetBit(0); v >= 0; v = csLiveIn.nextSetBit(v + 1)) {
                         if (!isReference(typeInferer, v) || nativePointers[v] || constants.get(v)) {
@@ -179,6 +190,13 @@ public class GCShadowStackContributor {
         return liveInInformation;
     }
 
+    private boolean mayCollect(Instruction insn) {
+        if (reachabilityAnalysis == null || !(insn instanceof InvokeInstruction)) {
+            return true;
+        }
+        return reachabilityAnalysis.mayCollect((InvokeInstruction) insn);
+    }
+
     private Graph buildInterferenceGraph(List<Map<Instruction, BitSet>> liveInInformation, Program program,
             boolean[] spilled, int[] variableClasses) {
         GraphBuilder builder = new GraphBuilder(program.variableCount());
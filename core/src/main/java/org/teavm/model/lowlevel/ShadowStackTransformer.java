@@ -35,11 +35,16 @@ import org.teavm.model.util.BasicBlockMapper;
 import org.teavm.runtime.ShadowStack;
 
 public class ShadowStackTransformer {
+    public static final String SPILL_AT_ALL_CALL_SITES = "teavm.shadowStack.spillAtAllCallSites";
     private Characteristics characteristics;
     private GCShadowStackContributor gcContributor;
 
     public ShadowStackTransformer(Characteristics characteristics) {
-        gcContributor = new GCShadowStackContributor(characteristics);
+        this(characteristics, null);
+    }
+
+    public ShadowStackTransformer(Characteristics characteristics, GCReachabilityAnalysis reachabilityAnalysis) {
+        gcContributor = new GCShadowStackContributor(characteristics, reachabilityAnalysis);
         this.characteristics = characteristics;
     }
 
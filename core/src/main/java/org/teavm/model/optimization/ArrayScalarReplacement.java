@@ -0,0 +1,304 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.optimization;
+
+import java.util.Arrays;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.Incoming;
+import org.teavm.model.Instruction;
+import org.teavm.model.Phi;
+import org.teavm.model.PrimitiveType;
+import org.teavm.model.Program;
+import org.teavm.model.ValueType;
+import org.teavm.model.Variable;
+import org.teavm.model.instructions.AbstractInstructionVisitor;
+import org.teavm.model.instructions.ArrayElementType;
+import org.teavm.model.instructions.ArrayLengthInstruction;
+import org.teavm.model.instructions.AssignInstruction;
+import org.teavm.model.instructions.CastIntegerDirection;
+import org.teavm.model.instructions.CastIntegerInstruction;
+import org.teavm.model.instructions.ConstructArrayInstruction;
+import org.teavm.model.instructions.GetElementInstruction;
+import org.teavm.model.instructions.IntegerConstantInstruction;
+import org.teavm.model.instructions.IntegerSubtype;
+import org.teavm.model.instructions.PutElementInstruction;
+import org.teavm.model.instructions.UnwrapArrayInstruction;
+import org.teavm.model.util.UsageExtractor;
+
+/**
+ * <p>Replaces small arrays of constant size with a set of variables, one per element. Array is replaced only
+ * when it's used in the method that created it, and all its elements are accessed by constant indexes within
+ * array bounds, so that neither allocation nor any access to the array can throw an exception.</p>
+ *
+ * <p>Like {@link ScalarReplacement}, this leaves variables assigned in several places, so caller must
+ * restore SSA form afterwards.</p>
+ */
+class ArrayScalarReplacement {
+    static final int MAX_ARRAY_SIZE = 16;
+
+    private int[] constants;
+    private boolean[] isConstant;
+    private int[] arraySizes;
+    private ValueType[] itemTypes;
+    private int[] dataToArray;
+    private Variable[][] elements;
+
+    boolean replace(Program program) {
+        int variableCount = program.variableCount();
+        constants = new int[variableCount];
+        isConstant = new boolean[variableCount];
+        arraySizes = new int[variableCount];
+        Arrays.fill(arraySizes, -1);
+        itemTypes = new ValueType[variableCount];
+        dataToArray = new int[variableCount];
+        Arrays.fill(dataToArray, -1);
+
+        if (!findCandidates(program)) {
+            return false;
+        }
+        filterCandidates(program);
+
+        elements = new Variable[variableCount][];
+        boolean hasArrays = false;
+        for (int i = 0; i < variableCount; ++i) {
+            if (arraySizes[i] >= 0) {
+                elements[i] = createElementVariables(program, program.variableAt(i), arraySizes[i]);
+                hasArrays = true;
+            }
+        }
+        if (!hasArrays) {
+            return false;
+        }
+
+        ReplacementVisitor visitor = new ReplacementVisitor();
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Instruction instruction : block) {
+                instruction.acceptVisitor(visitor);
+            }
+        }
+        return true;
+    }
+
+    private boolean findCandidates(Program program) {
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Instruction instruction : block) {
+                if (instruction instanceof IntegerConstantInstruction) {
+                    IntegerConstantInstruction constant = (IntegerConstantInstruction) instruction;
+                    constants[constant.getReceiver().getIndex()] = constant.getConstant();
+                    isConstant[constant.getReceiver().getIndex()] = true;
+                }
+            }
+        }
+
+        boolean found = false;
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Instruction instruction : block) {
+                if (instruction instanceof ConstructArrayInstruction) {
+                    ConstructArrayInstruction construct = (ConstructArrayInstruction) instruction;
+                    int size = construct.getSize().getIndex();
+                    if (isConstant[size] && constants[size] >= 0 && constants[size] <= MAX_ARRAY_SIZE) {
+                        arraySizes[construct.getReceiver().getIndex()] = constants[size];
+                        itemTypes[construct.getReceiver().getIndex()] = construct.getItemType();
+                        found = true;
+                    }
+                }
+            }
+        }
+        if (!found) {
+            return false;
+        }
+
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Instruction instruction : block) {
+                if (instruction instanceof UnwrapArrayInstruction) {
+                    UnwrapArrayInstruction unwrap = (UnwrapArrayInstruction) instruction;
+                    int array = unwrap.getArray().getIndex();
+                    if (arraySizes[array] >= 0) {
+                        dataToArray[unwrap.getReceiver().getIndex()] = array;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void filterCandidates(Program program) {
+        UsageExtractor usageExtractor = new UsageExtractor();
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Phi phi : block.getPhis()) {
+                for (Incoming incoming : phi.getIncomings()) {
+                    reject(incoming.getValue().getIndex());
+                }
+            }
+            for (Instruction instruction : block) {
+                instruction.acceptVisitor(usageExtractor);
+                for (Variable var : usageExtractor.getUsedVariables()) {
+                    int index = var.getIndex();
+                    if (arraySizes[index] >= 0 && !isValidArrayUsage(instruction, var)) {
+                        reject(index);
+                    } else if (dataToArray[index] >= 0 && !isValidDataUsage(instruction, var)) {
+                        reject(index);
+                    }
+                }
+            }
+        }
+    }
+
+    private void reject(int var) {
+        if (dataToArray[var] >= 0) {
+            var = dataToArray[var];
+        }
+        arraySizes[var] = -1;
+    }
+
+    private boolean isValidArrayUsage(Instruction instruction, Variable var) {
+        if (instruction instanceof UnwrapArrayInstruction) {
+            return ((UnwrapArrayInstruction) instruction).getArray() == var;
+        } else if (instruction instanceof ArrayLengthInstruction) {
+            return ((ArrayLengthInstruction) instruction).getArray() == var;
+        }
+        return false;
+    }
+
+    private boolean isValidDataUsage(Instruction instruction, Variable var) {
+        int size = arraySizes[dataToArray[var.getIndex()]];
+        if (instruction instanceof GetElementInstruction) {
+            GetElementInstruction get = (GetElementInstruction) instruction;
+            return get.getArray() == var && isValidIndex(get.getIndex(), size);
+        } else if (instruction instanceof PutElementInstruction) {
+            PutElementInstruction put = (PutElementInstruction) instruction;
+            return put.getArray() == var && put.getValue() != var && isValidIndex(put.getIndex(), size);
+        }
+        return false;
+    }
+
+    private boolean isValidIndex(Variable index, int size) {
+        int i = index.getIndex();
+        return isConstant[i] && constants[i] >= 0 && constants[i] < size;
+    }
+
+    private Variable[] createElementVariables(Program program, Variable array, int size) {
+        Variable[] result = new Variable[size];
+        for (int i = 0; i < size; ++i) {
+            Variable var = program.createVariable();
+            if (array.getDebugName() != null) {
+                var.setDebugName(array.getDebugName() + "$" + i);
+            }
+            if (array.getLabel() != null) {
+                var.setLabel(array.getLabel() + "$" + i);
+            }
+            result[i] = var;
+        }
+        return result;
+    }
+
+    private Variable[] getElements(Variable data) {
+        int array = dataToArray[data.getIndex()];
+        return array >= 0 ? elements[array] : null;
+    }
+
+    class ReplacementVisitor extends AbstractInstructionVisitor {
+        @Override
+        public void visit(ConstructArrayInstruction insn) {
+            Variable[] arrayElements = elements[insn.getReceiver().getIndex()];
+            if (arrayElements == null) {
+                return;
+            }
+            ValueType itemType = itemTypes[insn.getReceiver().getIndex()];
+            for (Variable element : arrayElements) {
+                Instruction initializer = ScalarReplacement.generateDefaultValue(itemType, element);
+                initializer.setLocation(insn.getLocation());
+                insn.insertPrevious(initializer);
+            }
+            insn.delete();
+        }
+
+        @Override
+        public void visit(UnwrapArrayInstruction insn) {
+            if (elements[insn.getArray().getIndex()] != null) {
+                insn.delete();
+            }
+        }
+
+        @Override
+        public void visit(ArrayLengthInstruction insn) {
+            Variable[] arrayElements = elements[insn.getArray().getIndex()];
+            if (arrayElements != null) {
+                IntegerConstantInstruction length = new IntegerConstantInstruction();
+                length.setConstant(arrayElements.length);
+                length.setReceiver(insn.getReceiver());
+                length.setLocation(insn.getLocation());
+                insn.replace(length);
+            }
+        }
+
+        @Override
+        public void visit(GetElementInstruction insn) {
+            Variable[] arrayElements = getElements(insn.getArray());
+            if (arrayElements != null) {
+                AssignInstruction assignment = new AssignInstruction();
+                assignment.setReceiver(insn.getReceiver());
+                assignment.setAssignee(arrayElements[constants[insn.getIndex().getIndex()]]);
+                assignment.setLocation(insn.getLocation());
+                insn.replace(assignment);
+            }
+        }
+
+        @Override
+        public void visit(PutElementInstruction insn) {
+            Variable[] arrayElements = getElements(insn.getArray());
+            if (arrayElements == null) {
+                return;
+            }
+            Variable element = arrayElements[constants[insn.getIndex().getIndex()]];
+            IntegerSubtype subtype = getTruncatingSubtype(insn.getType(),
+                    itemTypes[dataToArray[insn.getArray().getIndex()]]);
+            Instruction replacement;
+            if (subtype != null) {
+                CastIntegerInstruction cast = new CastIntegerInstruction(subtype, CastIntegerDirection.FROM_INTEGER);
+                cast.setReceiver(element);
+                cast.setValue(insn.getValue());
+                replacement = cast;
+            } else {
+                AssignInstruction assignment = new AssignInstruction();
+                assignment.setReceiver(element);
+                assignment.setAssignee(insn.getValue());
+                replacement = assignment;
+            }
+            replacement.setLocation(insn.getLocation());
+            insn.replace(replacement);
+        }
+
+        // Storing int to a byte, short or char array truncates it implicitly,
+        // so we have to make truncation explicit when replacing array with variables
+        private IntegerSubtype getTruncatingSubtype(ArrayElementType type, ValueType itemType) {
+            if (itemType instanceof ValueType.Primitive
+                    && ((ValueType.Primitive) itemType).getKind() == PrimitiveType.BOOLEAN) {
+                return null;
+            }
+            switch (type) {
+                case BYTE:
+                    return IntegerSubtype.BYTE;
+                case SHORT:
+                    return IntegerSubtype.SHORT;
+                case CHAR:
+                    return IntegerSubtype.CHAR;
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -47,6 +47,10 @@ public class ScalarReplacement implements MethodOptimization {
     @Override
     public boolean optimize(MethodOptimizationContext context, Program program) {
         boolean changed = false;
+        if (new ArrayScalarReplacement().replace(program)) {
+            updatePhis(program, context.getMethod().getReference());
+            changed = true;
+        }
         while (performOnce(context, program)) {
             changed = true;
         }
@@ -123,13 +127,51 @@ public class ScalarReplacement implements MethodOptimization {
             block.getPhis().addAll(additionalPhis);
         }
 
+        updatePhis(program, methodReference);
+
+        return true;
+    }
+
+    private static void updatePhis(Program program, MethodReference methodReference) {
         Variable[] arguments = new Variable[methodReference.parameterCount() + 1];
         for (int i = 0; i < arguments.length; ++i) {
             arguments[i] = program.variableAt(i);
         }
         new PhiUpdater().updatePhis(program, arguments);
+    }
 
-        return true;
+    static Instruction generateDefaultValue(ValueType type, Variable receiver) {
+        if (type instanceof ValueType.Primitive) {
+            switch (((ValueType.Primitive) type).getKind()) {
+                case BOOLEAN:
+                case BYTE:
+                case SHORT:
+                case CHARACTER:
+                case INTEGER: {
+                    IntegerConstantInstruction insn = new IntegerConstantInstruction();
+                    insn.setReceiver(receiver);
+                    return insn;
+                }
+                case LONG: {
+                    LongConstantInstruction insn = new LongConstantInstruction();
+                    insn.setReceiver(receiver);
+                    return insn;
+                }
+                case FLOAT: {
+                    FloatConstantInstruction insn = new FloatConstantInstruction();
+                    insn.setReceiver(receiver);
+                    return insn;
+                }
+                case DOUBLE: {
+                    DoubleConstantInstruction insn = new DoubleConstantInstruction();
+                    insn.setReceiver(receiver);
+                    return insn;
+                }
+            }
+        }
+        NullConstantInstruction insn = new NullConstantInstruction();
+        insn.setReceiver(receiver);
+        return insn;
     }
 
     static class ScalarReplacementVisitor extends AbstractInstructionVisitor {
@@ -214,39 +256,5 @@ public class ScalarReplacement implements MethodOptimization {
             }
             insn.delete();
         }
-
-        private Instruction generateDefaultValue(ValueType type, Variable receiver) {
-            if (type instanceof ValueType.Primitive) {
-                switch (((ValueType.Primitive) type).getKind()) {
-                    case BOOLEAN:
-                    case BYTE:
-                    case SHORT:
-                    case CHARACTER:
-                    case INTEGER: {
-                        IntegerConstantInstruction insn = new IntegerConstantInstruction();
-                        insn.setReceiver(receiver);
-                        return insn;
-                    }
-                    case LONG: {
-                        LongConstantInstruction insn = new LongConstantInstruction();
-                        insn.setReceiver(receiver);
-                        return insn;
-                    }
-                    case FLOAT: {
-                        FloatConstantInstruction insn = new FloatConstantInstruction();
-                        insn.setReceiver(receiver);
-                        return insn;
-                    }
-                    case DOUBLE: {
-                        DoubleConstantInstruction insn = new DoubleConstantInstruction();
-                        insn.setReceiver(receiver);
-                        return insn;
-                    }
-                }
-            }
-            NullConstantInstruction insn = new NullConstantInstruction();
-            insn.setReceiver(receiver);
-            return insn;
-        }
     }
 }
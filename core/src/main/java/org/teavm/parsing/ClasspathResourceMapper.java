@@ -28,8 +28,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
-import org.teavm.common.CachedFunction;
 import org.teavm.model.ClassHolder;
 import org.teavm.model.FieldHolder;
 import org.teavm.model.MethodHolder;
@@ -58,6 +58,7 @@ public class ClasspathResourceMapper implements Function<String, ClassHolder>, C
     private ClassRefsRenamer renamer;
     private ClassLoader classLoader;
     private Map<String, Date> modificationDates = new HashMap<>();
+    private Map<String, String> unmappedClassNames = new ConcurrentHashMap<>();
     private List<ElementFilter> elementFilters = new ArrayList<>();
     private ClassMappings classMappings = new ClassMappings();
     private PrefixMapping prefixMapping = new PrefixMapping();
@@ -82,7 +83,8 @@ public class ClasspathResourceMapper implements Function<String, ClassHolder>, C
         } catch (IOException e) {
             throw new RuntimeException("Error reading resources", e);
         }
-        renamer = new ClassRefsRenamer(referenceCache, new CachedFunction<>(this::toUnmappedClassName));
+        renamer = new ClassRefsRenamer(referenceCache,
+                name -> unmappedClassNames.computeIfAbsent(name, this::toUnmappedClassName));
 
         for (ElementFilter elementFilter : ServiceLoader.load(ElementFilter.class)) {
             elementFilters.add(elementFilter);
@@ -95,7 +97,8 @@ public class ClasspathResourceMapper implements Function<String, ClassHolder>, C
             Function<String, ClassHolder> innerMapper) {
         this.innerMapper = innerMapper;
         loadProperties(properties);
-        renamer = new ClassRefsRenamer(referenceCache, new CachedFunction<>(this::toUnmappedClassName));
+        renamer = new ClassRefsRenamer(referenceCache,
+                name -> unmappedClassNames.computeIfAbsent(name, this::toUnmappedClassName));
     }
 
     @Override
@@ -15,20 +15,33 @@
  */
 package org.teavm.parsing.resource;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
-import org.teavm.common.CachedFunction;
 import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassHolderSource;
 
 public class MapperClassHolderSource implements ClassHolderSource {
     private Function<String, ClassHolder> mapper;
+    private Map<String, Optional<ClassHolder>> cache = new ConcurrentHashMap<>();
 
     public MapperClassHolderSource(Function<String, ClassHolder> mapper) {
-        this.mapper = new CachedFunction<>(mapper);
+        this.mapper = mapper;
     }
 
     @Override
     public ClassHolder get(String name) {
-        return mapper.apply(name);
+        var result = cache.get(name);
+        if (result == null) {
+            // Mapping may take long, so it's performed outside of map's lock. When several threads
+            // map the same class at once, all of them get the instance that was stored first.
+            result = Optional.ofNullable(mapper.apply(name));
+            var existing = cache.putIfAbsent(name, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result.orElse(null);
     }
 }
@@ -27,6 +27,7 @@ public final class EventQueue {
     private static int size;
     private static boolean finished;
     private static int idGenerator;
+    private static long idleCollectionBudget = -1;
 
     private EventQueue() {
     }
@@ -85,9 +86,16 @@ public final class EventQueue {
             if (size == 0) {
                 return -1;
             }
+            collectGarbageIfIdle(data[0].time - System.currentTimeMillis());
             return Math.max(0, node.time - currentTime);
         } else {
-            return node.time - currentTime;
+            long delay = node.time - currentTime;
+            if (collectGarbageIfIdle(delay)) {
+                // Collection may take longer than the delay. Negative result means that queue is empty,
+                // so host would never call us again
+                delay = Math.max(0, node.time - System.currentTimeMillis());
+            }
+            return delay;
         }
     }
 
@@ -100,11 +108,28 @@ public final class EventQueue {
         finished = true;
     }
 
+    public static long getIdleCollectionBudget() {
+        return idleCollectionBudget;
+    }
+
+    /**
+     * Sets minimal time in milliseconds between now and the next event that allows queue to run garbage
+     * collector while waiting. Negative value disables collection from the queue, which is the default.
+     */
+    public static void setIdleCollectionBudget(long budget) {
+        idleCollectionBudget = budget;
+    }
+
+    private static boolean collectGarbageIfIdle(long idleTime) {
+        return idleCollectionBudget >= 0 && idleTime >= idleCollectionBudget && GC.collectGarbageIfIdle();
+    }
+
     private static void next() {
         while (data.length == 0) {
             waitUntil(System.currentTimeMillis() + 1000);
         }
         Node node = data[0];
+        collectGarbageIfIdle(node.time - System.currentTimeMillis());
         waitUntil(node.time);
         if (node.time <= System.currentTimeMillis()) {
             remove(0);
@@ -33,6 +33,8 @@ public final class GC {
     private static final byte CARD_GAP = 4;
     private static final byte CARD_RELOCATABLE = 8;
     private static final int MIN_CHUNK_SIZE = 8;
+    private static final int LARGE_OBJECT_SIZE = 1024;
+    private static final int LARGE_OBJECT_SEARCH_LIMIT = 32;
 
     static Address currentChunkLimit;
     static FreeChunk currentChunk;
@@ -46,6 +48,9 @@ public final class GC {
     static RelocationBlock lastRelocationBlock;
     static boolean isFullGC = true;
     private static int youngGCCount;
+    private static int freeMemoryAfterGC = freeMemory;
+    private static long occupiedMemoryAfterGC;
+    private static int idleCollectionThreshold = 1024 * 1024;
 
     static native Address gcStorageAddress();
 
@@ -80,6 +85,35 @@ public final class GC {
         return freeMemory;
     }
 
+    public static int getAllocatedSinceLastGC() {
+        return freeMemoryAfterGC - freeMemory;
+    }
+
+    public static int getIdleCollectionThreshold() {
+        return idleCollectionThreshold;
+    }
+
+    /**
+     * Sets how many bytes should be allocated since the last collection before {@link #collectGarbageIfIdle()}
+     * performs a young collection. Zero or negative value disables idle collections.
+     */
+    public static void setIdleCollectionThreshold(int threshold) {
+        idleCollectionThreshold = threshold;
+    }
+
+    /**
+     * Performs young collection if enough memory was allocated since the last one. Intended to be called
+     * when the program has nothing to do, so that a collection that happens in the middle of allocation
+     * finds less garbage in young generation and therefore takes less time.
+     */
+    public static boolean collectGarbageIfIdle() {
+        if (idleCollectionThreshold <= 0 || getAllocatedSinceLastGC() < idleCollectionThreshold) {
+            return false;
+        }
+        collectGarbage();
+        return true;
+    }
+
     static {
         currentChunk = heapAddress().toStructure();
         currentChunk.classReference = 0;
@@ -102,6 +136,12 @@ public final class GC {
         FreeChunk current = currentChunk;
         Address next = current.toAddress().add(size);
         if (!next.add(Structure.sizeOf(FreeChunk.class)).isLessThan(currentChunkLimit)) {
+            if (size >= LARGE_OBJECT_SIZE) {
+                RuntimeObject result = allocLargeObject(size);
+                if (result != null) {
+                    return result;
+                }
+            }
             getNextChunk(size);
             current = currentChunk;
             next = current.toAddress().add(size);
@@ -112,6 +152,25 @@ public final class GC {
         return current.toAddress().toStructure();
     }
 
+    // Switching to the next chunk abandons the rest of the current one until the next GC, which is
+    // a waste when the object that did not fit is large. Instead, take such object from the end of one
+    // of the subsequent chunks, so that both chunks remain available for bump allocation.
+    private static RuntimeObject allocLargeObject(int size) {
+        FreeChunkHolder ptr = currentChunkPointer;
+        for (int i = 1; i < freeChunks && i <= LARGE_OBJECT_SEARCH_LIMIT; ++i) {
+            ptr = Structure.add(FreeChunkHolder.class, ptr, 1);
+            FreeChunk chunk = ptr.value;
+            if (chunk.size >= size + MIN_CHUNK_SIZE) {
+                chunk.size -= size;
+                Address result = chunk.toAddress().add(chunk.size);
+                freeMemory -= size;
+                MemoryTrace.allocate(result, size);
+                return result.toStructure();
+            }
+        }
+        return null;
+    }
+
     private static void getNextChunk(int size) {
         if (getNextChunkIfPossible(size)) {
             return;
@@ -177,6 +236,9 @@ public final class GC {
     }
 
     private static void collectGarbageImpl(int size) {
+        GCStatistics.collectionStarted();
+        boolean full = isFullGC;
+        long occupiedMemoryBeforeGC = occupiedMemoryAfterGC + getAllocatedSinceLastGC();
         doCollectGarbage();
 
         long minRequestedSize = 0;
@@ -190,17 +252,25 @@ public final class GC {
                 triggerFullGC();
                 doCollectGarbage();
                 youngGCCount = 0;
+                full = true;
             }
         } else {
             youngGCCount = 0;
         }
         isFullGC = false;
 
+        long occupiedMemory = availableBytes() - freeMemory;
+        long promotedMemory = full ? 0 : max(0, occupiedMemory - occupiedMemoryAfterGC);
+        occupiedMemoryAfterGC = occupiedMemory;
+
         resizeHeapIfNecessary(minRequestedSize);
         currentChunk = currentChunkPointer.value;
         currentChunkLimit = currentChunk.toAddress().add(currentChunk.size);
 
         Allocator.fill(cardTable(), CARD_VALID, getRegionCount());
+        freeMemoryAfterGC = freeMemory;
+        GCStatistics.collectionCompleted(full, max(0, occupiedMemoryBeforeGC - occupiedMemory), promotedMemory,
+                occupiedMemory);
     }
 
     private static void doCollectGarbage() {
@@ -1373,6 +1443,7 @@ public final class GC {
         if (newSize > oldSize) {
             int previousRegionCount = getRegionCount();
             resizeHeap(newSize);
+            GCStatistics.heapResized();
             currentChunkPointer = gcStorageAddress().toStructure();
             int newRegionCount = getRegionCount();
             for (int i = previousRegionCount; i < newRegionCount; ++i) {
@@ -1390,6 +1461,7 @@ public final class GC {
                 freeChunks++;
                 totalChunks++;
             }
+            freeMemory += (int) (newSize - oldSize);
         } else if (canShrinkHeap()) {
             long minimumSize = lastChunk.toAddress().toLong() - heapAddress().toLong();
             if (lastChunk.classReference != 0) {
@@ -1408,6 +1480,8 @@ public final class GC {
                 lastChunk.size -= (int) (oldSize - newSize);
             }
             resizeHeap(newSize);
+            GCStatistics.heapResized();
+            freeMemory -= (int) (oldSize - newSize);
 
             currentChunkPointer = gcStorageAddress().toStructure();
         }
@@ -0,0 +1,164 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.runtime;
+
+import org.teavm.backend.c.intrinsic.RuntimeInclude;
+import org.teavm.interop.Export;
+import org.teavm.interop.Import;
+import org.teavm.interop.StaticInit;
+import org.teavm.interop.Unmanaged;
+
+/**
+ * <p>Counters that {@link GC} updates after each collection. Unlike {@link MemoryTrace}, which only works
+ * in special debug builds, these counters are always available and cost a few field updates per collection.</p>
+ *
+ * <p>Pause histogram has {@link #PAUSE_HISTOGRAM_SIZE} buckets. Bucket {@code i} counts pauses that took
+ * less than <code>2<sup>i</sup></code> milliseconds and were not counted by previous buckets, the last bucket
+ * counts all longer pauses.</p>
+ *
+ * <p>Methods called by {@link GC} are unmanaged, while the class itself is not, so that its initializer
+ * can allocate the histogram.</p>
+ */
+@StaticInit
+public final class GCStatistics {
+    public static final int PAUSE_HISTOGRAM_SIZE = 10;
+
+    private static int collectionCount;
+    private static int fullCollectionCount;
+    private static long totalPauseTime;
+    private static long maxPauseTime;
+    private static long lastPauseTime;
+    private static long reclaimedBytes;
+    private static long promotedBytes;
+    private static long liveBytes;
+    private static int heapResizeCount;
+    private static long collectionStartTime;
+
+    private static final int[] pauses = new int[PAUSE_HISTOGRAM_SIZE];
+
+    private GCStatistics() {
+    }
+
+    @Import(name = "teavm_currentTimeNano")
+    @RuntimeInclude("time.h")
+    @Unmanaged
+    static native long nanoTime();
+
+    @Unmanaged
+    static void collectionStarted() {
+        collectionStartTime = nanoTime();
+    }
+
+    @Unmanaged
+    static void collectionCompleted(boolean full, long reclaimed, long promoted, long live) {
+        long pauseTime = nanoTime() - collectionStartTime;
+        collectionCount++;
+        if (full) {
+            fullCollectionCount++;
+        }
+        totalPauseTime += pauseTime;
+        lastPauseTime = pauseTime;
+        if (pauseTime > maxPauseTime) {
+            maxPauseTime = pauseTime;
+        }
+        reclaimedBytes += reclaimed;
+        promotedBytes += promoted;
+        liveBytes = live;
+        recordPause(pauseTime);
+    }
+
+    @Unmanaged
+    static void heapResized() {
+        heapResizeCount++;
+    }
+
+    @Unmanaged
+    private static void recordPause(long pauseTime) {
+        long millis = pauseTime / 1000000;
+        int bucket = 0;
+        while (millis > 0 && bucket < PAUSE_HISTOGRAM_SIZE - 1) {
+            millis >>= 1;
+            bucket++;
+        }
+        pauses[bucket]++;
+    }
+
+    @Export(name = "teavm_gc_collectionCount")
+    public static int getCollectionCount() {
+        return collectionCount;
+    }
+
+    @Export(name = "teavm_gc_fullCollectionCount")
+    public static int getFullCollectionCount() {
+        return fullCollectionCount;
+    }
+
+    /**
+     * Total time spent in collections, in nanoseconds.
+     */
+    @Export(name = "teavm_gc_totalPauseTime")
+    public static long getTotalPauseTime() {
+        return totalPauseTime;
+    }
+
+    @Export(name = "teavm_gc_maxPauseTime")
+    public static long getMaxPauseTime() {
+        return maxPauseTime;
+    }
+
+    @Export(name = "teavm_gc_lastPauseTime")
+    public static long getLastPauseTime() {
+        return lastPauseTime;
+    }
+
+    @Export(name = "teavm_gc_reclaimedBytes")
+    public static long getReclaimedBytes() {
+        return reclaimedBytes;
+    }
+
+    /**
+     * Total size of objects that survived young collections and therefore were moved to old generation.
+     * Full collections are not taken into account, since they don't distinguish generations.
+     */
+    @Export(name = "teavm_gc_promotedBytes")
+    public static long getPromotedBytes() {
+        return promotedBytes;
+    }
+
+    /**
+     * Size of objects that survived the last collection.
+     */
+    @Export(name = "teavm_gc_liveBytes")
+    public static long getLiveBytes() {
+        return liveBytes;
+    }
+
+    @Export(name = "teavm_gc_heapResizeCount")
+    public static int getHeapResizeCount() {
+        return heapResizeCount;
+    }
+
+    /**
+     * Number of pauses counted by the given bucket of pause histogram, or 0 if there's no such bucket.
+     */
+    @Export(name = "teavm_gc_pauseHistogram")
+    public static int getPauseCount(int bucket) {
+        if (bucket < 0 || bucket >= PAUSE_HISTOGRAM_SIZE) {
+            return 0;
+        }
+        return pauses[bucket];
+    }
+}
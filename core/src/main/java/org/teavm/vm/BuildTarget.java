@@ -20,4 +20,11 @@ import java.io.OutputStream;
 
 public interface BuildTarget {
     OutputStream createResource(String fileName) throws IOException;
+
+    /**
+     * Removes resource that was previously created by {@link #createResource(String)}. Used to get rid
+     * of partially written output when generation fails. Default implementation does nothing.
+     */
+    default void deleteResource(String fileName) {
+    }
 }
@@ -39,4 +39,9 @@ public class DirectoryBuildTarget implements BuildTarget {
         }
         return new BufferedOutputStream(new FileOutputStream(new File(directory, fileName)), 65536);
     }
+
+    @Override
+    public void deleteResource(String fileName) {
+        new File(directory, fileName).delete();
+    }
 }
@@ -61,6 +61,14 @@ public class IncrementalDirectoryBuildTarget implements BuildTarget {
         return new OutputStreamImpl(new File(directory, fileName), fileName);
     }
 
+    @Override
+    public void deleteResource(String fileName) {
+        writtenFiles.remove(fileName);
+        new File(directory, fileName).delete();
+        knownExistingFiles.put(fileName, (byte) 0);
+        knownDescriptors.remove(fileName);
+    }
+
     class OutputStreamImpl extends OutputStream {
         private File file;
         private String name;
@@ -46,6 +46,11 @@ public class MemoryBuildTarget implements BuildTarget {
         return stream;
     }
 
+    @Override
+    public void deleteResource(String fileName) {
+        data.remove(fileName);
+    }
+
     public OutputStream appendToResource(String fileName) {
         return data.computeIfAbsent(fileName, k -> new ByteArrayOutputStream());
     }
@@ -29,14 +29,18 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.teavm.cache.AlwaysStaleCacheStatus;
 import org.teavm.cache.AnnotationAwareCacheStatus;
 import org.teavm.cache.CacheStatus;
+import org.teavm.cache.ContentAddressedProgramCache;
 import org.teavm.cache.EmptyProgramCache;
 import org.teavm.cache.ProgramDependencyExtractor;
+import org.teavm.common.ConcurrentUtil;
 import org.teavm.common.ServiceRepository;
 import org.teavm.dependency.BootstrapMethodSubstitutor;
 import org.teavm.dependency.ClassSourcePacker;
@@ -46,6 +50,7 @@ import org.teavm.dependency.DependencyListener;
 import org.teavm.dependency.DependencyPlugin;
 import org.teavm.dependency.Linker;
 import org.teavm.dependency.MethodDependencyInfo;
+import org.teavm.dependency.SynchronizedDependencyInfo;
 import org.teavm.diagnostics.AccumulationDiagnostics;
 import org.teavm.diagnostics.Diagnostics;
 import org.teavm.diagnostics.ProblemProvider;
@@ -134,6 +139,7 @@ import org.teavm.vm.spi.TeaVMPlugin;
 public class TeaVM implements TeaVMHost, ServiceRepository {
     private static final MethodDescriptor MAIN_METHOD_DESC = new MethodDescriptor("main",
             ValueType.arrayOf(ValueType.object("java.lang.String")), ValueType.VOID);
+    private static final int OPTIMIZATION_BATCH_SIZE_PER_THREAD = 64;
     private static final MethodDescriptor CLINIT_DESC = new MethodDescriptor("<clinit>", ValueType.VOID);
 
     private final DependencyAnalyzer dependencyAnalyzer;
@@ -146,8 +152,10 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     private final Map<Class<?>, Object> services = new HashMap<>();
     private final Properties properties = new Properties();
     private ProgramCache programCache = EmptyProgramCache.INSTANCE;
+    private ContentAddressedProgramCache sharedProgramCache;
     private CacheStatus rawCacheStatus = AlwaysStaleCacheStatus.INSTANCE;
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.SIMPLE;
+    private int threadCount = 1;
     private TeaVMProgressListener progressListener;
     private boolean cancelled;
     private ListableClassHolderSource writtenClasses;
@@ -252,6 +260,18 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         this.programCache = programCache;
     }
 
+    public ContentAddressedProgramCache getSharedProgramCache() {
+        return sharedProgramCache;
+    }
+
+    /**
+     * Sets cache of optimized programs which is looked up after {@link #getProgramCache() program cache}.
+     * Unlike program cache, it is used even when cache status reports methods as stale.
+     */
+    public void setSharedProgramCache(ContentAddressedProgramCache sharedProgramCache) {
+        this.sharedProgramCache = sharedProgramCache;
+    }
+
     public void setCacheStatus(CacheStatus cacheStatus) {
         rawCacheStatus = cacheStatus;
     }
@@ -264,6 +284,24 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         this.optimizationLevel = optimizationLevel;
     }
 
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Sets number of threads that are used to compile methods. When greater than one, methods are
+     * optimized concurrently and targets are allowed to process methods concurrently as well,
+     * still producing exactly the same output as in single-threaded mode.
+     *
+     * @param threadCount number of threads, {@code 1} by default.
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
     public TeaVMProgressListener getProgressListener() {
         return progressListener;
     }
@@ -708,6 +746,10 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     }
 
     private void optimize(ListableClassHolderSource classSource) {
+        if (threadCount > 1) {
+            optimizeConcurrently(classSource);
+            return;
+        }
         for (String className : classSource.getClassNames()) {
             ClassHolder cls = classSource.get(className);
             for (MethodHolder method : cls.getMethods()) {
@@ -725,61 +767,196 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             return;
         }
 
-        Program optimizedProgram = !cacheStatus.isStaleMethod(method.getReference())
-                ? programCache.get(method.getReference(), cacheStatus)
-                : null;
+        Program optimizedProgram = getCachedProgram(method);
         if (optimizedProgram == null) {
-            optimizedProgram = optimizeMethodCacheMiss(method, ProgramUtils.copy(method.getProgram()));
-            Program finalProgram = optimizedProgram;
-            programCache.store(method.getReference(), finalProgram,
-                    () -> programDependencyExtractor.extractDependencies(finalProgram));
+            String sharedKey = getSharedProgramKey(method, method.getProgram());
+            optimizedProgram = getSharedProgram(sharedKey);
+            if (optimizedProgram == null) {
+                optimizedProgram = optimizeMethodCacheMiss(method, ProgramUtils.copy(method.getProgram()));
+                storeSharedProgram(sharedKey, optimizedProgram);
+            }
+            storeOptimizedProgram(method, optimizedProgram);
         }
         method.setProgram(optimizedProgram);
     }
 
+    private Program getCachedProgram(MethodHolder method) {
+        return !cacheStatus.isStaleMethod(method.getReference())
+                ? programCache.get(method.getReference(), cacheStatus)
+                : null;
+    }
+
+    private String getSharedProgramKey(MethodHolder method, Program input) {
+        return sharedProgramCache != null
+                ? sharedProgramCache.computeKey(method.getReference(), input, dependencyAnalyzer.getClassSource())
+                : null;
+    }
+
+    private Program getSharedProgram(String key) {
+        return key != null ? sharedProgramCache.get(key) : null;
+    }
+
+    private void storeSharedProgram(String key, Program optimizedProgram) {
+        if (key != null) {
+            sharedProgramCache.store(key, optimizedProgram);
+        }
+    }
+
+    private void storeOptimizedProgram(MethodHolder method, Program optimizedProgram) {
+        programCache.store(method.getReference(), optimizedProgram,
+                () -> programDependencyExtractor.extractDependencies(optimizedProgram));
+    }
+
     private Program optimizeMethodCacheMiss(MethodHolder method, Program optimizedProgram) {
         target.beforeOptimizations(optimizedProgram, method);
 
         if (optimizedProgram.basicBlockCount() > 0) {
-            var context = new MethodOptimizationContextImpl(method);
-            boolean changed;
-            do {
-                changed = false;
-                for (MethodOptimization optimization : getOptimizations()) {
+            runOptimizations(new MethodOptimizationContextImpl(method), optimizedProgram);
+            completeOptimizations(method, optimizedProgram);
+        }
+
+        return optimizedProgram;
+    }
+
+    private void runOptimizations(MethodOptimizationContext context, Program optimizedProgram) {
+        boolean changed;
+        do {
+            changed = false;
+            for (MethodOptimization optimization : getOptimizations()) {
+                try {
+                    changed |= optimization.optimize(context, optimizedProgram);
+                } catch (Exception | AssertionError e) {
+                    var methodRef = context.getMethod().getReference();
+                    ListingBuilder listingBuilder = new ListingBuilder();
                     try {
-                        changed |= optimization.optimize(context, optimizedProgram);
-                    } catch (Exception | AssertionError e) {
-                        ListingBuilder listingBuilder = new ListingBuilder();
-                        try {
-                            String listing = listingBuilder.buildListing(optimizedProgram, "");
-                            System.err.println("Error optimizing program for method " + method.getReference()
-                                    + ":\n" + listing);
-                        } catch (RuntimeException e2) {
-                            System.err.println("Error optimizing program for method " + method.getReference());
-                            // do nothing
-                        }
-                        throw new RuntimeException(e);
+                        String listing = listingBuilder.buildListing(optimizedProgram, "");
+                        System.err.println("Error optimizing program for method " + methodRef + ":\n" + listing);
+                    } catch (RuntimeException e2) {
+                        System.err.println("Error optimizing program for method " + methodRef);
+                        // do nothing
                     }
+                    throw new RuntimeException(e);
                 }
-            } while (changed);
-
-            target.afterOptimizations(optimizedProgram, method);
-            var categoryProvider = target.variableCategoryProvider();
-            if (categoryProvider != null) {
-                var allocator = new RegisterAllocator(categoryProvider);
-                allocator.allocateRegisters(method.getReference(), optimizedProgram,
-                        optimizationLevel == TeaVMOptimizationLevel.SIMPLE);
             }
+        } while (changed);
+    }
+
+    private void completeOptimizations(MethodHolder method, Program optimizedProgram) {
+        target.afterOptimizations(optimizedProgram, method);
+        var categoryProvider = target.variableCategoryProvider();
+        if (categoryProvider != null) {
+            var allocator = new RegisterAllocator(categoryProvider);
+            allocator.allocateRegisters(method.getReference(), optimizedProgram,
+                    optimizationLevel == TeaVMOptimizationLevel.SIMPLE);
         }
+    }
 
-        return optimizedProgram;
+    /*
+     * Optimizes methods in batches. Cache lookups, target hooks and register allocation are not
+     * guaranteed to be thread-safe, so they run on the calling thread in class order, while
+     * the fixpoint loop of method optimizations, which only reads dependency information
+     * and affects nothing but its own copy of program, runs in the pool.
+     */
+    private void optimizeConcurrently(ListableClassHolderSource classSource) {
+        var dependencyInfo = new SynchronizedDependencyInfo(dependencyAnalyzer);
+        var hierarchy = ThreadLocal.withInitial(() -> new ClassHierarchy(dependencyInfo.getClassSource()));
+        var pool = new ForkJoinPool(threadCount);
+        try {
+            int batchLimit = threadCount * OPTIMIZATION_BATCH_SIZE_PER_THREAD;
+            var batch = new ArrayList<PendingOptimization>();
+            int classesInBatch = 0;
+            for (String className : classSource.getClassNames()) {
+                ClassHolder cls = classSource.get(className);
+                for (MethodHolder method : cls.getMethods()) {
+                    if (method.getProgram() == null) {
+                        continue;
+                    }
+                    Program optimizedProgram = getCachedProgram(method);
+                    if (optimizedProgram != null) {
+                        method.setProgram(optimizedProgram);
+                        continue;
+                    }
+                    String sharedKey = getSharedProgramKey(method, method.getProgram());
+                    optimizedProgram = getSharedProgram(sharedKey);
+                    if (optimizedProgram != null) {
+                        storeOptimizedProgram(method, optimizedProgram);
+                        method.setProgram(optimizedProgram);
+                        continue;
+                    }
+                    optimizedProgram = ProgramUtils.copy(method.getProgram());
+                    target.beforeOptimizations(optimizedProgram, method);
+                    batch.add(new PendingOptimization(method, optimizedProgram, sharedKey));
+                }
+                ++classesInBatch;
+                if (batch.size() >= batchLimit) {
+                    optimizeBatch(pool, batch, dependencyInfo, hierarchy);
+                    batch.clear();
+                    compileProgressValue += classesInBatch;
+                    classesInBatch = 0;
+                    reportCompileProgress(compileProgressValue);
+                    if (wasCancelled()) {
+                        return;
+                    }
+                }
+            }
+            optimizeBatch(pool, batch, dependencyInfo, hierarchy);
+            compileProgressValue += classesInBatch;
+            reportCompileProgress(compileProgressValue);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void optimizeBatch(ForkJoinPool pool, List<PendingOptimization> batch, DependencyInfo dependencyInfo,
+            ThreadLocal<ClassHierarchy> hierarchy) {
+        var tasks = new ArrayList<Callable<Void>>();
+        for (var pending : batch) {
+            if (pending.program.basicBlockCount() > 0) {
+                tasks.add(() -> {
+                    var context = new MethodOptimizationContextImpl(pending.method, dependencyInfo, hierarchy.get());
+                    runOptimizations(context, pending.program);
+                    return null;
+                });
+            }
+        }
+
+        ConcurrentUtil.invokeAll(pool, tasks);
+
+        for (var pending : batch) {
+            if (pending.program.basicBlockCount() > 0) {
+                completeOptimizations(pending.method, pending.program);
+            }
+            storeSharedProgram(pending.sharedKey, pending.program);
+            storeOptimizedProgram(pending.method, pending.program);
+            pending.method.setProgram(pending.program);
+        }
+    }
+
+    static class PendingOptimization {
+        final MethodHolder method;
+        final Program program;
+        final String sharedKey;
+
+        PendingOptimization(MethodHolder method, Program program, String sharedKey) {
+            this.method = method;
+            this.program = program;
+            this.sharedKey = sharedKey;
+        }
     }
 
     class MethodOptimizationContextImpl implements MethodOptimizationContext {
         private MethodReader method;
+        private DependencyInfo dependencyInfo;
+        private ClassHierarchy hierarchy;
 
         MethodOptimizationContextImpl(MethodReader method) {
+            this(method, dependencyAnalyzer, dependencyAnalyzer.getClassHierarchy());
+        }
+
+        MethodOptimizationContextImpl(MethodReader method, DependencyInfo dependencyInfo, ClassHierarchy hierarchy) {
             this.method = method;
+            this.dependencyInfo = dependencyInfo;
+            this.hierarchy = hierarchy;
         }
 
         @Override
@@ -789,17 +966,17 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
 
         @Override
         public DependencyInfo getDependencyInfo() {
-            return dependencyAnalyzer;
+            return dependencyInfo;
         }
 
         @Override
         public ClassReaderSource getClassSource() {
-            return dependencyAnalyzer.getClassSource();
+            return dependencyInfo.getClassSource();
         }
 
         @Override
         public ClassHierarchy getHierarchy() {
-            return dependencyAnalyzer.getClassHierarchy();
+            return hierarchy;
         }
     }
 
@@ -977,6 +1154,11 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         public TeaVMOptimizationLevel getOptimizationLevel() {
             return optimizationLevel;
         }
+
+        @Override
+        public int getThreadCount() {
+            return threadCount;
+        }
     };
 
     class PostProcessingClassHolderSource implements ListableClassHolderSource {
@@ -1014,7 +1196,14 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
                         program = ProgramUtils.copy(classReader.getMethod(method.getDescriptor()).getProgram());
                         clinitInsertion.apply(method, program);
                         target.beforeInlining(program, method);
-                        program = optimizeMethodCacheMiss(method, program);
+                        String sharedKey = getSharedProgramKey(method, program);
+                        Program sharedProgram = getSharedProgram(sharedKey);
+                        if (sharedProgram != null) {
+                            program = sharedProgram;
+                        } else {
+                            program = optimizeMethodCacheMiss(method, program);
+                            storeSharedProgram(sharedKey, program);
+                        }
                         Program finalProgram = program;
                         programCache.store(method.getReference(), finalProgram,
                                 () -> programDependencyExtractor.extractDependencies(finalProgram));
@@ -45,6 +45,8 @@ public interface TeaVMTargetController {
 
     TeaVMOptimizationLevel getOptimizationLevel();
 
+    int getThreadCount();
+
     boolean isFriendlyToDebugger();
 
     String getEntryPoint();
@@ -56,6 +56,35 @@ let $rt_substring = (string, start, end) => {
 }
 let $rt_substringSink = 0;
 
+let $rt_codePointToString = codePoint => teavm_globals.String.fromCodePoint(codePoint);
+
+let $rt_loneSurrogate = /[\uD800-\uDBFF](?![\uDC00-\uDFFF])|(?:^|[^\uD800-\uDBFF])[\uDC00-\uDFFF]/;
+let $rt_utf8Encoder = null;
+let $rt_stringToUtf8 = string => {
+    if (typeof teavm_globals.TextEncoder === "undefined" || $rt_loneSurrogate.test(string)) {
+        return null;
+    }
+    if ($rt_utf8Encoder === null) {
+        $rt_utf8Encoder = new teavm_globals.TextEncoder();
+    }
+    let bytes = $rt_utf8Encoder.encode(string);
+    return new $rt_byteArrayCls(new teavm_globals.Int8Array(bytes.buffer, bytes.byteOffset, bytes.length));
+}
+let $rt_utf8Decoder = null;
+let $rt_utf8ToString = (array, offset, length) => {
+    if (typeof teavm_globals.TextDecoder === "undefined") {
+        return null;
+    }
+    if ($rt_utf8Decoder === null) {
+        $rt_utf8Decoder = new teavm_globals.TextDecoder("utf-8", { fatal: true, ignoreBOM: true });
+    }
+    try {
+        return $rt_utf8Decoder.decode(new teavm_globals.Uint8Array(array.buffer, array.byteOffset + offset, length));
+    } catch (e) {
+        return null;
+    }
+}
+
 let $rt_str = str =>  str === null ? null : teavm_javaConstructor("java.lang.String", "(Ljava/lang/Object;)V")(str);
 let $rt_ustr = str =>  str === null ? null : str[teavm_javaField("java.lang.String", "nativeString")];
 
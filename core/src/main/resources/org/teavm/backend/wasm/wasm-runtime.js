@@ -150,10 +150,40 @@ TeaVM.wasm = function() {
             teavm[name] = wrapExport(instance.exports["teavm_" + name], instance);
         }
 
+        // Views share memory with Java arrays, but become invalid once the memory grows
+        // or the garbage collector moves the array, i.e. after any allocation in Java code
+        for (const [name, elementSize, viewType] of [["byte", 1, Int8Array], ["short", 2, Int16Array],
+            ["char", 2, Uint16Array], ["int", 4, Int32Array], ["long", 8, BigInt64Array],
+            ["float", 4, Float32Array], ["double", 8, Float64Array]]) {
+            teavm[name + "ArrayView"] = createArrayView(teavm, teavm[name + "ArrayData"], elementSize, viewType);
+        }
+
         teavm.main = createMain(teavm, instance.exports.main);
         return teavm;
     }
 
+    function createArrayView(teavm, arrayData, elementSize, defaultViewType) {
+        return function(array, offset, length, viewType) {
+            let arrayLength = teavm.arrayLength(array);
+            if (typeof offset === "undefined") {
+                offset = 0;
+            }
+            if (typeof length === "undefined") {
+                length = arrayLength - offset;
+            }
+            if (offset < 0 || length < 0 || offset + length > arrayLength) {
+                throw new RangeError("Range [" + offset + ", " + (offset + length) + ") is out of array bounds "
+                        + "[0, " + arrayLength + ")");
+            }
+            if (typeof viewType === "undefined") {
+                viewType = defaultViewType;
+            }
+            let itemSize = viewType.BYTES_PER_ELEMENT || 1;
+            return new viewType(teavm.memory.buffer, arrayData(array) + offset * elementSize,
+                    Math.floor(length * elementSize / itemSize));
+        }
+    }
+
     function wrapExport(fn, instance) {
         return function() {
             let result = fn.apply(this, arguments);
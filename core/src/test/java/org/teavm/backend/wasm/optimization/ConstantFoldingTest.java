@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.List;
+import org.junit.Test;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmFunctionType;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmInt64Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmIntType;
+
+public class ConstantFoldingTest {
+    @Test
+    public void foldsArithmetic() {
+        var result = fold(int32(WasmIntBinaryOperation.MUL, int32(WasmIntBinaryOperation.ADD, 2, 3), 7));
+        assertEquals(35, ((WasmInt32Constant) result).getValue());
+    }
+
+    @Test
+    public void wrapsAroundOnOverflow() {
+        var result = fold(int32(WasmIntBinaryOperation.ADD, Integer.MAX_VALUE, 1));
+        assertEquals(Integer.MIN_VALUE, ((WasmInt32Constant) result).getValue());
+    }
+
+    @Test
+    public void doesNotFoldDivisionByZero() {
+        for (var operation : List.of(WasmIntBinaryOperation.DIV_SIGNED, WasmIntBinaryOperation.DIV_UNSIGNED,
+                WasmIntBinaryOperation.REM_SIGNED, WasmIntBinaryOperation.REM_UNSIGNED)) {
+            var expression = int32(operation, 1, 0);
+            assertSame(operation.name(), expression, fold(expression));
+
+            var expression64 = new WasmIntBinary(WasmIntType.INT64, operation, new WasmInt64Constant(1),
+                    new WasmInt64Constant(0));
+            assertSame(operation.name(), expression64, fold(expression64));
+        }
+    }
+
+    @Test
+    public void doesNotFoldOverflowingDivision() {
+        var expression = int32(WasmIntBinaryOperation.DIV_SIGNED, Integer.MIN_VALUE, -1);
+        assertSame(expression, fold(expression));
+
+        var expression64 = new WasmIntBinary(WasmIntType.INT64, WasmIntBinaryOperation.DIV_SIGNED,
+                new WasmInt64Constant(Long.MIN_VALUE), new WasmInt64Constant(-1));
+        assertSame(expression64, fold(expression64));
+    }
+
+    @Test
+    public void foldsRemainderOfMinValueByMinusOne() {
+        var result = fold(int32(WasmIntBinaryOperation.REM_SIGNED, Integer.MIN_VALUE, -1));
+        assertEquals(0, ((WasmInt32Constant) result).getValue());
+    }
+
+    @Test
+    public void keepsTrappingOperandOfFoldedOperation() {
+        var trapping = int32(WasmIntBinaryOperation.DIV_SIGNED, 1, 0);
+        var expression = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.MUL, trapping,
+                new WasmInt32Constant(1));
+        assertSame(trapping, fold(expression));
+    }
+
+    @Test
+    public void resolvesConstantConditional() {
+        var conditional = new WasmConditional(new WasmInt32Constant(0));
+        conditional.getThenBlock().getBody().add(new WasmDrop(new WasmInt32Constant(1)));
+        var elseDrop = new WasmDrop(new WasmInt32Constant(2));
+        conditional.getElseBlock().getBody().add(elseDrop);
+
+        var function = createFunction(conditional);
+        assertTrue(new ConstantFolding().apply(function));
+        var block = (WasmBlock) function.getBody().get(0);
+        assertEquals(List.of(elseDrop), block.getBody());
+    }
+
+    @Test
+    public void reportsNoChanges() {
+        var function = createFunction(new WasmDrop(int32(WasmIntBinaryOperation.DIV_SIGNED, 1, 0)));
+        assertFalse(new ConstantFolding().apply(function));
+    }
+
+    private static WasmIntBinary int32(WasmIntBinaryOperation operation, int a, int b) {
+        return int32(operation, new WasmInt32Constant(a), b);
+    }
+
+    private static WasmIntBinary int32(WasmIntBinaryOperation operation, WasmExpression a, int b) {
+        return new WasmIntBinary(WasmIntType.INT32, operation, a, new WasmInt32Constant(b));
+    }
+
+    private static WasmExpression fold(WasmExpression expression) {
+        var function = createFunction(new WasmDrop(expression));
+        new ConstantFolding().apply(function);
+        return ((WasmDrop) function.getBody().get(0)).getOperand();
+    }
+
+    private static WasmFunction createFunction(WasmExpression body) {
+        var function = new WasmFunction(new WasmFunctionType(null, null, List.<WasmType>of()));
+        function.getBody().add(body);
+        return function;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.List;
+import org.junit.Test;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmFunctionType;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
+
+public class LocalCoalescingTest {
+    private WasmFunction function = new WasmFunction(new WasmFunctionType(null, null, List.of(WasmType.INT32)));
+    private WasmLocal parameter = new WasmLocal(WasmType.INT32);
+    private WasmLocal a = new WasmLocal(WasmType.INT32);
+    private WasmLocal b = new WasmLocal(WasmType.INT32);
+
+    public LocalCoalescingTest() {
+        function.add(parameter);
+        function.add(a);
+        function.add(b);
+    }
+
+    @Test
+    public void mergesLocalsWithDisjointLifetimes() {
+        var readA = new WasmGetLocal(a);
+        var writeB = new WasmSetLocal(b, readA);
+        var readB = new WasmGetLocal(b);
+        function.getBody().add(new WasmSetLocal(a, new WasmInt32Constant(1)));
+        function.getBody().add(writeB);
+        function.getBody().add(new WasmDrop(readB));
+
+        assertTrue(new LocalCoalescing().apply(function));
+
+        assertEquals(List.of(parameter, a), function.getLocalVariables());
+        assertSame(a, writeB.getLocal());
+        assertSame(a, readB.getLocal());
+    }
+
+    @Test
+    public void doesNotMergeOverlappingLocals() {
+        function.getBody().add(new WasmSetLocal(a, new WasmInt32Constant(1)));
+        function.getBody().add(new WasmSetLocal(b, new WasmInt32Constant(2)));
+        function.getBody().add(new WasmDrop(new WasmGetLocal(a)));
+        function.getBody().add(new WasmDrop(new WasmGetLocal(b)));
+
+        new LocalCoalescing().apply(function);
+
+        assertEquals(List.of(parameter, a, b), function.getLocalVariables());
+    }
+
+    @Test
+    public void doesNotMergeLocalWrittenInConditional() {
+        var conditional = new WasmConditional(new WasmGetLocal(parameter));
+        var writeB = new WasmSetLocal(b, new WasmInt32Constant(1));
+        conditional.getThenBlock().getBody().add(writeB);
+        var writeA = new WasmSetLocal(a, new WasmInt32Constant(2));
+        function.getBody().add(conditional);
+        function.getBody().add(writeA);
+        function.getBody().add(new WasmDrop(new WasmGetLocal(a)));
+        function.getBody().add(new WasmDrop(new WasmGetLocal(b)));
+
+        new LocalCoalescing().apply(function);
+
+        assertEquals(List.of(parameter, a, b), function.getLocalVariables());
+        assertNotSame(writeA.getLocal(), writeB.getLocal());
+    }
+
+    @Test
+    public void doesNotMergeLocalReadBeforeWrite() {
+        var readB = new WasmGetLocal(b);
+        function.getBody().add(new WasmSetLocal(a, new WasmInt32Constant(1)));
+        function.getBody().add(new WasmDrop(new WasmGetLocal(a)));
+        function.getBody().add(new WasmDrop(readB));
+        function.getBody().add(new WasmSetLocal(b, new WasmInt32Constant(2)));
+
+        new LocalCoalescing().apply(function);
+
+        assertSame(b, readB.getLocal());
+        assertEquals(List.of(parameter, a, b), function.getLocalVariables());
+    }
+
+    @Test
+    public void doesNotMergeParameters() {
+        var writeA = new WasmSetLocal(a, new WasmGetLocal(parameter));
+        function.getBody().add(writeA);
+        function.getBody().add(new WasmDrop(new WasmGetLocal(a)));
+
+        new LocalCoalescing().apply(function);
+
+        assertSame(a, writeA.getLocal());
+        assertEquals(List.of(parameter, a), function.getLocalVariables());
+    }
+}
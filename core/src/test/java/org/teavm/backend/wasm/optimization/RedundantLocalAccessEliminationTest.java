@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.List;
+import org.junit.Test;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmFunctionType;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmIntType;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
+
+public class RedundantLocalAccessEliminationTest {
+    private WasmFunction effect = createImport();
+    private WasmFunction function = new WasmFunction(new WasmFunctionType(null, null, List.of(WasmType.INT32)));
+    private WasmLocal parameter = new WasmLocal(WasmType.INT32);
+    private WasmLocal local = new WasmLocal(WasmType.INT32);
+
+    public RedundantLocalAccessEliminationTest() {
+        function.add(parameter);
+        function.add(local);
+    }
+
+    @Test
+    public void forwardsValueToTheOnlyRead() {
+        var call = new WasmCall(effect);
+        var sum = add(new WasmGetLocal(parameter), new WasmGetLocal(local));
+        function.getBody().add(new WasmSetLocal(local, call));
+        function.getBody().add(new WasmDrop(sum));
+
+        assertTrue(new RedundantLocalAccessElimination().apply(function));
+
+        assertEquals(1, function.getBody().size());
+        assertSame(sum, ((WasmDrop) function.getBody().get(0)).getOperand());
+        assertSame(call, sum.getSecond());
+    }
+
+    @Test
+    public void doesNotForwardPastCall() {
+        var set = new WasmSetLocal(local, new WasmCall(effect));
+        function.getBody().add(set);
+        function.getBody().add(new WasmDrop(add(new WasmCall(effect), new WasmGetLocal(local))));
+
+        new RedundantLocalAccessElimination().apply(function);
+
+        assertEquals(2, function.getBody().size());
+        assertSame(set, function.getBody().get(0));
+    }
+
+    @Test
+    public void doesNotForwardPastTrappingOperation() {
+        var set = new WasmSetLocal(local, new WasmCall(effect));
+        var division = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.DIV_SIGNED,
+                new WasmInt32Constant(1), new WasmGetLocal(parameter));
+        function.getBody().add(set);
+        function.getBody().add(new WasmDrop(add(division, new WasmGetLocal(local))));
+
+        new RedundantLocalAccessElimination().apply(function);
+
+        assertEquals(2, function.getBody().size());
+        assertSame(set, function.getBody().get(0));
+    }
+
+    @Test
+    public void doesNotForwardPastWriteToParameter() {
+        var set = new WasmSetLocal(local, new WasmGetLocal(parameter));
+        function.getBody().add(set);
+        function.getBody().add(new WasmSetLocal(parameter, new WasmInt32Constant(1)));
+        function.getBody().add(new WasmDrop(new WasmGetLocal(local)));
+
+        new RedundantLocalAccessElimination().apply(function);
+
+        assertSame(set, function.getBody().get(0));
+    }
+
+    @Test
+    public void keepsLocalWrittenInConditional() {
+        var conditional = new WasmConditional(new WasmGetLocal(parameter));
+        var set = new WasmSetLocal(local, new WasmInt32Constant(23));
+        conditional.getThenBlock().getBody().add(set);
+        var read = new WasmDrop(new WasmGetLocal(local));
+        function.getBody().add(conditional);
+        function.getBody().add(read);
+
+        new RedundantLocalAccessElimination().apply(function);
+
+        assertEquals(List.of(conditional, read), function.getBody());
+        assertEquals(List.of(set), conditional.getThenBlock().getBody());
+    }
+
+    @Test
+    public void removesUnreadWriteInConditional() {
+        var conditional = new WasmConditional(new WasmGetLocal(parameter));
+        conditional.getThenBlock().getBody().add(new WasmSetLocal(local, new WasmInt32Constant(23)));
+        function.getBody().add(conditional);
+
+        assertTrue(new RedundantLocalAccessElimination().apply(function));
+
+        assertEquals(1, conditional.getThenBlock().getBody().size());
+        assertTrue(isEmptyBlock(conditional.getThenBlock().getBody().get(0)));
+    }
+
+    @Test
+    public void keepsEffectsOfUnreadWrite() {
+        var call = new WasmCall(effect);
+        function.getBody().add(new WasmSetLocal(local, call));
+
+        new RedundantLocalAccessElimination().apply(function);
+
+        assertSame(call, ((WasmDrop) function.getBody().get(0)).getOperand());
+    }
+
+    @Test
+    public void keepsWriteToParameter() {
+        var set = new WasmSetLocal(parameter, new WasmInt32Constant(1));
+        function.getBody().add(set);
+
+        new RedundantLocalAccessElimination().apply(function);
+
+        assertEquals(List.of(set), function.getBody());
+    }
+
+    private static boolean isEmptyBlock(WasmExpression expression) {
+        return expression instanceof WasmBlock
+                && ((WasmBlock) expression).getBody().isEmpty();
+    }
+
+    private static WasmIntBinary add(WasmExpression a, WasmExpression b) {
+        return new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.ADD, a, b);
+    }
+
+    private static WasmFunction createImport() {
+        var function = new WasmFunction(new WasmFunctionType(null, WasmType.INT32, List.of()));
+        function.setImportName("effect");
+        return function;
+    }
+}
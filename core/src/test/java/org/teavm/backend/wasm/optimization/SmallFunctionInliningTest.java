@@ -0,0 +1,152 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmFunctionType;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmIntType;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+
+public class SmallFunctionInliningTest {
+    private WasmModule module = new WasmModule();
+    private WasmFunction first = createImport("first");
+    private WasmFunction second = createImport("second");
+    private WasmFunction caller = new WasmFunction(new WasmFunctionType(null, null, List.of(WasmType.INT32)));
+    private WasmLocal callerLocal = new WasmLocal(WasmType.INT32);
+
+    public SmallFunctionInliningTest() {
+        module.functions.add(first);
+        module.functions.add(second);
+        caller.add(callerLocal);
+        module.functions.add(caller);
+    }
+
+    @Test
+    public void inlinesParametersReadInOrder() {
+        var callee = createCallee(2, p -> sub(new WasmGetLocal(p[0]), new WasmGetLocal(p[1])));
+        var firstCall = new WasmCall(first);
+        var secondCall = new WasmCall(second);
+        var result = inline(new WasmCall(callee, firstCall, secondCall));
+
+        var sub = (WasmIntBinary) result;
+        assertSame(firstCall, sub.getFirst());
+        assertSame(secondCall, sub.getSecond());
+    }
+
+    @Test
+    public void doesNotInlineReorderedParametersWithEffectfulArguments() {
+        var callee = createCallee(2, p -> sub(new WasmGetLocal(p[1]), new WasmGetLocal(p[0])));
+        var call = new WasmCall(callee, new WasmCall(first), new WasmCall(second));
+        assertSame(call, inline(call));
+    }
+
+    @Test
+    public void inlinesReorderedParametersWithTrivialArguments() {
+        var callee = createCallee(2, p -> sub(new WasmGetLocal(p[1]), new WasmGetLocal(p[0])));
+        var sub = (WasmIntBinary) inline(new WasmCall(callee, new WasmGetLocal(callerLocal),
+                new WasmInt32Constant(5)));
+
+        assertEquals(5, ((WasmInt32Constant) sub.getFirst()).getValue());
+        assertSame(callerLocal, ((WasmGetLocal) sub.getSecond()).getLocal());
+    }
+
+    @Test
+    public void doesNotInlineDuplicatedParameterWithEffectfulArgument() {
+        var callee = createCallee(1, p -> mul(new WasmGetLocal(p[0]), new WasmGetLocal(p[0])));
+        var call = new WasmCall(callee, new WasmCall(first));
+        assertSame(call, inline(call));
+    }
+
+    @Test
+    public void copiesTrivialArgumentForEachRead() {
+        var callee = createCallee(1, p -> mul(new WasmGetLocal(p[0]), new WasmGetLocal(p[0])));
+        var argument = new WasmGetLocal(callerLocal);
+        var mul = (WasmIntBinary) inline(new WasmCall(callee, argument));
+
+        var a = (WasmGetLocal) mul.getFirst();
+        var b = (WasmGetLocal) mul.getSecond();
+        assertSame(callerLocal, a.getLocal());
+        assertSame(callerLocal, b.getLocal());
+        assertNotSame(a, b);
+    }
+
+    @Test
+    public void doesNotInlineWhenEffectPrecedesParameterRead() {
+        var callee = createCallee(1, p -> sub(new WasmCall(second), new WasmGetLocal(p[0])));
+        var call = new WasmCall(callee, new WasmCall(first));
+        assertSame(call, inline(call));
+    }
+
+    @Test
+    public void doesNotDropEffectfulArgumentOfUnusedParameter() {
+        var callee = createCallee(1, p -> new WasmInt32Constant(1));
+        var call = new WasmCall(callee, new WasmCall(first));
+        assertSame(call, inline(call));
+    }
+
+    private WasmExpression inline(WasmCall call) {
+        caller.getBody().add(new WasmDrop(call));
+        new SmallFunctionInlining(module).apply();
+        return ((WasmDrop) caller.getBody().get(0)).getOperand();
+    }
+
+    private WasmFunction createCallee(int parameterCount, BodyFactory body) {
+        var types = Collections.nCopies(parameterCount, WasmType.INT32);
+        var function = new WasmFunction(new WasmFunctionType(null, WasmType.INT32, types));
+        var parameters = new WasmLocal[parameterCount];
+        for (int i = 0; i < parameterCount; ++i) {
+            parameters[i] = new WasmLocal(WasmType.INT32);
+            function.add(parameters[i]);
+        }
+        function.getBody().add(new WasmReturn(body.create(parameters)));
+        module.functions.add(function);
+        return function;
+    }
+
+    private static WasmFunction createImport(String name) {
+        var function = new WasmFunction(new WasmFunctionType(null, WasmType.INT32, List.of()));
+        function.setImportName(name);
+        return function;
+    }
+
+    private static WasmIntBinary sub(WasmExpression a, WasmExpression b) {
+        return new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SUB, a, b);
+    }
+
+    private static WasmIntBinary mul(WasmExpression a, WasmExpression b) {
+        return new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.MUL, a, b);
+    }
+
+    interface BodyFactory {
+        WasmExpression create(WasmLocal[] parameters);
+    }
+}
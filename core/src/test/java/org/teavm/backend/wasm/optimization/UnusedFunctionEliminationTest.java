@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmFunctionType;
+import org.teavm.backend.wasm.model.WasmGlobal;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmFunctionReference;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+
+public class UnusedFunctionEliminationTest {
+    private WasmModule module = new WasmModule();
+
+    @Test
+    public void keepsFunctionsReachableFromRoots() {
+        var exported = createFunction("exported");
+        exported.setExportName("exported");
+        var inTable = createFunction("inTable");
+        module.getFunctionTable().add(inTable);
+        var start = createFunction("start");
+        module.setStartFunction(start);
+        var called = createFunction("called");
+        exported.getBody().add(new WasmCall(called));
+        var unused = createFunction("unused");
+        unused.getBody().add(new WasmCall(called));
+
+        new UnusedFunctionElimination(module).apply();
+
+        assertEquals(List.of("exported", "inTable", "start", "called"), functionNames());
+    }
+
+    @Test
+    public void keepsReferencedFunctionsAndTheirCallees() {
+        var referenced = createFunction("referenced");
+        referenced.setReferenced(true);
+        var called = createFunction("called");
+        referenced.getBody().add(new WasmCall(called));
+        createFunction("unused");
+
+        new UnusedFunctionElimination(module).apply();
+
+        assertEquals(List.of("referenced", "called"), functionNames());
+    }
+
+    @Test
+    public void keepsFunctionsReferencedFromGlobalInitializers() {
+        var referenced = createFunction("referenced");
+        createFunction("unused");
+        module.globals.add(new WasmGlobal("ref", WasmType.Reference.FUNC, new WasmFunctionReference(referenced)));
+        module.globals.add(new WasmGlobal("number", WasmType.INT32, new WasmInt32Constant(0)));
+
+        new UnusedFunctionElimination(module).apply();
+
+        assertEquals(List.of("referenced"), functionNames());
+    }
+
+    private WasmFunction createFunction(String name) {
+        var function = new WasmFunction(new WasmFunctionType(null, null, List.of()));
+        function.setName(name);
+        module.functions.add(function);
+        return function;
+    }
+
+    private List<String> functionNames() {
+        var result = new ArrayList<String>();
+        for (var function : module.functions) {
+            result.add(function.getName());
+        }
+        return result;
+    }
+}
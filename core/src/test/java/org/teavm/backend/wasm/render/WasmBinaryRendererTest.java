@@ -0,0 +1,141 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.render;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmFunctionType;
+import org.teavm.backend.wasm.model.WasmMemorySegment;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+
+public class WasmBinaryRendererTest {
+    private static final int CHUNK_SIZE = 65536;
+
+    @Test
+    public void streamingOutputMatchesInMemoryOutput() throws IOException {
+        var module = createModule();
+
+        var inMemory = new WasmBinaryWriter();
+        createRenderer(inMemory).render(module);
+        var expected = inMemory.getData();
+
+        var stream = new ByteArrayOutputStream();
+        var streaming = new WasmBinaryWriter(stream);
+        createRenderer(streaming).render(module);
+        streaming.flush();
+        var actual = stream.toByteArray();
+
+        assertTrue(expected.length > 2 * CHUNK_SIZE);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void dataSegmentIsWrittenAsIs() throws IOException {
+        var module = createModule();
+        var stream = new ByteArrayOutputStream();
+        var writer = new WasmBinaryWriter(stream);
+        createRenderer(writer).render(module);
+        writer.flush();
+        var bytes = stream.toByteArray();
+
+        var segment = module.getSegments().get(0).getData();
+        assertTrue(indexOf(bytes, segment) >= 0);
+    }
+
+    @Test
+    public void writesBytesAcrossChunkBoundaries() throws IOException {
+        var data = new byte[CHUNK_SIZE * 2 + 17];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) (i * 31);
+        }
+
+        var inMemory = new WasmBinaryWriter();
+        inMemory.writeLEB(CHUNK_SIZE - 3);
+        inMemory.writeBytes(data);
+        inMemory.writeLEB(Integer.MAX_VALUE);
+
+        var stream = new ByteArrayOutputStream();
+        var streaming = new WasmBinaryWriter(stream);
+        inMemory.writeTo(streaming);
+        streaming.flush();
+
+        var copy = new WasmBinaryWriter();
+        inMemory.writeTo(copy);
+
+        assertArrayEquals(inMemory.getData(), stream.toByteArray());
+        assertArrayEquals(inMemory.getData(), copy.getData());
+        assertArrayEquals(data, Arrays.copyOfRange(inMemory.getData(), 3, 3 + data.length));
+    }
+
+    private static WasmModule createModule() {
+        var module = new WasmModule();
+        var type = new WasmFunctionType(null, null, List.<WasmType>of());
+        module.types.add(type);
+
+        var function = new WasmFunction(type);
+        function.setName("big");
+        function.setExportName("big");
+        for (int i = 0; i < 20000; ++i) {
+            function.getBody().add(new WasmDrop(new WasmInt32Constant(1000000 + i)));
+        }
+        module.functions.add(function);
+
+        var bigSegment = new WasmMemorySegment();
+        var data = new byte[CHUNK_SIZE + 4567];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) (i * 7 + i / 256);
+        }
+        bigSegment.setData(data);
+        module.getSegments().add(bigSegment);
+
+        var smallSegment = new WasmMemorySegment();
+        smallSegment.setOffset(data.length);
+        smallSegment.setData(new byte[] { 1, 2, 3 });
+        module.getSegments().add(smallSegment);
+
+        module.setMinMemorySize(2);
+        module.setMaxMemorySize(2);
+        module.prepareForRendering();
+        return module;
+    }
+
+    private static WasmBinaryRenderer createRenderer(WasmBinaryWriter writer) {
+        return new WasmBinaryRenderer(writer, WasmBinaryVersion.V_0x1, false, null, null, null, null,
+                WasmBinaryStatsCollector.EMPTY);
+    }
+
+    private static int indexOf(byte[] data, byte[] fragment) {
+        outer:
+        for (int i = 0; i <= data.length - fragment.length; ++i) {
+            for (int j = 0; j < fragment.length; ++j) {
+                if (data[i + j] != fragment[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.FieldHolder;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.ReferenceCache;
+import org.teavm.model.ValueType;
+import org.teavm.model.instructions.ExitInstruction;
+import org.teavm.model.instructions.InvocationType;
+import org.teavm.model.instructions.InvokeInstruction;
+
+public class ContentAddressedProgramCacheTest {
+    private static final MethodReference METHOD = new MethodReference("foo.Main", "run", ValueType.VOID);
+    private static final MethodReference CALLEE = new MethodReference("foo.Callee", "call", ValueType.VOID);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void keyDependsOnInputs() {
+        ClassHolder callee = new ClassHolder(CALLEE.getClassName());
+        ClassReaderSource classSource = name -> name.equals(callee.getName()) ? callee : null;
+        ContentAddressedProgramCache cache = createCache(new DirectoryContentStore(folder.getRoot()), "a");
+
+        String key = cache.computeKey(METHOD, createProgram(), classSource);
+        assertEquals(key, cache.computeKey(METHOD, createProgram(), classSource));
+        assertEquals(key, createCache(new DirectoryContentStore(folder.getRoot()), "a")
+                .computeKey(METHOD, createProgram(), classSource));
+
+        assertNotEquals(key, createCache(new DirectoryContentStore(folder.getRoot()), "b")
+                .computeKey(METHOD, createProgram(), classSource));
+
+        Program changedProgram = createProgram();
+        changedProgram.basicBlockAt(0).getFirstInstruction().delete();
+        assertNotEquals(key, cache.computeKey(METHOD, changedProgram, classSource));
+
+        ClassHolder changedCallee = new ClassHolder(CALLEE.getClassName());
+        FieldHolder field = new FieldHolder("field");
+        field.setType(ValueType.INTEGER);
+        changedCallee.addField(field);
+        ClassReaderSource changedClassSource = name -> name.equals(callee.getName()) ? changedCallee : null;
+        assertNotEquals(key, cache.computeKey(METHOD, createProgram(), changedClassSource));
+    }
+
+    @Test
+    public void sharesProgramsThroughDirectory() throws IOException {
+        ContentStore store = new DirectoryContentStore(folder.getRoot());
+        checkSharing(store);
+    }
+
+    @Test
+    public void sharesProgramsThroughHttp() throws IOException {
+        Map<String, byte[]> entries = new ConcurrentHashMap<>();
+        HttpServer server = startServer(entries);
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/cache";
+            HttpContentStore store = new HttpContentStore(url);
+            assertNull(store.get("missing"));
+            store.put("entry", "data".getBytes(StandardCharsets.UTF_8));
+            assertArrayEquals("data".getBytes(StandardCharsets.UTF_8), store.get("entry"));
+
+            checkSharing(store);
+            assertTrue(entries.size() > 1);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void missesWhenStoreUnavailable() throws IOException {
+        HttpServer server = startServer(new ConcurrentHashMap<>());
+        int port = server.getAddress().getPort();
+        server.stop(0);
+
+        ContentAddressedProgramCache cache = createCache(new HttpContentStore("http://localhost:" + port), "");
+        String key = cache.computeKey(METHOD, createProgram(), name -> null);
+        assertNull(cache.get(key));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    private void checkSharing(ContentStore store) throws IOException {
+        ClassReaderSource classSource = name -> null;
+        ContentAddressedProgramCache cache = createCache(store, "options");
+        String key = cache.computeKey(METHOD, createProgram(), classSource);
+        assertNull(cache.get(key));
+        cache.store(key, createProgram());
+        cache.flush();
+
+        ContentAddressedProgramCache otherCache = createCache(store, "options");
+        assertEquals(key, otherCache.computeKey(METHOD, createProgram(), classSource));
+        Program program = otherCache.get(key);
+        assertNotNull(program);
+        assertEquals(1, program.basicBlockCount());
+        assertEquals(2, program.basicBlockAt(0).instructionCount());
+        InvokeInstruction invoke = (InvokeInstruction) program.basicBlockAt(0).getFirstInstruction();
+        assertEquals(CALLEE, invoke.getMethod());
+        assertEquals(1, otherCache.getHitCount());
+    }
+
+    private static ContentAddressedProgramCache createCache(ContentStore store, String options) {
+        return new ContentAddressedProgramCache(store, new ReferenceCache(), options);
+    }
+
+    private static Program createProgram() {
+        Program program = new Program();
+        BasicBlock block = program.createBasicBlock();
+        InvokeInstruction invoke = new InvokeInstruction();
+        invoke.setType(InvocationType.SPECIAL);
+        invoke.setMethod(CALLEE);
+        block.add(invoke);
+        block.add(new ExitInstruction());
+        return program;
+    }
+
+    private static HttpServer startServer(Map<String, byte[]> entries) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String key = exchange.getRequestURI().getPath();
+            byte[] body;
+            try (InputStream input = exchange.getRequestBody()) {
+                body = input.readAllBytes();
+            }
+            switch (exchange.getRequestMethod()) {
+                case "GET": {
+                    byte[] data = entries.get(key);
+                    if (data == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                    } else {
+                        exchange.sendResponseHeaders(200, data.length);
+                        try (OutputStream output = exchange.getResponseBody()) {
+                            output.write(data);
+                        }
+                    }
+                    break;
+                }
+                case "PUT":
+                    entries.put(key, body);
+                    exchange.sendResponseHeaders(204, -1);
+                    break;
+                default:
+                    exchange.sendResponseHeaders(405, -1);
+                    break;
+            }
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PackFileCacheStorageTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsWrittenEntries() throws IOException {
+        File file = new File(folder.getRoot(), "cache.teavm-pack");
+        PackFileCacheStorage storage = new PackFileCacheStorage(file);
+        write(storage, "a/b.teavm-cls", "first");
+        write(storage, "a/c.teavm-cls", "second");
+        assertEquals("first", read(storage, "a/b.teavm-cls"));
+        storage.flush();
+
+        storage = new PackFileCacheStorage(file);
+        assertEquals("first", read(storage, "a/b.teavm-cls"));
+        assertEquals("second", read(storage, "a/c.teavm-cls"));
+        assertTrue(storage.lastModified("a/b.teavm-cls") > 0);
+        assertNull(storage.read("a/d.teavm-cls"));
+        assertEquals(0, storage.lastModified("a/d.teavm-cls"));
+    }
+
+    @Test
+    public void latestRecordWins() throws IOException {
+        File file = new File(folder.getRoot(), "cache.teavm-pack");
+        PackFileCacheStorage storage = new PackFileCacheStorage(file);
+        write(storage, "x", "old");
+        write(storage, "y", "other");
+        storage.flush();
+
+        storage = new PackFileCacheStorage(file);
+        write(storage, "x", "new");
+        storage.flush();
+
+        storage = new PackFileCacheStorage(file);
+        assertEquals("new", read(storage, "x"));
+        assertEquals("other", read(storage, "y"));
+    }
+
+    @Test
+    public void appendsToEntries() throws IOException {
+        File file = new File(folder.getRoot(), "cache.teavm-pack");
+        PackFileCacheStorage storage = new PackFileCacheStorage(file);
+        append(storage, "symbols", "foo");
+        storage.flush();
+
+        storage = new PackFileCacheStorage(file);
+        append(storage, "symbols", "bar");
+        append(storage, "symbols", "baz");
+        storage.flush();
+
+        storage = new PackFileCacheStorage(file);
+        assertEquals("foobarbaz", read(storage, "symbols"));
+    }
+
+    @Test
+    public void compactsOutdatedRecords() throws IOException {
+        File file = new File(folder.getRoot(), "cache.teavm-pack");
+        long singleRecordLength = 0;
+        for (int i = 0; i < 10; ++i) {
+            PackFileCacheStorage storage = new PackFileCacheStorage(file);
+            write(storage, "entry", "value" + i);
+            storage.flush();
+            if (i == 0) {
+                singleRecordLength = file.length();
+            }
+        }
+
+        assertTrue(file.length() <= 2 * singleRecordLength);
+        assertEquals("value9", read(new PackFileCacheStorage(file), "entry"));
+    }
+
+    @Test
+    public void ignoresTruncatedRecord() throws IOException {
+        File file = new File(folder.getRoot(), "cache.teavm-pack");
+        PackFileCacheStorage storage = new PackFileCacheStorage(file);
+        write(storage, "a", "complete");
+        write(storage, "b", "truncated");
+        storage.flush();
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.setLength(output.length() - 3);
+        }
+
+        storage = new PackFileCacheStorage(file);
+        assertEquals("complete", read(storage, "a"));
+        assertNull(storage.read("b"));
+        write(storage, "c", "after");
+        storage.flush();
+
+        storage = new PackFileCacheStorage(file);
+        assertEquals("complete", read(storage, "a"));
+        assertEquals("after", read(storage, "c"));
+    }
+
+    @Test
+    public void symbolTableStoredInPack() throws IOException {
+        File file = new File(folder.getRoot(), "cache.teavm-pack");
+        PackFileCacheStorage storage = new PackFileCacheStorage(file);
+        FileSymbolTable table = new FileSymbolTable(storage, "symbols");
+        assertEquals(0, table.lookup("foo"));
+        assertEquals(1, table.lookup("bar"));
+        table.flush();
+        storage.flush();
+
+        storage = new PackFileCacheStorage(file);
+        table = new FileSymbolTable(storage, "symbols");
+        table.update();
+        assertEquals("foo", table.at(0));
+        assertEquals(1, table.lookup("bar"));
+        assertEquals(2, table.lookup("baz"));
+    }
+
+    private static void write(CacheStorage storage, String name, String value) throws IOException {
+        try (OutputStream output = storage.write(name)) {
+            output.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void append(CacheStorage storage, String name, String value) throws IOException {
+        try (OutputStream output = storage.append(name)) {
+            output.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String read(CacheStorage storage, String name) throws IOException {
+        try (InputStream input = storage.read(name)) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Test;
+
+public class ConcurrentUtilTest {
+    private ExecutorService pool = new ForkJoinPool(4);
+
+    @After
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void keepsOrderOfTasks() {
+        List<Callable<Integer>> tasks = List.of(
+                () -> {
+                    Thread.sleep(20);
+                    return 1;
+                },
+                () -> 2,
+                () -> 3
+        );
+        assertEquals(List.of(1, 2, 3), ConcurrentUtil.invokeAll(pool, tasks));
+    }
+
+    @Test
+    public void rethrowsRuntimeExceptionOfFirstFailedTask() {
+        var first = new IllegalStateException("first");
+        var second = new IllegalArgumentException("second");
+        List<Callable<Void>> tasks = List.of(
+                () -> null,
+                () -> {
+                    Thread.sleep(20);
+                    throw first;
+                },
+                () -> {
+                    throw second;
+                }
+        );
+        try {
+            ConcurrentUtil.invokeAll(pool, tasks);
+            fail("Exception expected");
+        } catch (IllegalStateException e) {
+            assertSame(first, e);
+        }
+    }
+
+    @Test
+    public void rethrowsError() {
+        var error = new AssertionError("error");
+        List<Callable<Void>> tasks = List.of(() -> {
+            throw error;
+        });
+        try {
+            ConcurrentUtil.invokeAll(pool, tasks);
+            fail("Error expected");
+        } catch (AssertionError e) {
+            assertSame(error, e);
+        }
+    }
+
+    @Test
+    public void wrapsCheckedException() {
+        var exception = new IOException("io");
+        List<Callable<Void>> tasks = List.of(() -> {
+            throw exception;
+        });
+        try {
+            ConcurrentUtil.invokeAll(pool, tasks);
+            fail("Exception expected");
+        } catch (RuntimeException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+}
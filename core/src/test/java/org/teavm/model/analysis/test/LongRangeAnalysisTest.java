@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.analysis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.teavm.model.ListingParseUtils;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.ValueType;
+import org.teavm.model.Variable;
+import org.teavm.model.analysis.LongRangeAnalysis;
+
+public class LongRangeAnalysisTest {
+    @Rule
+    public TestName name = new TestName();
+
+    private static final String RANGE_DIRECTIVE = "// RANGE ";
+    private static final String FULL_DIRECTIVE = "// FULL ";
+
+    @Test
+    public void loop() {
+        test();
+    }
+
+    @Test
+    public void overflow() {
+        test();
+    }
+
+    @Test
+    public void remainder() {
+        test();
+    }
+
+    @Test
+    public void branch() {
+        test();
+    }
+
+    private void test() {
+        String resourceName = "model/analysis/long-range/" + name.getMethodName() + ".txt";
+        Program program = ListingParseUtils.parseFromResource(resourceName);
+        LongRangeAnalysis analysis = new LongRangeAnalysis(program, new MethodReference("Foo", "foo", ValueType.VOID));
+
+        Map<String, Variable> variablesByLabel = variablesByLabel(program);
+        Map<String, long[]> expectedRanges = extractExpectedRanges(resourceName);
+        assertTrue("No expectations found", !expectedRanges.isEmpty());
+        for (Map.Entry<String, long[]> entry : expectedRanges.entrySet()) {
+            Variable var = variablesByLabel.get(entry.getKey());
+            assertNotNull("Variable " + entry.getKey() + " is missing", var);
+            assertTrue("Variable " + entry.getKey() + " must be tracked", analysis.isTracked(var));
+            assertEquals("Lower bound of " + entry.getKey(), entry.getValue()[0], analysis.getLowerBound(var));
+            assertEquals("Upper bound of " + entry.getKey(), entry.getValue()[1], analysis.getUpperBound(var));
+        }
+    }
+
+    private Map<String, long[]> extractExpectedRanges(String name) {
+        ClassLoader classLoader = LongRangeAnalysisTest.class.getClassLoader();
+        try (InputStream input = classLoader.getResourceAsStream(name);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, long[]> result = new HashMap<>();
+
+            while (true) {
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+
+                int index = line.indexOf(RANGE_DIRECTIVE);
+                if (index >= 0) {
+                    String[] parts = line.substring(index + RANGE_DIRECTIVE.length()).trim().split(" +");
+                    result.put(parts[0], new long[] { Long.parseLong(parts[1]), Long.parseLong(parts[2]) });
+                }
+
+                index = line.indexOf(FULL_DIRECTIVE);
+                if (index >= 0) {
+                    String variable = line.substring(index + FULL_DIRECTIVE.length()).trim();
+                    result.put(variable, new long[] { Long.MIN_VALUE, Long.MAX_VALUE });
+                }
+            }
+
+            return result;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Map<String, Variable> variablesByLabel(Program program) {
+        Map<String, Variable> result = new HashMap<>();
+        for (int i = 0; i < program.variableCount(); ++i) {
+            Variable var = program.variableAt(i);
+            if (var.getLabel() != null) {
+                result.put(var.getLabel(), var);
+            }
+        }
+        return result;
+    }
+}
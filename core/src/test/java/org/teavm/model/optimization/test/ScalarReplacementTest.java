@@ -83,6 +83,36 @@ public class ScalarReplacementTest {
         doTest();
     }
 
+    @Test
+    public void array() {
+        doTest();
+    }
+
+    @Test
+    public void arrayInBranches() {
+        doTest();
+    }
+
+    @Test
+    public void arrayNarrowElements() {
+        doTest();
+    }
+
+    @Test
+    public void escapingArray() {
+        doTest();
+    }
+
+    @Test
+    public void arrayVariableIndex() {
+        doTest();
+    }
+
+    @Test
+    public void arrayIndexOutOfBounds() {
+        doTest();
+    }
+
     private void doTest() {
         String originalPath = PREFIX + name.getMethodName() + ".original.txt";
         String expectedPath = PREFIX + name.getMethodName() + ".expected.txt";
@@ -0,0 +1,40 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.interop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Marks a static method as an entry point to a part of the application that should be loaded on demand.
+ * When JavaScript target generates ES2015 modules and code splitting is enabled, classes which are only
+ * reachable through split points are moved to separate chunks. The chunk is fetched when the method is called
+ * for the first time, so the method is asynchronous and must be called from a thread. Classes used by
+ * several chunks are moved to a common chunk.</p>
+ *
+ * <p>Other targets ignore this annotation.</p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SplitPoint {
+    /**
+     * Name of the chunk. Split points with the same name share their chunk. When not specified,
+     * name of the chunk is derived from the name of the method.
+     */
+    String value() default "";
+}
@@ -32,6 +32,13 @@ public class DataView extends ArrayBufferView {
     public DataView(ArrayBuffer buffer, int offset) {
     }
 
+    /**
+     * Creates a data view over the same memory as the given view, for example, over a Java array wrapped by
+     * {@link Int8Array#fromJavaArray(byte[])}. No data is copied.
+     */
+    @JSBody(params = "view", script = "return new DataView(view.buffer, view.byteOffset, view.byteLength);")
+    public static native DataView reinterpret(ArrayBufferView view);
+
     public native byte getInt8(int byteOffset);
 
     public native short getUint8(int byteOffset);
@@ -15,7 +15,9 @@
  */
 package org.teavm.jso.typedarrays;
 
+import java.util.Objects;
 import org.teavm.jso.JSBody;
+import org.teavm.jso.JSByRef;
 import org.teavm.jso.JSClass;
 import org.teavm.jso.JSIndexer;
 
@@ -42,6 +44,42 @@ public class Int16Array extends ArrayBufferView {
     @JSIndexer
     public native void set(int index, short value);
 
+    public native Int16Array subarray(int begin, int end);
+
+    public native Int16Array subarray(int begin);
+
+    /**
+     * Creates a view over the Java array. No data is copied, so changes made through the view are visible
+     * in the array and vice versa.
+     */
+    @JSBody(params = "array", script = "return array;")
+    public static native Int16Array fromJavaArray(@JSByRef short[] array);
+
+    /**
+     * Creates a view over {@code length} elements of the Java array, starting at {@code offset}.
+     * No data is copied.
+     */
+    public static Int16Array fromJavaArray(short[] array, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, array.length);
+        return fromJavaArray(array).subarray(offset, offset + length);
+    }
+
+    /**
+     * Wraps the typed array into a Java array, which shares memory with the typed array.
+     * To access an {@link ArrayBuffer} from Java, create a typed array over it first.
+     */
+    @JSByRef
+    @JSBody(params = "array", script = "return array;")
+    public static native short[] toJavaArray(Int16Array array);
+
+    /**
+     * Creates a view over the same memory as the given view, interpreting its bytes as elements
+     * of this array type. No data is copied. Byte offset of the given view must be a multiple
+     * of the element size.
+     */
+    @JSBody(params = "view", script = "return new Int16Array(view.buffer, view.byteOffset, view.byteLength >> 1);")
+    public static native Int16Array reinterpret(ArrayBufferView view);
+
     @JSBody(params = "length", script = "return new Int16Array(length);")
     @Deprecated
     public static native Int16Array create(int length);
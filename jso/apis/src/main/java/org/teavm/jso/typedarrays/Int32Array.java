@@ -15,8 +15,10 @@
  */
 package org.teavm.jso.typedarrays;
 
+import java.util.Objects;
 import org.teavm.jso.JSBody;
 import org.teavm.jso.JSByRef;
+import org.teavm.jso.JSByRef;
 import org.teavm.jso.JSClass;
 import org.teavm.jso.JSIndexer;
 
@@ -43,6 +45,42 @@ public class Int32Array extends ArrayBufferView {
     @JSIndexer
     public native void set(int index, int value);
 
+    public native Int32Array subarray(int begin, int end);
+
+    public native Int32Array subarray(int begin);
+
+    /**
+     * Creates a view over the Java array. No data is copied, so changes made through the view are visible
+     * in the array and vice versa.
+     */
+    @JSBody(params = "array", script = "return array;")
+    public static native Int32Array fromJavaArray(@JSByRef int[] array);
+
+    /**
+     * Creates a view over {@code length} elements of the Java array, starting at {@code offset}.
+     * No data is copied.
+     */
+    public static Int32Array fromJavaArray(int[] array, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, array.length);
+        return fromJavaArray(array).subarray(offset, offset + length);
+    }
+
+    /**
+     * Wraps the typed array into a Java array, which shares memory with the typed array.
+     * To access an {@link ArrayBuffer} from Java, create a typed array over it first.
+     */
+    @JSByRef
+    @JSBody(params = "array", script = "return array;")
+    public static native int[] toJavaArray(Int32Array array);
+
+    /**
+     * Creates a view over the same memory as the given view, interpreting its bytes as elements
+     * of this array type. No data is copied. Byte offset of the given view must be a multiple
+     * of the element size.
+     */
+    @JSBody(params = "view", script = "return new Int32Array(view.buffer, view.byteOffset, view.byteLength >> 2);")
+    public static native Int32Array reinterpret(ArrayBufferView view);
+
     @Override
     public native void set(@JSByRef int[] data, int offset);
 
@@ -15,7 +15,9 @@
  */
 package org.teavm.jso.typedarrays;
 
+import java.util.Objects;
 import org.teavm.jso.JSBody;
+import org.teavm.jso.JSByRef;
 import org.teavm.jso.JSClass;
 import org.teavm.jso.JSIndexer;
 
@@ -42,6 +44,54 @@ public class Uint8Array extends ArrayBufferView {
     @JSIndexer
     public native void set(int index, short value);
 
+    public native Uint8Array subarray(int begin, int end);
+
+    public native Uint8Array subarray(int begin);
+
+    /**
+     * Creates a view over the Java array. No data is copied, so changes made through the view are visible
+     * in the array and vice versa.
+     */
+    @JSBody(params = "array", script = "return new Uint8Array(array.buffer, array.byteOffset, array.length);")
+    public static native Uint8Array fromJavaArray(@JSByRef byte[] array);
+
+    /**
+     * Creates a view over {@code length} elements of the Java array, starting at {@code offset}.
+     * No data is copied.
+     */
+    public static Uint8Array fromJavaArray(byte[] array, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, array.length);
+        return fromJavaArray(array).subarray(offset, offset + length);
+    }
+
+    /**
+     * Creates a view over the Java array, where {@code true} is represented by 1 and {@code false} by 0.
+     * No data is copied.
+     */
+    @JSBody(params = "array", script = "return new Uint8Array(array.buffer, array.byteOffset, array.length);")
+    public static native Uint8Array fromJavaArray(@JSByRef boolean[] array);
+
+    public static Uint8Array fromJavaArray(boolean[] array, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, array.length);
+        return fromJavaArray(array).subarray(offset, offset + length);
+    }
+
+    /**
+     * Wraps the typed array into a Java array, which shares memory with the typed array.
+     * To access an {@link ArrayBuffer} from Java, create a typed array over it first.
+     */
+    @JSByRef
+    @JSBody(params = "array", script = "return new Int8Array(array.buffer, array.byteOffset, array.length);")
+    public static native byte[] toJavaArray(Uint8Array array);
+
+    /**
+     * Creates a view over the same memory as the given view, interpreting its bytes as elements
+     * of this array type. No data is copied. Byte offset of the given view must be a multiple
+     * of the element size.
+     */
+    @JSBody(params = "view", script = "return new Uint8Array(view.buffer, view.byteOffset, view.byteLength);")
+    public static native Uint8Array reinterpret(ArrayBufferView view);
+
     @JSBody(params = "length", script = "return new Uint8Array(length);")
     @Deprecated
     public static native Uint8Array create(int length);
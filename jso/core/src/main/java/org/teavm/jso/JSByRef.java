@@ -23,7 +23,10 @@ import java.lang.annotation.Target;
 /**
  * <p>Marks parameters of JavaScript methods that should be passed by reference.
  * This annotation is only applicable to parameters of array type. More specifically:
- * to: byte[], short[], char[], int[], float[], double[].</p>
+ * to: boolean[], byte[], short[], char[], int[], float[], double[].</p>
+ *
+ * <p>On JavaScript side such parameter is represented by a typed array that shares memory with the Java array.
+ * boolean[] is represented by Int8Array, where true and false are stored as 1 and 0.</p>
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ ElementType.PARAMETER, ElementType.METHOD })
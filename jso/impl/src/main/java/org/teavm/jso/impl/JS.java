@@ -40,6 +40,11 @@ final class JS {
     @NoSideEffects
     public static native JSObject concatArray(JSObject a, JSObject b);
 
+    @InjectedBy(JSNativeInjector.class)
+    @PluggableDependency(JSNativeInjector.class)
+    @NoSideEffects
+    public static native boolean[] dataToBooleanArray(JSObject obj);
+
     @InjectedBy(JSNativeInjector.class)
     @PluggableDependency(JSNativeInjector.class)
     @NoSideEffects
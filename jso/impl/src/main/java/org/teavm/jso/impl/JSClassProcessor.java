@@ -771,7 +771,7 @@ class JSClassProcessor {
         }
 
         boolean returnByRef = method.getAnnotations().get(JSByRef.class.getName()) != null;
-        if (returnByRef && !typeHelper.isSupportedByRefType(method.getResultType())) {
+        if (returnByRef && !typeHelper.isSupportedExplicitByRefType(method.getResultType())) {
             diagnostics.error(callLocation, "Method {{m0}} is marked with @JSByRef, but does not return valid "
                     + "array type", method.getReference());
             return false;
@@ -893,7 +893,7 @@ class JSClassProcessor {
                 return false;
             }
             if (parameterAnnotations[i].get(JSByRef.class.getName()) != null) {
-                if (!typeHelper.isSupportedByRefType(paramType)) {
+                if (!typeHelper.isSupportedExplicitByRefType(paramType)) {
                     diagnostics.error(callLocation, "Method {{m0}} is not a proper native JavaScript method "
                             + "declaration: its " + (i + 1) + "th parameter is declared as JSByRef, "
                             + "which has incompatible type", method.getReference());
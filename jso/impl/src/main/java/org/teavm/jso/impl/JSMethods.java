@@ -100,6 +100,8 @@ final class JSMethods {
     public static final MethodReference ARRAY_UNWRAPPER = new MethodReference(JS.class,
             "arrayUnwrapper", Class.class, JS.UnwrapFunction.class);
 
+    public static final MethodReference DATA_TO_BOOLEAN_ARRAY = new MethodReference(JS.class,
+            "dataToBooleanArray", JSObject.class, boolean[].class);
     public static final MethodReference DATA_TO_BYTE_ARRAY = new MethodReference(JS.class,
             "dataToByteArray", JSObject.class, byte[].class);
     public static final MethodReference DATA_TO_SHORT_ARRAY = new MethodReference(JS.class,
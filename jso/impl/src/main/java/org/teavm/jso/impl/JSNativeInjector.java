@@ -169,6 +169,9 @@ public class JSNativeInjector implements Injector, DependencyPlugin {
                 }
                 break;
 
+            case "dataToBooleanArray":
+                dataToArray(context, "$rt_booleancls");
+                break;
             case "dataToByteArray":
                 dataToArray(context, "$rt_bytecls");
                 break;
@@ -411,6 +414,9 @@ public class JSNativeInjector implements Injector, DependencyPlugin {
                 method.getResult().propagate(agent.getType("java.lang.String"));
                 break;
 
+            case "dataToBooleanArray":
+                method.getResult().propagate(agent.getType("[Z"));
+                break;
             case "dataToByteArray":
                 method.getResult().propagate(agent.getType("[B"));
                 break;
@@ -104,6 +104,15 @@ class JSTypeHelper {
         }
     }
 
+    /**
+     * Tells whether an array type can be marked with {@link org.teavm.jso.JSByRef}. Unlike
+     * {@link #isSupportedByRefType(ValueType)}, allows {@code boolean[]}, which is only passed by reference
+     * on explicit request, since variable arguments of boolean type are expected to become JS booleans.
+     */
+    public boolean isSupportedExplicitByRefType(ValueType type) {
+        return isSupportedByRefType(type) || type.equals(ValueType.arrayOf(ValueType.BOOLEAN));
+    }
+
     public boolean isSupportedByRefType(ValueType type) {
         if (!(type instanceof ValueType.Array)) {
             return false;
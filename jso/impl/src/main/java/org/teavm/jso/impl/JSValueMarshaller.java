@@ -271,6 +271,8 @@ class JSValueMarshaller {
         type = ((ValueType.Array) type).getItemType();
         if (type instanceof ValueType.Primitive) {
             switch (((ValueType.Primitive) type).getKind()) {
+                case BOOLEAN:
+                    return invokeMethod(location, JSMethods.DATA_TO_BOOLEAN_ARRAY, var);
                 case BYTE:
                     return invokeMethod(location, JSMethods.DATA_TO_BYTE_ARRAY, var);
                 case SHORT:
@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.classlib;
+
+/**
+ * Measures allocation throughput: many short-lived small objects, small objects interleaved with
+ * large arrays that stay alive for a while, and binary trees built next to a long-lived one.
+ * Checksums are printed, so that output of different targets can be compared.
+ */
+public final class AllocationBenchmark {
+    private static final int SMALL_OBJECT_COUNT = 2000000;
+    private static final int MIXED_COUNT = 200000;
+    private static final int RETAINED_ARRAYS = 64;
+    private static final int TREE_DEPTH = 16;
+    private static String lastName;
+    private static int lastChecksum;
+
+    private AllocationBenchmark() {
+    }
+
+    public static void run(BenchmarkRunner runner) {
+        measure(runner, "alloc.smallObjects", () -> {
+            int sum = 0;
+            Node list = null;
+            for (int i = 0; i < SMALL_OBJECT_COUNT; ++i) {
+                list = new Node(i, i % 100 == 0 ? null : list, null);
+                sum += list.value;
+            }
+            return sum;
+        });
+        measure(runner, "alloc.mixedSizes", () -> {
+            int sum = 0;
+            var retained = new byte[RETAINED_ARRAYS][];
+            for (int i = 0; i < MIXED_COUNT; ++i) {
+                var node = new Node(i, null, null);
+                sum += node.value;
+                if (i % 16 == 0) {
+                    var array = new byte[1024 + (i % 7) * 1024];
+                    array[array.length - 1] = (byte) i;
+                    retained[(i / 16) % RETAINED_ARRAYS] = array;
+                    sum += array.length;
+                }
+            }
+            for (var array : retained) {
+                sum += array[array.length - 1];
+            }
+            return sum;
+        });
+        measure(runner, "alloc.trees", () -> {
+            var longLived = createTree(TREE_DEPTH);
+            int sum = 0;
+            for (int i = 0; i < 8; ++i) {
+                sum += countNodes(createTree(TREE_DEPTH - 2));
+            }
+            return sum + countNodes(longLived);
+        });
+    }
+
+    private static Node createTree(int depth) {
+        return depth == 0
+                ? new Node(1, null, null)
+                : new Node(1, createTree(depth - 1), createTree(depth - 1));
+    }
+
+    private static int countNodes(Node node) {
+        return node == null ? 0 : node.value + countNodes(node.left) + countNodes(node.right);
+    }
+
+    private static void measure(BenchmarkRunner runner, String name, Checksum body) {
+        runner.measure(name, () -> { }, () -> check(name, body.compute()));
+    }
+
+    private static void check(String name, int checksum) {
+        if (!name.equals(lastName)) {
+            lastName = name;
+            lastChecksum = checksum;
+            System.out.println(name + " checksum: " + checksum);
+        } else if (lastChecksum != checksum) {
+            System.out.println(name + " produced different results: " + lastChecksum + " and " + checksum);
+        }
+    }
+
+    interface Checksum {
+        int compute();
+    }
+
+    static final class Node {
+        final int value;
+        final Node left;
+        final Node right;
+
+        Node(int value, Node left, Node right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+        }
+    }
+}
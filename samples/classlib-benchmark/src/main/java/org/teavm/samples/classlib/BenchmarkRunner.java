@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.classlib;
+
+/**
+ * Measures average time of a piece of code and prints it to stdout. Each measurement runs several warm-up
+ * iterations first, so that JIT compiler of the browser has a chance to optimize the code.
+ */
+public class BenchmarkRunner {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 20;
+    private String filter;
+
+    public BenchmarkRunner(String filter) {
+        this.filter = filter;
+    }
+
+    public boolean isEnabled(String name) {
+        return filter.isEmpty() || name.contains(filter);
+    }
+
+    public void measure(String name, Runnable setup, Runnable body) {
+        if (!isEnabled(name)) {
+            return;
+        }
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            setup.run();
+            body.run();
+        }
+        long total = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            setup.run();
+            long start = System.nanoTime();
+            body.run();
+            total += System.nanoTime() - start;
+        }
+        long micros = total / ITERATIONS / 1000;
+        System.out.println(name + ": " + (micros / 1000) + "." + formatFraction(micros % 1000) + " ms");
+    }
+
+    private static String formatFraction(long value) {
+        var result = String.valueOf(value);
+        while (result.length() < 3) {
+            result = "0" + result;
+        }
+        return result;
+    }
+}
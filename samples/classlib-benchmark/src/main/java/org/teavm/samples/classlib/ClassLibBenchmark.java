@@ -0,0 +1,31 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.classlib;
+
+public final class ClassLibBenchmark {
+    private ClassLibBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        var filter = args.length > 0 ? args[0] : "";
+        var runner = new BenchmarkRunner(filter);
+        SortBenchmark.run(runner);
+        MapBenchmark.run(runner);
+        StringBenchmark.run(runner);
+        AllocationBenchmark.run(runner);
+        System.out.println("Done");
+    }
+}
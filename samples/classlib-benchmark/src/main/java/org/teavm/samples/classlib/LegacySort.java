@@ -0,0 +1,165 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.classlib;
+
+import java.util.Comparator;
+
+/**
+ * Bottom-up merge sort that {@code Arrays.sort} used to be implemented with, kept here as a baseline.
+ */
+final class LegacySort {
+    private LegacySort() {
+    }
+
+    static void sort(int[] a) {
+        int[] first = a;
+        int[] second = new int[a.length];
+        int chunkSize = 1;
+        while (chunkSize < a.length) {
+            for (int i = 0; i < first.length; i += chunkSize * 2) {
+                merge(first, second, i, Math.min(first.length, i + chunkSize),
+                        Math.min(first.length, i + 2 * chunkSize));
+            }
+            int[] tmp = first;
+            first = second;
+            second = tmp;
+            chunkSize *= 2;
+        }
+        if (first != a) {
+            System.arraycopy(first, 0, a, 0, a.length);
+        }
+    }
+
+    private static void merge(int[] a, int[] b, int from, int split, int to) {
+        int index = from;
+        int from2 = split;
+        while (true) {
+            if (from == split) {
+                while (from2 < to) {
+                    b[index++] = a[from2++];
+                }
+                break;
+            } else if (from2 == to) {
+                while (from < split) {
+                    b[index++] = a[from++];
+                }
+                break;
+            }
+            int p = a[from];
+            int q = a[from2];
+            if (p <= q) {
+                b[index++] = p;
+                ++from;
+            } else {
+                b[index++] = q;
+                ++from2;
+            }
+        }
+    }
+
+    static void sort(double[] a) {
+        double[] first = a;
+        double[] second = new double[a.length];
+        int chunkSize = 1;
+        while (chunkSize < a.length) {
+            for (int i = 0; i < first.length; i += chunkSize * 2) {
+                merge(first, second, i, Math.min(first.length, i + chunkSize),
+                        Math.min(first.length, i + 2 * chunkSize));
+            }
+            double[] tmp = first;
+            first = second;
+            second = tmp;
+            chunkSize *= 2;
+        }
+        if (first != a) {
+            System.arraycopy(first, 0, a, 0, a.length);
+        }
+    }
+
+    private static void merge(double[] a, double[] b, int from, int split, int to) {
+        int index = from;
+        int from2 = split;
+        while (true) {
+            if (from == split) {
+                while (from2 < to) {
+                    b[index++] = a[from2++];
+                }
+                break;
+            } else if (from2 == to) {
+                while (from < split) {
+                    b[index++] = a[from++];
+                }
+                break;
+            }
+            double p = a[from];
+            double q = a[from2];
+            if (Double.compare(p, q) <= 0) {
+                b[index++] = p;
+                ++from;
+            } else {
+                b[index++] = q;
+                ++from2;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> void sort(T[] a, Comparator<? super T> c) {
+        Object[] first = a;
+        Object[] second = new Object[a.length];
+        int chunkSize = 1;
+        while (chunkSize < a.length) {
+            for (int i = 0; i < first.length; i += chunkSize * 2) {
+                merge(first, second, i, Math.min(first.length, i + chunkSize),
+                        Math.min(first.length, i + 2 * chunkSize), (Comparator<Object>) c);
+            }
+            Object[] tmp = first;
+            first = second;
+            second = tmp;
+            chunkSize *= 2;
+        }
+        if (first != a) {
+            System.arraycopy(first, 0, a, 0, a.length);
+        }
+    }
+
+    private static void merge(Object[] a, Object[] b, int from, int split, int to, Comparator<Object> comp) {
+        int index = from;
+        int from2 = split;
+        while (true) {
+            if (from == split) {
+                while (from2 < to) {
+                    b[index++] = a[from2++];
+                }
+                break;
+            } else if (from2 == to) {
+                while (from < split) {
+                    b[index++] = a[from++];
+                }
+                break;
+            }
+            Object p = a[from];
+            Object q = a[from2];
+            if (comp.compare(p, q) <= 0) {
+                b[index++] = p;
+                ++from;
+            } else {
+                b[index++] = q;
+                ++from2;
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.classlib;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Measures put, get and iteration of hash-based collections with one million entries, and lookups
+ * with keys whose hash codes collide.
+ */
+public final class MapBenchmark {
+    private static final int SIZE = 1000000;
+    private static final int COLLIDING_SIZE = 20000;
+
+    private MapBenchmark() {
+    }
+
+    public static void run(BenchmarkRunner runner) {
+        var keys = new String[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            keys[i] = "key" + i;
+        }
+        measureMap(runner, "hashMap", HashMap::new, keys);
+        measureMap(runner, "linkedHashMap", LinkedHashMap::new, keys);
+
+        var set = new HashSet<String>();
+        runner.measure("map.hashSet.add", set::clear, () -> {
+            for (var key : keys) {
+                set.add(key);
+            }
+        });
+        runner.measure("map.hashSet.contains", () -> { }, () -> {
+            for (var key : keys) {
+                set.contains(key);
+            }
+        });
+
+        var collidingKeys = new CollidingKey[COLLIDING_SIZE];
+        for (int i = 0; i < COLLIDING_SIZE; ++i) {
+            collidingKeys[i] = new CollidingKey(i);
+        }
+        var collidingMap = new HashMap<CollidingKey, Integer>();
+        runner.measure("map.colliding.put", collidingMap::clear, () -> {
+            for (int i = 0; i < COLLIDING_SIZE; ++i) {
+                collidingMap.put(collidingKeys[i], i);
+            }
+        });
+        runner.measure("map.colliding.get", () -> { }, () -> {
+            for (var key : collidingKeys) {
+                collidingMap.get(key);
+            }
+        });
+    }
+
+    private static void measureMap(BenchmarkRunner runner, String name, Supplier<Map<String, Integer>> factory,
+            String[] keys) {
+        var map = factory.get();
+        runner.measure("map." + name + ".put", map::clear, () -> {
+            for (int i = 0; i < keys.length; ++i) {
+                map.put(keys[i], i);
+            }
+        });
+        runner.measure("map." + name + ".get", () -> { }, () -> {
+            for (var key : keys) {
+                map.get(key);
+            }
+        });
+        runner.measure("map." + name + ".iterate", () -> { }, () -> {
+            int sum = 0;
+            for (var entry : map.entrySet()) {
+                sum += entry.getValue();
+            }
+            if (sum == 0) {
+                System.out.println("Unexpected sum");
+            }
+        });
+    }
+
+    static final class CollidingKey implements Comparable<CollidingKey> {
+        private final int value;
+
+        CollidingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value & 7;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CollidingKey && ((CollidingKey) obj).value == value;
+        }
+
+        @Override
+        public int compareTo(CollidingKey o) {
+            return Integer.compare(value, o.value);
+        }
+    }
+}
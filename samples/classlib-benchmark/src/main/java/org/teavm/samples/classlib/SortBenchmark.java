@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.classlib;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Compares {@link Arrays#sort} with the bottom-up merge sort that the class library used before
+ * (see {@link LegacySort}) on several kinds of input.
+ */
+public final class SortBenchmark {
+    private static final int SIZE = 200000;
+
+    private SortBenchmark() {
+    }
+
+    public static void run(BenchmarkRunner runner) {
+        var random = new Random(1);
+        var inputs = new int[][] { randomInts(random), fewUniqueInts(random), sortedInts(), reversedInts() };
+        var inputNames = new String[] { "random", "few-unique", "sorted", "reversed" };
+
+        for (int i = 0; i < inputs.length; ++i) {
+            var input = inputs[i];
+            var name = inputNames[i];
+            var ints = new int[SIZE];
+            var doubles = new double[SIZE];
+            var objects = new Integer[SIZE];
+            Runnable copyInts = () -> System.arraycopy(input, 0, ints, 0, SIZE);
+            Runnable copyDoubles = () -> {
+                for (int j = 0; j < SIZE; ++j) {
+                    doubles[j] = input[j] / 8.0;
+                }
+            };
+            Runnable copyObjects = () -> {
+                for (int j = 0; j < SIZE; ++j) {
+                    objects[j] = input[j];
+                }
+            };
+            Comparator<Integer> comparator = Integer::compare;
+
+            runner.measure("sort.int." + name + ".legacy", copyInts, () -> LegacySort.sort(ints));
+            runner.measure("sort.int." + name + ".current", copyInts, () -> Arrays.sort(ints));
+            runner.measure("sort.double." + name + ".legacy", copyDoubles, () -> LegacySort.sort(doubles));
+            runner.measure("sort.double." + name + ".current", copyDoubles, () -> Arrays.sort(doubles));
+            runner.measure("sort.object." + name + ".legacy", copyObjects, () -> LegacySort.sort(objects, comparator));
+            runner.measure("sort.object." + name + ".current", copyObjects, () -> Arrays.sort(objects, comparator));
+        }
+    }
+
+    private static int[] randomInts(Random random) {
+        var result = new int[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            result[i] = random.nextInt();
+        }
+        return result;
+    }
+
+    private static int[] fewUniqueInts(Random random) {
+        var result = new int[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            result[i] = random.nextInt(16);
+        }
+        return result;
+    }
+
+    private static int[] sortedInts() {
+        var result = new int[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            result[i] = i;
+        }
+        return result;
+    }
+
+    private static int[] reversedInts() {
+        var result = new int[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            result[i] = SIZE - i;
+        }
+        return result;
+    }
+}
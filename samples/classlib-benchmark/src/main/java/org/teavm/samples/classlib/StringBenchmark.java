@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.classlib;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Measures searching, replacing, hashing and UTF-8 conversion of strings. Each operation prints
+ * a checksum of its results, so that output of the JavaScript and WebAssembly versions can be compared
+ * with the output of the JVM.
+ */
+public final class StringBenchmark {
+    private static final int WORD_COUNT = 20000;
+    private static final String[] WORDS = { "alpha", "beta", "gamma", "delta", "\u00E9psilon",
+            "\u0436\u0435\u0442\u0430", "\u03B8\u03B7\u03C4\u03B1", "\uD83D\uDE00" };
+    private static String lastName;
+    private static int lastChecksum;
+
+    private StringBenchmark() {
+    }
+
+    public static void run(BenchmarkRunner runner) {
+        var sb = new StringBuilder();
+        for (int i = 0; i < WORD_COUNT; ++i) {
+            sb.append(WORDS[i % WORDS.length]).append(i % 10 == 9 ? '\n' : ' ');
+        }
+        var text = sb.toString();
+        var lines = text.split("\n");
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+        var copies = new String[lines.length];
+
+        measure(runner, "string.indexOf", () -> {
+            int sum = 0;
+            for (var line : lines) {
+                sum += line.indexOf("gamma") + line.indexOf(' ', 10) + line.indexOf(0x1F600);
+            }
+            return sum;
+        });
+        measure(runner, "string.lastIndexOf", () -> {
+            int sum = 0;
+            for (var line : lines) {
+                sum += line.lastIndexOf("beta") + line.lastIndexOf('a');
+            }
+            return sum;
+        });
+        measure(runner, "string.contains", () -> {
+            int sum = 0;
+            for (var line : lines) {
+                if (line.contains("delta gamma")) {
+                    sum++;
+                }
+                if (line.startsWith("alpha") || line.endsWith("\uD83D\uDE00")) {
+                    sum += 2;
+                }
+            }
+            return sum;
+        });
+        measure(runner, "string.replace", () -> {
+            int sum = 0;
+            for (var line : lines) {
+                sum += line.replace(' ', '_').length() + line.replace("alpha", "omega").indexOf("omega");
+            }
+            return sum;
+        });
+        runner.measure("string.hashCode", () -> {
+            for (int i = 0; i < lines.length; ++i) {
+                copies[i] = new String(lines[i].toCharArray());
+            }
+        }, () -> {
+            int sum = 0;
+            for (var copy : copies) {
+                sum += copy.hashCode();
+            }
+            check("string.hashCode", sum);
+        });
+        measure(runner, "string.getBytes", () -> text.getBytes(StandardCharsets.UTF_8).length);
+        measure(runner, "string.fromBytes", () -> {
+            var decoded = new String(bytes, StandardCharsets.UTF_8);
+            return decoded.equals(text) ? decoded.length() : -1;
+        });
+    }
+
+    private static void measure(BenchmarkRunner runner, String name, Checksum body) {
+        runner.measure(name, () -> { }, () -> check(name, body.compute()));
+    }
+
+    private static void check(String name, int checksum) {
+        if (!name.equals(lastName)) {
+            lastName = name;
+            lastChecksum = checksum;
+            System.out.println(name + " checksum: " + checksum);
+        } else if (lastChecksum != checksum) {
+            System.out.println(name + " produced different results: " + lastChecksum + " and " + checksum);
+        }
+    }
+
+    interface Checksum {
+        int compute();
+    }
+}
@@ -56,6 +56,7 @@ include("hello")
 include("async")
 include("benchmark")
 include("pi")
+include("classlib-benchmark")
 include("promise")
 include("kotlin")
 include("scala")
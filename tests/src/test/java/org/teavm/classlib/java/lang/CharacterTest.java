@@ -39,6 +39,19 @@ public class CharacterTest {
         assertEquals(Character.MATH_SYMBOL, Character.getType(0x21F7));
         assertEquals(Character.NON_SPACING_MARK, Character.getType(0xFE25));
         assertEquals(Character.DECIMAL_DIGIT_NUMBER, Character.getType(0x1D7D9));
+        assertEquals(Character.PRIVATE_USE, Character.getType(0xE000));
+        assertEquals(Character.SURROGATE, Character.getType(0xDC00));
+        assertEquals(Character.UNASSIGNED, Character.getType(0x10FFFF));
+        assertEquals(Character.UNASSIGNED, Character.getType(0x110000));
+    }
+
+    @Test
+    public void caseMappingOutsideOfLatin() {
+        assertEquals(0xFF21, Character.toUpperCase(0xFF41));
+        assertEquals(0xFF41, Character.toLowerCase(0xFF21));
+        assertEquals(0x10428, Character.toLowerCase(0x10400));
+        assertEquals(0x10400, Character.toUpperCase(0x10428));
+        assertEquals(0x1F600, Character.toUpperCase(0x1F600));
     }
 
     @Test
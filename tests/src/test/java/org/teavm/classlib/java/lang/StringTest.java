@@ -22,6 +22,7 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -101,6 +102,16 @@ public class StringTest {
         assertTrue("123".startsWith("12"));
     }
 
+    @Test
+    public void startsWithOffset() {
+        assertTrue("12345".startsWith("34", 2));
+        assertTrue("12345".startsWith("", 5));
+        assertFalse("12345".startsWith("12", -1));
+        assertFalse("12345".startsWith("", -1));
+        assertFalse("12345".startsWith("", 6));
+        assertFalse("12345".startsWith("45", 4));
+    }
+
     @Test
     public void regionsMatched() {
         assertTrue("12345".regionMatches(2, "23456", 1, 2));
@@ -111,6 +122,14 @@ public class StringTest {
         assertTrue("12345".endsWith("45"));
     }
 
+    @Test
+    public void endsWithEdgeCases() {
+        assertTrue("12345".endsWith(""));
+        assertTrue("12345".endsWith("12345"));
+        assertFalse("45".endsWith("345"));
+        assertFalse("12345".endsWith("44"));
+    }
+
     @Test
     public void exposesSupplementaryCodePoint() {
         String str = new String(new char[] { (char) 56178, (char) 56972 });
@@ -166,6 +185,23 @@ public class StringTest {
         assertEquals(7, str.lastIndexOf('c'));
     }
 
+    @Test
+    public void findsCodePointFromIndex() {
+        String str = new String(new char[] { 'a', 'b', (char) 56178, (char) 56972, 'c',
+                (char) 56178, (char) 56972, 'c', 'd' });
+        assertEquals(5, str.indexOf(969356, 3));
+        assertEquals(2, str.indexOf(969356, -5));
+        assertEquals(-1, str.indexOf('c', 20));
+        assertEquals(3, str.indexOf(56972));
+        assertEquals(-1, str.indexOf(-1));
+        assertEquals(-1, str.indexOf(Character.MAX_CODE_POINT + 1));
+        assertEquals(2, str.lastIndexOf(969356, 4));
+        assertEquals(5, str.lastIndexOf(969356, 5));
+        assertEquals(7, str.lastIndexOf('c', 100));
+        assertEquals(-1, str.lastIndexOf('a', -1));
+        assertEquals(-1, str.lastIndexOf(-1));
+    }
+
     @Test
     public void findsString() {
         assertEquals(1, "abcdbcd".indexOf("bc"));
@@ -179,6 +215,19 @@ public class StringTest {
         assertEquals(-1, "abcdbcd".lastIndexOf("bb"));
     }
 
+    @Test
+    public void findsStringFromIndex() {
+        assertEquals(4, "abcdbcd".indexOf("bc", 2));
+        assertEquals(1, "abcdbcd".indexOf("bc", -3));
+        assertEquals(-1, "abcdbcd".indexOf("bc", 10));
+        assertEquals(7, "abcdbcd".indexOf("", 10));
+        assertEquals(1, "abcdbcd".lastIndexOf("bc", 3));
+        assertEquals(4, "abcdbcd".lastIndexOf("bc", 10));
+        assertEquals(-1, "abcdbcd".lastIndexOf("bc", -1));
+        assertEquals(-1, "abcdbcd".lastIndexOf("", -1));
+        assertEquals(7, "abcdbcd".lastIndexOf(""));
+    }
+
     @Test
     public void concatenatesStrings() {
         assertEquals("abcd", "ab".concat("cd"));
@@ -189,11 +238,26 @@ public class StringTest {
         assertEquals("abbdbbd", "abcdbcd".replace('c', 'b'));
     }
 
+    @Test
+    public void replacesMissingCharacter() {
+        String str = "abcd";
+        assertSame(str, str.replace('x', 'y'));
+        assertEquals("a.b.c", "a$b$c".replace('$', '.'));
+    }
+
     @Test
     public void containsWorks() {
         assertTrue("abcd".contains("bc"));
     }
 
+    @Test
+    public void containsSequence() {
+        assertTrue("abcd".contains(""));
+        assertTrue("abcd".contains(new StringBuilder("cd")));
+        assertFalse("abcd".contains("ce"));
+        assertFalse("ab".contains("abc"));
+    }
+
     @Test
     public void sequenceReplaced() {
         assertEquals("ba", "aaa".replace("aa", "b"));
@@ -202,6 +266,14 @@ public class StringTest {
         assertEquals("abc", "abc".replace("bc", "bc"));
     }
 
+    @Test
+    public void sequenceWithSpecialCharactersReplaced() {
+        assertEquals("a$$b$$c", "a$b$c".replace("$", "$$"));
+        assertEquals("x.*x", "a.*a".replace(new StringBuilder("a"), "x"));
+        assertEquals("($&)", "(ab)".replace("ab", "$&"));
+        assertEquals("abc", "abc".replace("xy", "z"));
+    }
+
     @Test
     public void trimWorks() {
         assertEquals("ab", "  ab   ".trim());
@@ -270,6 +342,14 @@ public class StringTest {
         assertEquals('\uDCBB', str.charAt(8191));
     }
 
+    @Test
+    public void createdFromMalformedUTF8ByteArray() {
+        byte[] bytes = { 97, -1, 98, -19, -96, -128, 99 };
+        assertEquals("a\uFFFDb", new String(bytes, 0, 3, StandardCharsets.UTF_8));
+        assertEquals("bc", new String(bytes, 2, 5, StandardCharsets.UTF_8).replace("\uFFFD", ""));
+        assertEquals("\uFEFFA", new String(new byte[] { -17, -69, -65, 65 }, StandardCharsets.UTF_8));
+    }
+
     @Test
     public void getByteArray() throws UnsupportedEncodingException {
         byte[] bytes = "123".getBytes("UTF-8");
@@ -297,6 +377,22 @@ public class StringTest {
         assertEquals(-69, bytes[16383]);
     }
 
+    @Test
+    public void getUTF8ByteArrayWithLoneSurrogates() {
+        assertArrayEquals(new byte[] { 97, 63, 98 }, "a\uD800b".getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(new byte[] { 63, 97 }, "\uDC00a".getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(new byte[0], "".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void hashCodeComputed() {
+        assertEquals(0, "".hashCode());
+        assertEquals(96354, "abc".hashCode());
+        String str = new String(new char[] { 'a', 'b', 'c' });
+        assertEquals(str.hashCode(), str.hashCode());
+        assertEquals(96354, str.hashCode());
+    }
+
     @Test
     public void createsStringFromCodePoints() {
         int[] codePoints = { 97, 98, 969356, 99, 969356, 99, 100 };
@@ -0,0 +1,62 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang.management;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class ManagementFactoryTest {
+    @Test
+    public void garbageCollectorsAvailable() {
+        var beans = ManagementFactory.getGarbageCollectorMXBeans();
+        assertFalse(beans.isEmpty());
+        for (var bean : beans) {
+            assertTrue(bean.getCollectionCount() >= -1);
+            assertTrue(bean.getCollectionTime() >= -1);
+        }
+    }
+
+    @Test
+    public void heapUsageConsistent() {
+        var usage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        assertTrue(usage.getUsed() >= 0);
+        assertTrue(usage.getUsed() <= usage.getCommitted());
+        assertTrue(usage.getMax() < 0 || usage.getCommitted() <= usage.getMax());
+    }
+
+    @Test
+    public void memoryUsageValidated() {
+        try {
+            new MemoryUsage(0, 2, 1, -1);
+            fail("Used memory greater than committed memory should not be accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new MemoryUsage(-2, 0, 0, -1);
+            fail("Negative initial size should not be accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -730,6 +730,104 @@ public class ByteBufferTest {
         assertThat(buffer.get(8), is((byte) 0x23));
     }
 
+    @Test
+    public void directBufferReadsMultiByteValues() {
+        for (var order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+            var direct = ByteBuffer.allocateDirect(40).order(order);
+            var heap = ByteBuffer.allocate(40).order(order);
+            for (var buffer : new ByteBuffer[] { direct, heap }) {
+                buffer.put((byte) 1);
+                buffer.putShort((short) -2);
+                buffer.putChar('\uABCD');
+                buffer.putInt(0x12345678);
+                buffer.putLong(0x0102030405060708L);
+                buffer.putFloat(1.5f);
+                buffer.putDouble(-2.25);
+                buffer.putInt(32, 0xCAFEBABE);
+            }
+            for (int i = 0; i < 40; ++i) {
+                assertEquals(heap.get(i), direct.get(i));
+            }
+            direct.flip();
+            assertEquals(1, direct.get());
+            assertEquals(-2, direct.getShort());
+            assertEquals('\uABCD', direct.getChar());
+            assertEquals(0x12345678, direct.getInt());
+            assertEquals(0x0102030405060708L, direct.getLong());
+            assertEquals(1.5f, direct.getFloat(), 0f);
+            assertEquals(-2.25, direct.getDouble(), 0.0);
+            assertEquals(0x12345678, direct.getInt(5));
+            assertEquals(0x0102030405060708L, direct.getLong(9));
+            try {
+                direct.getInt();
+                fail("Exception expected");
+            } catch (BufferUnderflowException e) {
+                // expected
+            }
+            direct.clear();
+            assertEquals(0xCAFEBABE, direct.getInt(32));
+            try {
+                direct.getLong(33);
+                fail("Exception expected");
+            } catch (IndexOutOfBoundsException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void directBufferViews() {
+        var buffer = ByteBuffer.allocateDirect(32).order(ByteOrder.LITTLE_ENDIAN);
+        var ints = buffer.asIntBuffer();
+        assertThat(ints.isDirect(), is(true));
+        assertThat(ints.order(), is(ByteOrder.LITTLE_ENDIAN));
+        assertThat(ints.capacity(), is(8));
+        ints.put(0x01020304).put(-1);
+        assertEquals(4, buffer.get(0));
+        assertEquals(1, buffer.get(3));
+        assertEquals(-1, buffer.getInt(4));
+
+        buffer.order(ByteOrder.BIG_ENDIAN).position(8);
+        var longs = buffer.asLongBuffer();
+        assertThat(longs.order(), is(ByteOrder.BIG_ENDIAN));
+        longs.put(1, 0x1122334455667788L);
+        assertEquals(0x11, buffer.get(16));
+        assertEquals(0x1122334455667788L, buffer.getLong(16));
+
+        var doubles = buffer.asDoubleBuffer();
+        doubles.put(0, 3.5);
+        assertEquals(3.5, buffer.getDouble(8), 0.0);
+        var floats = buffer.asFloatBuffer();
+        assertEquals(3.5, doubles.get(0), 0.0);
+        floats.put(1, -0.5f);
+        assertEquals(-0.5f, buffer.getFloat(12), 0f);
+        buffer.asShortBuffer().put(0, (short) 0x7FFE);
+        assertEquals(0x7F, buffer.get(8));
+        buffer.asCharBuffer().put(1, 'x');
+        assertEquals('x', buffer.getChar(10));
+
+        var readOnly = buffer.asReadOnlyBuffer().asIntBuffer();
+        assertThat(readOnly.isReadOnly(), is(true));
+        try {
+            readOnly.put(0, 1);
+            fail("Exception expected");
+        } catch (ReadOnlyBufferException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void directBufferSliceSharesMemory() {
+        var buffer = ByteBuffer.allocateDirect(16);
+        buffer.position(3);
+        var slice = buffer.slice();
+        assertThat(slice.isDirect(), is(true));
+        assertThat(slice.capacity(), is(13));
+        slice.putInt(1, 0x0A0B0C0D);
+        assertEquals(0x0A0B0C0D, buffer.getInt(4));
+        assertEquals(0x0A, buffer.duplicate().get(4));
+    }
+
     @Test
     public void putGetEmptyArray() {
         ByteBuffer bb = ByteBuffer.allocate(0);
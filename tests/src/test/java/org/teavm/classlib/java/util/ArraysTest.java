@@ -15,13 +15,17 @@
  */
 package org.teavm.classlib.java.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.stream.Collectors;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -73,6 +77,123 @@ public class ArraysTest {
                 Arrays.equals(fSpecials2, fSorted));
     }
 
+    @Test
+    public void largeArraySorted() {
+        var random = new Random(23);
+        for (int size : new int[] { 10, 47, 100, 1000, 5000 }) {
+            int[] ints = new int[size];
+            long[] longs = new long[size];
+            short[] shorts = new short[size];
+            char[] chars = new char[size];
+            byte[] bytes = new byte[size];
+            double[] doubles = new double[size];
+            Integer[] objects = new Integer[size];
+            for (int i = 0; i < size; ++i) {
+                ints[i] = i / 3;
+            }
+            shuffle(ints, random);
+            for (int i = 0; i < size; ++i) {
+                longs[i] = ints[i] * 1000000000L;
+                shorts[i] = (short) ints[i];
+                chars[i] = (char) ints[i];
+                bytes[i] = (byte) (ints[i] % 100);
+                doubles[i] = ints[i] / 2.0;
+                objects[i] = ints[i];
+            }
+
+            Arrays.sort(ints);
+            Arrays.sort(longs);
+            Arrays.sort(shorts);
+            Arrays.sort(chars);
+            Arrays.sort(bytes);
+            Arrays.sort(doubles);
+            Arrays.sort(objects);
+            for (int i = 0; i < size; ++i) {
+                assertEquals(i / 3, ints[i]);
+                assertEquals(i / 3 * 1000000000L, longs[i]);
+                assertEquals(i / 3, shorts[i]);
+                assertEquals(i / 3, chars[i]);
+                assertEquals(i / 3 / 2.0, doubles[i], 0);
+                assertEquals(Integer.valueOf(i / 3), objects[i]);
+            }
+            for (int i = 1; i < size; ++i) {
+                assertTrue(bytes[i - 1] <= bytes[i]);
+            }
+        }
+    }
+
+    @Test
+    public void presortedArraySorted() {
+        int[] ascending = new int[1000];
+        int[] descending = new int[1000];
+        Integer[] objects = new Integer[1000];
+        for (int i = 0; i < 1000; ++i) {
+            ascending[i] = i;
+            descending[i] = 999 - i;
+            objects[i] = 999 - i;
+        }
+        Arrays.sort(ascending);
+        Arrays.sort(descending);
+        Arrays.sort(objects);
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(i, ascending[i]);
+            assertEquals(i, descending[i]);
+            assertEquals(Integer.valueOf(i), objects[i]);
+        }
+    }
+
+    @Test
+    public void rangeSorted() {
+        int[] ints = { 9, 8, 7, 6, 5, 4, 3, 2, 1, 0 };
+        Arrays.sort(ints, 2, 7);
+        assertArrayEquals(new int[] { 9, 8, 3, 4, 5, 6, 7, 2, 1, 0 }, ints);
+
+        String[] strings = { "e", "d", "c", "b", "a" };
+        Arrays.sort(strings, 1, 4);
+        assertArrayEquals(new String[] { "e", "b", "c", "d", "a" }, strings);
+
+        double[] doubles = { 3, Double.NaN, 0d, -0d, 1, -1 };
+        Arrays.sort(doubles, 1, 5);
+        assertTrue(Arrays.equals(new double[] { 3, -0d, 0d, 1, Double.NaN, -1 }, doubles));
+    }
+
+    @Test
+    public void sortChecksRange() {
+        try {
+            Arrays.sort(new int[5], 3, 2);
+            fail("Exception expected");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        try {
+            Arrays.sort(new int[5], 0, 6);
+            fail("Exception expected");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // ok
+        }
+        try {
+            Arrays.sort(new Object[5], -1, 2);
+            fail("Exception expected");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void objectSortIsStable() {
+        var random = new Random(42);
+        int[][] items = new int[2000][];
+        for (int i = 0; i < items.length; ++i) {
+            items[i] = new int[] { random.nextInt(20), i };
+        }
+        Arrays.sort(items, Comparator.comparingInt(item -> item[0]));
+        for (int i = 1; i < items.length; ++i) {
+            int[] prev = items[i - 1];
+            int[] current = items[i];
+            assertTrue(prev[0] < current[0] || prev[0] == current[0] && prev[1] < current[1]);
+        }
+    }
+
     @Test
     public void binarySearchWorks() {
         Integer[] array = { 2, 4, 6, 8, 10, 12, 14, 16 };
@@ -252,4 +373,13 @@ public class ArraysTest {
         assertEquals(-1, Arrays.mismatch(array, 0, 1, shorter, 0, 1));
         assertEquals(-1, Arrays.mismatch(array, 0, 1, different, 1, 2));
     }
+
+    private static void shuffle(int[] array, Random random) {
+        for (int i = array.length - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
 }
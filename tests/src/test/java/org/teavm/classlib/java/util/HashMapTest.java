@@ -951,6 +951,43 @@ public class HashMapTest {
         }
     }
 
+    @Test
+    public void collidingKeys() {
+        var map = new HashMap<Object, Integer>();
+        for (int i = 0; i < 1000; ++i) {
+            map.put(new CollidingKey(i), i);
+            map.put(new ComparableCollidingKey(i), -i);
+        }
+        map.put(null, 0);
+        assertEquals(2001, map.size());
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(Integer.valueOf(i), map.get(new CollidingKey(i)));
+            assertEquals(Integer.valueOf(-i), map.get(new ComparableCollidingKey(i)));
+        }
+        assertEquals(Integer.valueOf(0), map.get(null));
+        assertNull(map.get(new CollidingKey(1000)));
+
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals(Integer.valueOf(i), map.remove(new CollidingKey(i)));
+        }
+        for (var iter = map.keySet().iterator(); iter.hasNext();) {
+            if (iter.next() instanceof ComparableCollidingKey) {
+                iter.remove();
+            }
+        }
+        assertEquals(501, map.size());
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(i % 2 != 0, map.containsKey(new CollidingKey(i)));
+            assertFalse(map.containsKey(new ComparableCollidingKey(i)));
+        }
+
+        int sum = 0;
+        for (var value : map.values()) {
+            sum += value;
+        }
+        assertEquals(250000, sum);
+    }
+
     @SuppressWarnings("unchecked")
     protected <K, V> HashMap<K, V> hashMapClone(HashMap<K, V> s) {
         return (HashMap<K, V>) s.clone();
@@ -979,4 +1016,33 @@ public class HashMapTest {
             return key == ((ReusableKey) o).key;
         }
     }
+
+    static class CollidingKey {
+        final int value;
+
+        CollidingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value % 3;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o != null && o.getClass() == getClass() && value == ((CollidingKey) o).value;
+        }
+    }
+
+    static class ComparableCollidingKey extends CollidingKey implements Comparable<ComparableCollidingKey> {
+        ComparableCollidingKey(int value) {
+            super(value);
+        }
+
+        @Override
+        public int compareTo(ComparableCollidingKey o) {
+            return Integer.compare(value, o.value);
+        }
+    }
 }
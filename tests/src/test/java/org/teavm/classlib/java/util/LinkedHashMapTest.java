@@ -707,4 +707,22 @@ public class LinkedHashMapTest {
         map.put("a", "6");
         assertArrayEquals(new String[] { "4", "5", "6" }, map.values().toArray(new String[0]));
     }
+
+    @Test
+    public void collidingKeysKeepOrder() {
+        var map = new LinkedHashMap<HashMapTest.CollidingKey, Integer>();
+        for (int i = 0; i < 100; ++i) {
+            map.put(new HashMapTest.CollidingKey(i), i);
+        }
+        for (int i = 0; i < 100; i += 3) {
+            map.remove(new HashMapTest.CollidingKey(i));
+        }
+        int expected = 1;
+        for (var entry : map.entrySet()) {
+            assertEquals(expected, entry.getKey().value);
+            assertEquals(Integer.valueOf(expected), map.get(entry.getKey()));
+            expected += expected % 3 == 1 ? 1 : 2;
+        }
+        assertEquals(100, expected);
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.SkipPlatform;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+@RunWith(TeaVMTestRunner.class)
+@EachTestCompiledSeparately
+@SkipPlatform(TestPlatform.WASI)
+public class CompletableFutureTest {
+    @Test
+    public void runsDependentsOnCompletion() {
+        var future = new CompletableFuture<Integer>();
+        var log = new ArrayList<String>();
+        var result = future.thenApply(x -> x * 2).thenApply(x -> "value: " + x);
+        future.thenAccept(x -> log.add("accepted " + x));
+        future.thenRun(() -> log.add("run"));
+        assertFalse(result.isDone());
+        assertEquals("none", result.getNow("none"));
+
+        assertTrue(future.complete(21));
+        assertFalse(future.complete(22));
+        assertEquals("value: 42", result.join());
+        assertEquals(2, log.size());
+        assertTrue(log.containsAll(List.of("accepted 21", "run")));
+    }
+
+    @Test
+    public void runsAsyncTasks() throws Exception {
+        var future = CompletableFuture.supplyAsync(() -> 2)
+                .thenApplyAsync(x -> x + 3)
+                .thenCompose(x -> CompletableFuture.supplyAsync(() -> x * 4));
+        assertEquals(20, future.get().intValue());
+
+        var log = new ArrayList<String>();
+        CompletableFuture.runAsync(() -> log.add("a")).thenRunAsync(() -> log.add("b")).join();
+        assertEquals(List.of("a", "b"), log);
+    }
+
+    @Test
+    public void propagatesExceptions() throws InterruptedException {
+        var future = CompletableFuture.<Integer>supplyAsync(() -> {
+            throw new IllegalStateException("error");
+        });
+        var dependent = future.thenApply(x -> x + 1);
+        try {
+            dependent.get();
+            fail("Exception expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        try {
+            dependent.join();
+            fail("Exception expected");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertTrue(dependent.isCompletedExceptionally());
+
+        assertEquals(-1, dependent.exceptionally(e -> e instanceof CompletionException
+                && e.getCause() instanceof IllegalStateException ? -1 : -2).join().intValue());
+        assertEquals("error", future.handle((r, e) -> e != null ? "error" : "ok").join());
+        assertEquals(3, dependent.exceptionallyCompose(e -> CompletableFuture.completedFuture(3)).join().intValue());
+    }
+
+    @Test
+    public void whenCompleteKeepsResult() {
+        var log = new ArrayList<String>();
+        var future = CompletableFuture.completedFuture("a").whenComplete((r, e) -> log.add(r));
+        assertEquals("a", future.join());
+
+        var failed = CompletableFuture.completedFuture("b").whenComplete((r, e) -> {
+            throw new IllegalStateException();
+        });
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(List.of("a"), log);
+    }
+
+    @Test
+    public void combinesFutures() {
+        var first = new CompletableFuture<Integer>();
+        var second = new CompletableFuture<Integer>();
+        var sum = first.thenCombine(second, Integer::sum);
+        var either = first.applyToEither(second, x -> x * 10);
+        var all = CompletableFuture.allOf(first, second);
+        var any = CompletableFuture.anyOf(first, second);
+
+        second.complete(5);
+        assertEquals(50, either.join().intValue());
+        assertEquals(5, any.join());
+        assertFalse(sum.isDone());
+        assertFalse(all.isDone());
+
+        first.complete(4);
+        assertEquals(9, sum.join().intValue());
+        assertNull(all.join());
+    }
+
+    @Test
+    public void cancels() {
+        var future = new CompletableFuture<Integer>();
+        var dependent = future.thenApply(x -> x);
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+        try {
+            future.join();
+            fail("Exception expected");
+        } catch (CancellationException e) {
+            // ok
+        }
+        assertTrue(dependent.isCompletedExceptionally());
+        assertFalse(dependent.isCancelled());
+    }
+
+    @Test
+    public void timesOut() throws InterruptedException {
+        var timedOut = new CompletableFuture<Integer>().orTimeout(20, TimeUnit.MILLISECONDS);
+        try {
+            timedOut.get();
+            fail("Exception expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        var defaulted = new CompletableFuture<Integer>().completeOnTimeout(7, 20, TimeUnit.MILLISECONDS);
+        assertEquals(7, defaulted.join().intValue());
+
+        var start = System.currentTimeMillis();
+        var delayed = CompletableFuture.supplyAsync(() -> 1,
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        assertEquals(1, delayed.join().intValue());
+        assertTrue(System.currentTimeMillis() - start >= 50);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.SkipPlatform;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+@RunWith(TeaVMTestRunner.class)
+@EachTestCompiledSeparately
+@SkipPlatform(TestPlatform.WASI)
+public class ExecutorsTest {
+    @Test
+    public void runsSubmittedTasks() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        var log = new ArrayList<Integer>();
+        var futures = new ArrayList<Future<?>>();
+        for (var i = 0; i < 100; ++i) {
+            var index = i;
+            futures.add(executor.submit(() -> log.add(index)));
+        }
+        for (var future : futures) {
+            future.get();
+        }
+        assertEquals(100, log.size());
+        for (var i = 0; i < 100; ++i) {
+            assertEquals(i, log.get(i).intValue());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void reportsResultsAndErrors() throws Exception {
+        var executor = Executors.newFixedThreadPool(2);
+        assertEquals("foo", executor.submit(() -> "foo").get());
+        assertEquals("bar", executor.submit(() -> { }, "bar").get());
+        try {
+            executor.submit(() -> {
+                throw new IllegalStateException("error");
+            }).get();
+            fail("Exception expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void invokesAll() throws Exception {
+        var executor = Executors.newCachedThreadPool();
+        var tasks = new ArrayList<Callable<Integer>>();
+        for (var i = 0; i < 10; ++i) {
+            var value = i;
+            tasks.add(() -> value * value);
+        }
+        var futures = executor.invokeAll(tasks);
+        for (var i = 0; i < 10; ++i) {
+            assertTrue(futures.get(i).isDone());
+            assertEquals(i * i, futures.get(i).get().intValue());
+        }
+        int any = executor.invokeAny(List.of(() -> 0, () -> 1));
+        assertTrue(any == 0 || any == 1);
+        executor.shutdown();
+    }
+
+    @Test
+    public void shutsDown() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        var log = new ArrayList<String>();
+        executor.execute(() -> log.add("a"));
+        executor.shutdown();
+        assertTrue(executor.isShutdown());
+        try {
+            executor.execute(() -> log.add("b"));
+            fail("Exception expected");
+        } catch (RejectedExecutionException e) {
+            // ok
+        }
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+        assertEquals(List.of("a"), log);
+    }
+
+    @Test
+    public void schedulesDelayedTasks() throws Exception {
+        var executor = Executors.newSingleThreadScheduledExecutor();
+        var log = new ArrayList<String>();
+        var start = System.currentTimeMillis();
+        executor.schedule(() -> log.add("b"), 100, TimeUnit.MILLISECONDS);
+        var cancelled = executor.schedule(() -> log.add("c"), 50, TimeUnit.MILLISECONDS);
+        var future = executor.schedule(() -> log.add("a"), 20, TimeUnit.MILLISECONDS);
+        assertTrue(cancelled.cancel(false));
+        future.get();
+        assertTrue(System.currentTimeMillis() - start >= 20);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 100);
+        assertEquals(List.of("a", "b"), log);
+        assertTrue(cancelled.isCancelled());
+    }
+
+    @Test
+    public void schedulesPeriodicTasks() throws Exception {
+        var executor = Executors.newScheduledThreadPool(1);
+        var counter = new int[1];
+        var futures = new ScheduledFuture<?>[1];
+        var lock = new Object();
+        synchronized (lock) {
+            futures[0] = executor.scheduleAtFixedRate(() -> {
+                if (++counter[0] == 3) {
+                    futures[0].cancel(false);
+                    synchronized (lock) {
+                        lock.notifyAll();
+                    }
+                }
+            }, 0, 10, TimeUnit.MILLISECONDS);
+            while (counter[0] < 3) {
+                lock.wait();
+            }
+        }
+        assertTrue(futures[0].isCancelled());
+        assertEquals(3, counter[0]);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(3, counter[0]);
+    }
+
+    @Test
+    public void shutdownNowReturnsPendingTasks() throws InterruptedException {
+        var executor = Executors.newSingleThreadScheduledExecutor();
+        executor.schedule(() -> { }, 1, TimeUnit.DAYS);
+        var pending = executor.shutdownNow();
+        assertEquals(1, pending.size());
+        assertTrue(executor.isShutdown());
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class ForkJoinPoolTest {
+    @Test
+    public void recursiveTaskComputed() {
+        assertEquals(6765, (int) ForkJoinPool.commonPool().invoke(new Fibonacci(20)));
+        assertEquals(55, (int) new Fibonacci(10).invoke());
+    }
+
+    @Test
+    public void recursiveActionComputed() {
+        var array = new int[1000];
+        new Increment(array, 0, array.length).invoke();
+        new ForkJoinPool(4).invoke(new Increment(array, 100, 200));
+        for (int i = 0; i < array.length; ++i) {
+            assertEquals(i >= 100 && i < 200 ? 2 : 1, array[i]);
+        }
+    }
+
+    @Test
+    public void exceptionReported() throws InterruptedException {
+        var task = new RecursiveTask<Integer>() {
+            @Override
+            protected Integer compute() {
+                throw new IllegalStateException("test");
+            }
+        };
+        try {
+            task.invoke();
+            fail("Exception expected");
+        } catch (IllegalStateException e) {
+            assertEquals("test", e.getMessage());
+        }
+        assertTrue(task.isCompletedAbnormally());
+        try {
+            task.get();
+            fail("Exception expected");
+        } catch (ExecutionException e) {
+            assertSame(task.getException(), e.getCause());
+        }
+    }
+
+    static class Fibonacci extends RecursiveTask<Integer> {
+        private final int n;
+
+        Fibonacci(int n) {
+            this.n = n;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (n <= 1) {
+                return n;
+            }
+            var first = new Fibonacci(n - 1);
+            first.fork();
+            var second = new Fibonacci(n - 2);
+            return second.compute() + first.join();
+        }
+    }
+
+    static class Increment extends RecursiveAction {
+        private final int[] array;
+        private final int from;
+        private final int to;
+
+        Increment(int[] array, int from, int to) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 16) {
+                for (int i = from; i < to; ++i) {
+                    array[i]++;
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Increment(array, from, middle), new Increment(array, middle, to));
+            }
+        }
+    }
+}
@@ -33,8 +33,10 @@
 
 package org.teavm.classlib.java.util.regex;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import org.junit.Test;
@@ -146,4 +148,40 @@ public class SplitTest {
         assertTrue(tokens[1].equals(""));
         assertEquals("dle z", tokens[2]);
     }
+
+    @Test
+    public void splitsStringBySingleCharacter() {
+        assertArrayEquals(new String[] { "a", "b", "", "c" }, "a,b,,c,,".split(","));
+        assertArrayEquals(new String[] { "a", "b", "", "c", "", "" }, "a,b,,c,,".split(",", -1));
+        assertArrayEquals(new String[] { "a", "b,,c,," }, "a,b,,c,,".split(",", 2));
+        assertArrayEquals(new String[] { "a,b" }, "a,b".split(",", 1));
+        assertArrayEquals(new String[] { "abc" }, "abc".split(","));
+        assertArrayEquals(new String[] { "" }, "".split(","));
+        assertArrayEquals(new String[0], ",,,".split(","));
+        assertArrayEquals(new String[] { "1", "2", "3" }, "1.2.3".split("\\."));
+        assertArrayEquals(new String[] { "1", "2", "3" }, "1|2|3".split("\\|"));
+        assertArrayEquals(new String[] { "", "", "", "" }, "abc".split(".", -1));
+    }
+
+    @Test
+    public void splitsWithConstantAndDynamicPatterns() {
+        for (int i = 0; i < 3; ++i) {
+            assertArrayEquals(new String[] { "a", "b", "c" }, "a  b\tc".split("\\s+"));
+            assertTrue("abc".matches("[a-c]+"));
+            assertEquals("x#y#", "x1y2".replaceAll("\\d", "#"));
+            assertEquals("x#y2", "x1y2".replaceFirst("\\d", "#"));
+            assertTrue(Pattern.matches("a*b", "aab"));
+            assertTrue(Pattern.compile("a", Pattern.CASE_INSENSITIVE).matcher("A").matches());
+
+            String dynamic = i % 2 == 0 ? "[,;]" : ";";
+            String[] expected = i % 2 == 0 ? new String[] { "a", "b", "c" } : new String[] { "a,b", "c" };
+            assertArrayEquals(expected, "a,b;c".split(dynamic));
+        }
+        try {
+            "a".split("(unclosed");
+            fail("Exception expected");
+        } catch (PatternSyntaxException e) {
+            // ok
+        }
+    }
 }
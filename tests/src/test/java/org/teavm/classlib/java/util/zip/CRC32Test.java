@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.zip;
+
+import static org.junit.Assert.assertEquals;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class CRC32Test {
+    @Test
+    public void computesCheckValue() {
+        var crc = new CRC32();
+        crc.update("123456789".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(0xCBF43926L, crc.getValue());
+    }
+
+    @Test
+    public void emptyInput() {
+        var crc = new CRC32();
+        crc.update(new byte[0]);
+        assertEquals(0L, crc.getValue());
+    }
+
+    @Test
+    public void blockUpdatesMatchByteUpdates() {
+        var data = new byte[1000];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) (i * 31 + (i >> 3));
+        }
+        for (int length = 0; length <= 24; ++length) {
+            for (int offset = 0; offset < 9; ++offset) {
+                var blocks = new CRC32();
+                blocks.update(data, offset, length);
+                var bytes = new CRC32();
+                for (int i = 0; i < length; ++i) {
+                    bytes.update(data[offset + i]);
+                }
+                assertEquals(bytes.getValue(), blocks.getValue());
+            }
+        }
+
+        var whole = new CRC32();
+        whole.update(data);
+        var parts = new CRC32();
+        parts.update(data, 0, 333);
+        parts.update(data, 333, 667);
+        assertEquals(whole.getValue(), parts.getValue());
+        assertEquals(0x64746008L, whole.getValue());
+    }
+
+    @Test
+    public void reset() {
+        var crc = new CRC32();
+        crc.update(1);
+        crc.reset();
+        assertEquals(0L, crc.getValue());
+    }
+}
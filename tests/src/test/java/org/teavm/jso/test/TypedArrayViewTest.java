@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.jso.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.jso.typedarrays.ArrayBuffer;
+import org.teavm.jso.typedarrays.DataView;
+import org.teavm.jso.typedarrays.Float32Array;
+import org.teavm.jso.typedarrays.Float64Array;
+import org.teavm.jso.typedarrays.Int32Array;
+import org.teavm.jso.typedarrays.Int8Array;
+import org.teavm.jso.typedarrays.Uint8Array;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+@RunWith(TeaVMTestRunner.class)
+@SkipJVM
+@OnlyPlatform(TestPlatform.JAVASCRIPT)
+@EachTestCompiledSeparately
+public class TypedArrayViewTest {
+    @Test
+    public void viewSharesMemoryWithArray() {
+        var array = new int[] { 1, 2, 3 };
+        var view = Int32Array.fromJavaArray(array);
+        assertEquals(3, view.getLength());
+
+        view.set(1, 5);
+        assertEquals(5, array[1]);
+        array[0] = 7;
+        assertEquals(7, view.get(0));
+    }
+
+    @Test
+    public void viewsRange() {
+        var array = new float[] { 1, 2, 3, 4, 5, 6 };
+        var view = Float32Array.fromJavaArray(array, 2, 3);
+        assertEquals(3, view.getLength());
+        assertEquals(3f, view.get(0), 0f);
+        assertEquals(5f, view.get(2), 0f);
+
+        view.set(1, 42);
+        assertEquals(42f, array[3], 0f);
+
+        try {
+            Float32Array.fromJavaArray(array, 4, 3);
+            fail("Exception expected");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void reinterpretsArray() {
+        var array = new int[] { Float.floatToIntBits(1.5f), Float.floatToIntBits(-2f) };
+        var view = Float32Array.reinterpret(Int32Array.fromJavaArray(array));
+        assertEquals(2, view.getLength());
+        assertEquals(1.5f, view.get(0), 0f);
+        assertEquals(-2f, view.get(1), 0f);
+
+        view.set(0, 3f);
+        assertEquals(Float.floatToIntBits(3f), array[0]);
+    }
+
+    @Test
+    public void viewsBytesAsUnsigned() {
+        var array = new byte[] { -1, 1 };
+        var view = Uint8Array.fromJavaArray(array);
+        assertEquals(255, view.get(0));
+        assertEquals(1, view.get(1));
+    }
+
+    @Test
+    public void viewsBooleanArray() {
+        var array = new boolean[] { false, true };
+        var view = Int8Array.fromJavaArray(array);
+        assertEquals(0, view.get(0));
+        assertEquals(1, view.get(1));
+
+        view.set(0, (byte) 1);
+        assertTrue(array[0]);
+    }
+
+    @Test
+    public void wrapsTypedArray() {
+        var typedArray = new Float64Array(3);
+        var array = Float64Array.toJavaArray(typedArray);
+        assertEquals(3, array.length);
+
+        array[1] = 2;
+        assertEquals(2, typedArray.get(1), 0);
+    }
+
+    @Test
+    public void wrapsArrayBuffer() {
+        var buffer = new ArrayBuffer(4);
+        var array = Int8Array.toJavaArray(new Int8Array(buffer));
+        new DataView(buffer).setInt32(0, 0x01020304, false);
+        assertArrayEquals(new byte[] { 1, 2, 3, 4 }, array);
+    }
+
+    @Test
+    public void writesThroughDataView() {
+        var array = new byte[6];
+        var view = DataView.reinterpret(Int8Array.fromJavaArray(array, 1, 4));
+        assertEquals(4, view.getByteLength());
+        view.setInt32(0, 0x01020304, false);
+        assertArrayEquals(new byte[] { 0, 1, 2, 3, 4, 0 }, array);
+    }
+}
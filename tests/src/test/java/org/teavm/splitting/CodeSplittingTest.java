@@ -0,0 +1,161 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.splitting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teavm.backend.javascript.JSModuleType;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.browserrunner.BrowserRunDescriptor;
+import org.teavm.browserrunner.BrowserRunner;
+import org.teavm.diagnostics.ProblemSeverity;
+import org.teavm.tooling.ConsoleTeaVMToolLog;
+import org.teavm.tooling.TeaVMProblemRenderer;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+public class CodeSplittingTest {
+    private static File targetFile = new File(new File(System.getProperty("teavm.junit.target")), "js-splitting");
+    private static BrowserRunner runner = new BrowserRunner(
+            targetFile,
+            "JAVASCRIPT",
+            BrowserRunner.pickBrowser(System.getProperty("teavm.junit.js.runner")),
+            false
+    );
+
+    @BeforeClass
+    public static void start() {
+        runner.start();
+    }
+
+    @AfterClass
+    public static void stop() {
+        runner.stop();
+    }
+
+    @Test
+    public void classSharedBySplitPointsGoesToCommonChunk() throws IOException {
+        if (!enabled()) {
+            return;
+        }
+        build("shared", SplitPointsSharingClass.class, JSModuleType.ES2015);
+        assertEquals(Set.of("test.js", "test-first.js", "test-second.js", "test-common.js"), files("shared"));
+        assertTrue(definesSharedComputation(read("shared", "test-common.js")));
+        assertFalse(definesSharedComputation(read("shared", "test-first.js")));
+        assertFalse(definesSharedComputation(read("shared", "test-second.js")));
+        assertFalse(definesSharedComputation(read("shared", "test.js")));
+        run("shared");
+    }
+
+    @Test
+    public void staticFieldWrittenFromChunkIsVisibleInMainModule() throws IOException {
+        if (!enabled()) {
+            return;
+        }
+        build("staticField", StaticFieldWrittenFromChunk.class, JSModuleType.ES2015);
+        assertEquals(Set.of("test.js", "test-update.js"), files("staticField"));
+        run("staticField");
+    }
+
+    @Test
+    public void failedChunkLoadThrowsIllegalStateException() throws IOException {
+        if (!enabled()) {
+            return;
+        }
+        build("missing", MissingChunk.class, JSModuleType.ES2015);
+        var chunkFile = new File(new File(targetFile, "missing"), "test-missing.js");
+        assertTrue(chunkFile.exists());
+        Files.delete(chunkFile.toPath());
+        run("missing");
+    }
+
+    @Test
+    public void otherModuleTypesFallBackToSingleFile() throws IOException {
+        if (!enabled()) {
+            return;
+        }
+        var teavm = build("umd", StaticFieldWrittenFromChunk.class, JSModuleType.UMD);
+        var warnings = teavm.getProblemProvider().getProblems().stream()
+                .filter(p -> p.getSeverity() == ProblemSeverity.WARNING)
+                .map(p -> p.getText())
+                .collect(Collectors.toList());
+        assertEquals(List.of("Code splitting is only supported for ES2015 modules, "
+                + "emitting all code into single file"), warnings);
+        assertEquals(Set.of("test.js"), files("umd"));
+    }
+
+    private static boolean definesSharedComputation(String code) {
+        return Pattern.compile("sharedComputation\\s*=").matcher(code).find();
+    }
+
+    private static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("teavm.junit.js", "true"));
+    }
+
+    private TeaVM build(String name, Class<?> mainClass, JSModuleType moduleType) throws IOException {
+        var jsTarget = new JavaScriptTarget();
+        jsTarget.setModuleType(moduleType);
+        jsTarget.setObfuscated(false);
+        jsTarget.setCodeSplitting(true);
+        var teavm = new TeaVMBuilder(jsTarget).build();
+        var outputDir = new File(targetFile, name);
+        teavm.installPlugins();
+        teavm.setEntryPoint(mainClass.getName());
+        teavm.setOptimizationLevel(TeaVMOptimizationLevel.ADVANCED);
+        if (outputDir.exists()) {
+            for (var file : outputDir.listFiles()) {
+                Files.delete(file.toPath());
+            }
+        }
+        outputDir.mkdirs();
+        teavm.build(outputDir, "test.js");
+        if (!teavm.getProblemProvider().getSevereProblems().isEmpty()) {
+            var log = new ConsoleTeaVMToolLog(false);
+            TeaVMProblemRenderer.describeProblems(teavm, log);
+            throw new RuntimeException("TeaVM compilation error");
+        }
+        return teavm;
+    }
+
+    private Set<String> files(String name) {
+        return Arrays.stream(new File(targetFile, name).listFiles())
+                .map(File::getName)
+                .collect(Collectors.toSet());
+    }
+
+    private String read(String name, String fileName) throws IOException {
+        return Files.readString(new File(new File(targetFile, name), fileName).toPath(), StandardCharsets.UTF_8);
+    }
+
+    private void run(String name) throws IOException {
+        var descriptor = new BrowserRunDescriptor(name, "tests/" + name + "/test.js", true, List.of(), null);
+        runner.runTest(descriptor);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.splitting;
+
+import org.teavm.interop.SplitPoint;
+
+public final class MissingChunk {
+    private MissingChunk() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            load();
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Could not load chunk missing"));
+            return;
+        }
+        throw new AssertionError("Loading chunk which was not deployed should fail");
+    }
+
+    @SplitPoint("missing")
+    static void load() {
+        System.out.println("Chunk loaded");
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.splitting;
+
+import org.teavm.interop.SplitPoint;
+
+public final class SplitPointsSharingClass {
+    private SplitPointsSharingClass() {
+    }
+
+    public static void main(String[] args) {
+        Assert.assertEquals(7, first(3));
+        Assert.assertEquals(10, second(5));
+    }
+
+    @SplitPoint("first")
+    static int first(int value) {
+        return SharedHelper.sharedComputation(value) + 1;
+    }
+
+    @SplitPoint("second")
+    static int second(int value) {
+        return SharedHelper.sharedComputation(value);
+    }
+
+    static class SharedHelper {
+        static int sharedComputation(int value) {
+            return value * 2;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.splitting;
+
+import org.teavm.interop.SplitPoint;
+
+public final class StaticFieldWrittenFromChunk {
+    static int counter;
+    static String message = "initial";
+
+    private StaticFieldWrittenFromChunk() {
+    }
+
+    public static void main(String[] args) {
+        Assert.assertEquals("initial", message);
+        update(23);
+        Assert.assertEquals(23, counter);
+        Assert.assertEquals("updated", message);
+        update(19);
+        Assert.assertEquals(42, counter);
+    }
+
+    @SplitPoint("update")
+    static void update(int delta) {
+        counter += delta;
+        message = "updated";
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.dependency.DependencyAnalyzerFactory;
+import org.teavm.dependency.ParallelDependencyAnalyzer;
+import org.teavm.dependency.PreciseDependencyAnalyzer;
+import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClasspathClassHolderSource;
+
+public class ConcurrentOptimizationTest {
+    @Test
+    public void producesSameOutputAsSerialOptimization() {
+        for (var level : TeaVMOptimizationLevel.values()) {
+            var serial = build(level, 1, PreciseDependencyAnalyzer::new);
+            var concurrent = build(level, 4, PreciseDependencyAnalyzer::new);
+            assertSameOutput(serial, concurrent, level);
+        }
+    }
+
+    @Test
+    public void parallelDependencyAnalysisProducesSameOutput() {
+        var serial = build(TeaVMOptimizationLevel.ADVANCED, 1, PreciseDependencyAnalyzer::new);
+        var parallel = build(TeaVMOptimizationLevel.ADVANCED, 1, ParallelDependencyAnalyzer.factory(4));
+        assertSameOutput(serial, parallel, TeaVMOptimizationLevel.ADVANCED);
+    }
+
+    private void assertSameOutput(Map<String, String> expected, Map<String, String> actual,
+            TeaVMOptimizationLevel level) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (var entry : expected.entrySet()) {
+            assertEquals("Output differs for " + entry.getKey() + " at " + level, entry.getValue(),
+                    actual.get(entry.getKey()));
+        }
+    }
+
+    private Map<String, String> build(TeaVMOptimizationLevel level, int threadCount,
+            DependencyAnalyzerFactory dependencyAnalyzerFactory) {
+        var classLoader = ConcurrentOptimizationTest.class.getClassLoader();
+        var target = new JavaScriptTarget();
+        target.setObfuscated(false);
+        var vm = new TeaVMBuilder(target)
+                .setClassLoader(classLoader)
+                .setClassSource(new ClasspathClassHolderSource(classLoader, new ReferenceCache()))
+                .setDependencyAnalyzerFactory(dependencyAnalyzerFactory)
+                .build();
+        vm.setOptimizationLevel(level);
+        vm.setThreadCount(threadCount);
+        vm.installPlugins();
+        vm.setEntryPoint(ConcurrentOptimizationTestData.class.getName());
+
+        var outputs = new LinkedHashMap<String, ByteArrayOutputStream>();
+        vm.build(fileName -> outputs.computeIfAbsent(fileName, k -> new ByteArrayOutputStream()), "classes.js");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+
+        var result = new LinkedHashMap<String, String>();
+        for (var entry : outputs.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toString(StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public final class ConcurrentOptimizationTestData {
+    private ConcurrentOptimizationTestData() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < 100; ++i) {
+            groups.computeIfAbsent("group" + i % 7, k -> new ArrayList<>()).add(i * i);
+        }
+        var text = groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> e.getKey() + "=" + e.getValue().stream().mapToLong(Integer::longValue).sum())
+                .collect(Collectors.joining(", "));
+        System.out.println(text.toUpperCase());
+    }
+}
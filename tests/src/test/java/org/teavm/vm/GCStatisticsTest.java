@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+import org.teavm.runtime.GCStatistics;
+
+@RunWith(TeaVMTestRunner.class)
+@SkipJVM
+@OnlyPlatform({ TestPlatform.WEBASSEMBLY, TestPlatform.WASI, TestPlatform.C })
+public class GCStatisticsTest {
+    @Test
+    public void pauseHistogramCountsEveryCollection() {
+        System.gc();
+        int collectionsBefore = GCStatistics.getCollectionCount();
+        int fullCollectionsBefore = GCStatistics.getFullCollectionCount();
+        int pausesBefore = totalPauses();
+        for (int i = 0; i < 5; ++i) {
+            System.gc();
+        }
+
+        assertEquals(collectionsBefore + 5, GCStatistics.getCollectionCount());
+        assertEquals(fullCollectionsBefore + 5, GCStatistics.getFullCollectionCount());
+        assertEquals(pausesBefore + 5, totalPauses());
+    }
+
+    @Test
+    public void pauseHistogramCountsYoungCollections() {
+        int youngCollectionsBefore = youngCollectionCount();
+        // GC methods are unmanaged and callers don't store their roots, so young collections
+        // are triggered by allocation rather than requested directly
+        Object[] garbage = null;
+        while (youngCollectionCount() == youngCollectionsBefore) {
+            garbage = new Object[256];
+        }
+
+        assertTrue(garbage != null);
+        assertEquals(GCStatistics.getCollectionCount(), totalPauses());
+    }
+
+    @Test
+    public void pauseHistogramOutOfRange() {
+        assertEquals(0, GCStatistics.getPauseCount(-1));
+        assertEquals(0, GCStatistics.getPauseCount(GCStatistics.PAUSE_HISTOGRAM_SIZE));
+        assertEquals(0, GCStatistics.getPauseCount(Integer.MAX_VALUE));
+    }
+
+    private static int youngCollectionCount() {
+        return GCStatistics.getCollectionCount() - GCStatistics.getFullCollectionCount();
+    }
+
+    private static int totalPauses() {
+        int result = 0;
+        for (int i = 0; i < GCStatistics.PAUSE_HISTOGRAM_SIZE; ++i) {
+            result += GCStatistics.getPauseCount(i);
+        }
+        return result;
+    }
+}
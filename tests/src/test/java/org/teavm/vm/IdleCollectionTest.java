@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+import org.teavm.runtime.EventQueue;
+import org.teavm.runtime.GC;
+import org.teavm.runtime.GCStatistics;
+
+@RunWith(TeaVMTestRunner.class)
+@SkipJVM
+@OnlyPlatform({ TestPlatform.WEBASSEMBLY, TestPlatform.WASI, TestPlatform.C })
+public class IdleCollectionTest {
+    private static final int THRESHOLD = 16 * 1024;
+    private long budget;
+    private int threshold;
+    private int eventId = -1;
+
+    @Before
+    public void saveSettings() {
+        budget = EventQueue.getIdleCollectionBudget();
+        threshold = GC.getIdleCollectionThreshold();
+        GC.setIdleCollectionThreshold(THRESHOLD);
+    }
+
+    @After
+    public void restoreSettings() {
+        if (eventId >= 0) {
+            EventQueue.kill(eventId);
+        }
+        EventQueue.setIdleCollectionBudget(budget);
+        GC.setIdleCollectionThreshold(threshold);
+    }
+
+    @Test
+    public void disabledByDefault() {
+        assertTrue(EventQueue.getIdleCollectionBudget() < 0);
+
+        allocateGarbage();
+        int collections = GCStatistics.getCollectionCount();
+        offerEventIn(60000);
+        assertTrue(EventQueue.processSingle() > 0);
+
+        assertEquals(collections, GCStatistics.getCollectionCount());
+    }
+
+    @Test
+    public void collectsWhenIdle() {
+        EventQueue.setIdleCollectionBudget(10);
+
+        allocateGarbage();
+        int collections = GCStatistics.getCollectionCount();
+        offerEventIn(60000);
+        assertTrue(EventQueue.processSingle() > 0);
+
+        assertEquals(collections + 1, GCStatistics.getCollectionCount());
+    }
+
+    @Test
+    public void skipsWhenEventIsClose() {
+        EventQueue.setIdleCollectionBudget(60000);
+
+        allocateGarbage();
+        int collections = GCStatistics.getCollectionCount();
+        offerEventIn(1000);
+        assertTrue(EventQueue.processSingle() > 0);
+
+        assertEquals(collections, GCStatistics.getCollectionCount());
+    }
+
+    @Test
+    public void skipsWhenLittleAllocated() {
+        EventQueue.setIdleCollectionBudget(10);
+
+        System.gc();
+        int collections = GCStatistics.getCollectionCount();
+        offerEventIn(60000);
+        assertTrue(EventQueue.processSingle() > 0);
+
+        assertEquals(collections, GCStatistics.getCollectionCount());
+    }
+
+    private void offerEventIn(long delay) {
+        eventId = EventQueue.offer(() -> { }, System.currentTimeMillis() + delay);
+    }
+
+    private static void allocateGarbage() {
+        int count = 0;
+        while (GC.getAllocatedSinceLastGC() < THRESHOLD) {
+            count += new byte[1024].length;
+        }
+        assertTrue(count > 0);
+    }
+}
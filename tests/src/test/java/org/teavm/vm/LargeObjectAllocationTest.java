@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+import org.teavm.runtime.GC;
+import org.teavm.runtime.GCStatistics;
+
+@RunWith(TeaVMTestRunner.class)
+@SkipJVM
+@OnlyPlatform({ TestPlatform.WEBASSEMBLY, TestPlatform.WASI, TestPlatform.C })
+public class LargeObjectAllocationTest {
+    private static final int WINDOW = 256;
+    private byte[][] arrays = new byte[WINDOW][];
+    private int[] seeds = new int[WINDOW];
+    private Object[] smallObjects = new Object[WINDOW * 4];
+
+    @Test
+    public void largeObjectsSurviveYoungCollections() {
+        int youngCollections = youngCollectionCount();
+        for (int round = 0; round < 12; ++round) {
+            allocate(round, 1000);
+            verify();
+        }
+        assertTrue(youngCollectionCount() > youngCollections);
+    }
+
+    @Test
+    public void largeObjectsSurviveFullCollections() {
+        int fullCollections = GCStatistics.getFullCollectionCount();
+        for (int round = 0; round < 12; ++round) {
+            allocate(round, 1000);
+            if (round % 3 == 2) {
+                System.gc();
+            }
+            verify();
+        }
+        System.gc();
+        verify();
+        assertTrue(GCStatistics.getFullCollectionCount() >= fullCollections + 5);
+    }
+
+    @Test
+    public void memoryIsReturnedAfterLargeObjectsDie() {
+        System.gc();
+        long occupiedBefore = GC.availableBytes() - GC.getFreeMemory();
+
+        for (int round = 0; round < 20; ++round) {
+            allocate(round, 1000);
+        }
+        verify();
+        arrays = new byte[WINDOW][];
+        smallObjects = new Object[WINDOW * 4];
+        System.gc();
+
+        assertTrue(GC.getFreeMemory() <= GC.availableBytes());
+        long occupiedAfter = GC.availableBytes() - GC.getFreeMemory();
+        assertTrue("Occupied memory grew from " + occupiedBefore + " to " + occupiedAfter,
+                occupiedAfter <= occupiedBefore + 64 * 1024);
+    }
+
+    // Young collections can't be requested directly, since GC methods are unmanaged and callers
+    // don't store their roots before calling them, so tests allocate enough to trigger them.
+    private static int youngCollectionCount() {
+        return GCStatistics.getCollectionCount() - GCStatistics.getFullCollectionCount();
+    }
+
+    // Interleaves small objects that stay alive, short-lived small objects and arrays of 1 KB or more,
+    // so that after a collection free memory is split into many chunks, and large arrays often
+    // don't fit into the current one.
+    private void allocate(int round, int count) {
+        for (int i = 0; i < count; ++i) {
+            int index = (round * count + i) * 7919;
+            smallObjects[Math.floorMod(index, smallObjects.length)] = new int[i % 8 + 1];
+            new Object();
+            if (i % 3 == 0) {
+                int slot = Math.floorMod(index, WINDOW);
+                var array = new byte[1024 + (i % 13) * 317];
+                fill(array, index);
+                arrays[slot] = array;
+                seeds[slot] = index;
+            } else {
+                var garbage = new byte[64 + (i % 5) * 200];
+                garbage[garbage.length - 1] = 1;
+            }
+        }
+    }
+
+    private static void fill(byte[] array, int seed) {
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = (byte) (seed + i * 31);
+        }
+    }
+
+    private void verify() {
+        for (int slot = 0; slot < WINDOW; ++slot) {
+            var array = arrays[slot];
+            if (array == null) {
+                continue;
+            }
+            for (int i = 0; i < array.length; ++i) {
+                if (array[i] != (byte) (seeds[slot] + i * 31)) {
+                    fail("Array " + slot + " corrupted at " + i);
+                }
+            }
+        }
+        for (var object : smallObjects) {
+            if (object != null) {
+                assertTrue(object instanceof int[]);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.TeaVMTestRunner;
+
+/**
+ * Checks that long arithmetic lowered to JavaScript numbers behaves exactly like long arithmetic on JVM,
+ * especially near the bounds of the range where such lowering is applicable.
+ */
+@RunWith(TeaVMTestRunner.class)
+@EachTestCompiledSeparately
+public class LongNarrowingTest {
+    private static final long MAX_SAFE_INTEGER = 9007199254740991L;
+    private static long staticField;
+    private long instanceField;
+
+    @Test
+    public void safeIntegerBounds() {
+        int one = intId(1);
+        long max = MAX_SAFE_INTEGER;
+        assertEquals(9007199254740991L, max * one);
+        assertEquals(9007199254740992L, max + one);
+        assertEquals(9007199254740993L, max + one + one);
+        assertEquals(-9007199254740992L, -max - one);
+        assertEquals(-9007199254740993L, -max - one - one);
+
+        long small = (long) (one & 0xFFFF) * 0x1FFFFFFFFFL;
+        assertEquals(137438953471L, small);
+        assertEquals(-1, (int) small);
+        assertTrue(small < max);
+        assertTrue(-small > -max);
+    }
+
+    @Test
+    public void productsOfIntegersAroundSafeBound() {
+        long x = intId(0x3FFFFFF);
+        long y = intId(0x7FFFFFF);
+        assertTrue(x >= 0 && x < 0x4000000L && y >= 0 && y < 0x8000000L);
+        if (x >= 0 && x < 0x4000000L && y >= 0 && y < 0x8000000L) {
+            long product = x * y;
+            assertEquals(9007199053414401L, product);
+            assertEquals(9007199053414402L, product + 1);
+            assertEquals(-9007199053414401L, -product);
+            assertEquals(-201326591, (int) product);
+            assertEquals(9007199053414401.0, (double) product, 0);
+            assertTrue(product > MAX_SAFE_INTEGER - 0x10000000L);
+        }
+
+        int a = intId(94906265);
+        int b = intId(94906267);
+        assertEquals(9007199326062755L, (long) a * b);
+        assertEquals(9007199326062756L, (long) a * b + 1);
+        assertEquals(-9007199326062755L, (long) a * -b);
+        assertEquals(71321763, (int) ((long) a * b));
+
+        int c = intId(46341);
+        long square = (long) c * c;
+        assertEquals(2147488281L, square);
+        assertEquals(-2147479015, (int) square);
+    }
+
+    @Test
+    public void negativeZero() {
+        long zero = intId(0);
+        long negated = -zero;
+        assertEquals(0, negated);
+        assertEquals(Double.POSITIVE_INFINITY, 1 / (double) negated, 0);
+        assertEquals(Float.POSITIVE_INFINITY, 1 / (float) negated, 0);
+
+        long product = zero * intId(-5);
+        assertEquals(Double.POSITIVE_INFINITY, 1 / (double) product, 0);
+
+        long remainder = (long) intId(-10) % intId(5);
+        assertEquals(0, remainder);
+        assertEquals(Double.POSITIVE_INFINITY, 1 / (double) remainder, 0);
+        assertEquals("0", Long.toString(remainder));
+        assertEquals(0L, Double.doubleToLongBits((double) remainder));
+    }
+
+    @Test
+    public void overflowIntoBigIntRange() {
+        long value = intId(1);
+        for (int i = 0; i < intId(62); ++i) {
+            value *= 2;
+        }
+        assertEquals(4611686018427387904L, value);
+        assertEquals(Long.MIN_VALUE, value * 2);
+
+        int max = intId(Integer.MAX_VALUE);
+        long square = (long) max * max;
+        assertEquals(4611686014132420609L, square);
+        assertEquals(4611686014132420610L, square + 1);
+        assertEquals(1, (int) square);
+
+        long sum = 0;
+        for (int i = 0; i < intId(100); ++i) {
+            sum += MAX_SAFE_INTEGER / 10;
+        }
+        assertEquals(90071992547409900L, sum);
+    }
+
+    @Test
+    public void remainderKeepsSignOfDividend() {
+        int a = intId(-17);
+        int b = intId(5);
+        assertEquals(-2, (long) a % b);
+        assertEquals(2, (long) -a % b);
+        assertEquals(-2, (long) a % -b);
+    }
+
+    @Test
+    public void escapesToFields() {
+        int k = intId(123456789);
+        long value = (long) k * 1000 + 7;
+        staticField = value;
+        instanceField = value + 1;
+        long[] array = new long[] { value + 2 };
+        assertEquals(123456789007L, staticField);
+        assertEquals(123456789008L, instanceField);
+        assertEquals(123456789009L, array[0]);
+        assertEquals(123456789007L, staticField - array[0] + value + 2);
+    }
+
+    @Test
+    public void escapesToCalls() {
+        int k = intId(987654);
+        long value = (long) k * k;
+        assertEquals(975460423716L, longId(value));
+        assertEquals("975460423716", String.valueOf(value));
+        assertEquals(Long.valueOf(975460423716L), Long.valueOf(value));
+        assertEquals(975460423717L, longId(value) + 1);
+    }
+
+    @Test
+    public void escapesToExceptionHandler() {
+        long total = 0;
+        int count = intId(10);
+        try {
+            for (int i = 0; i < count; ++i) {
+                total += i * 1000000000L;
+                if (i == 7) {
+                    throw new IllegalStateException();
+                }
+            }
+        } catch (IllegalStateException e) {
+            assertEquals(28000000000L, total);
+            total = -total;
+        }
+        assertEquals(-28000000000L, total);
+
+        long value = (long) intId(123456) * 1000;
+        long updated = value;
+        try {
+            updated = value + 1;
+            if (updated > 0) {
+                throw new IllegalStateException();
+            }
+            updated = 0;
+        } catch (IllegalStateException e) {
+            assertEquals(123456001L, updated);
+            assertEquals(123456002L, value + 2);
+        }
+        assertEquals(123456001L, updated);
+    }
+
+    /*
+     * Hides constants from the optimizer, otherwise expressions are folded before they reach JavaScript backend
+     */
+    private static int intId(int value) {
+        return Integer.parseInt(Integer.toString(value));
+    }
+
+    private static long longId(long value) {
+        return value;
+    }
+}
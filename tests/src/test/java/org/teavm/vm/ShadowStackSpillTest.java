@@ -0,0 +1,131 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+/**
+ * Calls methods that look like they never get to GC, but do so after being lowered by the backend,
+ * and checks that references that are live across these calls survive collections.
+ */
+@RunWith(TeaVMTestRunner.class)
+@SkipJVM
+@OnlyPlatform({ TestPlatform.WEBASSEMBLY, TestPlatform.WASI, TestPlatform.C })
+public class ShadowStackSpillTest {
+    private static final int SIZE = 1024;
+    private static final int GARBAGE_SIZE = 4096;
+    private static final int GARBAGE_COUNT = 256;
+
+    @Test
+    public void survivesAllocationThroughIntrinsic() {
+        int[] data = createData(1);
+        assertEquals(GARBAGE_SIZE * GARBAGE_COUNT, Leaf.allocateReflectively());
+        checkData(data, 1);
+    }
+
+    @Test
+    public void survivesClassInitializer() {
+        int[] data = createData(2);
+        assertEquals(GARBAGE_SIZE * GARBAGE_COUNT, Leaf.readInitializedField());
+        checkData(data, 2);
+    }
+
+    @Test
+    public void survivesInitializationInsertedIntoCallee() {
+        int[] data = createData(3);
+        assertEquals(GARBAGE_SIZE * GARBAGE_COUNT, InitializedByMethod.value());
+        checkData(data, 3);
+    }
+
+    private static int[] createData(int seed) {
+        int[] data = new int[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            data[i] = i * 31 + seed;
+        }
+        return data;
+    }
+
+    private static void checkData(int[] data, int seed) {
+        for (int i = 0; i < SIZE; ++i) {
+            if (data[i] != i * 31 + seed) {
+                fail("Data corrupted at " + i + ": " + data[i]);
+            }
+        }
+    }
+
+    static int collectAndOverwrite() {
+        System.gc();
+        int result = 0;
+        for (int i = 0; i < GARBAGE_COUNT; ++i) {
+            int[] garbage = new int[GARBAGE_SIZE];
+            Arrays.fill(garbage, -1);
+            result += garbage.length;
+        }
+        return result;
+    }
+
+    // Neither of these methods allocates, initializes a class or calls anything virtual in its body
+    // as written, so that GC may only be reached through what the backend makes out of them
+    static final class Leaf {
+        private Leaf() {
+        }
+
+        static int allocateReflectively() {
+            int result = 0;
+            for (int i = 0; i < GARBAGE_COUNT; ++i) {
+                result += fillReflectively(Array.newInstance(int.class, GARBAGE_SIZE));
+            }
+            return result;
+        }
+
+        private static int fillReflectively(Object array) {
+            int[] typedArray = (int[]) array;
+            Arrays.fill(typedArray, -1);
+            return typedArray.length;
+        }
+
+        static int readInitializedField() {
+            return InitializedByField.value;
+        }
+    }
+
+    static final class InitializedByField {
+        static int value = collectAndOverwrite();
+
+        private InitializedByField() {
+        }
+    }
+
+    static final class InitializedByMethod {
+        private static int value = collectAndOverwrite();
+
+        private InitializedByMethod() {
+        }
+
+        static int value() {
+            return value;
+        }
+    }
+}
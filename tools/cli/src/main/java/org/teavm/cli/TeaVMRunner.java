@@ -87,6 +87,12 @@ public final class TeaVMRunner {
                 .hasArg()
                 .argName("number")
                 .build());
+        options.addOption(Option.builder()
+                .desc("number of threads used to compile methods (1 by default)")
+                .hasArg()
+                .argName("number")
+                .longOpt("threads")
+                .build());
         options.addOption(Option.builder("g")
                 .desc("Generate debug information")
                 .longOpt("debug")
@@ -105,6 +111,16 @@ public final class TeaVMRunner {
                 .desc("Incremental build cache directory")
                 .longOpt("cachedir")
                 .build());
+        options.addOption(Option.builder()
+                .desc("Store incremental build cache in a single pack file")
+                .longOpt("packed-cache")
+                .build());
+        options.addOption(Option.builder()
+                .argName("directory or URL")
+                .hasArg()
+                .desc("Directory or HTTP URL of optimized program cache shared between builds")
+                .longOpt("shared-cache")
+                .build());
         options.addOption(Option.builder("w")
                 .desc("Wait for command after compilation, in order to enable hot recompilation")
                 .longOpt("wait")
@@ -155,6 +171,11 @@ public final class TeaVMRunner {
                 .hasArg()
                 .desc("JavaScript module type (umd, common-js, none, es2015).")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("js-code-splitting")
+                .desc("Emit code reachable through split points into chunks loaded on demand "
+                        + "(requires es2015 module type)")
+                .build());
     }
 
     private TeaVMRunner(CommandLine commandLine) {
@@ -245,6 +266,7 @@ public final class TeaVMRunner {
         tool.setObfuscated(commandLine.hasOption("m"));
         tool.setStrict(commandLine.hasOption("strict"));
         parseJsModuleOption();
+        tool.setJsCodeSplitting(commandLine.hasOption("js-code-splitting"));
 
         if (commandLine.hasOption("max-toplevel-names")) {
             try {
@@ -319,6 +341,14 @@ public final class TeaVMRunner {
                     printUsage();
             }
         }
+        if (commandLine.hasOption("threads")) {
+            try {
+                tool.setThreadCount(Integer.parseInt(commandLine.getOptionValue("threads")));
+            } catch (NumberFormatException e) {
+                System.err.println("'--threads' must be integer number");
+                printUsage();
+            }
+        }
     }
 
     private void parseIncrementalOptions() {
@@ -330,6 +360,12 @@ public final class TeaVMRunner {
         } else {
             tool.setCacheDirectory(new File(tool.getTargetDirectory(), "teavm-cache"));
         }
+        if (commandLine.hasOption("packed-cache")) {
+            tool.setPackedCache(true);
+        }
+        if (commandLine.hasOption("shared-cache")) {
+            tool.setSharedCache(commandLine.getOptionValue("shared-cache"));
+        }
     }
 
     private void parseClassPathOptions() {
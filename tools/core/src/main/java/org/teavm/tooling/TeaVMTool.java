@@ -43,11 +43,18 @@ import org.teavm.backend.wasm.WasmTarget;
 import org.teavm.backend.wasm.render.WasmBinaryVersion;
 import org.teavm.cache.AlwaysStaleCacheStatus;
 import org.teavm.cache.CacheStatus;
+import org.teavm.cache.CacheStorage;
+import org.teavm.cache.ContentAddressedProgramCache;
+import org.teavm.cache.ContentStore;
+import org.teavm.cache.DirectoryContentStore;
+import org.teavm.cache.DirectoryCacheStorage;
 import org.teavm.cache.DiskCachedClassReaderSource;
 import org.teavm.cache.DiskMethodNodeCache;
 import org.teavm.cache.DiskProgramCache;
 import org.teavm.cache.EmptyProgramCache;
 import org.teavm.cache.FileSymbolTable;
+import org.teavm.cache.HttpContentStore;
+import org.teavm.cache.PackFileCacheStorage;
 import org.teavm.debugging.information.DebugInformation;
 import org.teavm.debugging.information.DebugInformationBuilder;
 import org.teavm.debugging.information.SourceMapsWriter;
@@ -79,6 +86,7 @@ public class TeaVMTool {
     private JSModuleType jsModuleType = JSModuleType.UMD;
     private boolean strict;
     private int maxTopLevelNames = 80_000;
+    private boolean jsCodeSplitting;
     private String mainClass;
     private String entryPointName = "main";
     private Properties properties = new Properties();
@@ -87,13 +95,17 @@ public class TeaVMTool {
     private TeaVMSourceFilePolicy sourceFilePolicy = TeaVMSourceFilePolicy.DO_NOTHING;
     private boolean incremental;
     private File cacheDirectory = new File("./teavm-cache");
+    private boolean packedCache;
+    private String sharedCache;
     private List<String> transformers = new ArrayList<>();
     private List<String> classesToPreserve = new ArrayList<>();
     private TeaVMToolLog log = new EmptyTeaVMToolLog();
     private ClassLoader classLoader = TeaVMTool.class.getClassLoader();
+    private CacheStorage cacheStorage;
     private DiskCachedClassReaderSource cachedClassSource;
     private DiskProgramCache programCache;
     private DiskMethodNodeCache astCache;
+    private ContentAddressedProgramCache sharedProgramCache;
     private FileSymbolTable symbolTable;
     private FileSymbolTable fileTable;
     private FileSymbolTable variableTable;
@@ -101,6 +113,7 @@ public class TeaVMTool {
     private TeaVMProgressListener progressListener;
     private TeaVM vm;
     private boolean fastDependencyAnalysis;
+    private int threadCount = 1;
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.SIMPLE;
     private List<SourceFileProvider> sourceFileProviders = new ArrayList<>();
     private DebugInformationBuilder debugEmitter;
@@ -145,6 +158,10 @@ public class TeaVMTool {
         this.maxTopLevelNames = maxTopLevelNames;
     }
 
+    public void setJsCodeSplitting(boolean jsCodeSplitting) {
+        this.jsCodeSplitting = jsCodeSplitting;
+    }
+
     public boolean isIncremental() {
         return incremental;
     }
@@ -181,6 +198,31 @@ public class TeaVMTool {
         this.cacheDirectory = cacheDirectory;
     }
 
+    public boolean isPackedCache() {
+        return packedCache;
+    }
+
+    /**
+     * Specifies whether incremental cache should be stored in a single pack file instead of a file per
+     * class and method.
+     */
+    public void setPackedCache(boolean packedCache) {
+        this.packedCache = packedCache;
+    }
+
+    public String getSharedCache() {
+        return sharedCache;
+    }
+
+    /**
+     * Specifies location of optimized programs cache which can be shared between different builds and machines.
+     * Location is either a directory or an URL of HTTP server that supports GET and PUT requests.
+     * Unlike incremental cache, shared cache works with any optimization level.
+     */
+    public void setSharedCache(String sharedCache) {
+        this.sharedCache = sharedCache;
+    }
+
     public boolean isSourceMapsFileGenerated() {
         return sourceMapsFileGenerated;
     }
@@ -252,6 +294,14 @@ public class TeaVMTool {
         this.fastDependencyAnalysis = fastDependencyAnalysis;
     }
 
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
     public void setMinHeapSize(int minHeapSize) {
         this.minHeapSize = minHeapSize;
     }
@@ -352,6 +402,7 @@ public class TeaVMTool {
                 ? new DebugInformationBuilder(referenceCache) : null;
         javaScriptTarget.setDebugEmitter(debugEmitter);
         javaScriptTarget.setModuleType(jsModuleType);
+        javaScriptTarget.setCodeSplitting(jsCodeSplitting);
 
         return javaScriptTarget;
     }
@@ -404,18 +455,21 @@ public class TeaVMTool {
             vmBuilder.setReferenceCache(referenceCache);
             if (incremental) {
                 cacheDirectory.mkdirs();
-                symbolTable = new FileSymbolTable(new File(cacheDirectory, "symbols"));
-                fileTable = new FileSymbolTable(new File(cacheDirectory, "files"));
-                variableTable = new FileSymbolTable(new File(cacheDirectory, "variables"));
+                cacheStorage = packedCache
+                        ? new PackFileCacheStorage(new File(cacheDirectory, "cache.teavm-pack"))
+                        : new DirectoryCacheStorage(cacheDirectory);
+                symbolTable = new FileSymbolTable(cacheStorage, "symbols");
+                fileTable = new FileSymbolTable(cacheStorage, "files");
+                variableTable = new FileSymbolTable(cacheStorage, "variables");
                 ClasspathClassHolderSource innerClassSource = new ClasspathClassHolderSource(classLoader,
                         referenceCache);
                 ClassHolderSource classSource = new PreOptimizingClassHolderSource(innerClassSource);
-                cachedClassSource = new DiskCachedClassReaderSource(cacheDirectory, referenceCache, symbolTable,
+                cachedClassSource = new DiskCachedClassReaderSource(cacheStorage, referenceCache, symbolTable,
                         fileTable, variableTable, classSource, innerClassSource);
-                programCache = new DiskProgramCache(cacheDirectory, referenceCache, symbolTable, fileTable,
+                programCache = new DiskProgramCache(cacheStorage, referenceCache, symbolTable, fileTable,
                         variableTable);
                 if (targetType == TeaVMTargetType.JAVASCRIPT) {
-                    astCache = new DiskMethodNodeCache(cacheDirectory, referenceCache, symbolTable, fileTable,
+                    astCache = new DiskMethodNodeCache(cacheStorage, referenceCache, symbolTable, fileTable,
                             variableTable);
                     javaScriptTarget.setAstCache(astCache);
                 }
@@ -455,6 +509,13 @@ public class TeaVMTool {
             vm.setOptimizationLevel(!fastDependencyAnalysis && !incremental
                     ? optimizationLevel
                     : TeaVMOptimizationLevel.SIMPLE);
+            sharedProgramCache = null;
+            if (sharedCache != null && !sharedCache.isEmpty()) {
+                sharedProgramCache = new ContentAddressedProgramCache(createContentStore(), referenceCache,
+                        getSharedCacheOptions(vm.getOptimizationLevel()));
+                vm.setSharedProgramCache(sharedProgramCache);
+            }
+            vm.setThreadCount(threadCount);
             if (incremental) {
                 vm.addVirtualMethods(m -> true);
             }
@@ -513,8 +574,18 @@ public class TeaVMTool {
                 symbolTable.flush();
                 fileTable.flush();
                 variableTable.flush();
+                cacheStorage.flush();
                 log.info("Cache updated");
             }
+            if (sharedProgramCache != null) {
+                try {
+                    sharedProgramCache.flush();
+                } catch (IOException e) {
+                    log.warning("Could not update shared cache", e);
+                }
+                log.info("Shared cache hits: " + sharedProgramCache.getHitCount() + ", misses: "
+                        + sharedProgramCache.getMissCount());
+            }
 
             printStats();
         } catch (IOException e) {
@@ -603,6 +674,31 @@ public class TeaVMTool {
         }
     }
 
+    private ContentStore createContentStore() {
+        if (sharedCache.startsWith("http://") || sharedCache.startsWith("https://")) {
+            return new HttpContentStore(sharedCache);
+        }
+        return new DirectoryContentStore(new File(sharedCache));
+    }
+
+    private String getSharedCacheOptions(TeaVMOptimizationLevel effectiveOptimizationLevel) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("version=").append(TeaVMTool.class.getPackage().getImplementationVersion());
+        sb.append(";target=").append(targetType);
+        sb.append(";optimization=").append(effectiveOptimizationLevel);
+        sb.append(";strict=").append(strict);
+        sb.append(";obfuscated=").append(obfuscated);
+        sb.append(";debug=").append(debugInformationGenerated);
+        sb.append(";wasmVersion=").append(wasmVersion);
+        sb.append(";wasmExceptions=").append(wasmExceptionsUsed);
+        sb.append(";heap=").append(minHeapSize).append('-').append(maxHeapSize);
+        sb.append(";assertionsRemoved=").append(assertionsRemoved);
+        sb.append(";transformers=").append(transformers);
+        properties.stringPropertyNames().stream().sorted().forEach(name -> sb.append(';').append(name)
+                .append('=').append(properties.getProperty(name)));
+        return sb.toString();
+    }
+
     private void printStats() {
         if (vm == null || vm.getWrittenClasses() == null) {
             return;
@@ -65,6 +65,8 @@ public interface BuildStrategy {
 
     void setMaxTopLevelNames(int maxTopLevelNames);
 
+    void setJsCodeSplitting(boolean jsCodeSplitting);
+
     void setProperties(Properties properties);
 
     void setTransformers(String[] transformers);
@@ -73,12 +75,18 @@ public interface BuildStrategy {
 
     void setFastDependencyAnalysis(boolean value);
 
+    void setThreadCount(int threadCount);
+
     void setTargetFileName(String targetFileName);
 
     void setClassesToPreserve(String[] classesToPreserve);
 
     void setCacheDirectory(String cacheDirectory);
 
+    void setPackedCache(boolean packedCache);
+
+    void setSharedCache(String sharedCache);
+
     void setWasmVersion(WasmBinaryVersion wasmVersion);
 
     void setWasmExceptionsUsed(boolean wasmExceptionsUsed);
@@ -49,12 +49,16 @@ public class InProcessBuildStrategy implements BuildStrategy {
     private String targetFileName = "";
     private boolean incremental;
     private String cacheDirectory;
+    private boolean packedCache;
+    private String sharedCache;
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.ADVANCED;
     private boolean fastDependencyAnalysis;
+    private int threadCount = 1;
     private boolean obfuscated;
     private JSModuleType jsModuleType;
     private boolean strict;
     private int maxTopLevelNames = 80_000;
+    private boolean jsCodeSplitting;
     private boolean sourceMapsFileGenerated;
     private boolean debugInformationGenerated;
     private TeaVMSourceFilePolicy sourceMapsSourcePolicy;
@@ -179,6 +183,11 @@ public class InProcessBuildStrategy implements BuildStrategy {
         this.maxTopLevelNames = maxTopLevelNames;
     }
 
+    @Override
+    public void setJsCodeSplitting(boolean jsCodeSplitting) {
+        this.jsCodeSplitting = jsCodeSplitting;
+    }
+
     @Override
     public void setTransformers(String[] transformers) {
         this.transformers = transformers.clone();
@@ -194,6 +203,11 @@ public class InProcessBuildStrategy implements BuildStrategy {
         this.fastDependencyAnalysis = fastDependencyAnalysis;
     }
 
+    @Override
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
     @Override
     public void setTargetFileName(String targetFileName) {
         this.targetFileName = targetFileName;
@@ -209,6 +223,16 @@ public class InProcessBuildStrategy implements BuildStrategy {
         this.cacheDirectory = cacheDirectory;
     }
 
+    @Override
+    public void setPackedCache(boolean packedCache) {
+        this.packedCache = packedCache;
+    }
+
+    @Override
+    public void setSharedCache(String sharedCache) {
+        this.sharedCache = sharedCache;
+    }
+
     @Override
     public void setWasmVersion(WasmBinaryVersion wasmVersion) {
         this.wasmVersion = wasmVersion;
@@ -258,6 +282,7 @@ public class InProcessBuildStrategy implements BuildStrategy {
         tool.setClassLoader(classLoader);
         tool.setOptimizationLevel(optimizationLevel);
         tool.setFastDependencyAnalysis(fastDependencyAnalysis);
+        tool.setThreadCount(threadCount);
 
         tool.setSourceMapsFileGenerated(sourceMapsFileGenerated);
         tool.setDebugInformationGenerated(debugInformationGenerated);
@@ -267,10 +292,13 @@ public class InProcessBuildStrategy implements BuildStrategy {
         tool.setJsModuleType(jsModuleType);
         tool.setStrict(strict);
         tool.setMaxTopLevelNames(maxTopLevelNames);
+        tool.setJsCodeSplitting(jsCodeSplitting);
         tool.setIncremental(incremental);
         tool.getTransformers().addAll(Arrays.asList(transformers));
         tool.getClassesToPreserve().addAll(Arrays.asList(classesToPreserve));
         tool.setCacheDirectory(cacheDirectory != null ? new File(cacheDirectory) : null);
+        tool.setPackedCache(packedCache);
+        tool.setSharedCache(sharedCache);
         tool.setWasmVersion(wasmVersion);
         tool.setWasmExceptionsUsed(wasmExceptionsUsed);
         tool.setMinHeapSize(minHeapSize);
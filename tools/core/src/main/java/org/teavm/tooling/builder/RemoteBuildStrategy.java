@@ -152,6 +152,11 @@ public class RemoteBuildStrategy implements BuildStrategy {
         request.maxTopLevelNames = maxTopLevelNames;
     }
 
+    @Override
+    public void setJsCodeSplitting(boolean jsCodeSplitting) {
+        request.jsCodeSplitting = jsCodeSplitting;
+    }
+
     @Override
     public void setTransformers(String[] transformers) {
         request.transformers = transformers.clone();
@@ -167,6 +172,11 @@ public class RemoteBuildStrategy implements BuildStrategy {
         request.fastDependencyAnalysis = value;
     }
 
+    @Override
+    public void setThreadCount(int threadCount) {
+        request.threadCount = threadCount;
+    }
+
     @Override
     public void setTargetFileName(String targetFileName) {
         request.tagetFileName = targetFileName;
@@ -182,6 +192,16 @@ public class RemoteBuildStrategy implements BuildStrategy {
         request.cacheDirectory = cacheDirectory;
     }
 
+    @Override
+    public void setPackedCache(boolean packedCache) {
+        request.packedCache = packedCache;
+    }
+
+    @Override
+    public void setSharedCache(String sharedCache) {
+        request.sharedCache = sharedCache;
+    }
+
     @Override
     public void setWasmVersion(WasmBinaryVersion wasmVersion) {
         request.wasmVersion = wasmVersion;
@@ -130,7 +130,9 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
             tool.setCacheDirectory(request.cacheDirectory != null
                     ? new File(request.cacheDirectory)
                     : incrementalCache);
+            tool.setPackedCache(request.packedCache);
         }
+        tool.setSharedCache(request.sharedCache);
         tool.setProgressListener(createProgressListener(callback));
         tool.setLog(new RemoteBuildLog(callback));
         if (request.transformers != null) {
@@ -157,8 +159,10 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
 
         tool.setOptimizationLevel(request.optimizationLevel);
         tool.setFastDependencyAnalysis(request.fastDependencyAnalysis);
+        tool.setThreadCount(request.threadCount);
         tool.setObfuscated(request.obfuscated);
         tool.setJsModuleType(request.jsModuleType);
+        tool.setJsCodeSplitting(request.jsCodeSplitting);
         tool.setStrict(request.strict);
         tool.setWasmVersion(request.wasmVersion);
         tool.setWasmExceptionsUsed(request.wasmExceptionsUsed);
@@ -41,13 +41,17 @@ public class RemoteBuildRequest implements Serializable {
     public String sourceFilePolicy = TeaVMSourceFilePolicy.DO_NOTHING.name();
     public boolean incremental;
     public String cacheDirectory;
+    public boolean packedCache;
+    public String sharedCache;
     public boolean obfuscated;
     public boolean strict;
     public JSModuleType jsModuleType;
     public int maxTopLevelNames = 80_000;
+    public boolean jsCodeSplitting;
     public Properties properties;
     public TeaVMOptimizationLevel optimizationLevel;
     public boolean fastDependencyAnalysis;
+    public int threadCount = 1;
     public WasmBinaryVersion wasmVersion;
     public boolean wasmExceptionsUsed;
     public int minHeapSize;
@@ -36,6 +36,9 @@ dependencies {
     implementation(libs.httpclient)
     implementation(libs.commons.io)
 
+    testImplementation(libs.junit)
+    testImplementation(project(":classlib"))
+
     "js"(project(":tools:deobfuscator-js", "js"))
 }
 
@@ -37,11 +37,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.zip.ZipEntry;
@@ -133,6 +135,9 @@ public class CodeServlet extends HttpServlet {
     private InMemoryProgramCache programCache;
     private InMemoryMethodNodeCache astCache;
     private int lastReachedClasses;
+    private boolean lastBuildSucceeded;
+    private Set<String> classesLoadedByLastBuild = new HashSet<>();
+    private Set<String> classesLoadedByCurrentBuild;
     private boolean firstTime = true;
 
     private final Object contentLock = new Object();
@@ -267,6 +272,7 @@ public class CodeServlet extends HttpServlet {
             astCache.invalidate();
             programCache.invalidate();
             classSource.invalidate();
+            lastBuildSucceeded = false;
             symbolTable.invalidate();
             fileSymbolTable.invalidate();
         }
@@ -769,11 +775,12 @@ public class CodeServlet extends HttpServlet {
             initBuilder();
 
             var hasJob = true;
+            var emptyBuildReason = "No files changed, nothing to do";
             while (!stopped) {
                 if (hasJob) {
                     buildOnce();
                 } else {
-                    emptyBuild();
+                    emptyBuild(emptyBuildReason);
                 }
 
                 if (stopped) {
@@ -817,8 +824,14 @@ public class CodeServlet extends HttpServlet {
                             + String.join(", ", staleClasses));
                 }
 
+                if (staleClasses.isEmpty()) {
+                    hasJob = false;
+                    emptyBuildReason = "No files changed, nothing to do";
+                } else {
+                    hasJob = affectsLastBuild(staleClasses);
+                    emptyBuildReason = "Changed classes are not used by the application, nothing to do";
+                }
                 classSource.evict(staleClasses);
-                hasJob = !staleClasses.isEmpty();
             }
             log.info("Build process stopped");
         } catch (Throwable e) {
@@ -828,6 +841,24 @@ public class CodeServlet extends HttpServlet {
         }
     }
 
+    /*
+     * Output of a build depends only on classes it requested from class source or loaded with class loader.
+     * Class source caches every requested class, including missing ones, until the class is evicted,
+     * so if none of the changed classes is known to class source or class loader of the last build,
+     * rebuilding would produce exactly the same result.
+     */
+    private boolean affectsLastBuild(List<String> changedClasses) {
+        if (!lastBuildSucceeded) {
+            return true;
+        }
+        for (String className : changedClasses) {
+            if (classSource.isCached(className) || classesLoadedByLastBuild.contains(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void initBuilder() throws IOException {
         watcher = new FileSystemWatcher(classPath);
 
@@ -916,9 +947,9 @@ public class CodeServlet extends HttpServlet {
         postBuild(vm, startTime);
     }
 
-    private void emptyBuild() {
+    private void emptyBuild(String reason) {
         fireBuildStarted();
-        log.info("No files changed, nothing to do");
+        log.info(reason);
         fireBuildCompleteWithResult(null);
     }
 
@@ -986,6 +1017,8 @@ public class CodeServlet extends HttpServlet {
             log.info("Recompiled stale methods: " + programCache.getPendingItemsCount());
             if (vm.getProblemProvider().getSevereProblems().isEmpty()) {
                 log.info("Build complete successfully");
+                lastBuildSucceeded = true;
+                classesLoadedByLastBuild = new HashSet<>(classesLoadedByCurrentBuild);
                 saveNewResult();
                 lastReachedClasses = vm.getDependencyInfo().getReachableClasses().size();
                 classSource.commit();
@@ -994,6 +1027,7 @@ public class CodeServlet extends HttpServlet {
                 reportCompilationComplete(true);
             } else {
                 log.info("Build complete with errors");
+                lastBuildSucceeded = false;
                 reportCompilationComplete(false);
             }
             printStats(vm, startTime);
@@ -1003,6 +1037,7 @@ public class CodeServlet extends HttpServlet {
             fireBuildComplete(vm);
         } else {
             log.info("Build cancelled");
+            lastBuildSucceeded = false;
             fireBuildCancelled();
         }
 
@@ -1073,7 +1108,31 @@ public class CodeServlet extends HttpServlet {
         } catch (MalformedURLException e) {
             throw new RuntimeException(e);
         }
-        return new URLClassLoader(urls, CodeServlet.class.getClassLoader());
+        classesLoadedByCurrentBuild = ConcurrentHashMap.newKeySet();
+        return new TrackingClassLoader(urls, CodeServlet.class.getClassLoader(), classesLoadedByCurrentBuild);
+    }
+
+    static class TrackingClassLoader extends URLClassLoader {
+        private final Set<String> loadedClasses;
+
+        TrackingClassLoader(URL[] urls, ClassLoader parent, Set<String> loadedClasses) {
+            super(urls, parent);
+            this.loadedClasses = loadedClasses;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            loadedClasses.add(name);
+            return super.findClass(name);
+        }
+
+        @Override
+        public URL findResource(String name) {
+            if (name.endsWith(".class")) {
+                loadedClasses.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+            }
+            return super.findResource(name);
+        }
     }
 
     private void reportProgress(double progress) {
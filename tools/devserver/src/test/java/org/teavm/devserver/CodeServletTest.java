@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2024 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.devserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.tools.ToolProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.teavm.tooling.builder.BuildResult;
+
+public class CodeServletTest {
+    private static final Object EMPTY_BUILD = new Object();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File classesDir;
+    private CodeServlet servlet;
+    private BlockingQueue<Object> builds = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() throws Exception {
+        classesDir = folder.newFolder("classes");
+        compile(
+                "app/Main.java", "package app; public class Main { public static void main(String[] args) { "
+                        + "System.out.println(Used.message()); } }",
+                "app/Used.java", "package app; public class Used { static String message() { return \"used\"; } }",
+                "app/Unused.java", "package app; public class Unused { static String message() { "
+                        + "return \"unused\"; } }"
+        );
+
+        servlet = new CodeServlet("app.Main", new String[] { classesDir.getAbsolutePath() });
+        servlet.setLogBuildErrors(false);
+        servlet.addListener(new DevServerListener() {
+            @Override
+            public void compilationStarted() {
+            }
+
+            @Override
+            public void compilationProgress(double progress) {
+            }
+
+            @Override
+            public void compilationComplete(BuildResult result) {
+                builds.add(result != null ? result : EMPTY_BUILD);
+            }
+
+            @Override
+            public void compilationCancelled() {
+            }
+        });
+        servlet.init();
+
+        var result = nextBuild();
+        assertTrue("Initial build expected", result instanceof BuildResult);
+        assertTrue(((BuildResult) result).getProblems().getSevereProblems().isEmpty());
+    }
+
+    @After
+    public void tearDown() {
+        servlet.destroy();
+    }
+
+    @Test
+    public void skipsRebuildWhenChangedClassIsNotUsed() throws Exception {
+        touch("app/Unused.class");
+        assertEquals(EMPTY_BUILD, nextBuild());
+    }
+
+    @Test
+    public void rebuildsWhenChangedClassIsUsed() throws Exception {
+        touch("app/Used.class");
+        var result = nextBuild();
+        assertTrue("Rebuild expected", result instanceof BuildResult);
+    }
+
+    @Test
+    public void rebuildsWhenUnusedClassBecomesUsed() throws Exception {
+        touch("app/Unused.class");
+        assertEquals(EMPTY_BUILD, nextBuild());
+
+        compile("app/Main.java", "package app; public class Main { public static void main(String[] args) { "
+                + "System.out.println(Unused.message()); } }");
+        var result = nextBuild();
+        assertTrue("Rebuild expected", result instanceof BuildResult);
+    }
+
+    private Object nextBuild() throws InterruptedException {
+        var result = builds.poll(60, TimeUnit.SECONDS);
+        assertNotNull("Build did not complete in time", result);
+        return result;
+    }
+
+    private void touch(String path) throws IOException {
+        var file = new File(classesDir, path);
+        Files.write(file.toPath(), Files.readAllBytes(file.toPath()));
+    }
+
+    private void compile(String... pathsAndSources) throws IOException {
+        var sourceDir = folder.newFolder();
+        var args = new String[pathsAndSources.length / 2 + 6];
+        args[0] = "--release";
+        args[1] = "11";
+        args[2] = "-d";
+        args[3] = classesDir.getAbsolutePath();
+        args[4] = "-cp";
+        args[5] = classesDir.getAbsolutePath();
+        for (var i = 0; i < pathsAndSources.length; i += 2) {
+            var file = new File(sourceDir, pathsAndSources[i]);
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), pathsAndSources[i + 1].getBytes(StandardCharsets.UTF_8));
+            args[6 + i / 2] = file.getAbsolutePath();
+        }
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, args));
+    }
+}
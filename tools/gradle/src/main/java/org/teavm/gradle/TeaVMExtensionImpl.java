@@ -65,6 +65,7 @@ class TeaVMExtensionImpl extends TeaVMBaseExtensionImpl implements TeaVMExtensio
         js.getObfuscated().convention(property("js.obfuscated").map(Boolean::parseBoolean).orElse(true));
         js.getSourceMap().convention(property("js.sourceMap").map(Boolean::parseBoolean).orElse(false));
         js.getStrict().convention(property("js.strict").map(Boolean::parseBoolean).orElse(false));
+        js.getCodeSplitting().convention(property("js.codeSplitting").map(Boolean::parseBoolean).orElse(false));
         js.getModuleType().convention(property("js.moduleType").map(JSModuleType::valueOf).orElse(JSModuleType.UMD));
         js.getEntryPointName().convention("main");
         js.getTargetFileName().convention(project.provider(() -> project.getName() + ".js"));
@@ -121,6 +122,7 @@ class TeaVMExtensionImpl extends TeaVMBaseExtensionImpl implements TeaVMExtensio
         all.getDebugInformation().convention(property("debugInformation").map(Boolean::parseBoolean).orElse(false));
         all.getOptimization().convention(OptimizationLevel.BALANCED);
         all.getFastGlobalAnalysis().convention(property("fastGlobalAnalysis").map(Boolean::parseBoolean).orElse(false));
+        all.getThreadCount().convention(property("threadCount").map(Integer::parseInt).orElse(1));
         all.getOutOfProcess().convention(property("outOfProcess").map(Boolean::parseBoolean).orElse(false));
         all.getProcessMemory().convention(property("processMemory").map(Integer::parseInt).orElse(512));
     }
@@ -206,6 +208,7 @@ class TeaVMExtensionImpl extends TeaVMBaseExtensionImpl implements TeaVMExtensio
         target.getDebugInformation().convention(source.getDebugInformation());
         target.getFastGlobalAnalysis().convention(source.getFastGlobalAnalysis());
         target.getOptimization().convention(source.getOptimization());
+        target.getThreadCount().convention(source.getThreadCount());
         target.getProperties().putAll(source.getProperties());
 
         target.getOutOfProcess().convention(source.getOutOfProcess());
@@ -134,6 +134,7 @@ public class TeaVMPlugin implements Plugin<Project> {
             task.getEntryPointName().convention(js.getEntryPointName());
             task.getSourceFilePolicy().convention(js.getSourceFilePolicy());
             task.getMaxTopLevelNames().convention(js.getMaxTopLevelNames());
+            task.getCodeSplitting().convention(js.getCodeSplitting());
 
             setupSources(task.getSourceFiles(), project);
         });
@@ -266,6 +267,7 @@ public class TeaVMPlugin implements Plugin<Project> {
         task.getDebugInformation().convention(configuration.getDebugInformation());
         task.getFastGlobalAnalysis().convention(configuration.getFastGlobalAnalysis());
         task.getOptimization().convention(configuration.getOptimization());
+        task.getThreadCount().convention(configuration.getThreadCount());
         task.getOutOfProcess().convention(configuration.getOutOfProcess());
         task.getProcessMemory().convention(configuration.getProcessMemory());
         task.getProperties().putAll(configuration.getProperties());
@@ -29,6 +29,8 @@ public interface TeaVMCommonConfiguration {
 
     Property<OptimizationLevel> getOptimization();
 
+    Property<Integer> getThreadCount();
+
     MapProperty<String, String> getProperties();
 
     ListProperty<String> getPreservedClasses();
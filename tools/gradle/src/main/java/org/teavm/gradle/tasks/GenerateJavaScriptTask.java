@@ -34,6 +34,7 @@ public abstract class GenerateJavaScriptTask extends TeaVMTask {
         getSourceMap().convention(false);
         getSourceFilePolicy().convention(SourceFilePolicy.DO_NOTHING);
         getEntryPointName().convention("main");
+        getCodeSplitting().convention(false);
     }
 
     @Input
@@ -67,6 +68,10 @@ public abstract class GenerateJavaScriptTask extends TeaVMTask {
     @Optional
     public abstract Property<Integer> getMaxTopLevelNames();
 
+    @Input
+    @Optional
+    public abstract Property<Boolean> getCodeSplitting();
+
     @Override
     protected void setupBuilder(BuildStrategy builder) {
         builder.setTargetType(TeaVMTargetType.JAVASCRIPT);
@@ -75,6 +80,7 @@ public abstract class GenerateJavaScriptTask extends TeaVMTask {
         if (getMaxTopLevelNames().isPresent()) {
             builder.setMaxTopLevelNames(getMaxTopLevelNames().get());
         }
+        builder.setJsCodeSplitting(getCodeSplitting().get());
         switch (getModuleType().get()) {
             case UMD:
                 builder.setJsModuleType(org.teavm.backend.javascript.JSModuleType.UMD);
@@ -56,6 +56,7 @@ public abstract class TeaVMTask extends DefaultTask {
         getTargetFileName().convention("bundle");
         getOptimization().convention(OptimizationLevel.BALANCED);
         getFastGlobalAnalysis().convention(false);
+        getThreadCount().convention(1);
         getOutOfProcess().convention(false);
         getProcessMemory().convention(512);
     }
@@ -79,6 +80,9 @@ public abstract class TeaVMTask extends DefaultTask {
     @Optional
     public abstract Property<Boolean> getFastGlobalAnalysis();
 
+    @Internal
+    public abstract Property<Integer> getThreadCount();
+
     @Input
     @Optional
     public abstract MapProperty<String, String> getProperties();
@@ -148,6 +152,7 @@ public abstract class TeaVMTask extends DefaultTask {
         builder.setTargetFileName(getTargetFileName().get());
         builder.setOptimizationLevel(map(getOptimization().get()));
         builder.setFastDependencyAnalysis(getFastGlobalAnalysis().get());
+        builder.setThreadCount(getThreadCount().get());
         builder.setTargetDirectory(getOutputDir().get().getAbsolutePath());
         builder.setClassesToPreserve(getPreservedClasses().get().toArray(new String[0]));
         if (getProperties().isPresent()) {
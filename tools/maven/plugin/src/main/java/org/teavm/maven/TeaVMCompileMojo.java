@@ -90,6 +90,9 @@ public class TeaVMCompileMojo extends AbstractMojo {
     @Parameter(property = "teavm.maxTopLevelNames", defaultValue = "80000")
     private int maxTopLevelNames = 80_000;
 
+    @Parameter(property = "teavm.jsCodeSplitting", defaultValue = "false")
+    private boolean jsCodeSplitting;
+
     @Parameter
     private Properties properties;
 
@@ -135,12 +138,21 @@ public class TeaVMCompileMojo extends AbstractMojo {
     @Parameter(property = "teavm.fastGlobalAnalysis", defaultValue = "false")
     private boolean fastGlobalAnalysis;
 
+    @Parameter(property = "teavm.threadCount", defaultValue = "1")
+    private int threadCount = 1;
+
     @Parameter(property = "teavm.targetType", defaultValue = "JAVASCRIPT")
     private TeaVMTargetType targetType = TeaVMTargetType.JAVASCRIPT;
 
     @Parameter(defaultValue = "${project.build.directory}/teavm-cache")
     private File cacheDirectory;
 
+    @Parameter(property = "teavm.packedCache", defaultValue = "false")
+    private boolean packedCache;
+
+    @Parameter(property = "teavm.sharedCache")
+    private String sharedCache;
+
     @Parameter(property = "teavm.wasmVersion", defaultValue = "V_0x1")
     private WasmBinaryVersion wasmVersion = WasmBinaryVersion.V_0x1;
 
@@ -176,6 +188,7 @@ public class TeaVMCompileMojo extends AbstractMojo {
             builder.setStrict(strict);
             builder.setJsModuleType(jsModuleType);
             builder.setMaxTopLevelNames(maxTopLevelNames);
+            builder.setJsCodeSplitting(jsCodeSplitting);
             builder.setTargetDirectory(targetDirectory.getAbsolutePath());
             if (transformers != null) {
                 builder.setTransformers(transformers);
@@ -300,10 +313,13 @@ public class TeaVMCompileMojo extends AbstractMojo {
             }
             builder.setOptimizationLevel(optimizationLevel);
             builder.setFastDependencyAnalysis(fastGlobalAnalysis);
+            builder.setThreadCount(threadCount);
             if (classesToPreserve != null) {
                 builder.setClassesToPreserve(classesToPreserve);
             }
             builder.setCacheDirectory(cacheDirectory.getAbsolutePath());
+            builder.setPackedCache(packedCache);
+            builder.setSharedCache(sharedCache);
             builder.setTargetType(targetType);
             builder.setWasmVersion(wasmVersion);
             builder.setWasmExceptionsUsed(wasmExceptionsUsed);